@@ -0,0 +1,45 @@
+package org.motechproject.admin.domain;
+
+import java.util.List;
+
+/**
+ * A sample of the JMS broker statistics, with the statistics of every queue and topic at the given time.
+ */
+public class BrokerStatistics {
+
+    private final long time;
+    private final List<QueueMBean> queues;
+    private final List<TopicMBean> topics;
+
+    /**
+     * @param time the time at which the statistics were sampled, in milliseconds since the epoch
+     * @param queues the statistics of the queues
+     * @param topics the statistics of the topics
+     */
+    public BrokerStatistics(long time, List<QueueMBean> queues, List<TopicMBean> topics) {
+        this.time = time;
+        this.queues = queues;
+        this.topics = topics;
+    }
+
+    /**
+     * @return the time at which the statistics were sampled, in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the statistics of the queues
+     */
+    public List<QueueMBean> getQueues() {
+        return queues;
+    }
+
+    /**
+     * @return the statistics of the topics
+     */
+    public List<TopicMBean> getTopics() {
+        return topics;
+    }
+}
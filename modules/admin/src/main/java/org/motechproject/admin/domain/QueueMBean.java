@@ -12,6 +12,9 @@ public class QueueMBean {
     private long expiredCount;
     private long consumerCount;
     private long queueSize;
+    private double enqueueRate;
+    private double dequeueRate;
+    private long consumerLag;
 
     /**
      * @param destination the name of the queue
@@ -115,4 +118,52 @@ public class QueueMBean {
     public void setQueueSize(long queueSize) {
         this.queueSize = queueSize;
     }
+
+    /**
+     * @return the number of messages sent to the queue per second, between the last two statistics samples
+     */
+    public double getEnqueueRate() {
+        return enqueueRate;
+    }
+
+    /**
+     * @param enqueueRate the number of messages sent to the queue per second, between the last two statistics samples
+     */
+    public void setEnqueueRate(double enqueueRate) {
+        this.enqueueRate = enqueueRate;
+    }
+
+    /**
+     * @return the number of messages removed from the queue per second, between the last two statistics samples
+     */
+    public double getDequeueRate() {
+        return dequeueRate;
+    }
+
+    /**
+     * @param dequeueRate the number of messages removed from the queue per second, between the last two statistics
+     * samples
+     */
+    public void setDequeueRate(double dequeueRate) {
+        this.dequeueRate = dequeueRate;
+    }
+
+    /**
+     * Returns the number of seconds the consumers need to remove the pending messages from the queue, at the current
+     * dequeue rate. It is -1 if there are pending messages, but none were removed between the last two statistics
+     * samples, or there is no previous sample yet.
+     *
+     * @return the number of seconds the consumers are behind the producers, or -1 if it can not be estimated
+     */
+    public long getConsumerLag() {
+        return consumerLag;
+    }
+
+    /**
+     * @param consumerLag the number of seconds the consumers are behind the producers, or -1 if it can not be
+     * estimated
+     */
+    public void setConsumerLag(long consumerLag) {
+        this.consumerLag = consumerLag;
+    }
 }
@@ -11,6 +11,8 @@ public class TopicMBean {
     private long enqueueCount;
     private long dequeueCount;
     private long expiredCount;
+    private double enqueueRate;
+    private double dequeueRate;
 
 
     /**
@@ -88,4 +90,33 @@ public class TopicMBean {
     public void setExpiredCount(long expiredCount) {
         this.expiredCount = expiredCount;
     }
+
+    /**
+     * @return the number of messages sent to the topic per second, between the last two statistics samples
+     */
+    public double getEnqueueRate() {
+        return enqueueRate;
+    }
+
+    /**
+     * @param enqueueRate the number of messages sent to the topic per second, between the last two statistics samples
+     */
+    public void setEnqueueRate(double enqueueRate) {
+        this.enqueueRate = enqueueRate;
+    }
+
+    /**
+     * @return the number of messages removed from the topic per second, between the last two statistics samples
+     */
+    public double getDequeueRate() {
+        return dequeueRate;
+    }
+
+    /**
+     * @param dequeueRate the number of messages removed from the topic per second, between the last two statistics
+     * samples
+     */
+    public void setDequeueRate(double dequeueRate) {
+        this.dequeueRate = dequeueRate;
+    }
 }
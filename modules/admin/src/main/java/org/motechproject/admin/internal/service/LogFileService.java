@@ -0,0 +1,92 @@
+package org.motechproject.admin.internal.service;
+
+import org.motechproject.admin.security.SecurityConstants;
+import org.motechproject.admin.web.dto.LogChunkDto;
+import org.motechproject.admin.web.dto.LogSearchResultDto;
+import org.springframework.security.access.prepost.PreAuthorize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service used by the view layer for reading the server log, the catalina.out file from Tomcat. The log is read
+ * from its end, so large log files are not read as a whole. Positions in the log are byte offsets, which stay valid
+ * while the log grows, so they are used for paging and for following the log.
+ */
+public interface LogFileService {
+
+    /**
+     * Checks whether the server log exists.
+     *
+     * @return true if the log file exists
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    boolean logExists();
+
+    /**
+     * Returns the size of the server log.
+     *
+     * @return the size of the log file in bytes, 0 if it does not exist
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    long getLogSize();
+
+    /**
+     * Reads the last lines of the server log. Only whole lines are returned, unless the last line is longer than
+     * the byte limit.
+     *
+     * @param maxLines the maximum number of lines to read
+     * @param maxBytes the maximum number of bytes to read
+     * @return the last lines of the log
+     * @throws IOException if the log file could not be read
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    LogChunkDto getTail(int maxLines, int maxBytes) throws IOException;
+
+    /**
+     * Reads the lines appended to the server log after the given offset, waiting for them for a while if there
+     * are none yet. If the log is shorter than the offset, it was truncated or replaced, and its last lines are
+     * returned instead.
+     *
+     * @param offset the offset from which the log should be read, usually the end of the previously read part
+     * @param maxBytes the maximum number of bytes to read
+     * @param waitMillis the number of milliseconds to wait for new lines
+     * @return the new lines of the log, possibly none
+     * @throws IOException if the log file could not be read
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    LogChunkDto readFrom(long offset, int maxBytes, long waitMillis) throws IOException, InterruptedException;
+
+    /**
+     * Searches the server log, from the given offset towards its end, for lines containing the given text. The case
+     * of ASCII letters is ignored. A single call scans a bounded part of the log, so it can return fewer lines than
+     * requested before the end of the log is reached.
+     *
+     * @param text the text to search for
+     * @param offset the offset from which the log should be searched
+     * @param maxMatches the maximum number of lines to return
+     * @return the matching lines and the offset from which the search should be continued
+     * @throws IOException if the log file could not be read
+     * @throws IllegalArgumentException if the text is null or empty
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    LogSearchResultDto search(String text, long offset, int maxMatches) throws IOException;
+
+    /**
+     * Copies the whole server log to the given stream.
+     *
+     * @param out the stream to which the log should be copied
+     * @throws IOException if the log file could not be read or the stream could not be written
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    void copyLog(OutputStream out) throws IOException;
+
+    /**
+     * Returns the name of the log file.
+     *
+     * @return the name of the log file
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    String getLogFileName();
+}
@@ -0,0 +1,302 @@
+package org.motechproject.admin.internal.service.impl;
+
+import org.motechproject.admin.internal.service.LogFileService;
+import org.motechproject.admin.web.dto.LogChunkDto;
+import org.motechproject.admin.web.dto.LogLineDto;
+import org.motechproject.admin.web.dto.LogSearchResultDto;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the server log through a {@link FileChannel}, with positional reads of whole blocks. The log is not memory
+ * mapped, since mapped buffers can not be released on demand and would keep the log file locked on some systems.
+ * A single search scans about {@link #MAX_SCAN_BYTES} of the log, so that searching a huge log for a rare text does
+ * not hold a request thread for long; the search is then continued from where it stopped.
+ */
+@Service
+public class LogFileServiceImpl implements LogFileService {
+
+    static final long MAX_SCAN_BYTES = 64L * 1024 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final int BLOCK_SIZE = 8192;
+    private static final int SEARCH_BUFFER_SIZE = 1024 * 1024;
+    private static final long POLL_INTERVAL = 250;
+    private static final byte NEW_LINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final long maxScanBytes;
+
+    public LogFileServiceImpl() {
+        this(MAX_SCAN_BYTES);
+    }
+
+    LogFileServiceImpl(long maxScanBytes) {
+        this.maxScanBytes = maxScanBytes;
+    }
+
+    @Override
+    public boolean logExists() {
+        return getLogFile().isFile();
+    }
+
+    @Override
+    public long getLogSize() {
+        return getLogFile().length();
+    }
+
+    @Override
+    public LogChunkDto getTail(int maxLines, int maxBytes) throws IOException {
+        try (FileChannel channel = open()) {
+            return readTail(channel, maxLines, maxBytes, false);
+        }
+    }
+
+    @Override
+    public LogChunkDto readFrom(long offset, int maxBytes, long waitMillis) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + waitMillis;
+
+        while (true) {
+            try (FileChannel channel = open()) {
+                long size = channel.size();
+
+                if (size < offset || offset < 0) {
+                    // the log was rotated or truncated in the meantime
+                    return readTail(channel, Integer.MAX_VALUE, maxBytes, true);
+                }
+
+                if (size > offset) {
+                    LogChunkDto chunk = readLines(channel, offset, (int) Math.min(maxBytes, size - offset));
+                    if (chunk.getEnd() > offset) {
+                        return chunk;
+                    }
+                }
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                return new LogChunkDto("", offset, offset, false);
+            }
+
+            TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL);
+        }
+    }
+
+    @Override
+    public LogSearchResultDto search(String text, long offset, int maxMatches) throws IOException {
+        if (text == null || text.isEmpty()) {
+            // every line would match
+            throw new IllegalArgumentException("The search text can not be empty");
+        }
+
+        byte[] pattern = toLowerCase(text.getBytes(UTF_8));
+        List<LogLineDto> lines = new ArrayList<>();
+
+        try (FileChannel channel = open()) {
+            long size = channel.size();
+            long position = Math.min(Math.max(0, offset), size);
+            long scanEnd = position + maxScanBytes;
+            ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+
+            // the buffer which reaches the limit is scanned whole, the next search continues after its last line
+            while (position < size && position < scanEnd && lines.size() < maxMatches) {
+                int length = read(channel, buffer, position, (int) Math.min(bytes.length, size - position));
+                if (length == 0) {
+                    // the log was truncated in the meantime
+                    break;
+                }
+                boolean lastBuffer = position + length >= size;
+
+                int lineStart = 0;
+                for (int i = 0; i < length && lines.size() < maxMatches; i++) {
+                    if (bytes[i] == NEW_LINE) {
+                        match(bytes, lineStart, i, pattern, position, lines);
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (lines.size() < maxMatches && lineStart < length && (lastBuffer || lineStart == 0)) {
+                    // the last line of the log, or a line longer than the buffer, which is split
+                    match(bytes, lineStart, length, pattern, position, lines);
+                    lineStart = length;
+                }
+
+                position += lineStart;
+            }
+
+            return new LogSearchResultDto(lines, position, position >= size);
+        }
+    }
+
+    @Override
+    public void copyLog(OutputStream out) throws IOException {
+        try (FileChannel channel = open()) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long size = channel.size();
+            long position = 0;
+
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    @Override
+    public String getLogFileName() {
+        return getLogFile().getName();
+    }
+
+    protected File getLogFile() {
+        return new File(String.format("%s/logs/catalina.out", System.getProperty("catalina.base")));
+    }
+
+    private FileChannel open() throws IOException {
+        try {
+            return FileChannel.open(getLogFile().toPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new IOException("The server log does not exist: " + e.getFile(), e);
+        }
+    }
+
+    /**
+     * Finds the start of the last lines by reading the log backwards, block by block, counting line terminators.
+     */
+    private LogChunkDto readTail(FileChannel channel, int maxLines, int maxBytes, boolean reset) throws IOException {
+        long size = channel.size();
+        long limit = Math.max(0, size - maxBytes);
+        // the byte before the limit tells whether the limit is the start of a line
+        long scanLimit = Math.max(0, limit - 1);
+
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+        byte[] bytes = buffer.array();
+
+        long start = -1;
+        long firstLineStart = -1;
+        int lines = 0;
+        long blockEnd = size;
+
+        while (start < 0 && blockEnd > scanLimit) {
+            long blockStart = Math.max(scanLimit, blockEnd - BLOCK_SIZE);
+            int length = read(channel, buffer, blockStart, (int) (blockEnd - blockStart));
+
+            for (int i = length - 1; i >= 0; i--) {
+                long position = blockStart + i;
+                // a terminator at the very end ends the last line, it does not start a new one
+                if (bytes[i] == NEW_LINE && position < size - 1) {
+                    if (position + 1 >= limit) {
+                        firstLineStart = position + 1;
+                    }
+                    if (++lines >= maxLines) {
+                        start = position + 1;
+                        break;
+                    }
+                }
+            }
+
+            blockEnd = blockStart;
+        }
+
+        if (start < 0) {
+            if (limit == 0) {
+                start = 0;
+            } else if (firstLineStart >= 0) {
+                start = firstLineStart;
+            } else {
+                // a single line longer than the limit
+                start = limit;
+            }
+        }
+
+        return new LogChunkDto(decode(channel, start, (int) (size - start)), start, size, reset);
+    }
+
+    /**
+     * Reads the whole lines within the given part of the log. If there is no line terminator in it, the whole part
+     * is returned, unless it ends at the end of the log, where a line could still be written.
+     */
+    private LogChunkDto readLines(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        int read = read(channel, buffer, offset, length);
+        byte[] bytes = buffer.array();
+
+        int end = read;
+        while (end > 0 && bytes[end - 1] != NEW_LINE) {
+            end--;
+        }
+
+        if (end == 0) {
+            end = offset + read < channel.size() ? read : 0;
+        }
+
+        return new LogChunkDto(new String(bytes, 0, end, UTF_8), offset, offset + end, false);
+    }
+
+    private String decode(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        int read = read(channel, buffer, position, length);
+        return new String(buffer.array(), 0, read, UTF_8);
+    }
+
+    private static int read(FileChannel channel, ByteBuffer buffer, long position, int length) throws IOException {
+        buffer.clear();
+        buffer.limit(length);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        return buffer.position();
+    }
+
+    private static void match(byte[] bytes, int from, int to, byte[] pattern, long position,
+                              List<LogLineDto> lines) {
+        if (contains(bytes, from, to, pattern)) {
+            int end = to > from && bytes[to - 1] == CARRIAGE_RETURN ? to - 1 : to;
+            lines.add(new LogLineDto(position + from, new String(bytes, from, end - from, UTF_8)));
+        }
+    }
+
+    private static boolean contains(byte[] bytes, int from, int to, byte[] pattern) {
+        int last = to - pattern.length;
+
+        for (int i = from; i <= last; i++) {
+            int j = 0;
+            while (j < pattern.length && toLowerCase(bytes[i + j]) == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static byte[] toLowerCase(byte[] bytes) {
+        byte[] lowerCase = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            lowerCase[i] = toLowerCase(bytes[i]);
+        }
+        return lowerCase;
+    }
+
+    private static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+}
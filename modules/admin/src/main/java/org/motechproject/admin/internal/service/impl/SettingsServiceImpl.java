@@ -12,6 +12,7 @@ import org.motechproject.config.core.domain.ConfigSource;
 import org.motechproject.config.service.ConfigurationService;
 import org.motechproject.event.MotechEvent;
 import org.motechproject.event.listener.EventRelay;
+import org.motechproject.event.listener.annotations.MotechListener;
 import org.motechproject.config.domain.MotechSettings;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -142,6 +143,19 @@ public class SettingsServiceImpl implements SettingsService {
         eventRelay.sendEventMessage(bundleSettingsChangedEvent);
     }
 
+    /**
+     * Evicts the cached properties of a bundle after they were changed on any MOTECH instance.
+     *
+     * @param event  the event broadcast by the configuration service, holding the symbolic name of the bundle
+     */
+    @MotechListener(subjects = ConfigurationConstants.BUNDLE_PROPERTIES_CHANGED_EVENT_SUBJECT)
+    public void evictBundleProperties(MotechEvent event) {
+        String bundleSymbolicName = (String) event.getParameters().get(ConfigurationConstants.BUNDLE_SYMBOLIC_NAME);
+        if (bundleSymbolicName != null) {
+            configurationService.evictBundlePropertiesCache(bundleSymbolicName);
+        }
+    }
+
     @Override
     public InputStream exportConfig(String fileName) throws IOException {
         return configurationService.createZipWithConfigFiles(ConfigurationConstants.SETTINGS_FILE_NAME, fileName);
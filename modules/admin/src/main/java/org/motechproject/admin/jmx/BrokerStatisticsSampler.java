@@ -0,0 +1,274 @@
+package org.motechproject.admin.jmx;
+
+import org.motechproject.admin.domain.BrokerStatistics;
+import org.motechproject.admin.domain.QueueMBean;
+import org.motechproject.admin.domain.TopicMBean;
+import org.motechproject.commons.api.MotechException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the statistics of the JMS queues and topics periodically, so that refreshing the statistics in the UI
+ * does not query the broker for every destination. The attributes of a destination are retrieved in a single JMX
+ * call. The rates are computed from the difference between consecutive samples, and the samples from the last
+ * {@link #HISTORY_SIZE} intervals are kept as a time series. The broker is only sampled while the statistics are
+ * being looked at, that is for {@link #IDLE_TIMEOUT} after they were last requested.
+ */
+@Component
+public class BrokerStatisticsSampler {
+
+    public static final long SAMPLE_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    public static final int HISTORY_SIZE = 360;
+    public static final long IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrokerStatisticsSampler.class);
+
+    private static final String ENQUEUE_COUNT = "EnqueueCount";
+    private static final String DEQUEUE_COUNT = "DequeueCount";
+    private static final String EXPIRED_COUNT = "ExpiredCount";
+    private static final String CONSUMER_COUNT = "ConsumerCount";
+    private static final String QUEUE_SIZE = "QueueSize";
+
+    private static final String[] QUEUE_ATTRIBUTES = {ENQUEUE_COUNT, DEQUEUE_COUNT, EXPIRED_COUNT, CONSUMER_COUNT,
+            QUEUE_SIZE};
+    private static final String[] TOPIC_ATTRIBUTES = {ENQUEUE_COUNT, DEQUEUE_COUNT, EXPIRED_COUNT, CONSUMER_COUNT};
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private final MotechMBeanServer mBeanServer;
+    private final Deque<BrokerStatistics> history = new ArrayDeque<>(HISTORY_SIZE);
+
+    private volatile BrokerStatistics latest;
+    private volatile long lastRequest;
+    private Thread samplerThread;
+    private volatile boolean running;
+
+    @Autowired
+    public BrokerStatisticsSampler(MotechMBeanServer mBeanServer) {
+        this.mBeanServer = mBeanServer;
+    }
+
+    /**
+     * Starts the sampler thread.
+     */
+    @PostConstruct
+    public void init() {
+        running = true;
+        samplerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sampleLoop();
+            }
+        }, "motech-admin-broker-statistics");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+    }
+
+    /**
+     * Stops the sampler thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (samplerThread != null) {
+            samplerThread.interrupt();
+            try {
+                samplerThread.join(SAMPLE_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the latest statistics sample. The broker is sampled right away if there is no recent sample, for
+     * example when the statistics were not looked at for a while.
+     *
+     * @return the latest statistics
+     */
+    public BrokerStatistics getStatistics() {
+        lastRequest = System.currentTimeMillis();
+        return refresh();
+    }
+
+    /**
+     * Returns the statistics samples taken after the given time, the oldest first.
+     *
+     * @param since the time in milliseconds since the epoch, the samples taken at that time or before are skipped
+     * @return the statistics samples
+     */
+    public List<BrokerStatistics> getHistory(long since) {
+        lastRequest = System.currentTimeMillis();
+        refresh();
+
+        List<BrokerStatistics> samples = new ArrayList<>();
+        synchronized (history) {
+            for (BrokerStatistics sample : history) {
+                if (sample.getTime() > since) {
+                    samples.add(sample);
+                }
+            }
+        }
+        return samples;
+    }
+
+    private synchronized BrokerStatistics refresh() {
+        BrokerStatistics statistics = latest;
+        // a sample taken by the sampler thread is usually at most one interval old
+        if (statistics == null || System.currentTimeMillis() - statistics.getTime() > 2 * SAMPLE_INTERVAL) {
+            statistics = sample();
+        }
+        return statistics;
+    }
+
+    synchronized BrokerStatistics sample() {
+        long time = System.currentTimeMillis();
+        BrokerStatistics previous = latest;
+
+        try {
+            BrokerStatistics statistics = new BrokerStatistics(time, sampleQueues(previous, time),
+                    sampleTopics(previous, time));
+
+            latest = statistics;
+            synchronized (history) {
+                if (history.size() >= HISTORY_SIZE) {
+                    history.removeFirst();
+                }
+                history.addLast(statistics);
+            }
+
+            return statistics;
+        } catch (IOException ex) {
+            throw new MotechException("Could not access MBeans ", ex);
+        }
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(SAMPLE_INTERVAL);
+
+                if (System.currentTimeMillis() - lastRequest < IDLE_TIMEOUT) {
+                    sample();
+                }
+            } catch (InterruptedException e) {
+                LOGGER.debug("Broker statistics sampler interrupted");
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to sample the broker statistics", e);
+            }
+        }
+    }
+
+    private List<QueueMBean> sampleQueues(BrokerStatistics previous, long time) throws IOException {
+        Map<String, QueueMBean> previousQueues = new HashMap<>();
+        if (previous != null) {
+            for (QueueMBean queue : previous.getQueues()) {
+                previousQueues.put(queue.getDestination(), queue);
+            }
+        }
+
+        List<QueueMBean> queues = new ArrayList<>();
+        for (ObjectName name : mBeanServer.getQueues()) {
+            String destination = name.getKeyProperty(mBeanServer.getDestinationProperty());
+            Map<String, Object> attributes = getAttributes(name, QUEUE_ATTRIBUTES);
+            if (attributes == null) {
+                continue;
+            }
+
+            QueueMBean queue = new QueueMBean(destination);
+            queue.setEnqueueCount(toLong(attributes.get(ENQUEUE_COUNT)));
+            queue.setDequeueCount(toLong(attributes.get(DEQUEUE_COUNT)));
+            queue.setExpiredCount(toLong(attributes.get(EXPIRED_COUNT)));
+            queue.setConsumerCount(toLong(attributes.get(CONSUMER_COUNT)));
+            queue.setQueueSize(toLong(attributes.get(QUEUE_SIZE)));
+
+            QueueMBean previousQueue = previousQueues.get(destination);
+            if (previousQueue != null) {
+                double seconds = (time - previous.getTime()) / MILLIS_PER_SECOND;
+                queue.setEnqueueRate(rate(previousQueue.getEnqueueCount(), queue.getEnqueueCount(), seconds));
+                queue.setDequeueRate(rate(previousQueue.getDequeueCount(), queue.getDequeueCount(), seconds));
+            }
+            queue.setConsumerLag(consumerLag(queue, previousQueue != null));
+
+            queues.add(queue);
+        }
+        return queues;
+    }
+
+    private List<TopicMBean> sampleTopics(BrokerStatistics previous, long time) throws IOException {
+        Map<String, TopicMBean> previousTopics = new HashMap<>();
+        if (previous != null) {
+            for (TopicMBean topic : previous.getTopics()) {
+                previousTopics.put(topic.getDestination(), topic);
+            }
+        }
+
+        List<TopicMBean> topics = new ArrayList<>();
+        for (ObjectName name : mBeanServer.getTopics()) {
+            String destination = name.getKeyProperty(mBeanServer.getDestinationProperty());
+            Map<String, Object> attributes = getAttributes(name, TOPIC_ATTRIBUTES);
+            if (attributes == null) {
+                continue;
+            }
+
+            TopicMBean topic = new TopicMBean(destination);
+            topic.setEnqueueCount(toLong(attributes.get(ENQUEUE_COUNT)));
+            topic.setDequeueCount(toLong(attributes.get(DEQUEUE_COUNT)));
+            topic.setExpiredCount(toLong(attributes.get(EXPIRED_COUNT)));
+            topic.setConsumerCount(toLong(attributes.get(CONSUMER_COUNT)));
+
+            TopicMBean previousTopic = previousTopics.get(destination);
+            if (previousTopic != null) {
+                double seconds = (time - previous.getTime()) / MILLIS_PER_SECOND;
+                topic.setEnqueueRate(rate(previousTopic.getEnqueueCount(), topic.getEnqueueCount(), seconds));
+                topic.setDequeueRate(rate(previousTopic.getDequeueCount(), topic.getDequeueCount(), seconds));
+            }
+
+            topics.add(topic);
+        }
+        return topics;
+    }
+
+    private Map<String, Object> getAttributes(ObjectName name, String[] attributes) throws IOException {
+        try {
+            return mBeanServer.getAttributes(name, attributes);
+        } catch (InstanceNotFoundException e) {
+            LOGGER.debug("The destination {} was removed while sampling", name);
+            return null;
+        }
+    }
+
+    private static double rate(long previousCount, long count, double seconds) {
+        // the counters are reset when the broker is restarted
+        return seconds <= 0 || count < previousCount ? 0 : (count - previousCount) / seconds;
+    }
+
+    private static long consumerLag(QueueMBean queue, boolean hasRate) {
+        if (queue.getQueueSize() == 0) {
+            return 0;
+        } else if (!hasRate || queue.getDequeueRate() <= 0) {
+            return -1;
+        } else {
+            return (long) Math.ceil(queue.getQueueSize() / queue.getDequeueRate());
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+}
@@ -1,7 +1,8 @@
 package org.motechproject.admin.jmx;
 
 import org.apache.activemq.broker.jmx.QueueViewMBean;
-import org.apache.activemq.broker.jmx.TopicViewMBean;
+import org.apache.commons.lang.StringUtils;
+import org.motechproject.admin.domain.BrokerStatistics;
 import org.motechproject.admin.domain.QueueMBean;
 import org.motechproject.admin.domain.QueueMessage;
 import org.motechproject.admin.domain.TopicMBean;
@@ -12,7 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
-import javax.management.ObjectName;
+import javax.jms.InvalidSelectorException;
 import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.OpenDataException;
 import java.io.IOException;
@@ -22,7 +23,7 @@ import java.util.List;
 
 /**
  * This service is responsible for retrieving JMS information through JMX. Uses an mbean server to retrieve
- * the information.
+ * the information. The queue and topic statistics are sampled periodically by the {@link BrokerStatisticsSampler}.
  *
  * @see MotechMBeanServer
  */
@@ -36,6 +37,9 @@ public class MBeanService {
     @Autowired
     private MotechMBeanServer mBeanServer;
 
+    @Autowired
+    private BrokerStatisticsSampler statisticsSampler;
+
     /**
      * Returns topic statistics for the JMS topics.
      *
@@ -43,22 +47,7 @@ public class MBeanService {
      */
     @PreAuthorize(SecurityConstants.MANAGE_ACTIVEMQ)
     public List<TopicMBean> getTopicStatistics() {
-        try {
-            List<TopicMBean> topics = new ArrayList<>();
-            for (ObjectName name : mBeanServer.getTopics()) {
-                String destination = name.getKeyProperty(mBeanServer.getDestinationProperty());
-                TopicViewMBean topicView = mBeanServer.getTopicViewMBean(name);
-                TopicMBean topic = new TopicMBean(destination);
-                topic.setEnqueueCount(topicView.getEnqueueCount());
-                topic.setDequeueCount(topicView.getDequeueCount());
-                topic.setExpiredCount(topicView.getExpiredCount());
-                topic.setConsumerCount(topicView.getConsumerCount());
-                topics.add(topic);
-            }
-            return topics;
-        } catch (IOException ex) {
-            throw new MotechException("Could not access MBeans ", ex);
-        }
+        return statisticsSampler.getStatistics().getTopics();
     }
 
     /**
@@ -68,46 +57,76 @@ public class MBeanService {
      */
     @PreAuthorize(SecurityConstants.MANAGE_ACTIVEMQ)
     public List<QueueMBean> getQueueStatistics() {
-        try {
-            List<QueueMBean> queues = new ArrayList<>();
-            for (ObjectName name : mBeanServer.getQueues()) {
-                String destination = name.getKeyProperty(mBeanServer.getDestinationProperty());
-                QueueViewMBean queueView = mBeanServer.getQueueViewMBean(name);
-                QueueMBean queue = new QueueMBean(destination);
-                queue.setEnqueueCount(queueView.getEnqueueCount());
-                queue.setDequeueCount(queueView.getDequeueCount());
-                queue.setExpiredCount(queueView.getExpiredCount());
-                queue.setConsumerCount(queueView.getConsumerCount());
-                queue.setQueueSize(queueView.getQueueSize());
-                queues.add(queue);
-            }
-            return queues;
-        } catch (IOException ex) {
-            throw new MotechException("Could not access MBeans ", ex);
-        }
+        return statisticsSampler.getStatistics().getQueues();
     }
 
+    /**
+     * Returns the samples of the queue and topic statistics taken after the given time, the oldest first.
+     *
+     * @param since the time in milliseconds since the epoch, 0 for all the samples that are kept
+     * @return {@link List} of {@link BrokerStatistics}. One for each sample.
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_ACTIVEMQ)
+    public List<BrokerStatistics> getStatisticsHistory(long since) {
+        return statisticsSampler.getHistory(since);
+    }
 
     /**
-     * Retrieves a list of messages for the given JMS queue.
+     * Retrieves a list of messages for the given JMS queue. The broker returns at most one browse page of
+     * messages, starting from the head of the queue.
      *
      * @param queueName The name of the queue for which messages should be retrieved.
      * @return {@link List} of messages for the given queue.
      */
     @PreAuthorize(SecurityConstants.MANAGE_ACTIVEMQ)
     public List<QueueMessage> getQueueMessages(String queueName) {
+        return getQueueMessages(queueName, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Retrieves a page of messages for the given JMS queue. The broker returns at most one browse page of
+     * messages, starting from the head of the queue, so the selector should be used to find messages further
+     * in the queue. Only the messages in the requested page are converted.
+     *
+     * @param queueName The name of the queue for which messages should be retrieved.
+     * @param selector The JMS message selector the messages must match, for example
+     *                 {@code JMSTimestamp > 1400000000000}, or null for all the messages.
+     * @param offset The number of messages to skip.
+     * @param limit The maximum number of messages to return.
+     * @return {@link List} of messages for the given queue.
+     * @throws IllegalArgumentException if the selector is not valid
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_ACTIVEMQ)
+    public List<QueueMessage> getQueueMessages(String queueName, String selector, int offset, int limit) {
         try {
-            ArrayList<QueueMessage> queueMessages = new ArrayList<>();
             QueueViewMBean queueViewMBean = mBeanServer.getQueueViewMBean(queueName);
-            for (CompositeData compositeData : queueViewMBean.browse()) {
-                if (compositeData != null) {
-                    String messageId = (String) compositeData.get(JMS_MESSAGE_ID);
-                    Boolean redelivered = (Boolean) compositeData.get(JMS_REDELIVERED);
-                    Date timestamp = (Date) compositeData.get(JMS_TIMESTAMP);
-                    queueMessages.add(new QueueMessage(messageId, redelivered, DateUtil.newDateTime(timestamp)));
+            if (queueViewMBean == null) {
+                throw new MotechException(String.format("Could not find MBean for queue %s", queueName));
+            }
+
+            CompositeData[] messages = StringUtils.isBlank(selector) ? queueViewMBean.browse() :
+                    queueViewMBean.browse(selector);
+
+            List<QueueMessage> queueMessages = new ArrayList<>();
+            int skipped = 0;
+            for (int i = 0; i < messages.length && queueMessages.size() < limit; i++) {
+                CompositeData compositeData = messages[i];
+                if (compositeData == null) {
+                    continue;
+                } else if (skipped < offset) {
+                    skipped++;
+                    continue;
                 }
+
+                String messageId = (String) compositeData.get(JMS_MESSAGE_ID);
+                Boolean redelivered = (Boolean) compositeData.get(JMS_REDELIVERED);
+                Date timestamp = (Date) compositeData.get(JMS_TIMESTAMP);
+                queueMessages.add(new QueueMessage(messageId, redelivered, DateUtil.newDateTime(timestamp)));
             }
             return queueMessages;
+        } catch (InvalidSelectorException invalidSelectorException) {
+            throw new IllegalArgumentException(String.format("Invalid message selector: %s", selector),
+                    invalidSelectorException);
         } catch (OpenDataException openDataException) {
             throw new MotechException(String.format("Could not Browse MBean for queue %s", queueName), openDataException);
         } catch (IOException ioException) {
@@ -10,15 +10,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.InstanceNotFoundException;
 import javax.management.MBeanServerConnection;
 import javax.management.MBeanServerInvocationHandler;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
+import javax.management.ReflectionException;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
 import java.io.IOException;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 
@@ -116,6 +122,29 @@ public class MotechMBeanServer {
         return MBeanServerInvocationHandler.newProxyInstance(openConnection(), name, QueueViewMBean.class, true);
     }
 
+    /**
+     * Retrieves the given attributes of the given MBean, in a single JMX call.
+     * @param name the {@link ObjectName} of the MBean
+     * @param attributes the names of the attributes to retrieve
+     * @return the values of the attributes, by attribute name, without the attributes that could not be retrieved
+     * @throws InstanceNotFoundException when there is no such MBean, for example the destination was removed
+     * @throws IOException when we were unable to connect using JMX.
+     */
+    public Map<String, Object> getAttributes(ObjectName name, String... attributes)
+            throws InstanceNotFoundException, IOException {
+        try {
+            AttributeList attributeList = openConnection().getAttributes(name, attributes);
+
+            Map<String, Object> values = new HashMap<>();
+            for (Attribute attribute : attributeList.asList()) {
+                values.put(attribute.getName(), attribute.getValue());
+            }
+            return values;
+        } catch (ReflectionException ex) {
+            throw new MotechException(String.format("Could not retrieve the attributes of %s", name), ex);
+        }
+    }
+
     /**
      * Returns name of destination property, which can change depending on ActiveMQ version.
      * @return correct name of destination property for used ActiveMQ version
@@ -152,7 +181,9 @@ public class MotechMBeanServer {
         try {
             ObjectName activeMQ = new ObjectName(mBeanName);
             BrokerViewMBean brokerViewMBean = MBeanServerInvocationHandler.newProxyInstance(openConnection(), activeMQ, BrokerViewMBean.class, true);
-            LOGGER.info("Retrieving BrokerViewMBean from Broker version: " + brokerViewMBean.getBrokerVersion());
+            // also checks whether the MBean exists, the broker view is retrieved whenever the statistics are sampled
+            String brokerVersion = brokerViewMBean.getBrokerVersion();
+            LOGGER.debug("Retrieving BrokerViewMBean from Broker version: {}", brokerVersion);
             return brokerViewMBean;
         } catch (MalformedObjectNameException ex) {
             throw new MotechException(ex.getMessage(), ex);
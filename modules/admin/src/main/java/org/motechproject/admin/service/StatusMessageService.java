@@ -18,7 +18,8 @@ import java.util.List;
 public interface StatusMessageService {
 
     /**
-     * Retrieves status messages that have not expired.
+     * Retrieves status messages that have not expired, the most recent first. Only a limited number of the most
+     * recent messages is returned.
      *
      * @return list of active status messages
      */
@@ -33,8 +34,9 @@ public interface StatusMessageService {
 
     /**
      * Creates a status message and posts it in the system. If the message matches any
-     * notification rules, appropriate notifications will be triggered. The message
-     * will be visible in the message UI until it expires.
+     * notification rules, appropriate notifications will be triggered. The notifications are sent
+     * asynchronously, and repeated or too frequent notifications to the same recipient are dropped.
+     * The message will be visible in the message UI until it expires.
      *
      * @param message the message to send
      */
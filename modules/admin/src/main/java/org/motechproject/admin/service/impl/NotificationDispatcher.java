@@ -0,0 +1,262 @@
+package org.motechproject.admin.service.impl;
+
+import org.motechproject.admin.domain.NotificationRule;
+import org.motechproject.admin.domain.StatusMessage;
+import org.motechproject.admin.messages.ActionType;
+import org.motechproject.admin.notification.EmailNotifier;
+import org.motechproject.email.exception.EmailSendException;
+import org.motechproject.event.MotechEvent;
+import org.motechproject.event.listener.EventRelay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the notifications about status messages, as e-mails and SMS messages, to the recipients of the matching
+ * notification rules. Sending e-mails is slow, so the notifications are queued and sent by a single dispatcher thread
+ * instead of the thread posting the message. The queue is bounded, when it is full the notifications are sent right
+ * away by the calling thread. A notification about the same message is not sent to a recipient again within
+ * {@link #DUPLICATE_WINDOW}, and no recipient gets more than {@link #RATE_LIMIT} notifications within
+ * {@link #RATE_LIMIT_WINDOW}, so a module posting the same error over and over does not flood the recipients.
+ */
+@Component
+public class NotificationDispatcher {
+
+    public static final long DUPLICATE_WINDOW = TimeUnit.MINUTES.toMillis(10);
+    public static final long RATE_LIMIT_WINDOW = TimeUnit.MINUTES.toMillis(10);
+    public static final int RATE_LIMIT = 10;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final long POLL_TIMEOUT = 1000;
+    private static final long CLEANUP_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private EmailNotifier emailNotifier;
+    private EventRelay eventRelay;
+
+    private final BlockingQueue<Notification> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<String, Long> lastNotifications = new HashMap<>();
+    private final Map<String, Deque<Long>> recipientNotifications = new HashMap<>();
+    private long lastCleanup;
+    private Thread dispatcherThread;
+    private volatile boolean running;
+
+    /**
+     * Starts the dispatcher thread.
+     */
+    @PostConstruct
+    public void init() {
+        running = true;
+        dispatcherThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatchLoop();
+            }
+        }, "motech-admin-notification-dispatcher");
+        dispatcherThread.setDaemon(true);
+        dispatcherThread.start();
+    }
+
+    /**
+     * Stops the dispatcher thread, after sending the notifications that are still queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (dispatcherThread != null) {
+            dispatcherThread.interrupt();
+            try {
+                dispatcherThread.join(POLL_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    /**
+     * Sends the notifications about the given message to the recipients of the given rules.
+     *
+     * @param message the status message
+     * @param rules the notification rules matching the message
+     */
+    public void dispatch(StatusMessage message, List<NotificationRule> rules) {
+        if (rules.isEmpty()) {
+            return;
+        }
+
+        Notification notification = new Notification(message, rules);
+
+        if (!running || !queue.offer(notification)) {
+            send(notification);
+        } else if (!running) {
+            // the dispatcher was stopped in the meantime
+            flush();
+        }
+    }
+
+    /**
+     * Sends the notifications that are queued.
+     */
+    public void flush() {
+        List<Notification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (Notification notification : remaining) {
+            send(notification);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                Notification notification = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (notification != null) {
+                    send(notification);
+                }
+            } catch (InterruptedException e) {
+                // stopping, the remaining notifications are sent by shutdown
+                LOGGER.debug("Notification dispatcher interrupted");
+            } catch (RuntimeException e) {
+                LOGGER.error("Error while sending notifications", e);
+            }
+        }
+    }
+
+    private synchronized void send(Notification notification) {
+        StatusMessage message = notification.getMessage();
+        long now = System.currentTimeMillis();
+        cleanUp(now);
+
+        List<String> smsRecipients = new ArrayList<>();
+
+        for (NotificationRule notificationRule : notification.getRules()) {
+            if (!isAllowed(notificationRule, message, now)) {
+                continue;
+            }
+
+            if (notificationRule.getActionType() == ActionType.SMS) {
+                smsRecipients.add(notificationRule.getRecipient());
+            } else if (notificationRule.getActionType() == ActionType.EMAIL) {
+                try {
+                    emailNotifier.send(message, notificationRule.getRecipient());
+                } catch (EmailSendException e) {
+                    LOGGER.error("Error while sending notification email to {}",
+                            notificationRule.getRecipient(), e);
+                }
+            }
+        }
+
+        if (!smsRecipients.isEmpty()) {
+            Map<String, Object> params = new HashMap<>();
+            params.put("recipients", smsRecipients);
+            params.put("message", String.format("Motech %s message: [%s] %s", message.getLevel(),
+                    message.getModuleName(), message.getText()));
+
+            MotechEvent smsEvent = new MotechEvent("send_sms", params);
+            eventRelay.sendEventMessage(smsEvent);
+        }
+    }
+
+    private boolean isAllowed(NotificationRule notificationRule, StatusMessage message, long now) {
+        String recipientKey = notificationRule.getActionType() + ":" + notificationRule.getRecipient();
+        String messageKey = recipientKey + ":" + message.getLevel() + ":" + message.getModuleName() + ":" +
+                message.getText();
+
+        Long lastNotification = lastNotifications.get(messageKey);
+        if (lastNotification != null && now - lastNotification < DUPLICATE_WINDOW) {
+            LOGGER.debug("Not sending a duplicate notification to {}", notificationRule.getRecipient());
+            return false;
+        }
+
+        Deque<Long> sent = recipientNotifications.get(recipientKey);
+        if (sent == null) {
+            sent = new ArrayDeque<>();
+            recipientNotifications.put(recipientKey, sent);
+        }
+        expire(sent, now);
+
+        if (sent.size() >= RATE_LIMIT) {
+            LOGGER.warn("Not sending a notification to {}, {} notifications were already sent to it within {} minutes",
+                    notificationRule.getRecipient(), RATE_LIMIT, TimeUnit.MILLISECONDS.toMinutes(RATE_LIMIT_WINDOW));
+            return false;
+        }
+
+        sent.addLast(now);
+        lastNotifications.put(messageKey, now);
+        return true;
+    }
+
+    private void cleanUp(long now) {
+        if (now - lastCleanup < CLEANUP_INTERVAL) {
+            return;
+        }
+        lastCleanup = now;
+
+        Iterator<Long> notifications = lastNotifications.values().iterator();
+        while (notifications.hasNext()) {
+            if (now - notifications.next() >= DUPLICATE_WINDOW) {
+                notifications.remove();
+            }
+        }
+
+        Iterator<Deque<Long>> recipients = recipientNotifications.values().iterator();
+        while (recipients.hasNext()) {
+            Deque<Long> sent = recipients.next();
+            expire(sent, now);
+            if (sent.isEmpty()) {
+                recipients.remove();
+            }
+        }
+    }
+
+    private static void expire(Deque<Long> sent, long now) {
+        while (!sent.isEmpty() && now - sent.peekFirst() >= RATE_LIMIT_WINDOW) {
+            sent.removeFirst();
+        }
+    }
+
+    @Autowired
+    public void setEmailNotifier(EmailNotifier emailNotifier) {
+        this.emailNotifier = emailNotifier;
+    }
+
+    @Autowired
+    public void setEventRelay(EventRelay eventRelay) {
+        this.eventRelay = eventRelay;
+    }
+
+    private static final class Notification {
+
+        private final StatusMessage message;
+        private final List<NotificationRule> rules;
+
+        private Notification(StatusMessage message, List<NotificationRule> rules) {
+            this.message = message;
+            this.rules = rules;
+        }
+
+        public StatusMessage getMessage() {
+            return message;
+        }
+
+        public List<NotificationRule> getRules() {
+            return rules;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.motechproject.admin.service.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.motechproject.admin.domain.NotificationRule;
+import org.motechproject.admin.domain.StatusMessage;
+import org.motechproject.admin.messages.Level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The notification rules, indexed by the level and the module of the messages they match, so that finding the rules
+ * matching a message does not require checking every rule. The rules matching a message are kept in their original
+ * order. Messages without a level are matched only by the rules without a level. The index is immutable.
+ */
+final class NotificationRuleIndex {
+
+    private final Map<Level, List<NotificationRule>> anyModuleRules = new EnumMap<>(Level.class);
+    private final Map<Level, Map<String, List<NotificationRule>>> moduleRules = new EnumMap<>(Level.class);
+    private final List<NotificationRule> noLevelAnyModuleRules;
+    private final Map<String, List<NotificationRule>> noLevelModuleRules = new HashMap<>();
+
+    NotificationRuleIndex(List<NotificationRule> rules) {
+        Set<String> moduleNames = new LinkedHashSet<>();
+        for (NotificationRule rule : rules) {
+            if (StringUtils.isNotBlank(rule.getModuleName())) {
+                moduleNames.add(rule.getModuleName());
+            }
+        }
+
+        for (Level level : Level.values()) {
+            anyModuleRules.put(level, matchingRules(rules, new StatusMessage("", null, level)));
+
+            Map<String, List<NotificationRule>> levelRules = new HashMap<>();
+            for (String moduleName : moduleNames) {
+                levelRules.put(moduleName, matchingRules(rules, new StatusMessage("", moduleName, level)));
+            }
+            moduleRules.put(level, levelRules);
+        }
+
+        noLevelAnyModuleRules = matchingRules(rules, new StatusMessage("", null, null));
+        for (String moduleName : moduleNames) {
+            noLevelModuleRules.put(moduleName, matchingRules(rules, new StatusMessage("", moduleName, null)));
+        }
+    }
+
+    /**
+     * Returns the rules matching the given message.
+     *
+     * @param message the message
+     * @return the matching rules, in their original order
+     */
+    List<NotificationRule> getMatchingRules(StatusMessage message) {
+        if (message.getLevel() == null) {
+            List<NotificationRule> rules = noLevelModuleRules.get(message.getModuleName());
+            return rules == null ? noLevelAnyModuleRules : rules;
+        }
+
+        List<NotificationRule> rules = moduleRules.get(message.getLevel()).get(message.getModuleName());
+        return rules == null ? anyModuleRules.get(message.getLevel()) : rules;
+    }
+
+    private static List<NotificationRule> matchingRules(List<NotificationRule> rules, StatusMessage probe) {
+        List<NotificationRule> matching = new ArrayList<>();
+        for (NotificationRule rule : rules) {
+            // a rule with a level can not tell whether it matches a message without one
+            if (probe.getLevel() == null && rule.getLevel() != null) {
+                continue;
+            }
+            if (rule.matches(probe)) {
+                matching.add(rule);
+            }
+        }
+        return Collections.unmodifiableList(matching);
+    }
+}
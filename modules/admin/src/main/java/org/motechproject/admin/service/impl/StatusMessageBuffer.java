@@ -0,0 +1,148 @@
+package org.motechproject.admin.service.impl;
+
+import org.joda.time.DateTime;
+import org.motechproject.admin.domain.StatusMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A bounded ring buffer of the most recent status messages. When the buffer is full, posting a message drops the
+ * oldest one. Every added message gets a sequence number, so that the messages added while the buffer was being
+ * reloaded from the database survive the reload.
+ */
+final class StatusMessageBuffer {
+
+    private final StatusMessage[] messages;
+    private final long[] sequences;
+    private int next;
+    private int size;
+    private long sequence;
+
+    StatusMessageBuffer(int capacity) {
+        messages = new StatusMessage[capacity];
+        sequences = new long[capacity];
+    }
+
+    /**
+     * Adds the given message, as the most recent one.
+     *
+     * @param message the message to add
+     */
+    synchronized void add(StatusMessage message) {
+        messages[next] = message;
+        sequences[next] = ++sequence;
+        next = (next + 1) % messages.length;
+        size = Math.min(size + 1, messages.length);
+    }
+
+    /**
+     * Returns the sequence number of the most recently added message, to be passed to
+     * {@link #reset(List, long)} after reloading the messages.
+     *
+     * @return the current sequence number
+     */
+    synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Replaces the buffered messages with the given ones, keeping the messages added after the given sequence
+     * number, unless they are among the given ones.
+     *
+     * @param loaded the messages loaded from the database
+     * @param since the sequence number taken before the messages were loaded
+     */
+    synchronized void reset(List<StatusMessage> loaded, long since) {
+        List<StatusMessage> added = new ArrayList<>();
+        List<Long> addedSequences = new ArrayList<>();
+        // from the oldest to the most recent, so that they are put back in the order they were added
+        for (int i = 1; i <= size; i++) {
+            int index = index(i);
+            if (sequences[index] > since) {
+                added.add(messages[index]);
+                addedSequences.add(sequences[index]);
+            }
+        }
+
+        List<StatusMessage> sorted = new ArrayList<>(loaded);
+        Collections.sort(sorted, new Comparator<StatusMessage>() {
+            @Override
+            public int compare(StatusMessage o1, StatusMessage o2) {
+                return o1.getDate().compareTo(o2.getDate()); // order by date, ascending
+            }
+        });
+
+        clear();
+        for (StatusMessage message : sorted.subList(Math.max(0, sorted.size() - messages.length), sorted.size())) {
+            if (!contains(added, message)) {
+                put(message, 0);
+            }
+        }
+        for (int i = 0; i < added.size(); i++) {
+            put(added.get(i), addedSequences.get(i));
+        }
+    }
+
+    /**
+     * Returns the buffered messages which did not expire yet, the most recent first.
+     *
+     * @param now the current time
+     * @return the active messages
+     */
+    synchronized List<StatusMessage> getActiveMessages(DateTime now) {
+        List<StatusMessage> active = new ArrayList<>();
+        for (int i = size; i > 0; i--) {
+            StatusMessage message = messages[index(i)];
+            if (message.getTimeout().isAfter(now)) {
+                active.add(message);
+            }
+        }
+
+        // the messages are buffered in the order of posting, which can differ from their dates
+        Collections.sort(active, new Comparator<StatusMessage>() {
+            @Override
+            public int compare(StatusMessage o1, StatusMessage o2) {
+                return o2.getDate().compareTo(o1.getDate()); // order by date, descending
+            }
+        });
+
+        return active;
+    }
+
+    /**
+     * Returns the index of the i-th oldest message, starting from 1.
+     */
+    private int index(int i) {
+        return (next - (size - i) - 1 + 2 * messages.length) % messages.length;
+    }
+
+    private void put(StatusMessage message, long messageSequence) {
+        messages[next] = message;
+        sequences[next] = messageSequence;
+        next = (next + 1) % messages.length;
+        size = Math.min(size + 1, messages.length);
+    }
+
+    private void clear() {
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = null;
+        }
+        next = 0;
+        size = 0;
+    }
+
+    private static boolean contains(List<StatusMessage> messages, StatusMessage message) {
+        for (StatusMessage other : messages) {
+            if (other == message || (Objects.equals(other.getText(), message.getText()) &&
+                    Objects.equals(other.getModuleName(), message.getModuleName()) &&
+                    other.getLevel() == message.getLevel() && Objects.equals(other.getDate(), message.getDate()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
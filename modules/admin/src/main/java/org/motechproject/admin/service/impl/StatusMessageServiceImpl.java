@@ -6,15 +6,10 @@ import org.motechproject.admin.domain.NotificationRule;
 import org.motechproject.admin.domain.StatusMessage;
 import org.motechproject.admin.mds.NotificationRulesDataService;
 import org.motechproject.admin.mds.StatusMessagesDataService;
-import org.motechproject.admin.messages.ActionType;
 import org.motechproject.admin.messages.Level;
-import org.motechproject.admin.notification.EmailNotifier;
 import org.motechproject.admin.service.StatusMessageService;
 import org.motechproject.commons.api.Range;
 import org.motechproject.config.service.ConfigurationService;
-import org.motechproject.email.exception.EmailSendException;
-import org.motechproject.event.MotechEvent;
-import org.motechproject.event.listener.EventRelay;
 import org.motechproject.osgi.web.service.UIFrameworkService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,43 +18,62 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of the {@link StatusMessageService} interface. Class provides API for everything
- * connected with messages and notifications in admin module.
+ * connected with messages and notifications in admin module. The notification rules are kept in memory, indexed
+ * by level and module, and reloaded when they are changed through this service, or after {@link #RULES_MAX_AGE}
+ * when they could have been changed elsewhere. The active messages polled by the UI are served from a bounded
+ * buffer of the most recent messages, which is synchronized with the database every {@link #MESSAGES_MAX_AGE}.
+ * The notifications are sent by the {@link NotificationDispatcher}.
  */
 @Service("statusMessageService")
 public class StatusMessageServiceImpl implements StatusMessageService {
+    public static final long RULES_MAX_AGE = TimeUnit.MINUTES.toMillis(1);
+    public static final long MESSAGES_MAX_AGE = TimeUnit.MINUTES.toMillis(1);
+    public static final int MESSAGES_BUFFER_CAPACITY = 500;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(StatusMessageServiceImpl.class);
 
     private StatusMessagesDataService statusMessagesDataService;
     private NotificationRulesDataService notificationRulesDataService;
     private ConfigurationService configurationService;
     private UIFrameworkService uiFrameworkService;
-    private EventRelay eventRelay;
-    private EmailNotifier emailNotifier;
+    private NotificationDispatcher notificationDispatcher;
+
+    private final Object rulesLock = new Object();
+    private volatile NotificationRuleIndex ruleIndex;
+    private volatile long rulesLoadTime;
+    private long rulesGeneration;
+
+    private final StatusMessageBuffer messageBuffer = new StatusMessageBuffer(MESSAGES_BUFFER_CAPACITY);
+    private volatile boolean messagesLoaded;
+    private volatile long messagesLoadTime;
 
     @Override
     @Transactional
     public List<StatusMessage> getActiveMessages() {
-        Range<DateTime> timeout = new Range<>(DateTime.now(), null);
-        List<StatusMessage> result = statusMessagesDataService.findByTimeout(timeout);
+        DateTime now = DateTime.now();
 
-        Collections.sort(result, new Comparator<StatusMessage>() {
-            @Override
-            public int compare(StatusMessage o1, StatusMessage o2) {
-                return o2.getDate().compareTo(o1.getDate()); // order by date, descending
-            }
-        });
+        if (getStatusMessagesDataService() != null &&
+                (!messagesLoaded || System.currentTimeMillis() - messagesLoadTime >= MESSAGES_MAX_AGE)) {
+            long sequence = messageBuffer.getSequence();
+            long loadTime = System.currentTimeMillis();
+
+            Range<DateTime> timeout = new Range<>(now, null);
+            messageBuffer.reset(statusMessagesDataService.findByTimeout(timeout), sequence);
 
-        return result;
+            messagesLoadTime = loadTime;
+            messagesLoaded = true;
+        }
+
+        return messageBuffer.getActiveMessages(now);
     }
 
     @Override
@@ -83,13 +97,14 @@ public class StatusMessageServiceImpl implements StatusMessageService {
         if (getStatusMessagesDataService() != null) {
             statusMessagesDataService.create(message);
         }
+        addToBuffer(message);
 
         if (message.getLevel() == Level.CRITICAL) {
             uiFrameworkService.moduleNeedsAttention("admin", "messages", "");
             uiFrameworkService.moduleNeedsAttention(message.getModuleName(), message.getText());
         }
 
-        sendNotifications(message);
+        notificationDispatcher.dispatch(message, getRuleIndex().getMatchingRules(message));
     }
 
     @Override
@@ -198,6 +213,7 @@ public class StatusMessageServiceImpl implements StatusMessageService {
     @Transactional
     public void removeMessage(StatusMessage message) {
         statusMessagesDataService.delete(message);
+        reloadMessages();
     }
 
     @Override
@@ -211,6 +227,8 @@ public class StatusMessageServiceImpl implements StatusMessageService {
         } else {
             notificationRulesDataService.update(notificationRule);
         }
+
+        invalidateRules();
     }
 
     @Override
@@ -229,6 +247,7 @@ public class StatusMessageServiceImpl implements StatusMessageService {
         NotificationRule notificationRule = notificationRulesDataService.findById(id);
         if (notificationRule != null) {
             notificationRulesDataService.delete(notificationRule);
+            invalidateRules();
         }
     }
 
@@ -260,6 +279,8 @@ public class StatusMessageServiceImpl implements StatusMessageService {
                 }
             });
         }
+
+        invalidateRules();
     }
 
     private StatusMessagesDataService getStatusMessagesDataService() {
@@ -289,32 +310,82 @@ public class StatusMessageServiceImpl implements StatusMessageService {
         return timeout;
     }
 
-    private void sendNotifications(StatusMessage message) {
-        List<String> smsRecipients = new ArrayList<>();
+    private NotificationRuleIndex getRuleIndex() {
+        NotificationRuleIndex index = ruleIndex;
+        if (index != null && System.currentTimeMillis() - rulesLoadTime < RULES_MAX_AGE) {
+            return index;
+        }
+
+        long generation;
+        synchronized (rulesLock) {
+            generation = rulesGeneration;
+        }
 
-        for (NotificationRule notificationRule : notificationRulesDataService.retrieveAll()) {
-            if (notificationRule.matches(message)) {
-                if (notificationRule.getActionType() == ActionType.SMS) {
-                    smsRecipients.add(notificationRule.getRecipient());
-                } else if (notificationRule.getActionType() == ActionType.EMAIL) {
-                    try {
-                        emailNotifier.send(message, notificationRule.getRecipient());
-                    } catch (EmailSendException e) {
-                        LOGGER.error("Error while sending notification email to {}",
-                                notificationRule.getRecipient(), e);
-                    }
-                }
+        long loadTime = System.currentTimeMillis();
+        index = new NotificationRuleIndex(notificationRulesDataService.retrieveAll());
+
+        synchronized (rulesLock) {
+            // rules changed while loading could be missing, so the index is only used this time
+            if (generation == rulesGeneration) {
+                rulesLoadTime = loadTime;
+                ruleIndex = index;
             }
         }
 
-        if (!smsRecipients.isEmpty()) {
-            Map<String, Object> params = new HashMap<>();
-            params.put("recipients", smsRecipients);
-            params.put("message", String.format("Motech %s message: [%s] %s", message.getLevel(),
-                    message.getModuleName(), message.getText()));
+        return index;
+    }
+
+    /**
+     * Drops the rule index right away, and again once the current transaction completes, so that the index is not
+     * reloaded with the rules from before the change.
+     */
+    private void invalidateRules() {
+        dropRuleIndex();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    dropRuleIndex();
+                }
+            });
+        }
+    }
+
+    private void dropRuleIndex() {
+        synchronized (rulesLock) {
+            rulesGeneration++;
+            ruleIndex = null;
+        }
+    }
+
+    /**
+     * Adds the message to the buffer once it is committed, so that the UI does not show messages which were
+     * rolled back.
+     */
+    private void addToBuffer(final StatusMessage message) {
+        if (getStatusMessagesDataService() != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    messageBuffer.add(message);
+                }
+            });
+        } else {
+            messageBuffer.add(message);
+        }
+    }
 
-            MotechEvent smsEvent = new MotechEvent("send_sms", params);
-            eventRelay.sendEventMessage(smsEvent);
+    private void reloadMessages() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    messagesLoaded = false;
+                }
+            });
+        } else {
+            messagesLoaded = false;
         }
     }
 
@@ -339,12 +410,7 @@ public class StatusMessageServiceImpl implements StatusMessageService {
     }
 
     @Autowired
-    public void setEventRelay(EventRelay eventRelay) {
-        this.eventRelay = eventRelay;
-    }
-
-    @Autowired
-    public void setEmailNotifier(EmailNotifier emailNotifier) {
-        this.emailNotifier = emailNotifier;
+    public void setNotificationDispatcher(NotificationDispatcher notificationDispatcher) {
+        this.notificationDispatcher = notificationDispatcher;
     }
 }
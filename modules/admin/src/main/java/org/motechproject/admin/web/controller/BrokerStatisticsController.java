@@ -1,14 +1,18 @@
 package org.motechproject.admin.web.controller;
 
+import org.motechproject.admin.domain.BrokerStatistics;
 import org.motechproject.admin.domain.QueueMBean;
 import org.motechproject.admin.domain.QueueMessage;
 import org.motechproject.admin.domain.TopicMBean;
 import org.motechproject.admin.jmx.MBeanService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.util.List;
 
@@ -19,6 +23,8 @@ import java.util.List;
 @Controller
 public class BrokerStatisticsController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private MBeanService mBeanService;
 
@@ -43,13 +49,38 @@ public class BrokerStatisticsController {
     }
 
     /**
-     * Returns a list of messages for a given queue.
+     * Returns the samples of the queue and topic statistics taken after the given time, for drawing their trends.
+     * @param since the time in milliseconds since the epoch, samples taken at that time or before are skipped
+     * @return a list of {@link org.motechproject.admin.domain.BrokerStatistics}, one for each sample
+     */
+    @RequestMapping(value = "/broker/history")
+    @ResponseBody
+    public List<BrokerStatistics> statisticsHistory(@RequestParam(defaultValue = "0") long since) {
+        return mBeanService.getStatisticsHistory(since);
+    }
+
+    /**
+     * Returns a page of messages for a given queue.
      * @param queueName the name of the queue
+     * @param selector the JMS message selector the messages must match, optional
+     * @param offset the number of messages to skip
+     * @param limit the maximum number of messages to return, at most 1000
      * @return a list of {@link org.motechproject.admin.domain.QueueMessage} objects describing messages from the queue
      */
     @RequestMapping(value = "/queues/browse")
     @ResponseBody
-    public List<QueueMessage> browseQueueMessages(@RequestParam(required = true) String queueName) {
-        return mBeanService.getQueueMessages(queueName);
+    public List<QueueMessage> browseQueueMessages(@RequestParam(required = true) String queueName,
+                                                  @RequestParam(required = false) String selector,
+                                                  @RequestParam(defaultValue = "0") int offset,
+                                                  @RequestParam(defaultValue = "100") int limit) {
+        return mBeanService.getQueueMessages(queueName, selector, Math.max(0, offset),
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public String handleIllegalArgumentException(IllegalArgumentException e) {
+        return e.getMessage();
     }
 }
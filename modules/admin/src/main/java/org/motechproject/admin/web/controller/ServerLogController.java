@@ -1,9 +1,10 @@
 package org.motechproject.admin.web.controller;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
-import org.motechproject.admin.exception.LogFileTooLargeException;
+import org.motechproject.admin.internal.service.LogFileService;
 import org.motechproject.admin.security.SecurityConstants;
+import org.motechproject.admin.web.dto.LogChunkDto;
+import org.motechproject.admin.web.dto.LogSearchResultDto;
 import org.motechproject.osgi.web.domain.LogMapping;
 import org.motechproject.osgi.web.service.ServerLogService;
 import org.motechproject.osgi.web.settings.Loggers;
@@ -11,23 +12,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.servlet.http.HttpServletResponse;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.concurrent.Semaphore;
 
 /**
  * Controller responsible for the logs tab in the Admin UI.
  * Allows retrieving the system logs and changing the log4j log levels at runtime.
+ * The log can be followed by polling its tail with the offset returned by the previous poll, in which case
+ * only the new lines are returned, and searched page by page. Waiting for new lines holds a request thread, so only
+ * a few requests can wait at the same time, the others are asked to retry later.
  */
 @Controller
 public class ServerLogController {
@@ -35,12 +39,25 @@ public class ServerLogController {
     @Autowired
     private ServerLogService logService;
 
+    @Autowired
+    private LogFileService logFileService;
+
     private static final int TWENTY_FIVE_MB = (int) FileUtils.ONE_MB * 25;
+    private static final int TAIL_SIZE = (int) FileUtils.ONE_KB * 200;
+    private static final int MAX_READ_SIZE = (int) FileUtils.ONE_MB;
+    private static final long MAX_WAIT = 30000;
+    private static final int MAX_SEARCH_MATCHES = 1000;
+
+    /**
+     * The maximum number of requests waiting for new lines of the log at the same time.
+     */
+    public static final int MAX_FOLLOWERS = 4;
+
+    private final Semaphore followers = new Semaphore(MAX_FOLLOWERS);
 
     /**
      * Prints the server log. The log is retrieved from the catalina.out file from Tomcat.
-     * This always retrieves the last megabyte of the log file. This is the method used for fetching the logs
-     * when the user browses to them.
+     * This always retrieves the last 200 kilobytes of the log file, starting with a whole line.
      * @param response the response to which the log will be printed
      * @throws IOException signals an issue with either reading the log file or writing the output
      */
@@ -52,69 +69,118 @@ public class ServerLogController {
 
         PrintWriter writer = response.getWriter();
 
-        File logFile = getLogFile();
-
-        if (!logFile.exists()) {
+        if (!logFileService.logExists()) {
             writer.write("server.tomcat.error.logFileNotFound");
         } else {
-            long readSize = FileUtils.ONE_KB * 200;
-            long fileSize = logFile.length();
-
-            try (InputStream in = new FileInputStream(logFile)) {
-
-                if (fileSize > readSize) {
-                    in.skip(fileSize - readSize);
-
-                    while (in.available() > 0) {
-                        if (in.read() == '\n') {
-                            break;
-                        }
-                    }
-                }
-
-                IOUtils.copy(in, writer);
-            }
+            writer.write(logFileService.getTail(Integer.MAX_VALUE, TAIL_SIZE).getText());
         }
     }
 
     /**
      * Prints the server log. The log is retrieved from the catalina.out file from Tomcat.
      * This reads and returns the entire log file, so the response can get big. On the UI this is only
-     * activated using the RAW log button. If the file is larger than 2gb then an exception is thrown.
+     * activated using the RAW log button. The file is copied to the response without decoding it.
      * @param response the response to which the log will be printed
      * @throws IOException signals an issue with either reading the log file or writing the output
-     * @throws org.motechproject.admin.exception.LogFileTooLargeException if the file is too large to be returned(over 2gb)
      */
     @PreAuthorize(SecurityConstants.MANAGE_LOGS)
     @RequestMapping(value = "/log/raw", method = RequestMethod.GET)
-    public void getEntireServerLog(HttpServletResponse response) throws IOException, LogFileTooLargeException {
+    public void getEntireServerLog(HttpServletResponse response) throws IOException {
         response.setContentType("text/plain");
         response.setCharacterEncoding("UTF-8");
 
-        PrintWriter writer = response.getWriter();
-
-        File logFile = getLogFile();
-
-        if (!logFile.exists()) {
+        if (!logFileService.logExists()) {
             response.setStatus(HttpServletResponse.SC_NOT_FOUND);
         } else {
-            long length = logFile.length();
-            // TODO: What to do when the logfile is more than 2GB?
-            if (length > Integer.MAX_VALUE) {
-                throw new LogFileTooLargeException("The log file is too large to be exported. Size: " +
-                        FileUtils.byteCountToDisplaySize(length));
-            }
-            response.setContentLength((int) length);
+            long length = logFileService.getLogSize();
+            response.setHeader("Content-Length", String.valueOf(length));
 
             // If the file is too big browsers hang trying to render the large plaintext file. In this case force download.
             if (length > TWENTY_FIVE_MB) {
-                response.setHeader("Content-Disposition", "attachment; filename=" + logFile.getName());
+                response.setHeader("Content-Disposition", "attachment; filename=" + logFileService.getLogFileName());
             }
 
-            try (InputStream in = new FileInputStream(logFile)) {
-                IOUtils.copy(in, writer);
-            }
+            logFileService.copyLog(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Returns the end of the server log. Without an offset the given number of last lines is returned. With the
+     * offset, which should be the end of the previously returned part, the lines appended since are returned,
+     * waiting for them for the given number of milliseconds if there are none yet. If too many requests are already
+     * waiting, the response has the 503 status and a Retry-After header.
+     * @param lines the number of last lines to return, if there is no offset
+     * @param offset the offset from which the log should be read
+     * @param wait the number of milliseconds to wait for new lines, at most 30 seconds
+     * @param response the response, used for signaling a missing log file or too many waiting requests
+     * @return the lines, along with the offset from which the log should be read next
+     * @throws IOException signals an issue with reading the log file
+     * @throws InterruptedException if the request was interrupted while waiting for new lines
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    @RequestMapping(value = "/log/tail", method = RequestMethod.GET)
+    @ResponseBody
+    public LogChunkDto getServerLogTail(@RequestParam(defaultValue = "500") int lines,
+                                        @RequestParam(required = false) Long offset,
+                                        @RequestParam(defaultValue = "0") long wait,
+                                        HttpServletResponse response) throws IOException, InterruptedException {
+        if (!logFileService.logExists()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+
+        if (offset == null) {
+            return logFileService.getTail(lines, TAIL_SIZE);
+        }
+
+        long waitMillis = Math.min(Math.max(0, wait), MAX_WAIT);
+        if (waitMillis == 0) {
+            return logFileService.readFrom(offset, MAX_READ_SIZE, 0);
+        }
+
+        if (!followers.tryAcquire()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", String.valueOf(MAX_WAIT / 1000));
+            return null;
+        }
+
+        try {
+            return logFileService.readFrom(offset, MAX_READ_SIZE, waitMillis);
+        } finally {
+            followers.release();
+        }
+    }
+
+    /**
+     * Searches the server log for lines containing the given text, ignoring the case. The search starts at the
+     * given offset, the next page of matches is found by searching from the offset returned with this one.
+     * @param text the text to search for, can not be empty
+     * @param offset the offset from which the log should be searched
+     * @param limit the maximum number of lines to return, at most 1000
+     * @param response the response, used for signaling a missing log file
+     * @return the matching lines, along with the offset from which the search should be continued
+     * @throws IOException signals an issue with reading the log file
+     */
+    @PreAuthorize(SecurityConstants.MANAGE_LOGS)
+    @RequestMapping(value = "/log/search", method = RequestMethod.GET)
+    @ResponseBody
+    public LogSearchResultDto searchServerLog(@RequestParam String text,
+                                              @RequestParam(defaultValue = "0") long offset,
+                                              @RequestParam(defaultValue = "100") int limit,
+                                              HttpServletResponse response) throws IOException {
+        if (!logFileService.logExists()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
         }
+
+        return logFileService.search(text, offset, Math.min(Math.max(1, limit), MAX_SEARCH_MATCHES));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ResponseBody
+    public String handleIllegalArgumentException(IllegalArgumentException e) {
+        return e.getMessage();
     }
 
     /**
@@ -160,8 +226,4 @@ public class ServerLogController {
             }
         }
     }
-
-    private File getLogFile() {
-        return new File(String.format("%s/logs/catalina.out", System.getProperty("catalina.base")));
-    }
 }
@@ -0,0 +1,80 @@
+package org.motechproject.admin.web.dto;
+
+/**
+ * Data transfer object for a part of the server log. Contains the lines read from the log and the byte offsets
+ * of the part in the log file, the offset of its end is the offset from which the log should be read next.
+ */
+public class LogChunkDto {
+
+    private String text;
+    private long start;
+    private long end;
+    private boolean reset;
+
+    public LogChunkDto() {
+        this("", 0, 0, false);
+    }
+
+    public LogChunkDto(String text, long start, long end, boolean reset) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.reset = reset;
+    }
+
+    /**
+     * @return the lines read from the log
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @param text the lines read from the log
+     */
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @return the byte offset of the first line in the log file
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @param start the byte offset of the first line in the log file
+     */
+    public void setStart(long start) {
+        this.start = start;
+    }
+
+    /**
+     * @return the byte offset following the last line in the log file
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @param end the byte offset following the last line in the log file
+     */
+    public void setEnd(long end) {
+        this.end = end;
+    }
+
+    /**
+     * @return true if the log file was truncated or replaced, so this part does not follow the previously read one
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * @param reset true if the log file was truncated or replaced, so this part does not follow the previously read one
+     */
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+}
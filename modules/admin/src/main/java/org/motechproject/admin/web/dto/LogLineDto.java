@@ -0,0 +1,46 @@
+package org.motechproject.admin.web.dto;
+
+/**
+ * Data transfer object for a line of the server log, along with its byte offset in the log file.
+ */
+public class LogLineDto {
+
+    private long offset;
+    private String text;
+
+    public LogLineDto() {
+    }
+
+    public LogLineDto(long offset, String text) {
+        this.offset = offset;
+        this.text = text;
+    }
+
+    /**
+     * @return the byte offset of the line in the log file
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @param offset the byte offset of the line in the log file
+     */
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @return the line, without the line terminator
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @param text the line, without the line terminator
+     */
+    public void setText(String text) {
+        this.text = text;
+    }
+}
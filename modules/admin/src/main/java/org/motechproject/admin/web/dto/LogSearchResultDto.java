@@ -0,0 +1,66 @@
+package org.motechproject.admin.web.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data transfer object for a page of the server log lines matching a search. The next page is searched from the
+ * offset following the last searched line.
+ */
+public class LogSearchResultDto {
+
+    private List<LogLineDto> lines = new ArrayList<>();
+    private long nextOffset;
+    private boolean endOfFile;
+
+    public LogSearchResultDto() {
+    }
+
+    public LogSearchResultDto(List<LogLineDto> lines, long nextOffset, boolean endOfFile) {
+        this.lines = lines;
+        this.nextOffset = nextOffset;
+        this.endOfFile = endOfFile;
+    }
+
+    /**
+     * @return the matching lines
+     */
+    public List<LogLineDto> getLines() {
+        return lines;
+    }
+
+    /**
+     * @param lines the matching lines
+     */
+    public void setLines(List<LogLineDto> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     * @return the byte offset from which the next page should be searched
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * @param nextOffset the byte offset from which the next page should be searched
+     */
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    /**
+     * @return true if the whole log file was searched
+     */
+    public boolean isEndOfFile() {
+        return endOfFile;
+    }
+
+    /**
+     * @param endOfFile true if the whole log file was searched
+     */
+    public void setEndOfFile(boolean endOfFile) {
+        this.endOfFile = endOfFile;
+    }
+}
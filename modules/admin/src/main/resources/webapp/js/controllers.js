@@ -756,23 +756,92 @@
     });
 
     controllers.controller('AdminServerLogCtrl', function($scope, $http, $state, $rootScope, LoadingModal) {
+        var FOLLOW_WAIT = 10000, logContent = $('#logContent'), offset, following = false, active = true;
+
+        $scope.follow = false;
+        $scope.search = { text: '', lines: [], nextOffset: 0, endOfFile: true, searched: false };
+
         $scope.refresh = function () {
             LoadingModal.open();
-            $http({method:'GET', url:'../admin/api/log'})
+            $http({method:'GET', url:'../admin/api/log/tail'})
                 .success(function (data) {
-                    if (data === 'server.tomcat.error.logFileNotFound') {
-                        $('#logContent').html($scope.msg(data));
-                    } else {
-                        $('#logContent').html(data);
-                        LoadingModal.close();
+                    logContent.text(data.text);
+                    offset = data.end;
+                    LoadingModal.close();
+                }).error( function (data, status) {
+                    if (status === 404) {
+                        logContent.text($scope.msg('server.tomcat.error.logFileNotFound'));
                     }
-                }).error( function () {
                     LoadingModal.close();
                 });
         };
 
+        // the server answers as soon as new lines are written, or after a while with no lines
+        function followLog() {
+            if (!active || !$scope.follow || offset === undefined) {
+                following = false;
+                return;
+            }
+
+            following = true;
+            $http({method:'GET', url:'../admin/api/log/tail', params: {offset: offset, wait: FOLLOW_WAIT}})
+                .success(function (data) {
+                    if (data.reset) {
+                        logContent.text(data.text);
+                    } else if (data.text) {
+                        logContent.append(document.createTextNode(data.text));
+                    }
+                    offset = data.end;
+                    followLog();
+                }).error(function (data, status) {
+                    if (status === 503) {
+                        // too many followers of the log at the moment
+                        setTimeout(followLog, FOLLOW_WAIT);
+                        return;
+                    }
+                    following = false;
+                    $scope.follow = false;
+                });
+        }
+
+        $scope.toggleFollow = function () {
+            $scope.follow = !$scope.follow;
+            if ($scope.follow && !following) {
+                followLog();
+            }
+        };
+
+        $scope.searchLog = function (more) {
+            if (!$scope.search.text) {
+                return;
+            }
+
+            if (!more) {
+                $scope.search.lines = [];
+                $scope.search.nextOffset = 0;
+            }
+
+            LoadingModal.open();
+            $http({method:'GET', url:'../admin/api/log/search',
+                   params: {text: $scope.search.text, offset: $scope.search.nextOffset}})
+                .success(function (data) {
+                    $scope.search.lines = $scope.search.lines.concat(data.lines);
+                    $scope.search.nextOffset = data.nextOffset;
+                    $scope.search.endOfFile = data.endOfFile;
+                    $scope.search.searched = true;
+                    LoadingModal.close();
+                }).error(function () {
+                    LoadingModal.close();
+                });
+        };
+
+        $scope.clearSearch = function () {
+            $scope.search = { text: '', lines: [], nextOffset: 0, endOfFile: true, searched: false };
+        };
+
         //removing the sidebar from <body> before route change
         $rootScope.$on('$stateChangeStart', function(event, next, current) {
+            active = false;
             $('div[id^="jquerySideBar"]').remove();
         });
 
@@ -962,45 +1031,92 @@
 
     });
 
-    controllers.controller('AdminTopicStatsCtrl', function($scope, $http) {
+    controllers.controller('AdminTopicStatsCtrl', function($scope, $http, $timeout) {
+
+        var REFRESH_INTERVAL = 1000 * 10, refreshTimeout;
 
         $scope.dataAvailable = true;
 
-        $http.get('../admin/api/topics/').success(function (data) {
-            $scope.topics = data;
-        }).error(function () {
-            $scope.dataAvailable = false;
+        function refresh() {
+            $http.get('../admin/api/topics/').success(function (data) {
+                $scope.topics = data;
+                $scope.dataAvailable = true;
+                refreshTimeout = $timeout(refresh, REFRESH_INTERVAL);
+            }).error(function () {
+                $scope.dataAvailable = false;
+            });
+        }
+
+        $scope.$on('$destroy', function () {
+            $timeout.cancel(refreshTimeout);
         });
 
+        refresh();
+
         innerLayout({});
 
     });
 
-    controllers.controller('AdminQueueStatsCtrl', function($scope, $http) {
+    controllers.controller('AdminQueueStatsCtrl', function($scope, $http, $timeout) {
+
+        var REFRESH_INTERVAL = 1000 * 10, refreshTimeout;
 
         $scope.dataAvailable = true;
 
-        $http.get('../admin/api/queues/').success(function (data) {
-            $scope.queues = data;
-        }).error(function () {
-            $scope.dataAvailable = false;
+        function refresh() {
+            $http.get('../admin/api/queues/').success(function (data) {
+                $scope.queues = data;
+                $scope.dataAvailable = true;
+                refreshTimeout = $timeout(refresh, REFRESH_INTERVAL);
+            }).error(function () {
+                $scope.dataAvailable = false;
+            });
+        }
+
+        $scope.$on('$destroy', function () {
+            $timeout.cancel(refreshTimeout);
         });
 
+        refresh();
+
         innerLayout({});
 
     });
 
-    controllers.controller('AdminQueueMessageStatsCtrl', function($scope, $http, $stateParams) {
+    controllers.controller('AdminQueueMessageStatsCtrl', function($scope, $http, $stateParams, ModalFactory) {
 
         var queue = $stateParams.queueName;
 
         $scope.dataAvailable = true;
+        $scope.offset = 0;
+        $scope.limit = 100;
+        $scope.selector = '';
 
-        $http.get('../admin/api/queues/browse?queueName=' + queue).success(function (data) {
-            $scope.messages = data;
-        }).error(function () {
-                $scope.dataAvailable = false;
+        $scope.browse = function (offset) {
+            if (offset < 0) {
+                return;
+            }
+
+            $http.get('../admin/api/queues/browse', {
+                params: {
+                    queueName: queue,
+                    selector: $scope.selector || undefined,
+                    offset: offset,
+                    limit: $scope.limit
+                }
+            }).success(function (data) {
+                $scope.messages = data;
+                $scope.offset = offset;
+            }).error(function (response, status) {
+                if (status === 400) {
+                    ModalFactory.showErrorAlert(null, 'admin.error', response);
+                } else {
+                    $scope.dataAvailable = false;
+                }
             });
+        };
+
+        $scope.browse(0);
 
         innerLayout({
             spacing_closed: 30,
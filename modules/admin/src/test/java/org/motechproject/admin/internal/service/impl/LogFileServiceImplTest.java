@@ -0,0 +1,185 @@
+package org.motechproject.admin.internal.service.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.motechproject.admin.web.dto.LogChunkDto;
+import org.motechproject.admin.web.dto.LogLineDto;
+import org.motechproject.admin.web.dto.LogSearchResultDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LogFileServiceImplTest {
+
+    private static final String CATALINA_BASE = "catalina.base";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LogFileServiceImpl logFileService = new LogFileServiceImpl();
+
+    private File logFile;
+
+    private String catalinaBase;
+
+    @Before
+    public void setUp() throws IOException {
+        catalinaBase = System.getProperty(CATALINA_BASE);
+        System.setProperty(CATALINA_BASE, folder.getRoot().getAbsolutePath());
+
+        logFile = new File(folder.newFolder("logs"), "catalina.out");
+    }
+
+    @After
+    public void tearDown() {
+        if (catalinaBase == null) {
+            System.clearProperty(CATALINA_BASE);
+        } else {
+            System.setProperty(CATALINA_BASE, catalinaBase);
+        }
+    }
+
+    @Test
+    public void shouldReadLastLinesAcrossBlocks() throws IOException {
+        writeLines(0, 5000);
+
+        LogChunkDto tail = logFileService.getTail(3, 1024 * 1024);
+
+        assertEquals("line 4997\nline 4998\nline 4999\n", tail.getText());
+        assertEquals(logFile.length(), tail.getEnd());
+        assertEquals(logFile.length() - tail.getText().length(), tail.getStart());
+        assertFalse(tail.isReset());
+    }
+
+    @Test
+    public void shouldStartTheTailWithAWholeLine() throws IOException {
+        FileUtils.writeStringToFile(logFile, "first line\nsecond line\nthird line");
+
+        assertEquals("third line", logFileService.getTail(10, 15).getText());
+        assertEquals("second line\nthird line", logFileService.getTail(10, 23).getText());
+        assertEquals("first line\nsecond line\nthird line", logFileService.getTail(10, 100).getText());
+        // a line longer than the limit is cut
+        assertEquals("line", logFileService.getTail(10, 4).getText());
+    }
+
+    @Test
+    public void shouldReadNewWholeLines() throws Exception {
+        writeLines(0, 10);
+        long end = logFileService.getTail(1, 1024).getEnd();
+
+        FileUtils.writeStringToFile(logFile, "line 10\nline 1", true);
+
+        LogChunkDto next = logFileService.readFrom(end, 1024, 0);
+        assertEquals("line 10\n", next.getText());
+        assertEquals(end, next.getStart());
+
+        // the last line is still being written
+        LogChunkDto none = logFileService.readFrom(next.getEnd(), 1024, 0);
+        assertEquals("", none.getText());
+        assertEquals(next.getEnd(), none.getEnd());
+
+        FileUtils.writeStringToFile(logFile, "1\n", true);
+        assertEquals("line 11\n", logFileService.readFrom(next.getEnd(), 1024, 0).getText());
+    }
+
+    @Test
+    public void shouldReadTheTailWhenTheLogWasTruncated() throws Exception {
+        writeLines(0, 100);
+        long end = logFile.length();
+
+        FileUtils.writeStringToFile(logFile, "new log\n");
+
+        LogChunkDto chunk = logFileService.readFrom(end, 1024, 1000);
+        assertTrue(chunk.isReset());
+        assertEquals("new log\n", chunk.getText());
+        assertEquals(0, chunk.getStart());
+    }
+
+    @Test
+    public void shouldSearchPageByPage() throws IOException {
+        // more than the search buffer
+        writeLines(0, 200000);
+
+        List<LogLineDto> found = new ArrayList<>();
+        LogSearchResultDto result;
+        long offset = 0;
+        int pages = 0;
+
+        do {
+            result = logFileService.search("LINE 1999", offset, 4);
+            found.addAll(result.getLines());
+            offset = result.getNextOffset();
+            pages++;
+        } while (!result.isEndOfFile());
+
+        assertEquals(111, found.size());
+        assertEquals(28, pages);
+        assertEquals("line 1999", found.get(0).getText());
+        assertEquals("line 199999", found.get(found.size() - 1).getText());
+        assertEquals(logFile.length(), offset);
+
+        byte[] log = FileUtils.readFileToByteArray(logFile);
+        for (LogLineDto line : found) {
+            assertEquals(line.getText(), new String(log, (int) line.getOffset(), line.getText().length(), "UTF-8"));
+        }
+    }
+
+    @Test
+    public void shouldStopSearchingAfterTheScanLimit() throws IOException {
+        writeLines(0, 200000);
+        LogFileServiceImpl limitedService = new LogFileServiceImpl(1024 * 1024);
+
+        LogSearchResultDto result = limitedService.search("line 199999", 0, 10);
+
+        assertTrue(result.getLines().isEmpty());
+        assertFalse(result.isEndOfFile());
+        assertTrue(result.getNextOffset() > 0 && result.getNextOffset() < logFile.length());
+
+        // the search continues from the reached position, which is the start of a line
+        byte[] log = FileUtils.readFileToByteArray(logFile);
+        assertEquals('\n', log[(int) result.getNextOffset() - 1]);
+
+        while (!result.isEndOfFile()) {
+            result = limitedService.search("line 199999", result.getNextOffset(), 10);
+        }
+
+        assertEquals(1, result.getLines().size());
+        assertEquals("line 199999", result.getLines().get(0).getText());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptySearchText() throws IOException {
+        writeLines(0, 10);
+
+        logFileService.search("", 0, 10);
+    }
+
+    @Test
+    public void shouldCopyTheWholeLog() throws IOException {
+        writeLines(0, 1000);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        logFileService.copyLog(out);
+
+        assertEquals(FileUtils.readFileToString(logFile), out.toString("UTF-8"));
+    }
+
+    private void writeLines(int from, int to) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            sb.append("line ").append(i).append('\n');
+        }
+        FileUtils.writeStringToFile(logFile, sb.toString(), true);
+    }
+}
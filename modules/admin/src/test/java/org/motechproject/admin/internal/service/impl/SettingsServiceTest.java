@@ -9,8 +9,10 @@ import org.motechproject.admin.internal.service.SettingsService;
 import org.motechproject.admin.settings.AdminSettings;
 import org.motechproject.admin.settings.Settings;
 import org.motechproject.admin.settings.SettingsOption;
+import org.motechproject.config.core.constants.ConfigurationConstants;
 import org.motechproject.config.monitor.ConfigFileMonitor;
 import org.motechproject.config.service.ConfigurationService;
+import org.motechproject.event.MotechEvent;
 import org.motechproject.event.listener.EventRelay;
 import org.motechproject.config.domain.MotechSettings;
 import org.osgi.framework.Bundle;
@@ -122,6 +124,17 @@ public class SettingsServiceTest {
         verify(configurationService).addOrUpdateProperties(BUNDLE_SYMBOLIC_NAME, "", BUNDLE_FILENAME, bundleProperty, null);
     }
 
+    @Test
+    public void shouldEvictBundlePropertiesChangedOnAnyInstance() {
+        Map<String, Object> params = new HashMap<>();
+        params.put(ConfigurationConstants.BUNDLE_SYMBOLIC_NAME, BUNDLE_SYMBOLIC_NAME);
+
+        ((SettingsServiceImpl) settingsService).evictBundleProperties(
+                new MotechEvent(ConfigurationConstants.BUNDLE_PROPERTIES_CHANGED_EVENT_SUBJECT, params));
+
+        verify(configurationService).evictBundlePropertiesCache(BUNDLE_SYMBOLIC_NAME);
+    }
+
     @Test
     public void shouldAddSettingsPath() throws IOException {
         final String path = "some-path";
@@ -0,0 +1,130 @@
+package org.motechproject.admin.jmx;
+
+import org.hamcrest.core.Is;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.motechproject.admin.domain.BrokerStatistics;
+import org.motechproject.admin.domain.QueueMBean;
+import org.motechproject.admin.domain.TopicMBean;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectName;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BrokerStatisticsSamplerTest {
+
+    private static final String DESTINATION_PROPERTY = "destinationName";
+
+    @Mock
+    MotechMBeanServer mBeanServer;
+
+    BrokerStatisticsSampler statisticsSampler;
+
+    ObjectName fooQueue;
+
+    ObjectName fooTopic;
+
+    @Before
+    public void before() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        statisticsSampler = new BrokerStatisticsSampler(mBeanServer);
+
+        fooQueue = destination("foo_queue");
+        fooTopic = destination("foo_topic");
+        given(mBeanServer.getDestinationProperty()).willReturn(DESTINATION_PROPERTY);
+        given(mBeanServer.getQueues()).willReturn(new ObjectName[]{fooQueue});
+        given(mBeanServer.getTopics()).willReturn(new ObjectName[]{fooTopic});
+    }
+
+    @Test
+    public void shouldReturnQueues() throws Exception {
+        given(mBeanServer.getAttributes(eq(fooQueue), (String[]) anyVararg())).willReturn(queueAttributes(10, 5, 5));
+
+        List<QueueMBean> queueStatistics = statisticsSampler.getStatistics().getQueues();
+        assertThat(queueStatistics.size(), Is.is(1));
+        assertThat(queueStatistics.get(0).getDestination(), Is.is("foo_queue"));
+        assertThat(queueStatistics.get(0).getEnqueueCount(), Is.is(10L));
+        assertThat(queueStatistics.get(0).getQueueSize(), Is.is(5L));
+        // there is no previous sample to estimate the lag from
+        assertThat(queueStatistics.get(0).getConsumerLag(), Is.is(-1L));
+    }
+
+    @Test
+    public void shouldServeTheLatestSample() throws Exception {
+        given(mBeanServer.getAttributes(eq(fooQueue), (String[]) anyVararg())).willReturn(queueAttributes(10, 5, 5));
+
+        BrokerStatistics statistics = statisticsSampler.getStatistics();
+
+        assertThat(statisticsSampler.getStatistics(), Is.is(statistics));
+        verify(mBeanServer, times(1)).getQueues();
+    }
+
+    @Test
+    public void shouldComputeRatesBetweenSamples() throws Exception {
+        given(mBeanServer.getAttributes(eq(fooQueue), (String[]) anyVararg()))
+                .willReturn(queueAttributes(100, 50, 50), queueAttributes(1100, 550, 550));
+        given(mBeanServer.getAttributes(eq(fooTopic), (String[]) anyVararg()))
+                .willReturn(topicAttributes(0, 0), topicAttributes(0, 0));
+
+        BrokerStatistics first = statisticsSampler.sample();
+        Thread.sleep(50);
+        BrokerStatistics second = statisticsSampler.sample();
+
+        double seconds = (second.getTime() - first.getTime()) / 1000.0;
+        QueueMBean queue = second.getQueues().get(0);
+        assertEquals(1000 / seconds, queue.getEnqueueRate(), 0.001);
+        assertEquals(500 / seconds, queue.getDequeueRate(), 0.001);
+        assertEquals((long) Math.ceil(550 / (500 / seconds)), queue.getConsumerLag());
+
+        TopicMBean topic = second.getTopics().get(0);
+        assertEquals(0, topic.getEnqueueRate(), 0);
+
+        List<BrokerStatistics> history = statisticsSampler.getHistory(0);
+        assertThat(history.size(), Is.is(2));
+        assertThat(history.get(0), Is.is(first));
+        assertThat(statisticsSampler.getHistory(first.getTime()).size(), Is.is(1));
+    }
+
+    @Test
+    public void shouldSkipRemovedDestinations() throws Exception {
+        given(mBeanServer.getAttributes(eq(fooQueue), (String[]) anyVararg()))
+                .willThrow(new InstanceNotFoundException("foo_queue"));
+
+        assertTrue(statisticsSampler.getStatistics().getQueues().isEmpty());
+    }
+
+    private ObjectName destination(String name) {
+        ObjectName objectName = mock(ObjectName.class);
+        given(objectName.getKeyProperty(DESTINATION_PROPERTY)).willReturn(name);
+        return objectName;
+    }
+
+    private Map<String, Object> queueAttributes(long enqueueCount, long dequeueCount, long queueSize) {
+        Map<String, Object> attributes = topicAttributes(enqueueCount, dequeueCount);
+        attributes.put("QueueSize", queueSize);
+        return attributes;
+    }
+
+    private Map<String, Object> topicAttributes(long enqueueCount, long dequeueCount) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("EnqueueCount", enqueueCount);
+        attributes.put("DequeueCount", dequeueCount);
+        attributes.put("ExpiredCount", 0L);
+        attributes.put("ConsumerCount", 1L);
+        return attributes;
+    }
+}
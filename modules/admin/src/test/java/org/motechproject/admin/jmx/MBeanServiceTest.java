@@ -7,16 +7,23 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.motechproject.admin.domain.BrokerStatistics;
 import org.motechproject.admin.domain.QueueMBean;
+import org.motechproject.admin.domain.QueueMessage;
+import org.motechproject.admin.domain.TopicMBean;
 
-import javax.management.ObjectName;
-import java.io.IOException;
+import javax.jms.InvalidSelectorException;
+import javax.management.openmbean.CompositeData;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class MBeanServiceTest {
 
@@ -26,26 +33,82 @@ public class MBeanServiceTest {
     @Mock
     MotechMBeanServer mBeanServer;
 
+    @Mock
+    BrokerStatisticsSampler statisticsSampler;
+
+    @Mock
+    QueueViewMBean queueViewMBean;
+
     @Before
     public void before() {
         MockitoAnnotations.initMocks(this);
     }
 
     @Test
-    public void shouldReturnQueues() throws IOException {
-
-        ObjectName fooQueue = mock(ObjectName.class);
-        ObjectName[] queues = {fooQueue};
-
-        QueueViewMBean queueViewMBean = mock(QueueViewMBean.class);
-        given(mBeanServer.getQueueViewMBean(any(ObjectName.class))).willReturn(queueViewMBean);
-
-        given(mBeanServer.getQueues()).willReturn(queues);
-        given(fooQueue.getKeyProperty(mBeanServer.getDestinationProperty())).willReturn("foo_queue");
+    public void shouldReturnSampledStatistics() {
+        BrokerStatistics statistics = new BrokerStatistics(1000L, Arrays.asList(new QueueMBean("foo_queue")),
+                Arrays.asList(new TopicMBean("foo_topic")));
+        given(statisticsSampler.getStatistics()).willReturn(statistics);
 
         List<QueueMBean> queueStatistics = mBeanService.getQueueStatistics();
         assertThat(queueStatistics.size(), Is.is(1));
         assertThat(queueStatistics.get(0).getDestination(), Is.is("foo_queue"));
+
+        List<TopicMBean> topicStatistics = mBeanService.getTopicStatistics();
+        assertThat(topicStatistics.size(), Is.is(1));
+        assertThat(topicStatistics.get(0).getDestination(), Is.is("foo_topic"));
     }
 
+    @Test
+    public void shouldReturnStatisticsHistory() {
+        List<BrokerStatistics> history = Collections.singletonList(new BrokerStatistics(2000L,
+                Collections.<QueueMBean>emptyList(), Collections.<TopicMBean>emptyList()));
+        given(statisticsSampler.getHistory(1000L)).willReturn(history);
+
+        assertThat(mBeanService.getStatisticsHistory(1000L), Is.is(history));
+    }
+
+    @Test
+    public void shouldReturnAPageOfMessages() throws Exception {
+        CompositeData[] messages = {message("1"), message("2"), null, message("3"), message("4"), message("5")};
+        given(mBeanServer.getQueueViewMBean("foo_queue")).willReturn(queueViewMBean);
+        given(queueViewMBean.browse()).willReturn(messages);
+
+        List<QueueMessage> page = mBeanService.getQueueMessages("foo_queue", null, 1, 2);
+
+        assertThat(page.size(), Is.is(2));
+        assertThat(page.get(0).getMessageId(), Is.is("2"));
+        assertThat(page.get(1).getMessageId(), Is.is("3"));
+        // only the messages in the page are converted
+        verify(messages[4], never()).get(MBeanService.JMS_MESSAGE_ID);
+
+        assertThat(mBeanService.getQueueMessages("foo_queue").size(), Is.is(5));
+    }
+
+    @Test
+    public void shouldBrowseMessagesMatchingASelector() throws Exception {
+        given(mBeanServer.getQueueViewMBean("foo_queue")).willReturn(queueViewMBean);
+        given(queueViewMBean.browse("JMSRedelivered = TRUE")).willReturn(new CompositeData[]{message("1")});
+
+        List<QueueMessage> page = mBeanService.getQueueMessages("foo_queue", "JMSRedelivered = TRUE", 0, 100);
+
+        assertThat(page.size(), Is.is(1));
+        verify(queueViewMBean, never()).browse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidSelectors() throws Exception {
+        given(mBeanServer.getQueueViewMBean("foo_queue")).willReturn(queueViewMBean);
+        given(queueViewMBean.browse("invalid")).willThrow(new InvalidSelectorException("invalid"));
+
+        mBeanService.getQueueMessages("foo_queue", "invalid", 0, 100);
+    }
+
+    private CompositeData message(String messageId) {
+        CompositeData compositeData = mock(CompositeData.class);
+        given(compositeData.get(MBeanService.JMS_MESSAGE_ID)).willReturn(messageId);
+        given(compositeData.get(MBeanService.JMS_REDELIVERED)).willReturn(false);
+        given(compositeData.get(MBeanService.JMS_TIMESTAMP)).willReturn(new Date());
+        return compositeData;
+    }
 }
@@ -0,0 +1,102 @@
+package org.motechproject.admin.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.motechproject.admin.domain.NotificationRule;
+import org.motechproject.admin.domain.StatusMessage;
+import org.motechproject.admin.messages.ActionType;
+import org.motechproject.admin.messages.Level;
+import org.motechproject.admin.notification.EmailNotifier;
+import org.motechproject.email.exception.EmailSendException;
+import org.motechproject.event.MotechEvent;
+import org.motechproject.event.listener.EventRelay;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class NotificationDispatcherTest {
+
+    private static final long WAIT_TIMEOUT = 10000;
+
+    @Mock
+    private EmailNotifier emailNotifier;
+
+    @Mock
+    private EventRelay eventRelay;
+
+    private NotificationDispatcher notificationDispatcher;
+
+    private NotificationRule emailRule = new NotificationRule("e@ma.il", ActionType.EMAIL, Level.ERROR, null);
+    private NotificationRule smsRule = new NotificationRule("1111", ActionType.SMS, Level.ERROR, null);
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        notificationDispatcher = new NotificationDispatcher();
+        notificationDispatcher.setEmailNotifier(emailNotifier);
+        notificationDispatcher.setEventRelay(eventRelay);
+    }
+
+    @After
+    public void tearDown() {
+        notificationDispatcher.shutdown();
+    }
+
+    @Test
+    public void shouldSendNotificationsFromTheDispatcherThread() throws EmailSendException {
+        notificationDispatcher.init();
+
+        StatusMessage message = new StatusMessage("text", "module", Level.ERROR);
+        notificationDispatcher.dispatch(message, asList(emailRule, smsRule));
+
+        verify(emailNotifier, timeout(WAIT_TIMEOUT)).send(message, "e@ma.il");
+
+        ArgumentCaptor<MotechEvent> captor = ArgumentCaptor.forClass(MotechEvent.class);
+        verify(eventRelay, timeout(WAIT_TIMEOUT)).sendEventMessage(captor.capture());
+        assertEquals(asList("1111"), captor.getValue().getParameters().get("recipients"));
+        assertEquals("Motech ERROR message: [module] text", captor.getValue().getParameters().get("message"));
+    }
+
+    @Test
+    public void shouldNotSendDuplicateNotifications() throws EmailSendException {
+        StatusMessage message = new StatusMessage("text", "module", Level.ERROR);
+        StatusMessage repeated = new StatusMessage("text", "module", Level.ERROR);
+        StatusMessage other = new StatusMessage("other text", "module", Level.ERROR);
+
+        notificationDispatcher.dispatch(message, asList(emailRule, smsRule));
+        notificationDispatcher.dispatch(repeated, asList(emailRule, smsRule));
+        notificationDispatcher.dispatch(other, asList(emailRule));
+
+        verify(emailNotifier).send(message, "e@ma.il");
+        verify(emailNotifier, never()).send(repeated, "e@ma.il");
+        verify(emailNotifier).send(other, "e@ma.il");
+        verify(eventRelay).sendEventMessage(any(MotechEvent.class));
+    }
+
+    @Test
+    public void shouldLimitTheNotificationsSentToARecipient() throws EmailSendException {
+        NotificationRule otherRule = new NotificationRule("e2@ma.il", ActionType.EMAIL, Level.ERROR, null);
+        List<NotificationRule> rules = asList(emailRule, otherRule);
+
+        for (int i = 0; i < NotificationDispatcher.RATE_LIMIT + 5; i++) {
+            notificationDispatcher.dispatch(new StatusMessage("text " + i, "module", Level.ERROR), rules);
+        }
+
+        // the limit applies to every recipient separately
+        verify(emailNotifier, times(NotificationDispatcher.RATE_LIMIT)).send(any(StatusMessage.class), eq("e@ma.il"));
+        verify(emailNotifier, times(NotificationDispatcher.RATE_LIMIT)).send(any(StatusMessage.class), eq("e2@ma.il"));
+    }
+}
@@ -0,0 +1,43 @@
+package org.motechproject.admin.service.impl;
+
+import org.junit.Test;
+import org.motechproject.admin.domain.NotificationRule;
+import org.motechproject.admin.domain.StatusMessage;
+import org.motechproject.admin.messages.ActionType;
+import org.motechproject.admin.messages.Level;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class NotificationRuleIndexTest {
+
+    private NotificationRule anyLevelRule = new NotificationRule("any", ActionType.EMAIL, null, null);
+    private NotificationRule errorRule = new NotificationRule("error", ActionType.EMAIL, Level.ERROR, null);
+    private NotificationRule moduleRule = new NotificationRule("module", ActionType.SMS, null, "module");
+    private NotificationRule moduleErrorRule = new NotificationRule("moduleError", ActionType.SMS, Level.ERROR, "module");
+
+    private NotificationRuleIndex index = new NotificationRuleIndex(
+            asList(anyLevelRule, errorRule, moduleRule, moduleErrorRule));
+
+    @Test
+    public void shouldFindRulesMatchingMessages() {
+        assertEquals(asList(anyLevelRule, errorRule, moduleRule, moduleErrorRule),
+                index.getMatchingRules(new StatusMessage("text", "module", Level.CRITICAL)));
+        assertEquals(asList(anyLevelRule, errorRule),
+                index.getMatchingRules(new StatusMessage("text", "other", Level.ERROR)));
+        assertEquals(asList(anyLevelRule, moduleRule),
+                index.getMatchingRules(new StatusMessage("text", "module", Level.INFO)));
+        assertEquals(asList(anyLevelRule),
+                index.getMatchingRules(new StatusMessage("text", null, Level.DEBUG)));
+    }
+
+    @Test
+    public void shouldMatchMessagesWithoutLevelWithRulesWithoutLevel() {
+        assertEquals(asList(anyLevelRule, moduleRule),
+                index.getMatchingRules(new StatusMessage("text", "module", null)));
+        assertEquals(asList(anyLevelRule),
+                index.getMatchingRules(new StatusMessage("text", "other", null)));
+        assertEquals(asList(anyLevelRule),
+                index.getMatchingRules(new StatusMessage("text", null, null)));
+    }
+}
@@ -0,0 +1,72 @@
+package org.motechproject.admin.service.impl;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+import org.motechproject.admin.domain.StatusMessage;
+import org.motechproject.admin.messages.Level;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class StatusMessageBufferTest {
+
+    private final DateTime now = DateTime.now();
+
+    private StatusMessageBuffer buffer = new StatusMessageBuffer(3);
+
+    @Test
+    public void shouldDropTheOldestMessagesWhenFull() {
+        StatusMessage first = message("first", 1);
+        StatusMessage second = message("second", 2);
+        StatusMessage third = message("third", 3);
+        StatusMessage fourth = message("fourth", 4);
+
+        buffer.add(first);
+        buffer.add(second);
+        buffer.add(third);
+        buffer.add(fourth);
+
+        assertEquals(asList(fourth, third, second), buffer.getActiveMessages(now));
+    }
+
+    @Test
+    public void shouldKeepTheOrderOfMessagesAddedDuringReloadWhenFilledPastCapacity() {
+        StatusMessage first = message("first", 1);
+        StatusMessage second = message("second", 2);
+        buffer.add(first);
+        buffer.add(second);
+
+        // both messages were added after the sequence taken before the reload, so they are kept
+        buffer.reset(Collections.<StatusMessage>emptyList(), 0);
+
+        StatusMessage third = message("third", 3);
+        StatusMessage fourth = message("fourth", 4);
+        buffer.add(third);
+        buffer.add(fourth);
+
+        assertEquals(asList(fourth, third, second), buffer.getActiveMessages(now));
+    }
+
+    @Test
+    public void shouldReplaceReloadedMessages() {
+        StatusMessage stored = message("stored", 1);
+        StatusMessage loaded = message("loaded", 2);
+        buffer.add(stored);
+        long since = buffer.getSequence();
+
+        StatusMessage added = message("added", 3);
+        buffer.add(added);
+
+        buffer.reset(asList(loaded), since);
+
+        assertEquals(asList(added, loaded), buffer.getActiveMessages(now));
+    }
+
+    private StatusMessage message(String text, int order) {
+        StatusMessage message = new StatusMessage(text, "module", Level.INFO, now.plusHours(1));
+        message.setDate(now.minusMinutes(10).plusMinutes(order));
+        return message;
+    }
+}
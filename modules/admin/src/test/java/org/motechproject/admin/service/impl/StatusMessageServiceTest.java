@@ -64,6 +64,8 @@ public class StatusMessageServiceTest {
     @Mock
     private EmailNotifier emailNotifier;
 
+    private NotificationDispatcher notificationDispatcher = new NotificationDispatcher();
+
     StatusMessage activeMessage = new StatusMessage("active", MODULE_NAME, Level.INFO, DateTime.now().plusHours(1));
 
     StatusMessage inactiveMessage = new StatusMessage("inactive", MODULE_NAME, Level.INFO, DateTime.now().minusHours(1));
@@ -72,6 +74,12 @@ public class StatusMessageServiceTest {
     @Before
     public void setUp() {
         initMocks(this);
+
+        // not started, so the notifications are sent right away
+        notificationDispatcher.setEmailNotifier(emailNotifier);
+        notificationDispatcher.setEventRelay(eventRelay);
+        ((StatusMessageServiceImpl) statusMessageService).setNotificationDispatcher(notificationDispatcher);
+
         statusMessages.add(activeMessage);
         statusMessages.add(inactiveMessage);
     }
@@ -96,6 +104,29 @@ public class StatusMessageServiceTest {
         verify(statusMessagesDataService).findByTimeout(any(Range.class));
     }
 
+    @Test
+    public void shouldServeActiveMessagesFromTheBuffer() {
+        StatusMessage olderMessage = new StatusMessage("older", MODULE_NAME, Level.INFO, DateTime.now().plusHours(1));
+        olderMessage.setDate(DateTime.now().minusMinutes(1));
+        when(statusMessagesDataService.findByTimeout(any(Range.class))).thenReturn(asList(olderMessage, activeMessage));
+
+        assertEquals(asList(activeMessage, olderMessage), statusMessageService.getActiveMessages());
+
+        StatusMessage newMessage = new StatusMessage("new", MODULE_NAME, Level.INFO, DateTime.now().plusHours(1));
+        newMessage.setDate(DateTime.now().plusMinutes(1));
+        statusMessageService.postMessage(newMessage);
+
+        assertEquals(asList(newMessage, activeMessage, olderMessage), statusMessageService.getActiveMessages());
+        verify(statusMessagesDataService).findByTimeout(any(Range.class));
+
+        // removing a message reloads the messages
+        statusMessageService.removeMessage(olderMessage);
+        when(statusMessagesDataService.findByTimeout(any(Range.class))).thenReturn(asList(activeMessage, newMessage));
+
+        assertEquals(asList(newMessage, activeMessage), statusMessageService.getActiveMessages());
+        verify(statusMessagesDataService, times(2)).findByTimeout(any(Range.class));
+    }
+
     @Test
     public void testPostMessage() {
         statusMessageService.postMessage(activeMessage);
@@ -242,4 +273,30 @@ public class StatusMessageServiceTest {
         verify(uiFrameworkService).moduleNeedsAttention("admin", "messages", "");
         verify(uiFrameworkService).moduleNeedsAttention("module", "text");
     }
+
+    @Test
+    public void shouldReloadNotificationRulesOnlyAfterChanges() throws EmailSendException {
+        NotificationRule notificationRule = new NotificationRule("e@ma.il", ActionType.EMAIL, Level.ERROR, MODULE_NAME);
+        NotificationRule newRule = new NotificationRule("e2@ma.il", ActionType.EMAIL, Level.ERROR, null);
+        when(notificationRulesDataService.retrieveAll()).thenReturn(asList(notificationRule),
+                asList(notificationRule, newRule));
+
+        StatusMessage first = new StatusMessage("first", MODULE_NAME, Level.ERROR);
+        StatusMessage second = new StatusMessage("second", MODULE_NAME, Level.CRITICAL);
+        statusMessageService.postMessage(first);
+        statusMessageService.postMessage(second);
+
+        verify(notificationRulesDataService).retrieveAll();
+        verify(emailNotifier).send(first, "e@ma.il");
+        verify(emailNotifier).send(second, "e@ma.il");
+
+        statusMessageService.saveRule(newRule);
+
+        StatusMessage third = new StatusMessage("third", "other-module", Level.ERROR);
+        statusMessageService.postMessage(third);
+
+        verify(notificationRulesDataService, times(2)).retrieveAll();
+        verify(emailNotifier).send(third, "e2@ma.il");
+        verify(emailNotifier, never()).send(third, "e@ma.il");
+    }
 }
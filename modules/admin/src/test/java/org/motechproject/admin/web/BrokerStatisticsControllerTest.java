@@ -7,6 +7,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.motechproject.admin.domain.BrokerStatistics;
 import org.motechproject.admin.domain.QueueMBean;
 import org.motechproject.admin.domain.QueueMessage;
 import org.motechproject.admin.domain.TopicMBean;
@@ -61,7 +62,7 @@ public class BrokerStatisticsControllerTest {
 
     @Test
     public void shouldReturnMessageInformationGivenQueueName() throws Exception {
-        given(mBeanService.getQueueMessages("foo")).willReturn(Arrays.asList(new QueueMessage("123", false, new DateTime())));
+        given(mBeanService.getQueueMessages("foo", null, 0, 100)).willReturn(Arrays.asList(new QueueMessage("123", false, new DateTime())));
         mockMvc.perform(MockMvcRequestBuilders
                 .get("/queues/browse?queueName=foo"))
                 .andExpect(status().isOk())
@@ -69,6 +70,37 @@ public class BrokerStatisticsControllerTest {
                 .andExpect(content().string(new StringContains("\"redelivered\":false")));
     }
 
+    @Test
+    public void shouldReturnAPageOfMessages() throws Exception {
+        given(mBeanService.getQueueMessages("foo", "JMSRedelivered = TRUE", 100, 1000))
+                .willReturn(Arrays.asList(new QueueMessage("456", true, new DateTime())));
+        mockMvc.perform(MockMvcRequestBuilders
+                .get("/queues/browse").param("queueName", "foo").param("selector", "JMSRedelivered = TRUE")
+                .param("offset", "100").param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new StringContains("\"messageId\":\"456")));
+    }
+
+    @Test
+    public void shouldReturnBadRequestCodeIfSelectorIsInvalid() throws Exception {
+        given(mBeanService.getQueueMessages("foo", "invalid", 0, 100))
+                .willThrow(new IllegalArgumentException("Invalid message selector: invalid"));
+        mockMvc.perform(MockMvcRequestBuilders
+                .get("/queues/browse?queueName=foo&selector=invalid"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void shouldReturnStatisticsHistory() throws Exception {
+        given(mBeanService.getStatisticsHistory(1000L)).willReturn(Arrays.asList(new BrokerStatistics(2000L,
+                Arrays.asList(new QueueMBean("queue-1")), Arrays.asList(new TopicMBean("topic-1")))));
+        mockMvc.perform(MockMvcRequestBuilders
+                .get("/broker/history?since=1000"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(new StringContains("\"time\":2000")))
+                .andExpect(content().string(new StringContains("\"destination\":\"queue-1\"")));
+    }
+
     @Test
     public void shouldReturnBadRequestCodeIfQueueNameNotProvided() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders
@@ -2,6 +2,13 @@ package org.motechproject.admin.web;
 
 import org.apache.commons.io.FileUtils;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.motechproject.admin.internal.service.LogFileService;
+import org.motechproject.admin.internal.service.impl.LogFileServiceImpl;
+import org.motechproject.admin.web.dto.LogChunkDto;
+import org.motechproject.admin.web.dto.LogSearchResultDto;
 import org.motechproject.osgi.web.domain.LogMapping;
 import org.apache.http.HttpStatus;
 import org.apache.log4j.LogManager;
@@ -15,6 +22,7 @@ import org.motechproject.admin.web.controller.ServerLogController;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.server.MockMvc;
 import org.springframework.test.web.server.setup.MockMvcBuilders;
 
@@ -23,11 +31,22 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -43,6 +62,9 @@ public class ServerLogControllerTest {
     @Mock
     private ServerLogService logService;
 
+    @Spy
+    private LogFileService logFileService = new LogFileServiceImpl();
+
     @InjectMocks
     private ServerLogController logController = new ServerLogController();
 
@@ -85,6 +107,99 @@ public class ServerLogControllerTest {
         );
     }
 
+    @Test
+    public void testGetLogTail() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        LogChunkDto tail = logController.getServerLogTail(2, null, 0, response);
+
+        String log = FileUtils.readFileToString(logFile);
+        String[] lines = log.split("\n");
+        assertEquals(lines[lines.length - 2] + "\n" + lines[lines.length - 1] + (log.endsWith("\n") ? "\n" : ""),
+                tail.getText());
+        assertEquals(logFile.length(), tail.getEnd());
+
+        LogChunkDto next = logController.getServerLogTail(2, tail.getEnd(), 0, response);
+
+        assertEquals("", next.getText());
+        assertEquals(tail.getEnd(), next.getEnd());
+    }
+
+    @Test
+    public void testSearchLog() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        LogSearchResultDto result = logController.searchServerLog("connection REFUSED", 0, 10, response);
+
+        assertEquals(1, result.getLines().size());
+        assertEquals("2013-01-31 11:22:50,158 ERROR [org.motechproject.sms.smpp.ManagedSmslibService] Connection refused",
+                result.getLines().get(0).getText());
+        assertTrue(result.isEndOfFile());
+    }
+
+    @Test
+    public void testSearchLogWithEmptyText() throws Exception {
+        controller.perform(
+                get("/log/search").param("text", "")
+        ).andExpect(
+                status().is(HttpStatus.SC_BAD_REQUEST)
+        );
+    }
+
+    @Test
+    public void testLimitFollowersOfLog() throws Exception {
+        final CountDownLatch waiting = new CountDownLatch(ServerLogController.MAX_FOLLOWERS);
+        final CountDownLatch written = new CountDownLatch(1);
+        final long end = logFile.length();
+
+        doAnswer(new Answer<LogChunkDto>() {
+            @Override
+            public LogChunkDto answer(InvocationOnMock invocation) throws Throwable {
+                waiting.countDown();
+                written.await();
+                return new LogChunkDto("", end, end, false);
+            }
+        }).when(logFileService).readFrom(anyLong(), anyInt(), eq(1000L));
+
+        ExecutorService executor = Executors.newFixedThreadPool(ServerLogController.MAX_FOLLOWERS);
+        try {
+            List<Future<MockHttpServletResponse>> followers = new ArrayList<>();
+            for (int i = 0; i < ServerLogController.MAX_FOLLOWERS; i++) {
+                followers.add(executor.submit(new Callable<MockHttpServletResponse>() {
+                    @Override
+                    public MockHttpServletResponse call() throws Exception {
+                        MockHttpServletResponse response = new MockHttpServletResponse();
+                        logController.getServerLogTail(0, end, 1000, response);
+                        return response;
+                    }
+                }));
+            }
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertNull(logController.getServerLogTail(0, end, 1000, response));
+            assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE, response.getStatus());
+            assertNotNull(response.getHeader("Retry-After"));
+
+            // reading without waiting is not limited
+            response = new MockHttpServletResponse();
+            assertEquals(end, logController.getServerLogTail(0, end, 0, response).getEnd());
+            assertEquals(HttpStatus.SC_OK, response.getStatus());
+
+            written.countDown();
+            for (Future<MockHttpServletResponse> follower : followers) {
+                assertEquals(HttpStatus.SC_OK, follower.get(5, TimeUnit.SECONDS).getStatus());
+            }
+
+            response = new MockHttpServletResponse();
+            logController.getServerLogTail(0, end, 1000, response);
+            assertEquals(HttpStatus.SC_OK, response.getStatus());
+        } finally {
+            written.countDown();
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testMissingLog() throws Exception {
         System.setProperty("catalina.base", "nonsense");
@@ -14,6 +14,7 @@ import org.motechproject.scheduler.contract.SchedulableJob;
 import org.motechproject.scheduler.exception.MotechSchedulerException;
 import org.motechproject.scheduler.trigger.PeriodIntervalTrigger;
 import org.motechproject.scheduler.util.CronExpressionUtil;
+import org.motechproject.scheduler.util.JobDataCodec;
 import org.quartz.CalendarIntervalTrigger;
 import org.quartz.CronTrigger;
 import org.quartz.JobDataMap;
@@ -26,8 +27,6 @@ import java.util.Map;
 
 import static org.motechproject.scheduler.constants.SchedulerConstants.CRON;
 import static org.motechproject.scheduler.constants.SchedulerConstants.DAY_OF_WEEK;
-import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_METADATA;
-import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_TYPE_KEY_NAME;
 import static org.motechproject.scheduler.constants.SchedulerConstants.IGNORE_PAST_FIRES_AT_START;
 import static org.motechproject.scheduler.constants.SchedulerConstants.IS_DAY_OF_WEEK;
 import static org.motechproject.scheduler.constants.SchedulerConstants.REPEATING;
@@ -56,10 +55,8 @@ public final class SchedulableJobBuilder {
 
         SchedulableJob job;
 
-        Map<String, Object> params = dataMap.getWrappedMap();
-        Map<String, Object> metadata = (Map<String, Object>) params.get(EVENT_METADATA);
-        params.remove(EVENT_METADATA);
-        params.putAll(metadata);
+        Map<String, Object> params = JobDataCodec.decodeParameters(dataMap);
+        params.putAll(JobDataCodec.decodeMetadata(dataMap));
         JobDataMap map = new JobDataMap(params);
 
         switch (getJobType(key, map)) {
@@ -83,7 +80,7 @@ public final class SchedulableJobBuilder {
                         key.getGroup()));
         }
 
-        job.setMotechEvent(new MotechEvent(dataMap.getString(EVENT_TYPE_KEY_NAME), map.getWrappedMap()));
+        job.setMotechEvent(new MotechEvent(JobDataCodec.getSubject(dataMap), map.getWrappedMap()));
         job.setUiDefined(map.getBoolean(UI_DEFINED));
         job.setStartDate(new DateTime(trigger.getStartTime()));
 
@@ -0,0 +1,66 @@
+package org.motechproject.scheduler.contract;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BulkOperationResult is the outcome of scheduling or unscheduling many jobs in one call. It contains the IDs of jobs
+ * for which the operation succeeded and, for the jobs for which it failed, the reason of the failure. Jobs
+ * which IDs could not be determined are reported by their position in the given collection, for example {@code #3}.
+ */
+public class BulkOperationResult implements Serializable {
+
+    private static final long serialVersionUID = -3207428196458183146L;
+
+    private final List<String> succeeded = new ArrayList<>();
+    private final Map<String, String> failed = new LinkedHashMap<>();
+
+    /**
+     * Records that the operation succeeded for the job with the given ID.
+     *
+     * @param jobId  the ID of the job
+     */
+    public void addSuccess(String jobId) {
+        succeeded.add(jobId);
+    }
+
+    /**
+     * Records that the operation failed for the job with the given ID.
+     *
+     * @param jobId  the ID of the job
+     * @param reason  the reason of the failure
+     */
+    public void addFailure(String jobId, String reason) {
+        failed.put(jobId, reason);
+    }
+
+    /**
+     * @return the IDs of jobs for which the operation succeeded
+     */
+    public List<String> getSucceeded() {
+        return Collections.unmodifiableList(succeeded);
+    }
+
+    /**
+     * @return the IDs of jobs for which the operation failed, mapped to the reasons of the failures
+     */
+    public Map<String, String> getFailed() {
+        return Collections.unmodifiableMap(failed);
+    }
+
+    /**
+     * @return true if the operation failed for at least one job, false otherwise
+     */
+    public boolean hasFailures() {
+        return !failed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BulkOperationResult{succeeded=%d, failed=%s}", succeeded.size(), failed);
+    }
+}
@@ -0,0 +1,114 @@
+package org.motechproject.scheduler.contract;
+
+/**
+ * JobFiringStatistics describes how fast the events of fired jobs are published. The firing lag is the time between
+ * the scheduled fire time of a job and the moment its event was handed over to the event system.
+ */
+public class JobFiringStatistics {
+
+    private long publishedEvents;
+    private long publishedBatches;
+    private long failedEvents;
+    private int queuedEvents;
+    private long averageLag;
+    private long maxLag;
+    private long lastLag;
+
+    public JobFiringStatistics() {
+    }
+
+    public JobFiringStatistics(long publishedEvents, long publishedBatches, long failedEvents, int queuedEvents,
+                               long averageLag, long maxLag, long lastLag) {
+        this.publishedEvents = publishedEvents;
+        this.publishedBatches = publishedBatches;
+        this.failedEvents = failedEvents;
+        this.queuedEvents = queuedEvents;
+        this.averageLag = averageLag;
+        this.maxLag = maxLag;
+        this.lastLag = lastLag;
+    }
+
+    /**
+     * @return the number of events published since the scheduler started
+     */
+    public long getPublishedEvents() {
+        return publishedEvents;
+    }
+
+    public void setPublishedEvents(long publishedEvents) {
+        this.publishedEvents = publishedEvents;
+    }
+
+    /**
+     * @return the number of batches in which the events were published
+     */
+    public long getPublishedBatches() {
+        return publishedBatches;
+    }
+
+    public void setPublishedBatches(long publishedBatches) {
+        this.publishedBatches = publishedBatches;
+    }
+
+    /**
+     * @return the number of events which could not be published
+     */
+    public long getFailedEvents() {
+        return failedEvents;
+    }
+
+    public void setFailedEvents(long failedEvents) {
+        this.failedEvents = failedEvents;
+    }
+
+    /**
+     * @return the number of events of fired jobs waiting to be published
+     */
+    public int getQueuedEvents() {
+        return queuedEvents;
+    }
+
+    public void setQueuedEvents(int queuedEvents) {
+        this.queuedEvents = queuedEvents;
+    }
+
+    /**
+     * @return the average firing lag in milliseconds
+     */
+    public long getAverageLag() {
+        return averageLag;
+    }
+
+    public void setAverageLag(long averageLag) {
+        this.averageLag = averageLag;
+    }
+
+    /**
+     * @return the maximum firing lag in milliseconds
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    public void setMaxLag(long maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * @return the firing lag of the most recently published event in milliseconds
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    public void setLastLag(long lastLag) {
+        this.lastLag = lastLag;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JobFiringStatistics{publishedEvents=%d, publishedBatches=%d, failedEvents=%d, " +
+                "queuedEvents=%d, averageLag=%d, maxLag=%d, lastLag=%d}", publishedEvents, publishedBatches,
+                failedEvents, queuedEvents, averageLag, maxLag, lastLag);
+    }
+}
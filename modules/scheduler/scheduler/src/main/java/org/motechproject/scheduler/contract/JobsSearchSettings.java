@@ -17,6 +17,8 @@ public class JobsSearchSettings {
     private String status;
     private String timeFrom;
     private String timeTo;
+    private String lastJobName;
+    private String lastJobGroup;
 
     public String getName() {
         return name;
@@ -89,4 +91,33 @@ public class JobsSearchSettings {
     public void setTimeTo(String timeTo) {
         this.timeTo = timeTo;
     }
+
+    /**
+     * Returns the name of the last job on the previously retrieved page. When set, together with the group of that
+     * job, the jobs following it in the requested order are returned, instead of skipping the jobs of
+     * the preceding pages.
+     *
+     * @return the name of the last job on the previous page
+     */
+    public String getLastJobName() {
+        return lastJobName;
+    }
+
+    public void setLastJobName(String lastJobName) {
+        this.lastJobName = lastJobName;
+    }
+
+    /**
+     * Returns the group of the last job on the previously retrieved page.
+     *
+     * @return the group of the last job on the previous page
+     * @see #getLastJobName()
+     */
+    public String getLastJobGroup() {
+        return lastJobGroup;
+    }
+
+    public void setLastJobGroup(String lastJobGroup) {
+        this.lastJobGroup = lastJobGroup;
+    }
 }
@@ -0,0 +1,46 @@
+package org.motechproject.scheduler.factory;
+
+import org.motechproject.scheduler.util.JobDataCodec;
+import org.quartz.JobDetail;
+import org.quartz.impl.jdbcjobstore.StdJDBCConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Writes the subject and the UI defined flag of jobs to the dedicated SUBJECT and UI_DEFINED columns of the job
+ * details table. Used by the driver delegates of the scheduler, so that the columns are written on the connection
+ * storing the job, in the same transaction.
+ */
+final class JobColumns {
+
+    static final String UPDATE_JOB_COLUMNS = "UPDATE " + StdJDBCConstants.TABLE_PREFIX_SUBST
+            + StdJDBCConstants.TABLE_JOB_DETAILS + " SET SUBJECT = ?, UI_DEFINED = ? WHERE "
+            + StdJDBCConstants.COL_SCHEDULER_NAME + " = " + StdJDBCConstants.SCHED_NAME_SUBST + " AND "
+            + StdJDBCConstants.COL_JOB_NAME + " = ? AND " + StdJDBCConstants.COL_JOB_GROUP + " = ?";
+
+    /**
+     * This is a utility class and should not be instantiated
+     */
+    private JobColumns() {
+    }
+
+    /**
+     * Updates the columns of the given job.
+     *
+     * @param conn  the connection the job was stored with
+     * @param query  the update query, with the table prefix and the scheduler name already replaced
+     * @param job  the stored job
+     * @throws SQLException if the columns could not be updated
+     */
+    static void update(Connection conn, String query, JobDetail job) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, JobDataCodec.getSubject(job.getJobDataMap()));
+            stmt.setBoolean(2, JobDataCodec.isUiDefined(job.getJobDataMap()));
+            stmt.setString(3, job.getKey().getName());
+            stmt.setString(4, job.getKey().getGroup());
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.motechproject.scheduler.factory;
 
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.motechproject.commons.sql.util.Drivers;
 import org.motechproject.scheduler.exception.SchedulerInstantiationException;
 import org.motechproject.scheduler.exception.SchedulerShutdownException;
 import org.quartz.Scheduler;
@@ -14,14 +17,51 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.util.Properties;
 
+import static java.lang.Boolean.parseBoolean;
+
 import static java.lang.Boolean.getBoolean;
 
 /**
- * The <code>MotechSchedulerFactoryBean</code> is used to create scheduler and start it.
+ * The <code>MotechSchedulerFactoryBean</code> is used to create scheduler and start it. Besides the regular Quartz
+ * properties, the following scheduler settings are understood and translated into Quartz configuration, unless the
+ * corresponding Quartz property is set explicitly:
+ * <ul>
+ *     <li>{@code scheduler.clustered} - whether this instance is a member of a cluster of schedulers sharing
+ *     the same database, each trigger is then fired by exactly one of the members</li>
+ *     <li>{@code scheduler.cluster.checkinInterval} - how often, in milliseconds, the members of the cluster check in,
+ *     and recover the jobs of members that failed</li>
+ *     <li>{@code scheduler.threadCount} - the number of threads firing jobs, {@code auto} sizes the pool from the
+ *     number of available processors</li>
+ *     <li>{@code scheduler.batch.maxSize} - the maximum number of triggers acquired from the job store at once,
+ *     defaults to the number of threads</li>
+ *     <li>{@code scheduler.batch.fireAheadTimeWindow} - how many milliseconds before their fire time triggers can be
+ *     acquired as a part of a batch</li>
+ * </ul>
+ * The standard driver delegates of Quartz are replaced by {@link MotechStdJDBCDelegate} and
+ * {@link MotechPostgreSQLDelegate}, which also write the SUBJECT and UI_DEFINED columns of stored jobs.
  */
 @Component("motechSchedulerFactoryBean")
 public class MotechSchedulerFactoryBean {
 
+    public static final String CLUSTERED = "scheduler.clustered";
+    public static final String CLUSTER_CHECKIN_INTERVAL = "scheduler.cluster.checkinInterval";
+    public static final String THREAD_COUNT = "scheduler.threadCount";
+    public static final String BATCH_MAX_SIZE = "scheduler.batch.maxSize";
+    public static final String BATCH_FIRE_AHEAD_TIME_WINDOW = "scheduler.batch.fireAheadTimeWindow";
+
+    static final String QUARTZ_INSTANCE_ID = "org.quartz.scheduler.instanceId";
+    static final String QUARTZ_IS_CLUSTERED = "org.quartz.jobStore.isClustered";
+    static final String QUARTZ_CLUSTER_CHECKIN_INTERVAL = "org.quartz.jobStore.clusterCheckinInterval";
+    static final String QUARTZ_ACQUIRE_TRIGGERS_WITHIN_LOCK = "org.quartz.jobStore.acquireTriggersWithinLock";
+    static final String QUARTZ_THREAD_COUNT = "org.quartz.threadPool.threadCount";
+    static final String QUARTZ_BATCH_MAX_COUNT = "org.quartz.scheduler.batchTriggerAcquisitionMaxCount";
+    static final String QUARTZ_BATCH_FIRE_AHEAD_TIME_WINDOW = "org.quartz.scheduler.batchTriggerAcquisitionFireAheadTimeWindow";
+    static final String QUARTZ_DRIVER_DELEGATE = "org.quartz.jobStore.driverDelegateClass";
+
+    private static final String AUTO = "auto";
+    private static final int MIN_THREAD_COUNT = 3;
+    private static final int THREADS_PER_PROCESSOR = 2;
+
     private ApplicationContext applicationContext;
 
     private SchedulerFactoryBean schedulerFactoryBean;
@@ -46,7 +86,8 @@ public class MotechSchedulerFactoryBean {
     @PostConstruct
     public void init() {
         schedulerFactoryBean = new SchedulerFactoryBean();
-        schedulerFactoryBean.setQuartzProperties(schedulerProperties);
+        schedulerFactoryBean.setQuartzProperties(buildQuartzProperties(schedulerProperties,
+                Runtime.getRuntime().availableProcessors()));
         schedulerFactoryBean.setWaitForJobsToCompleteOnShutdown(getBooleanWithDefault(schedulerProperties.getProperty("scheduler.waitForJobsToCompleteOnShutdown"), true));
         schedulerFactoryBean.setApplicationContextSchedulerContextKey("applicationContext");
         schedulerFactoryBean.setApplicationContext(applicationContext);
@@ -83,6 +124,57 @@ public class MotechSchedulerFactoryBean {
         return getQuartzSchedulerFactoryBean().getScheduler();
     }
 
+    /**
+     * Builds the Quartz configuration out of the given scheduler properties. Scheduler settings are translated into
+     * their Quartz counterparts, Quartz properties present in the given properties take precedence over them.
+     *
+     * @param schedulerProperties the properties of the scheduler
+     * @param availableProcessors the number of available processors, used for sizing the thread pool
+     * @return the properties for Quartz
+     */
+    static Properties buildQuartzProperties(Properties schedulerProperties, int availableProcessors) {
+        Properties quartzProperties = new Properties();
+        quartzProperties.putAll(schedulerProperties);
+
+        if (parseBoolean(schedulerProperties.getProperty(CLUSTERED))) {
+            setIfAbsent(quartzProperties, QUARTZ_IS_CLUSTERED, Boolean.TRUE.toString());
+            setIfAbsent(quartzProperties, QUARTZ_INSTANCE_ID, "AUTO");
+            setIfAbsent(quartzProperties, QUARTZ_CLUSTER_CHECKIN_INTERVAL, schedulerProperties.getProperty(CLUSTER_CHECKIN_INTERVAL));
+        }
+
+        String threadCount = schedulerProperties.getProperty(THREAD_COUNT);
+        if (AUTO.equalsIgnoreCase(StringUtils.trim(threadCount))) {
+            threadCount = String.valueOf(Math.max(MIN_THREAD_COUNT, availableProcessors * THREADS_PER_PROCESSOR));
+        }
+        setIfAbsent(quartzProperties, QUARTZ_THREAD_COUNT, StringUtils.trim(threadCount));
+
+        String batchMaxSize = StringUtils.defaultIfBlank(schedulerProperties.getProperty(BATCH_MAX_SIZE),
+                quartzProperties.getProperty(QUARTZ_THREAD_COUNT));
+        setIfAbsent(quartzProperties, QUARTZ_BATCH_MAX_COUNT, StringUtils.trim(batchMaxSize));
+        setIfAbsent(quartzProperties, QUARTZ_BATCH_FIRE_AHEAD_TIME_WINDOW,
+                StringUtils.trim(schedulerProperties.getProperty(BATCH_FIRE_AHEAD_TIME_WINDOW)));
+
+        // acquiring more than one trigger at a time from a JDBC store is only safe while holding the triggers lock
+        if (NumberUtils.toInt(quartzProperties.getProperty(QUARTZ_BATCH_MAX_COUNT), 1) > 1) {
+            setIfAbsent(quartzProperties, QUARTZ_ACQUIRE_TRIGGERS_WITHIN_LOCK, Boolean.TRUE.toString());
+        }
+
+        String driverDelegate = StringUtils.trim(quartzProperties.getProperty(QUARTZ_DRIVER_DELEGATE));
+        if (Drivers.QUARTZ_STD_JDBC_DELEGATE.equals(driverDelegate)) {
+            quartzProperties.setProperty(QUARTZ_DRIVER_DELEGATE, MotechStdJDBCDelegate.class.getName());
+        } else if (Drivers.QUARTZ_POSTGRESQL_DELEGATE.equals(driverDelegate)) {
+            quartzProperties.setProperty(QUARTZ_DRIVER_DELEGATE, MotechPostgreSQLDelegate.class.getName());
+        }
+
+        return quartzProperties;
+    }
+
+    private static void setIfAbsent(Properties properties, String key, String value) {
+        if (StringUtils.isNotBlank(value) && StringUtils.isBlank(properties.getProperty(key))) {
+            properties.setProperty(key, value);
+        }
+    }
+
     private boolean getBooleanWithDefault(String s, boolean defaultValue) {
         return s != null ? getBoolean(s) : defaultValue;
     }
@@ -0,0 +1,29 @@
+package org.motechproject.scheduler.factory;
+
+import org.quartz.JobDetail;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * The driver delegate used by the scheduler for MySQL and the other databases. Besides storing jobs like the {@link StdJDBCDelegate}, it
+ * writes their subject and UI defined flag to the SUBJECT and UI_DEFINED columns, in the same transaction.
+ */
+public class MotechStdJDBCDelegate extends StdJDBCDelegate {
+
+    @Override
+    public int insertJobDetail(Connection conn, JobDetail job) throws IOException, SQLException {
+        int inserted = super.insertJobDetail(conn, job);
+        JobColumns.update(conn, rtp(JobColumns.UPDATE_JOB_COLUMNS), job);
+        return inserted;
+    }
+
+    @Override
+    public int updateJobDetail(Connection conn, JobDetail job) throws IOException, SQLException {
+        int updated = super.updateJobDetail(conn, job);
+        JobColumns.update(conn, rtp(JobColumns.UPDATE_JOB_COLUMNS), job);
+        return updated;
+    }
+}
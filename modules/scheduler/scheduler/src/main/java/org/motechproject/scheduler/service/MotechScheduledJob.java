@@ -4,6 +4,8 @@ import org.motechproject.commons.api.TasksEventParser;
 import org.motechproject.event.MotechEvent;
 import org.motechproject.event.listener.EventRelay;
 import org.motechproject.scheduler.constants.SchedulerConstants;
+import org.motechproject.scheduler.service.impl.ScheduledEventPublisher;
+import org.motechproject.scheduler.util.JobDataCodec;
 import org.quartz.Job;
 import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
@@ -14,14 +16,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 
-import java.util.Map;
-
 /**
  * Represents a MOTECH job scheduled with quartz. This class implements the {@code org.quartz.Job} interface -
  * its execute method will be called when a MOTECH job in quartz triggers. Since jobs in MOTECH are basically {@link org.motechproject.event.MotechEvent}s
- * getting published on a quartz schedule, upon execution this class retrieves the {@link org.motechproject.event.listener.EventRelay}
- * from the application context and uses it to immediately publish the event scheduled with this job. For every execution
- * a new copy of the event is constructed.
+ * getting published on a quartz schedule, upon execution this class hands the event scheduled with this job over to
+ * the {@link ScheduledEventPublisher} found in the scheduler context, which publishes events of jobs firing at the same
+ * time in batches. If the publisher is not available, the {@link org.motechproject.event.listener.EventRelay} is
+ * retrieved from the application context and used to immediately publish the event. For every execution a new copy of
+ * the event is constructed.
  */
 public class MotechScheduledJob implements Job {
 
@@ -33,27 +35,23 @@ public class MotechScheduledJob implements Job {
      * @param jobExecutionContext  the executionContext of the job provided by Quartz
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void execute(JobExecutionContext jobExecutionContext) {
 
-        LOGGER.info("executing...");
+        LOGGER.debug("executing...");
 
         try {
             JobDetail jobDetail = jobExecutionContext.getJobDetail();
             JobDataMap jobDataMap = jobDetail.getJobDataMap();
 
             String jobId = jobDetail.getKey().getName();
-            String eventType = jobDataMap.getString(SchedulerConstants.EVENT_TYPE_KEY_NAME);
-            Map<String, Object> params = jobDataMap.getWrappedMap();
-            params.remove(SchedulerConstants.EVENT_TYPE_KEY_NAME);
+            String eventType = JobDataCodec.getSubject(jobDataMap);
 
-            MotechEvent motechEvent = new MotechEvent(eventType, params);
-            motechEvent.getMetadata().putAll((Map<String, Object>) params.get(SchedulerConstants.EVENT_METADATA));
-            params.remove(SchedulerConstants.EVENT_METADATA);
+            MotechEvent motechEvent = new MotechEvent(eventType, JobDataCodec.decodeParameters(jobDataMap));
+            motechEvent.getMetadata().putAll(JobDataCodec.decodeMetadata(jobDataMap));
             motechEvent.getParameters().put(MotechSchedulerService.JOB_ID_KEY, jobId);
             motechEvent.getParameters().put(TasksEventParser.CUSTOM_PARSER_EVENT_KEY, SchedulerConstants.PARSER_NAME);
 
-            LOGGER.info("Sending Motech Event Message: " + motechEvent);
+            LOGGER.debug("Sending Motech Event Message: {}", motechEvent);
 
             SchedulerContext schedulerContext;
             try {
@@ -63,9 +61,14 @@ public class MotechScheduledJob implements Job {
                 return;
             }
 
-            ApplicationContext applicationContext = (ApplicationContext) schedulerContext.get("applicationContext");
-            EventRelay eventRelay = applicationContext.getBean(EventRelay.class);
-            eventRelay.sendEventMessage(motechEvent);
+            ScheduledEventPublisher publisher = (ScheduledEventPublisher) schedulerContext.get(ScheduledEventPublisher.SCHEDULER_CONTEXT_KEY);
+            if (publisher != null) {
+                publisher.publish(motechEvent, jobExecutionContext.getScheduledFireTime());
+            } else {
+                ApplicationContext applicationContext = (ApplicationContext) schedulerContext.get("applicationContext");
+                EventRelay eventRelay = applicationContext.getBean(EventRelay.class);
+                eventRelay.sendEventMessage(motechEvent);
+            }
         } catch (RuntimeException e) {
             LOGGER.error("Job execution failed.", e);
         }
@@ -82,4 +82,44 @@ public interface MotechSchedulerActionProxyService {
      * @param subject  the subject for deleting jobs
      */
     void unscheduleJobs(String subject);
+
+    /**
+     * Schedules a cron job for each of the given external IDs in a single bulk operation. The external ID is passed
+     * to the job as the {@code JobID} parameter of the {@code MotechEvent}.
+     *
+     * @param subject  the subject for {@code MotechEvent} fired, when job is triggered, not null
+     * @param externalIds  the external IDs of jobs, one job is scheduled for each of them, not null
+     * @param parameters  the parameters for {@code MotechEvent}, not null
+     * @param cronExpression  the cron expression defining when jobs should be triggered, not null
+     * @param startTime  the {@code DateTime} at which should become ACTIVE, not null
+     * @param endTime  the {@code DateTime} at which jobs should be stopped, null treated as never end
+     * @param ignorePastFiresAtStart  the flag defining whether jobs should ignore past fires at start or not, not null
+     * @throws org.motechproject.scheduler.exception.MotechSchedulerException if some of the jobs could not be
+     * scheduled, after all other jobs were scheduled
+     */
+    void scheduleCronJobs(String subject, List<Object> externalIds, Map<Object, Object> parameters,
+                          String cronExpression, DateTime startTime, DateTime endTime, Boolean ignorePastFiresAtStart);
+
+    /**
+     * Schedules a run once job for each of the given external IDs in a single bulk operation. The external ID is
+     * passed to the job as the {@code JobID} parameter of the {@code MotechEvent}.
+     *
+     * @param subject  the subject for {@code MotechEvent} fired, when job is triggered, not null
+     * @param externalIds  the external IDs of jobs, one job is scheduled for each of them, not null
+     * @param parameters  the parameters for {@code MotechEvent}, not null
+     * @param startDate  the {@code DateTime} at which jobs should be fired, not null
+     * @throws org.motechproject.scheduler.exception.MotechSchedulerException if some of the jobs could not be
+     * scheduled, after all other jobs were scheduled
+     */
+    void scheduleRunOnceJobs(String subject, List<Object> externalIds, Map<Object, Object> parameters, DateTime startDate);
+
+    /**
+     * Unschedules cron and run once jobs with the given subject and external IDs in a single bulk operation.
+     *
+     * @param subject  the subject of jobs, not null
+     * @param externalIds  the external IDs of jobs, not null
+     * @throws org.motechproject.scheduler.exception.MotechSchedulerException if some of the jobs could not be
+     * unscheduled, after all other jobs were unscheduled
+     */
+    void unscheduleJobsWithIds(String subject, List<Object> externalIds);
 }
@@ -1,6 +1,7 @@
 package org.motechproject.scheduler.service;
 
 import org.joda.time.DateTime;
+import org.motechproject.scheduler.contract.BulkOperationResult;
 import org.motechproject.scheduler.contract.CronSchedulableJob;
 import org.motechproject.scheduler.contract.DayOfWeekSchedulableJob;
 import org.motechproject.scheduler.contract.JobBasicInfo;
@@ -10,6 +11,7 @@ import org.motechproject.scheduler.contract.RepeatingSchedulableJob;
 import org.motechproject.scheduler.contract.RunOnceSchedulableJob;
 import org.motechproject.scheduler.contract.SchedulableJob;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -174,14 +176,15 @@ public interface MotechSchedulerService {
     void safeUnscheduleJob(String subject, String externalId);
 
     /**
-     * Unschedules all jobs with given prefix.
+     * Unschedules all jobs whose IDs start with the given prefix. The jobs are found with an indexed query
+     * and removed from the job store in a single transaction.
      *
      * @param jobIdPrefix the jobs prefix
      */
     void unscheduleAllJobs(String jobIdPrefix);
 
     /**
-     * Unschedules all jobs with given prefix. Logs all exceptions instead of throwing them.
+     * Unschedules all jobs whose IDs start with the given prefix. Logs all exceptions instead of throwing them.
      *
      * @param jobIdPrefix the jobs prefix
      */
@@ -271,4 +274,25 @@ public interface MotechSchedulerService {
      * @return the job matching the given information
      */
     SchedulableJob getJob(JobBasicInfo jobInfo);
+
+    /**
+     * Schedules all given jobs. The jobs are validated and built up front, then stored in the job store in chunks,
+     * each chunk in a single transaction. The size of the chunks can be set with the
+     * {@code scheduler.bulk.chunkSize} property and defaults to 500. Existing jobs with the same IDs are replaced.
+     * Jobs which are invalid or can't be stored are reported in the result and don't abort scheduling of the others.
+     *
+     * @param jobs  the jobs to be scheduled, not null
+     * @return the IDs of scheduled jobs and the reasons of failures
+     */
+    BulkOperationResult scheduleJobs(Collection<? extends SchedulableJob> jobs);
+
+    /**
+     * Unschedules all jobs with given IDs. The jobs are removed from the job store in chunks, each chunk in a single
+     * transaction. Jobs which don't exist are ignored. Jobs which can't be removed are reported in the result and
+     * don't abort unscheduling of the others.
+     *
+     * @param jobIds  the IDs of jobs to be unscheduled, not null
+     * @return the IDs of unscheduled jobs and the reasons of failures
+     */
+    BulkOperationResult unscheduleJobs(Collection<? extends JobId> jobIds);
 }
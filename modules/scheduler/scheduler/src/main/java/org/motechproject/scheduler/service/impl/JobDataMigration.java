@@ -0,0 +1,331 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.motechproject.commons.sql.util.Drivers;
+import org.motechproject.scheduler.util.JobDataCodec;
+import org.quartz.JobDataMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_METADATA;
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_TYPE_KEY_NAME;
+
+/**
+ * Converts jobs stored by older versions of the scheduler, before the scheduler is started. The job data of such
+ * jobs is a serialized {@link JobDataMap}, it is rewritten as properties holding values encoded with the
+ * {@link JobDataCodec}, which is the format used by the job store since job data is kept as strings only. The SUBJECT
+ * and UI_DEFINED columns of the converted jobs are filled as well. Jobs stored since then have their columns written
+ * by the driver delegate of the scheduler, in the transaction storing them, so only jobs stored with a driver
+ * delegate other than {@link org.motechproject.scheduler.factory.MotechStdJDBCDelegate} or
+ * {@link org.motechproject.scheduler.factory.MotechPostgreSQLDelegate} are caught up here later. Jobs are processed in
+ * batches, each batch in its own transaction.
+ * Jobs whose data can not be read are left unchanged and converted on a later start.
+ */
+public class JobDataMigration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobDataMigration.class);
+
+    private static final String TABLE_PREFIX = "org.quartz.jobStore.tablePrefix";
+    private static final String DRIVER = "org.quartz.dataSource.motechDS.driver";
+    private static final String JOB_DETAILS = "JOB_DETAILS";
+    private static final String TRIGGERS = "TRIGGERS";
+    private static final String SCHED_NAME = "SCHED_NAME";
+    private static final String JOB_NAME = "JOB_NAME";
+    private static final String JOB_GROUP = "JOB_GROUP";
+    private static final String TRIGGER_NAME = "TRIGGER_NAME";
+    private static final String TRIGGER_GROUP = "TRIGGER_GROUP";
+    private static final String JOB_DATA = "JOB_DATA";
+    private static final String SUBJECT = "SUBJECT";
+    private static final String UI_DEFINED = "UI_DEFINED";
+    private static final int BATCH_SIZE = 500;
+    private static final byte[] SERIALIZATION_MAGIC = {(byte) 0xAC, (byte) 0xED};
+
+    private final DataSource dataSource;
+    private final Properties sqlProperties;
+
+    public JobDataMigration(DataSource dataSource, Properties sqlProperties) {
+        this.dataSource = dataSource;
+        this.sqlProperties = sqlProperties;
+    }
+
+    /**
+     * Converts all jobs whose subject column is not filled yet.
+     *
+     * @throws SQLException if the jobs could not be read or updated
+     */
+    public void migrate() throws SQLException {
+        int migrated = 0;
+        int failed = 0;
+        int batch;
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            do {
+                // jobs that could not be converted are left as they are and skipped, they come first in the order
+                // of the query since all the jobs before them were converted
+                List<StoredJob> jobs = selectJobs(conn, failed);
+                batch = jobs.size();
+
+                int converted = migrateBatch(conn, jobs);
+                conn.commit();
+
+                migrated += converted;
+                failed += batch - converted;
+            } while (batch == BATCH_SIZE);
+        }
+
+        if (migrated > 0) {
+            LOGGER.info("Converted the data of {} jobs", migrated);
+        }
+        if (failed > 0) {
+            LOGGER.warn("Unable to convert the data of {} jobs, the conversion will be retried on the next start", failed);
+        }
+    }
+
+    private List<StoredJob> selectJobs(Connection conn, int offset) throws SQLException {
+        List<StoredJob> jobs = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(buildSelectJobsQuery(offset));
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                jobs.add(new StoredJob(rs.getString(1), rs.getString(2), rs.getString(3), rs.getBytes(4)));
+            }
+        }
+
+        return jobs;
+    }
+
+    private int migrateBatch(Connection conn, List<StoredJob> jobs) throws SQLException {
+        int converted = 0;
+
+        try (PreparedStatement updateJob = conn.prepareStatement(buildUpdateJobQuery())) {
+            for (StoredJob job : jobs) {
+                if (migrateJob(conn, job, updateJob)) {
+                    converted++;
+                }
+            }
+            updateJob.executeBatch();
+        }
+
+        return converted;
+    }
+
+    private boolean migrateJob(Connection conn, StoredJob job, PreparedStatement updateJob) throws SQLException {
+        byte[] jobData = job.jobData;
+        String subject = "";
+        boolean uiDefined = false;
+
+        try {
+            JobDataMap jobDataMap = readJobData(jobData);
+            String storedSubject = JobDataCodec.getSubject(jobDataMap);
+            if (storedSubject != null) {
+                subject = storedSubject;
+            }
+            uiDefined = JobDataCodec.isUiDefined(jobDataMap);
+
+            if (isSerialized(jobData)) {
+                byte[] encodedData = toProperties(encodeLegacyJobData(jobDataMap));
+                migrateTriggers(conn, job);
+                jobData = encodedData;
+            }
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // writing back the serialized data would make the job unreadable for the job store, so the job is left
+            // unconverted until the classes of its data are available
+            LOGGER.error("Unable to convert the data of job {}", job.jobName, e);
+            return false;
+        }
+
+        updateJob.setBytes(1, jobData);
+        updateJob.setString(2, subject);
+        updateJob.setBoolean(3, uiDefined);
+        updateJob.setString(4, job.schedulerName);
+        updateJob.setString(5, job.jobName);
+        updateJob.setString(6, job.jobGroup);
+        updateJob.addBatch();
+        return true;
+    }
+
+    // the values of a serialized map are the raw values of the event, so they are encoded as they are, even if they
+    // look like values encoded by the codec, only the nested metadata map is flattened
+    static JobDataMap encodeLegacyJobData(JobDataMap jobDataMap) {
+        JobDataMap encoded = new JobDataMap();
+        for (Map.Entry<String, Object> entry : jobDataMap.getWrappedMap().entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+
+            if (EVENT_TYPE_KEY_NAME.equals(key)) {
+                if (value != null) {
+                    encoded.put(key, value.toString());
+                }
+            } else if (EVENT_METADATA.equals(key) && value instanceof Map) {
+                for (Map.Entry<?, ?> metadata : ((Map<?, ?>) value).entrySet()) {
+                    encoded.put(JobDataCodec.METADATA_PREFIX + metadata.getKey(),
+                            JobDataCodec.encodeValue(metadata.getValue()));
+                }
+            } else {
+                encoded.put(key, JobDataCodec.encodeValue(value));
+            }
+        }
+        return encoded;
+    }
+
+    private void migrateTriggers(Connection conn, StoredJob job) throws SQLException, IOException, ClassNotFoundException {
+        List<Object[]> triggers = new ArrayList<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(buildSelectTriggersQuery())) {
+            stmt.setString(1, job.schedulerName);
+            stmt.setString(2, job.jobName);
+            stmt.setString(3, job.jobGroup);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    triggers.add(new Object[] {rs.getString(1), rs.getString(2), rs.getBytes(3)});
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(buildUpdateTriggerQuery())) {
+            for (Object[] trigger : triggers) {
+                byte[] triggerData = (byte[]) trigger[2];
+                if (!isSerialized(triggerData)) {
+                    continue;
+                }
+
+                JobDataMap encoded = new JobDataMap();
+                for (Map.Entry<String, Object> entry : readJobData(triggerData).getWrappedMap().entrySet()) {
+                    encoded.put(entry.getKey(), JobDataCodec.encodeValue(entry.getValue()));
+                }
+
+                stmt.setBytes(1, toProperties(encoded));
+                stmt.setString(2, job.schedulerName);
+                stmt.setString(3, (String) trigger[0]);
+                stmt.setString(4, (String) trigger[1]);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private JobDataMap readJobData(byte[] jobData) throws IOException, ClassNotFoundException {
+        if (jobData == null || jobData.length == 0) {
+            return new JobDataMap();
+        }
+
+        if (isSerialized(jobData)) {
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(jobData))) {
+                return (JobDataMap) ois.readObject();
+            }
+        }
+
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(jobData));
+        JobDataMap jobDataMap = new JobDataMap();
+        for (String key : properties.stringPropertyNames()) {
+            jobDataMap.put(key, properties.getProperty(key));
+        }
+        return jobDataMap;
+    }
+
+    // the same format the job store uses for job data kept as properties
+    private byte[] toProperties(JobDataMap jobDataMap) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<String, Object> entry : jobDataMap.getWrappedMap().entrySet()) {
+            properties.setProperty(entry.getKey(), (String) entry.getValue());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out, "");
+        return out.toByteArray();
+    }
+
+    private boolean isSerialized(byte[] data) {
+        return data != null && data.length >= 2 && data[0] == SERIALIZATION_MAGIC[0] && data[1] == SERIALIZATION_MAGIC[1];
+    }
+
+    private String buildSelectJobsQuery(int offset) {
+        return new StringBuilder("SELECT ")
+                .append(name(SCHED_NAME)).append(", ")
+                .append(name(JOB_NAME)).append(", ")
+                .append(name(JOB_GROUP)).append(", ")
+                .append(name(JOB_DATA))
+                .append(" FROM ").append(table(JOB_DETAILS))
+                .append(" WHERE ").append(name(SUBJECT)).append(" IS NULL")
+                .append(" ORDER BY ")
+                .append(name(SCHED_NAME)).append(", ")
+                .append(name(JOB_NAME)).append(", ")
+                .append(name(JOB_GROUP))
+                .append(" LIMIT ").append(BATCH_SIZE)
+                .append(" OFFSET ").append(offset)
+                .toString();
+    }
+
+    private String buildUpdateJobQuery() {
+        return new StringBuilder("UPDATE ").append(table(JOB_DETAILS))
+                .append(" SET ")
+                .append(name(JOB_DATA)).append(" = ?, ")
+                .append(name(SUBJECT)).append(" = ?, ")
+                .append(name(UI_DEFINED)).append(" = ?")
+                .append(" WHERE ")
+                .append(name(SCHED_NAME)).append(" = ? AND ")
+                .append(name(JOB_NAME)).append(" = ? AND ")
+                .append(name(JOB_GROUP)).append(" = ?")
+                .toString();
+    }
+
+    private String buildSelectTriggersQuery() {
+        return new StringBuilder("SELECT ")
+                .append(name(TRIGGER_NAME)).append(", ")
+                .append(name(TRIGGER_GROUP)).append(", ")
+                .append(name(JOB_DATA))
+                .append(" FROM ").append(table(TRIGGERS))
+                .append(" WHERE ")
+                .append(name(SCHED_NAME)).append(" = ? AND ")
+                .append(name(JOB_NAME)).append(" = ? AND ")
+                .append(name(JOB_GROUP)).append(" = ?")
+                .toString();
+    }
+
+    private String buildUpdateTriggerQuery() {
+        return new StringBuilder("UPDATE ").append(table(TRIGGERS))
+                .append(" SET ").append(name(JOB_DATA)).append(" = ?")
+                .append(" WHERE ")
+                .append(name(SCHED_NAME)).append(" = ? AND ")
+                .append(name(TRIGGER_NAME)).append(" = ? AND ")
+                .append(name(TRIGGER_GROUP)).append(" = ?")
+                .toString();
+    }
+
+    private String table(String name) {
+        return name(sqlProperties.getProperty(TABLE_PREFIX) + name);
+    }
+
+    private String name(String name) {
+        return Drivers.MYSQL_DRIVER.equals(sqlProperties.getProperty(DRIVER)) ? name : "\"" + name.toLowerCase() + "\"";
+    }
+
+    private static final class StoredJob {
+
+        private final String schedulerName;
+        private final String jobName;
+        private final String jobGroup;
+        private final byte[] jobData;
+
+        private StoredJob(String schedulerName, String jobName, String jobGroup, byte[] jobData) {
+            this.schedulerName = schedulerName;
+            this.jobName = jobName;
+            this.jobGroup = jobGroup;
+            this.jobData = jobData;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.joda.time.format.DateTimeFormat;
+import org.motechproject.scheduler.contract.JobBasicInfo;
+import org.motechproject.scheduler.contract.JobsSearchSettings;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+
+/**
+ * Builds the queries used for browsing scheduled jobs. A single query joins the triggers with their job details and
+ * the simple, cron and simple properties trigger tables, so that everything displayed for a job is retrieved at once.
+ * Filtering, sorting and paging are done by the database, all values are passed as statement parameters. Pages
+ * following a known job are retrieved by comparing the sort key with the sort key of that job, instead of skipping
+ * the rows of the preceding pages.
+ */
+class JobsQueryBuilder {
+
+    static final int TRIGGER_NAME_INDEX = 1;
+    static final int TRIGGER_GROUP_INDEX = 2;
+    static final int TRIGGER_STATE_INDEX = 3;
+    static final int TRIGGER_TYPE_INDEX = 4;
+    static final int START_TIME_INDEX = 5;
+    static final int END_TIME_INDEX = 6;
+    static final int NEXT_FIRE_TIME_INDEX = 7;
+    static final int UI_DEFINED_INDEX = 8;
+    static final int REPEAT_COUNT_INDEX = 9;
+    static final int REPEAT_INTERVAL_INDEX = 10;
+    static final int TIMES_TRIGGERED_INDEX = 11;
+    static final int CRON_EXPRESSION_INDEX = 12;
+    static final int INTERVAL_UNIT_INDEX = 13;
+    static final int TIME_ZONE_INDEX = 14;
+    static final int INTERVAL_INDEX = 15;
+    static final int INTERVAL_TIMES_TRIGGERED_INDEX = 16;
+
+    private static final String TRIGGERS = "TRIGGERS";
+    private static final String JOB_DETAILS = "JOB_DETAILS";
+    private static final String SIMPLE_TRIGGERS = "SIMPLE_TRIGGERS";
+    private static final String CRON_TRIGGERS = "CRON_TRIGGERS";
+    private static final String SIMPROP_TRIGGERS = "SIMPROP_TRIGGERS";
+    private static final String SCHED_NAME = "SCHED_NAME";
+    private static final String TRIGGER_NAME = "TRIGGER_NAME";
+    private static final String TRIGGER_GROUP = "TRIGGER_GROUP";
+    private static final String TRIGGER_STATE = "TRIGGER_STATE";
+    private static final String TRIGGER_TYPE = "TRIGGER_TYPE";
+    private static final String JOB_NAME = "JOB_NAME";
+    private static final String JOB_GROUP = "JOB_GROUP";
+    private static final String START_TIME = "START_TIME";
+    private static final String END_TIME = "END_TIME";
+    private static final String NEXT_FIRE_TIME = "NEXT_FIRE_TIME";
+    private static final String UI_DEFINED = "UI_DEFINED";
+    private static final String REPEAT_COUNT = "REPEAT_COUNT";
+    private static final String REPEAT_INTERVAL = "REPEAT_INTERVAL";
+    private static final String TIMES_TRIGGERED = "TIMES_TRIGGERED";
+    private static final String CRON_EXPRESSION = "CRON_EXPRESSION";
+    private static final String STR_1 = "STR_1";
+    private static final String STR_2 = "STR_2";
+    private static final String INT_1 = "INT_1";
+    private static final String INT_2 = "INT_2";
+
+    private static final String TRIGGER_ALIAS = "A";
+    private static final String JOB_ALIAS = "B";
+    private static final String SIMPLE_ALIAS = "S";
+    private static final String CRON_ALIAS = "C";
+    private static final String SIMPROP_ALIAS = "P";
+
+    private static final String AND = " AND ";
+    private static final String OR = " OR ";
+    private static final String ASC = "ASC";
+    private static final String DESC = "DESC";
+    private static final int ALL_ACTIVITIES = 3;
+    private static final int ALL_STATUSES = 4;
+
+    private static final List<String> OK_STATES = Arrays.asList("WAITING", "ACQUIRED", "EXECUTING", "COMPLETE");
+    private static final List<String> PAUSED_STATES = Arrays.asList("PAUSED", "PAUSED_BLOCKED");
+
+    private final String tablePrefix;
+    private final boolean mysql;
+
+    /**
+     * Constructor.
+     *
+     * @param tablePrefix the prefix of Quartz tables
+     * @param mysql true if the queries are built for MySQL, false for the other databases
+     */
+    JobsQueryBuilder(String tablePrefix, boolean mysql) {
+        this.tablePrefix = tablePrefix;
+        this.mysql = mysql;
+    }
+
+    /**
+     * Builds the query retrieving the jobs matching the given settings.
+     *
+     * @param settings the filtering, sorting and paging settings
+     * @param schedulerName the name of the scheduler owning the jobs
+     * @param now the current time in milliseconds, used for filtering by activity
+     * @param afterLastJob true if the jobs following the last job from the settings should be retrieved, false if
+     *                     the page number from the settings should be used
+     * @return the query
+     */
+    JobsQuery buildSelectQuery(JobsSearchSettings settings, String schedulerName, long now, boolean afterLastJob) {
+        JobsQuery query = new JobsQuery();
+
+        query.append("SELECT ")
+                .append(column(TRIGGER_ALIAS, TRIGGER_NAME)).append(", ")
+                .append(column(TRIGGER_ALIAS, TRIGGER_GROUP)).append(", ")
+                .append(column(TRIGGER_ALIAS, TRIGGER_STATE)).append(", ")
+                .append(column(TRIGGER_ALIAS, TRIGGER_TYPE)).append(", ")
+                .append(column(TRIGGER_ALIAS, START_TIME)).append(", ")
+                .append(column(TRIGGER_ALIAS, END_TIME)).append(", ")
+                .append(column(TRIGGER_ALIAS, NEXT_FIRE_TIME)).append(", ")
+                .append(column(JOB_ALIAS, UI_DEFINED)).append(", ")
+                .append(column(SIMPLE_ALIAS, REPEAT_COUNT)).append(", ")
+                .append(column(SIMPLE_ALIAS, REPEAT_INTERVAL)).append(", ")
+                .append(column(SIMPLE_ALIAS, TIMES_TRIGGERED)).append(", ")
+                .append(column(CRON_ALIAS, CRON_EXPRESSION)).append(", ")
+                .append(column(SIMPROP_ALIAS, STR_1)).append(", ")
+                .append(column(SIMPROP_ALIAS, STR_2)).append(", ")
+                .append(column(SIMPROP_ALIAS, INT_1)).append(", ")
+                .append(column(SIMPROP_ALIAS, INT_2))
+                .append(" FROM ").append(table(TRIGGERS)).append(" AS ").append(TRIGGER_ALIAS)
+                .append(" JOIN ").append(table(JOB_DETAILS)).append(" AS ").append(JOB_ALIAS).append(" ON ")
+                .append(column(JOB_ALIAS, SCHED_NAME)).append(" = ").append(column(TRIGGER_ALIAS, SCHED_NAME)).append(AND)
+                .append(column(JOB_ALIAS, JOB_NAME)).append(" = ").append(column(TRIGGER_ALIAS, JOB_NAME)).append(AND)
+                .append(column(JOB_ALIAS, JOB_GROUP)).append(" = ").append(column(TRIGGER_ALIAS, JOB_GROUP));
+
+        appendTriggerJoin(query, SIMPLE_TRIGGERS, SIMPLE_ALIAS);
+        appendTriggerJoin(query, CRON_TRIGGERS, CRON_ALIAS);
+        appendTriggerJoin(query, SIMPROP_TRIGGERS, SIMPROP_ALIAS);
+
+        appendWhereCondition(query, settings, schedulerName, now);
+
+        String sortColumn = getSortColumn(settings.getSortColumn());
+        String direction = getSortDirection(settings.getSortDirection());
+        List<String> sortKey = getSortKey(sortColumn);
+
+        if (afterLastJob) {
+            query.append(AND).append(tuple(TRIGGER_ALIAS, sortKey)).append(ASC.equals(direction) ? " > " : " < ")
+                    .append("(SELECT ").append(columnList(null, sortKey)).append(" FROM ").append(table(TRIGGERS))
+                    .append(" WHERE ").append(column(null, SCHED_NAME)).append(" = ?")
+                    .append(AND).append(column(null, TRIGGER_NAME)).append(" = ?")
+                    .append(AND).append(column(null, TRIGGER_GROUP)).append(" = ?)")
+                    .addParameters(schedulerName, settings.getLastJobName(), settings.getLastJobGroup());
+        }
+
+        query.append(" ORDER BY ");
+        for (int i = 0; i < sortKey.size(); ++i) {
+            if (i > 0) {
+                query.append(", ");
+            }
+            query.append(column(TRIGGER_ALIAS, sortKey.get(i))).append(' ').append(direction);
+        }
+
+        Integer rows = settings.getRows();
+        Integer page = settings.getPage();
+        if (rows != null && afterLastJob) {
+            query.append(" LIMIT ?").addParameters(rows);
+        } else if (rows != null && page != null) {
+            int offset = (page == 0) ? 0 : (page - 1) * rows;
+            query.append(" LIMIT ? OFFSET ?").addParameters(rows, offset);
+        }
+
+        return query;
+    }
+
+    /**
+     * Builds the query counting the jobs matching the given settings.
+     *
+     * @param settings the filtering settings
+     * @param schedulerName the name of the scheduler owning the jobs
+     * @param now the current time in milliseconds, used for filtering by activity
+     * @return the query
+     */
+    JobsQuery buildCountQuery(JobsSearchSettings settings, String schedulerName, long now) {
+        JobsQuery query = new JobsQuery();
+        query.append("SELECT COUNT(*) FROM ").append(table(TRIGGERS)).append(" AS ").append(TRIGGER_ALIAS);
+        appendWhereCondition(query, settings, schedulerName, now);
+        return query;
+    }
+
+    /**
+     * Builds the query retrieving the groups of jobs with the given name.
+     *
+     * @param schedulerName the name of the scheduler owning the jobs
+     * @param jobName the name of the jobs
+     * @return the query
+     */
+    JobsQuery buildJobGroupsQuery(String schedulerName, String jobName) {
+        JobsQuery query = new JobsQuery();
+        query.append("SELECT ").append(column(null, JOB_GROUP)).append(" FROM ").append(table(JOB_DETAILS))
+                .append(" WHERE ").append(column(null, SCHED_NAME)).append(" = ?")
+                .append(AND).append(column(null, JOB_NAME)).append(" = ?")
+                .addParameters(schedulerName, jobName);
+        return query;
+    }
+
+    private void appendTriggerJoin(JobsQuery query, String tableName, String alias) {
+        query.append(" LEFT JOIN ").append(table(tableName)).append(" AS ").append(alias).append(" ON ")
+                .append(column(alias, SCHED_NAME)).append(" = ").append(column(TRIGGER_ALIAS, SCHED_NAME)).append(AND)
+                .append(column(alias, TRIGGER_NAME)).append(" = ").append(column(TRIGGER_ALIAS, TRIGGER_NAME)).append(AND)
+                .append(column(alias, TRIGGER_GROUP)).append(" = ").append(column(TRIGGER_ALIAS, TRIGGER_GROUP));
+    }
+
+    private void appendWhereCondition(JobsQuery query, JobsSearchSettings settings, String schedulerName, long now) {
+        query.append(" WHERE ").append(column(TRIGGER_ALIAS, SCHED_NAME)).append(" = ?").addParameters(schedulerName);
+
+        if (isNotBlank(settings.getTimeFrom())) {
+            query.append(AND).append(column(TRIGGER_ALIAS, START_TIME)).append(" >= ?")
+                    .addParameters(parseDate(settings.getTimeFrom()));
+        }
+        if (isNotBlank(settings.getTimeTo())) {
+            query.append(AND).append(column(TRIGGER_ALIAS, START_TIME)).append(" <= ?")
+                    .addParameters(parseDate(settings.getTimeTo()));
+        }
+
+        appendActivityFilter(query, settings.getActivity(), now);
+        appendStatusFilter(query, settings.getStatus());
+
+        if (isNotBlank(settings.getName())) {
+            query.append(AND).append(column(TRIGGER_ALIAS, TRIGGER_NAME)).append(" LIKE ? ESCAPE '!'")
+                    .addParameters('%' + TriggerKeyFinder.escapeLikePattern(settings.getName()) + '%');
+        }
+    }
+
+    private void appendActivityFilter(JobsQuery query, String activity, long now) {
+        if (activity == null) {
+            return;
+        }
+
+        String[] activities = activity.split(",");
+        if (activities.length >= ALL_ACTIVITIES) {
+            return;
+        }
+
+        String startTime = column(TRIGGER_ALIAS, START_TIME);
+        String endTime = column(TRIGGER_ALIAS, END_TIME);
+
+        query.append(AND).append("(");
+        for (int i = 0; i < activities.length; ++i) {
+            if (i > 0) {
+                query.append(OR);
+            }
+            if (JobBasicInfo.ACTIVITY_NOTSTARTED.equals(activities[i])) {
+                query.append(startTime).append(" > ?").addParameters(now);
+            } else if (JobBasicInfo.ACTIVITY_FINISHED.equals(activities[i])) {
+                query.append("(").append(endTime).append(" < ?").append(AND).append(endTime).append(" <> 0)")
+                        .addParameters(now);
+            } else {
+                query.append("(").append(startTime).append(" <= ?").append(AND).append("(").append(endTime)
+                        .append(" >= ?").append(OR).append(endTime).append(" = 0))")
+                        .addParameters(now, now);
+            }
+        }
+        query.append(")");
+    }
+
+    private void appendStatusFilter(JobsQuery query, String status) {
+        if (status == null) {
+            return;
+        }
+
+        String[] statuses = status.split(",");
+        if (statuses.length >= ALL_STATUSES) {
+            return;
+        }
+
+        Set<String> states = new LinkedHashSet<>();
+        for (String element : statuses) {
+            if (JobBasicInfo.STATUS_ERROR.equals(element)) {
+                states.add(JobBasicInfo.STATUS_ERROR);
+            } else if (JobBasicInfo.STATUS_BLOCKED.equals(element)) {
+                states.add(JobBasicInfo.STATUS_BLOCKED);
+            } else if (JobBasicInfo.STATUS_PAUSED.equals(element)) {
+                states.addAll(PAUSED_STATES);
+            } else {
+                states.addAll(OK_STATES);
+            }
+        }
+
+        query.append(AND).append(column(TRIGGER_ALIAS, TRIGGER_STATE)).append(" IN (");
+        int i = 0;
+        for (String state : states) {
+            query.append(i++ > 0 ? ", ?" : "?").addParameters(state);
+        }
+        query.append(")");
+    }
+
+    private List<String> getSortKey(String sortColumn) {
+        return TRIGGER_NAME.equals(sortColumn) ?
+                Arrays.asList(TRIGGER_NAME, TRIGGER_GROUP) :
+                Arrays.asList(sortColumn, TRIGGER_NAME, TRIGGER_GROUP);
+    }
+
+    private String getSortColumn(String column) {
+        String sortColumn;
+
+        if ("startDate".equalsIgnoreCase(column)) {
+            sortColumn = START_TIME;
+        } else if ("endDate".equalsIgnoreCase(column)) {
+            sortColumn = END_TIME;
+        } else if ("status".equalsIgnoreCase(column)) {
+            sortColumn = TRIGGER_STATE;
+        } else if ("jobType".equalsIgnoreCase(column)) {
+            sortColumn = TRIGGER_TYPE;
+        } else {
+            sortColumn = TRIGGER_NAME;
+        }
+
+        return sortColumn;
+    }
+
+    private String getSortDirection(String direction) {
+        return DESC.equalsIgnoreCase(direction) ? DESC : ASC;
+    }
+
+    private long parseDate(String date) {
+        return DateTimeFormat.forPattern(MotechSchedulerDatabaseServiceImpl.DATE_FORMAT_PATTERN).parseDateTime(date)
+                .getMillis();
+    }
+
+    private String tuple(String alias, List<String> columns) {
+        return '(' + columnList(alias, columns) + ')';
+    }
+
+    private String columnList(String alias, List<String> columns) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columns.size(); ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(column(alias, columns.get(i)));
+        }
+        return sb.toString();
+    }
+
+    private String table(String name) {
+        return getCorrectNameRepresentation(tablePrefix + name);
+    }
+
+    private String column(String alias, String name) {
+        return alias == null ? getCorrectNameRepresentation(name) : alias + '.' + getCorrectNameRepresentation(name);
+    }
+
+    private String getCorrectNameRepresentation(String name) {
+        return mysql ? name : "\"" + name.toLowerCase() + "\"";
+    }
+
+    /**
+     * A query along with the values of its parameters.
+     */
+    static class JobsQuery {
+
+        private final StringBuilder sql = new StringBuilder();
+        private final List<Object> parameters = new ArrayList<>();
+
+        JobsQuery append(String part) {
+            sql.append(part);
+            return this;
+        }
+
+        JobsQuery append(char part) {
+            sql.append(part);
+            return this;
+        }
+
+        JobsQuery addParameters(Object... values) {
+            Collections.addAll(parameters, values);
+            return this;
+        }
+
+        String getSql() {
+            return sql.toString();
+        }
+
+        List<Object> getParameters() {
+            return parameters;
+        }
+
+        PreparedStatement prepare(Connection connection) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(getSql());
+            try {
+                for (int i = 0; i < parameters.size(); ++i) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+            return statement;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s", sql, parameters);
+        }
+    }
+}
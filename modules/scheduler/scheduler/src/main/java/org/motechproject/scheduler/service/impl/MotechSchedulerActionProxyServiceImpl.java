@@ -5,11 +5,16 @@ import org.joda.time.Period;
 import org.motechproject.commons.date.model.DayOfWeek;
 import org.motechproject.commons.date.model.Time;
 import org.motechproject.event.MotechEvent;
+import org.motechproject.scheduler.contract.BulkOperationResult;
+import org.motechproject.scheduler.contract.CronJobId;
 import org.motechproject.scheduler.contract.CronSchedulableJob;
 import org.motechproject.scheduler.contract.DayOfWeekSchedulableJob;
+import org.motechproject.scheduler.contract.JobId;
 import org.motechproject.scheduler.contract.RepeatingSchedulableJob;
 import org.motechproject.scheduler.contract.RepeatingPeriodSchedulableJob;
+import org.motechproject.scheduler.contract.RunOnceJobId;
 import org.motechproject.scheduler.contract.RunOnceSchedulableJob;
+import org.motechproject.scheduler.exception.MotechSchedulerException;
 import org.motechproject.scheduler.service.MotechSchedulerActionProxyService;
 import org.motechproject.scheduler.service.MotechSchedulerService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -91,6 +96,50 @@ public class MotechSchedulerActionProxyServiceImpl implements MotechSchedulerAct
         scheduler.safeUnscheduleAllJobs(subject);
     }
 
+    @Override
+    public void scheduleCronJobs(String subject, List<Object> externalIds, Map<Object, Object> parameters,
+                                 String cronExpression, DateTime startTime, DateTime endTime, Boolean ignorePastFiresAtStart) {
+        List<CronSchedulableJob> jobs = new ArrayList<>(externalIds.size());
+
+        for (Object externalId : externalIds) {
+            MotechEvent motechEvent = new MotechEvent(subject, createMotechEventParameters(parameters, externalId));
+            jobs.add(new CronSchedulableJob(motechEvent, cronExpression, startTime, endTime, ignorePastFiresAtStart));
+        }
+
+        assertNoFailures("schedule", scheduler.scheduleJobs(jobs));
+    }
+
+    @Override
+    public void scheduleRunOnceJobs(String subject, List<Object> externalIds, Map<Object, Object> parameters, DateTime startDate) {
+        List<RunOnceSchedulableJob> jobs = new ArrayList<>(externalIds.size());
+
+        for (Object externalId : externalIds) {
+            MotechEvent motechEvent = new MotechEvent(subject, createMotechEventParameters(parameters, externalId));
+            jobs.add(new RunOnceSchedulableJob(motechEvent, startDate));
+        }
+
+        assertNoFailures("schedule", scheduler.scheduleJobs(jobs));
+    }
+
+    @Override
+    public void unscheduleJobsWithIds(String subject, List<Object> externalIds) {
+        List<JobId> jobIds = new ArrayList<>(externalIds.size() * 2);
+
+        for (Object externalId : externalIds) {
+            jobIds.add(new CronJobId(subject, externalId.toString()));
+            jobIds.add(new RunOnceJobId(subject, externalId.toString()));
+        }
+
+        assertNoFailures("unschedule", scheduler.unscheduleJobs(jobIds));
+    }
+
+    private void assertNoFailures(String operation, BulkOperationResult result) {
+        if (result.hasFailures()) {
+            throw new MotechSchedulerException(String.format("Unable to %s %d jobs: %s", operation,
+                    result.getFailed().size(), result.getFailed()));
+        }
+    }
+
     private List<DayOfWeek> createDayOfWeeks(List<Object> list) {
         List<DayOfWeek> dayOfWeeks = new ArrayList<>(list.size());
 
@@ -105,6 +154,12 @@ public class MotechSchedulerActionProxyServiceImpl implements MotechSchedulerAct
         return dayOfWeeks;
     }
 
+    private Map<String, Object> createMotechEventParameters(Map<Object, Object> map, Object externalId) {
+        Map<String, Object> parameters = createMotechEventParameters(map);
+        parameters.put(MotechSchedulerService.JOB_ID_KEY, externalId.toString());
+        return parameters;
+    }
+
     private Map<String, Object> createMotechEventParameters(Map<Object, Object> map) {
         Map<String, Object> parameters = new HashMap<>(map.size());
 
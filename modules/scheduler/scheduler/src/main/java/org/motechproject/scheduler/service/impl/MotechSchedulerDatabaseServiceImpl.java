@@ -1,10 +1,8 @@
 package org.motechproject.scheduler.service.impl;
 
-import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormat;
 import org.motechproject.commons.sql.util.Drivers;
-import org.motechproject.scheduler.constants.SchedulerConstants;
 import org.motechproject.scheduler.contract.EventInfo;
 import org.motechproject.scheduler.contract.JobBasicInfo;
 import org.motechproject.scheduler.contract.JobDetailedInfo;
@@ -15,18 +13,18 @@ import org.motechproject.scheduler.contract.RunOnceJobId;
 import org.motechproject.scheduler.exception.MotechSchedulerJobRetrievalException;
 import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
 import org.motechproject.scheduler.service.MotechSchedulerDatabaseService;
-import org.quartz.CalendarIntervalTrigger;
-import org.quartz.CronScheduleBuilder;
-import org.quartz.CronTrigger;
+import org.motechproject.scheduler.service.impl.JobsQueryBuilder.JobsQuery;
+import org.motechproject.scheduler.util.JobDataCodec;
+import org.quartz.DateBuilder;
 import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
-import org.quartz.SimpleTrigger;
-import org.quartz.Trigger;
-import org.quartz.TriggerKey;
 import org.quartz.TriggerUtils;
-import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.impl.jdbcjobstore.Constants;
+import org.quartz.impl.triggers.CalendarIntervalTriggerImpl;
+import org.quartz.impl.triggers.SimpleTriggerImpl;
 import org.quartz.spi.OperableTrigger;
 import org.quartz.utils.DBConnectionManager;
 import org.slf4j.Logger;
@@ -35,49 +33,58 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TimeZone;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.CRON_EXPRESSION_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.END_TIME_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.INTERVAL_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.INTERVAL_TIMES_TRIGGERED_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.INTERVAL_UNIT_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.NEXT_FIRE_TIME_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.REPEAT_COUNT_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.REPEAT_INTERVAL_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.START_TIME_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.TIMES_TRIGGERED_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.TIME_ZONE_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.TRIGGER_GROUP_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.TRIGGER_NAME_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.TRIGGER_STATE_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.TRIGGER_TYPE_INDEX;
+import static org.motechproject.scheduler.service.impl.JobsQueryBuilder.UI_DEFINED_INDEX;
 
 /**
- * Motech Scheduler Database Service implementation
+ * Motech Scheduler Database Service implementation. Jobs are retrieved with a single query joining all the tables
+ * holding the displayed information, see {@link JobsQueryBuilder}, so that no additional calls to the job store
+ * are made for the retrieved rows.
  *
  * @see MotechSchedulerDatabaseService
  */
 @Service("schedulerDatabaseService")
 public class MotechSchedulerDatabaseServiceImpl implements MotechSchedulerDatabaseService {
 
+    static final String DATE_FORMAT_PATTERN = "Y-MM-dd HH:mm:ss";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(MotechSchedulerDatabaseServiceImpl.class);
-    private static final String DATE_FORMAT_PATTERN = "Y-MM-dd HH:mm:ss";
     private static final String DATA_SOURCE = "org.quartz.jobStore.dataSource";
     private static final String TABLE_PREFIX = "org.quartz.jobStore.tablePrefix";
-    private static final String UI_DEFINED = "uiDefined";
-    private static final String START_TIME = "START_TIME";
-    private static final String END_TIME = "END_TIME";
-    private static final String TRIGGER_NAME = "TRIGGER_NAME";
-    private static final String TRIGGER_GROUP = "TRIGGER_GROUP";
-    private static final String TRIGGER_STATE = "TRIGGER_STATE";
-    private static final String TRIGGER_TYPE = "TRIGGER_TYPE";
-    private static final String WAITING = "WAITING";
-    private static final String TRIGGERS = "TRIGGERS";
-    private static final String JOB_DETAILS = "JOB_DETAILS";
-    private static final String JOB_DATA = "JOB_DATA";
-    private static final String OR = " OR ";
-    private static final String AND = " AND ";
+    private static final String DRIVER = "org.quartz.dataSource.motechDS.driver";
+    private static final String ERROR = "ERROR";
+    private static final String BLOCKED = "BLOCKED";
+    private static final String PAUSED = "PAUSED";
+    private static final String PAUSED_BLOCKED = "PAUSED_BLOCKED";
 
     @Autowired
     private Properties sqlProperties;
@@ -87,88 +94,51 @@ public class MotechSchedulerDatabaseServiceImpl implements MotechSchedulerDataba
     @Autowired
     private MotechSchedulerFactoryBean motechSchedulerFactoryBean;
 
+    private JobsQueryBuilder queryBuilder;
+
     @PostConstruct
     public void init() {
         scheduler = motechSchedulerFactoryBean.getQuartzScheduler();
+        queryBuilder = new JobsQueryBuilder(sqlProperties.getProperty(TABLE_PREFIX),
+                Drivers.MYSQL_DRIVER.equals(sqlProperties.getProperty(DRIVER)));
     }
 
     @Override
     public int countJobs(JobsSearchSettings jobsSearchSettings) throws MotechSchedulerJobRetrievalException {
-        String query = buildJobsCountSqlQuery(jobsSearchSettings);
-        int rowCount;
         try {
-            rowCount = executeCountQuery(query);
+            JobsQuery query = queryBuilder.buildCountQuery(jobsSearchSettings, scheduler.getSchedulerName(),
+                    DateTime.now().getMillis());
             LOGGER.debug("Executing {}", query);
-            return rowCount;
-        } catch (SQLException e) {
+            return executeCountQuery(query);
+        } catch (SQLException | SchedulerException e) {
             throw new MotechSchedulerJobRetrievalException("Jobs counting failed.", e);
         }
     }
 
-    private String getQuery(JobsSearchSettings jobsSearchSettings){
-        String query;
-        if (isBlank(jobsSearchSettings.getName()) &&  isBlank(jobsSearchSettings.getActivity()) && isBlank(jobsSearchSettings.getStatus()) && isBlank(jobsSearchSettings.getTimeFrom()) && isBlank(jobsSearchSettings.getTimeTo())) { //NO CHECKSTYLE BooleanExpressionComplexity
-            query = buildJobsAllSqlQuery();
-        } else if (isBlank(jobsSearchSettings.getActivity()) || isBlank(jobsSearchSettings.getStatus())) {
-            query = null;
-        } else {
-            query = buildJobsBasicInfoSqlQuery(jobsSearchSettings);
-        }
-        return query;
-    }
-    
     @Override
     public List<JobBasicInfo> getScheduledJobsBasicInfo(JobsSearchSettings jobsSearchSettings) throws MotechSchedulerJobRetrievalException {
-        List<JobBasicInfo> jobBasicInfos = new LinkedList<>();
-        String query = getQuery(jobsSearchSettings);
-        if(query == null) {
-            return jobBasicInfos;
+        if (hasFilters(jobsSearchSettings) &&
+                (isBlank(jobsSearchSettings.getActivity()) || isBlank(jobsSearchSettings.getStatus()))) {
+            return new LinkedList<>();
         }
 
-        LOGGER.debug("Executing {}", query);
-
-        List<String> columnNames = new LinkedList<>();
-        columnNames.add(TRIGGER_NAME);
-        columnNames.add(TRIGGER_GROUP);
-        columnNames.add(JOB_DATA);
-        List<List<Object>> objects;
+        long now = DateTime.now().getMillis();
+        boolean afterLastJob = isNotBlank(jobsSearchSettings.getLastJobName()) &&
+                isNotBlank(jobsSearchSettings.getLastJobGroup());
 
         try {
-            objects = executeQuery(query, columnNames);
-
-            for (List<Object> row : objects) {
-                JobKey jobKey = new JobKey(row.get(0).toString(), row.get(1).toString());
-                Trigger trigger = scheduler.getTriggersOfJob(jobKey).get(0);
-                String jobName = jobKey.getName();
-                String jobGroup = jobKey.getGroup();
-                String jobType = getJobType(jobKey);
-                String activity = getJobActivity(trigger);
-                String info = getJobInfo(trigger, jobType);
-                String status = getJobStatus(trigger.getKey());
-                String startDate = getStartDate(trigger);
-                String nextFireDate = "";
-                if (trigger.getNextFireTime() != null) {
-                    nextFireDate = DateTimeFormat.forPattern(DATE_FORMAT_PATTERN).print(trigger.getNextFireTime().getTime());
-                }
-                String endDate = getEndDate(trigger, jobType);
-                boolean uiDefined = getUiDefined((byte[]) row.get(2));
-
-                jobBasicInfos.add(new JobBasicInfo(
-                        activity,
-                        status,
-                        jobName,
-                        jobGroup,
-                        startDate,
-                        nextFireDate,
-                        endDate,
-                        jobType,
-                        info,
-                        uiDefined
-                ));
+            String schedulerName = scheduler.getSchedulerName();
+            List<JobBasicInfo> jobBasicInfos = executeJobsQuery(
+                    queryBuilder.buildSelectQuery(jobsSearchSettings, schedulerName, now, afterLastJob), now);
+
+            if (afterLastJob && jobBasicInfos.isEmpty() && jobsSearchSettings.getPage() != null) {
+                // the last job of the previous page might have been removed in the meantime
+                jobBasicInfos = executeJobsQuery(
+                        queryBuilder.buildSelectQuery(jobsSearchSettings, schedulerName, now, false), now);
             }
 
             return jobBasicInfos;
-        } catch (SQLException | SchedulerException | ClassNotFoundException | IOException e) {
+        } catch (SQLException | SchedulerException e) {
             throw new MotechSchedulerJobRetrievalException("Retrieval of scheduled jobs failed.", e);
         }
     }
@@ -179,358 +149,212 @@ public class MotechSchedulerDatabaseServiceImpl implements MotechSchedulerDataba
         List<EventInfo> eventInfos = new ArrayList<>();
 
         try {
-            for (String groupName : scheduler.getJobGroupNames()) {
-                for (JobKey jobKey : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(groupName))) {
-                    if (jobKey.getName().equals(jobBasicInfo.getName())) {
-                        EventInfo eventInfo = new EventInfo();
-                        String subject;
-
-                        Map<String, Object> parameters = scheduler.getJobDetail(jobKey).getJobDataMap().getWrappedMap();
-                        Map<String, Object> metadata = (HashMap) parameters.get(SchedulerConstants.EVENT_METADATA);
-                        parameters.remove(SchedulerConstants.EVENT_METADATA);
-                        parameters.putAll(metadata);
-
-                        eventInfo.setParameters(parameters);
-
-                        if (eventInfo.getParameters().containsKey(SchedulerConstants.EVENT_TYPE_KEY_NAME)) {
-                            subject = eventInfo.getParameters().get(SchedulerConstants.EVENT_TYPE_KEY_NAME).toString();
-                            eventInfo.getParameters().remove(SchedulerConstants.EVENT_TYPE_KEY_NAME);
-                        } else {
-                            subject = jobKey.getName().substring(0, jobKey.getName().indexOf('-'));
-                        }
-
-                        eventInfo.setSubject(subject);
-                        eventInfos.add(eventInfo);
-                    }
+            for (JobKey jobKey : getJobKeys(jobBasicInfo)) {
+                JobDetail jobDetail = scheduler.getJobDetail(jobKey);
+                if (jobDetail == null) {
+                    continue;
                 }
-            }
 
-            jobDetailedInfo.setEventInfoList(eventInfos);
-            return jobDetailedInfo;
-        } catch (SchedulerException e) {
-            throw new MotechSchedulerJobRetrievalException("Retrieval of detailed info for job " + jobBasicInfo.getName() + " failed.", e);
-        }
-    }
+                EventInfo eventInfo = new EventInfo();
+                String subject;
 
-    private List<List<Object>> executeQuery(String query, List<String> columns) throws SQLException {
-        List<List<Object>> rows = new LinkedList<>();
+                JobDataMap jobDataMap = jobDetail.getJobDataMap();
+                Map<String, Object> parameters = JobDataCodec.decodeParameters(jobDataMap);
+                parameters.putAll(JobDataCodec.decodeMetadata(jobDataMap));
 
-        try (Connection conn = DBConnectionManager.getInstance().getConnection(sqlProperties.getProperty(DATA_SOURCE));
-                Statement stmt = conn.createStatement()) {
-            ResultSet rs = stmt.executeQuery(query);
+                eventInfo.setParameters(parameters);
 
-            while (rs.next()) {
-                List<Object> row = new LinkedList<>();
-                if (columns != null) {
-                    for (String name : columns) {
-                        row.add(rs.getObject(name));
-                    }
+                if (JobDataCodec.getSubject(jobDataMap) != null) {
+                    subject = JobDataCodec.getSubject(jobDataMap);
+                } else {
+                    subject = jobKey.getName().substring(0, jobKey.getName().indexOf('-'));
                 }
-                rows.add(row);
+
+                eventInfo.setSubject(subject);
+                eventInfos.add(eventInfo);
             }
-        }
-        return rows;
-    }
 
-    private int executeCountQuery(String query) throws SQLException {
-        int rowConut = 0;
-        try (Connection conn = DBConnectionManager.getInstance().getConnection(sqlProperties.getProperty(DATA_SOURCE));
-                Statement stmt = conn.createStatement()) {
-            ResultSet rs = stmt.executeQuery(query);
-            rs.next();
-            rowConut = rs.getInt(1);
+            jobDetailedInfo.setEventInfoList(eventInfos);
+            return jobDetailedInfo;
+        } catch (SchedulerException | SQLException e) {
+            throw new MotechSchedulerJobRetrievalException("Retrieval of detailed info for job " + jobBasicInfo.getName() + " failed.", e);
         }
-        return rowConut;
     }
 
-    private void checkAndAddElement(StringBuilder sb, String element, boolean condition) {
-        if (condition) {
-            sb.append(element);
-        }
+    private boolean hasFilters(JobsSearchSettings jobsSearchSettings) {
+        return isNotBlank(jobsSearchSettings.getName()) || isNotBlank(jobsSearchSettings.getActivity()) || //NO CHECKSTYLE BooleanExpressionComplexity
+                isNotBlank(jobsSearchSettings.getStatus()) || isNotBlank(jobsSearchSettings.getTimeFrom()) ||
+                isNotBlank(jobsSearchSettings.getTimeTo());
     }
 
-    private String buildDateRangeFilter(JobsSearchSettings jobsSearchSettings) {
-        StringBuilder dateRangeSb = new StringBuilder();
-        boolean addAnd = false;
-        DateTime dateFrom;
-        DateTime dateTo;
-        if (StringUtils.isNotBlank(jobsSearchSettings.getTimeFrom())) {
-            dateFrom = DateTimeFormat.forPattern(DATE_FORMAT_PATTERN)
-                    .parseDateTime(jobsSearchSettings.getTimeFrom());
-            dateRangeSb.append(getCorrectNameRepresentation(START_TIME)).append(" >= ").append(dateFrom.getMillis());
-            addAnd = true;
+    private List<JobKey> getJobKeys(JobBasicInfo jobBasicInfo) throws SQLException, SchedulerException {
+        if (isNotBlank(jobBasicInfo.getGroup())) {
+            return Collections.singletonList(new JobKey(jobBasicInfo.getName(), jobBasicInfo.getGroup()));
         }
 
-        if (StringUtils.isNotBlank(jobsSearchSettings.getTimeTo())) {
-            dateTo = DateTimeFormat.forPattern(DATE_FORMAT_PATTERN)
-                    .parseDateTime(jobsSearchSettings.getTimeTo());
-            checkAndAddElement(dateRangeSb, AND, addAnd);
-            dateRangeSb.append(getCorrectNameRepresentation(START_TIME)).append(" <= ").append(dateTo.getMillis());
-        }
-        return dateRangeSb.toString();
-    }
-
-    private String buildActivityFilter(JobsSearchSettings jobsSearchSettings) {
-        StringBuilder activitySb = new StringBuilder();
-        if (jobsSearchSettings.getActivity() != null) {
-            String[] activityElements = jobsSearchSettings.getActivity().split(",");
-            boolean addOr = false;
-            if (activityElements.length < 3) {
-                for (String element : activityElements) {
-                    checkAndAddElement(activitySb, OR, addOr);
-                    if (JobBasicInfo.ACTIVITY_NOTSTARTED.equals(element)) {
-                        activitySb.append(getCorrectNameRepresentation(START_TIME)).append(" > ").append(DateTime.now().getMillis());
-                    } else if (JobBasicInfo.ACTIVITY_FINISHED.equals(element)) {
-                        activitySb.append(getCorrectNameRepresentation(END_TIME)).append(" < ").append(DateTime.now().getMillis())
-                                .append(AND).append(getCorrectNameRepresentation(END_TIME)).append(" != 0");
-                    } else {
-                        activitySb.append(" (").append(getCorrectNameRepresentation(START_TIME)).append(" <= ")
-                                .append(DateTime.now().getMillis()).append(" AND (")
-                                .append(getCorrectNameRepresentation(END_TIME)).append(" >= ")
-                                .append(DateTime.now().getMillis()).append(OR)
-                                .append(getCorrectNameRepresentation(END_TIME)).append(" = 0))");
-                    }
-                    addOr = true;
-                }
-            }
-        }
-        return activitySb.toString();
-    }
+        JobsQuery query = queryBuilder.buildJobGroupsQuery(scheduler.getSchedulerName(), jobBasicInfo.getName());
+        LOGGER.debug("Executing {}", query);
 
-    private String buildStatusFilter(JobsSearchSettings jobsSearchSettings) {
-        StringBuilder statusSb = new StringBuilder();
-        if (jobsSearchSettings.getStatus() != null) {
-            String[] statusElements = jobsSearchSettings.getStatus().split(",");
-            boolean addOr = false;
-            if (statusElements.length < 4) {
-                for (String element : statusElements) {
-                    checkAndAddElement(statusSb, OR, addOr);
-                    statusSb.append(getCorrectNameRepresentation(TRIGGER_STATE)).append(" = ");
-                    if (Trigger.TriggerState.ERROR.toString().equals(element)) {
-                        statusSb.append("\'").append(Trigger.TriggerState.ERROR.toString()).append("\'");
-                    } else if (Trigger.TriggerState.BLOCKED.toString().equals(element)) {
-                        statusSb.append("\'").append(Trigger.TriggerState.BLOCKED.toString()).append("\'");
-                    } else if (Trigger.TriggerState.PAUSED.toString().equals(element)) {
-                        statusSb.append("\'").append(Trigger.TriggerState.PAUSED.toString()).append("\'");
-                    } else {
-                        statusSb.append("\'").append(Trigger.TriggerState.NORMAL.toString()).append("\'")
-                            .append(OR).append(getCorrectNameRepresentation(TRIGGER_STATE)).append(" = ")
-                            .append("\'").append(Trigger.TriggerState.COMPLETE.toString()).append("\'")
-                            .append(OR).append(getCorrectNameRepresentation(TRIGGER_STATE)).append(" = ")
-                            .append("\'").append(WAITING).append("\'");
-                    }
-                    addOr = true;
-                }
+        List<JobKey> jobKeys = new ArrayList<>();
+        try (Connection conn = getConnection();
+                PreparedStatement stmt = query.prepare(conn);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                jobKeys.add(new JobKey(jobBasicInfo.getName(), rs.getString(1)));
             }
         }
-        return statusSb.toString();
+        return jobKeys;
     }
 
-    private List<String> buildFilters(JobsSearchSettings jobsSearchSettings) {
-        List<String> filters = new ArrayList<>();
-        String dateRangeFilter = buildDateRangeFilter(jobsSearchSettings);
-        if (isNotBlank(dateRangeFilter)) {
-            filters.add(dateRangeFilter);
-        }
-        String activityFilter = buildActivityFilter(jobsSearchSettings);
-        if (isNotBlank(activityFilter)) {
-            filters.add(activityFilter);
-        }
-        String statusFilter = buildStatusFilter(jobsSearchSettings);
-        if (isNotBlank(statusFilter)) {
-            filters.add(statusFilter);
-        }
-        StringBuilder nameSb = new StringBuilder();
-        if (isNotBlank(jobsSearchSettings.getName())) {
-            nameSb.append(getCorrectNameRepresentation(TRIGGER_NAME)).append(" LIKE ").append("\'%")
-                    .append(jobsSearchSettings.getName()).append("%\'");
-            filters.add(nameSb.toString());
-        }
-
-        return filters;
-    }
-
-    private String getCorrectNameRepresentation(String name) {
-        return sqlProperties.get("org.quartz.dataSource.motechDS.driver").equals(Drivers.MYSQL_DRIVER) ? name : "\"" + name.toLowerCase() + "\"";
-    }
-
-    private String buildWhereCondition(JobsSearchSettings jobsSearchSettings) {
-        List<String> filters = buildFilters(jobsSearchSettings);
+    private List<JobBasicInfo> executeJobsQuery(JobsQuery query, long now) throws SQLException {
+        LOGGER.debug("Executing {}", query);
 
-        StringBuilder sb = new StringBuilder();
-        boolean addAnd = false;
-        if (filters.size() > 0) {
-            sb.append(" WHERE ");
-        }
-        for (String filter : filters) {
-            if (filter.length() > 0) {
-                checkAndAddElement(sb, AND, addAnd);
-                sb.append("(").append(filter).append(")");
-                addAnd = true;
+        List<JobBasicInfo> jobBasicInfos = new LinkedList<>();
+        try (Connection conn = getConnection();
+                PreparedStatement stmt = query.prepare(conn);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                jobBasicInfos.add(toJobBasicInfo(rs, now));
             }
         }
-        return sb.toString();
+        return jobBasicInfos;
     }
 
-    private String buildJobsBasicInfoSqlQuery(JobsSearchSettings jobsSearchSettings) {
-
-        StringBuilder sb = new StringBuilder("SELECT A.TRIGGER_NAME, A.TRIGGER_GROUP, B.JOB_DATA FROM ")
-                .append(getCorrectNameRepresentation(sqlProperties.get(TABLE_PREFIX).toString() + TRIGGERS))
-                .append(" AS A JOIN ")
-                .append(getCorrectNameRepresentation(sqlProperties.get(TABLE_PREFIX).toString() + JOB_DETAILS))
-                .append(" AS B")
-                .append(" ON A.TRIGGER_NAME = B.JOB_NAME AND A.TRIGGER_GROUP = B.JOB_GROUP")
-                .append(buildWhereCondition(jobsSearchSettings));
-
-        if (isNotBlank(jobsSearchSettings.getSortColumn()) && isNotBlank(jobsSearchSettings.getSortDirection())) {
-            sb.append(" ORDER BY ")
-                    .append("A.")
-                    .append(getCorrectNameRepresentation(getSortColumn(jobsSearchSettings.getSortColumn())))
-                    .append(" ")
-                    .append(jobsSearchSettings.getSortDirection().toUpperCase());
-        }
-        if (jobsSearchSettings.getRows() != null && jobsSearchSettings.getPage() != null) {
-            int offset = (jobsSearchSettings.getPage() == 0) ? 0 : (jobsSearchSettings.getPage() - 1) * jobsSearchSettings.getRows();
-            sb.append(" LIMIT ").append(jobsSearchSettings.getRows()).append(" OFFSET ").append(offset);
+    private int executeCountQuery(JobsQuery query) throws SQLException {
+        try (Connection conn = getConnection();
+                PreparedStatement stmt = query.prepare(conn);
+                ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
         }
-
-        return sb.toString();
     }
 
-    private String buildJobsCountSqlQuery(JobsSearchSettings jobsSearchSettings) {
-        StringBuilder sb = new StringBuilder("SELECT COUNT(*) FROM ")
-            .append(getCorrectNameRepresentation(sqlProperties.get(TABLE_PREFIX).toString() + TRIGGERS))
-            .append(buildWhereCondition(jobsSearchSettings));
-        return sb.toString();
+    private Connection getConnection() throws SQLException {
+        return DBConnectionManager.getInstance().getConnection(sqlProperties.getProperty(DATA_SOURCE));
     }
 
-    private String buildJobsAllSqlQuery() {
-        StringBuilder sb = new StringBuilder("SELECT A. TRIGGER_NAME, A.TRIGGER_GROUP, B.JOB_DATA FROM ")
-            .append(getCorrectNameRepresentation(sqlProperties.get(TABLE_PREFIX).toString() + TRIGGERS))
-            .append(" AS A JOIN QRTZ_JOB_DETAILS AS B ON A.TRIGGER_NAME = B.JOB_NAME AND A.TRIGGER_GROUP = B.JOB_GROUP");
-        return sb.toString();
+    private JobBasicInfo toJobBasicInfo(ResultSet rs, long now) throws SQLException {
+        String jobName = rs.getString(TRIGGER_NAME_INDEX);
+        String jobGroup = rs.getString(TRIGGER_GROUP_INDEX);
+        long startTime = rs.getLong(START_TIME_INDEX);
+        long endTime = rs.getLong(END_TIME_INDEX);
+        long nextFireTime = rs.getLong(NEXT_FIRE_TIME_INDEX);
+
+        String jobType = getJobType(jobName);
+        String startDate = formatDate(startTime);
+        String nextFireDate = nextFireTime > 0 ? formatDate(nextFireTime) : "";
+
+        return new JobBasicInfo(
+                getJobActivity(startTime, endTime, now),
+                getJobStatus(rs.getString(TRIGGER_STATE_INDEX)),
+                jobName,
+                jobGroup,
+                startDate,
+                nextFireDate,
+                getEndDate(startDate, endTime, jobType, now),
+                jobType,
+                getJobInfo(rs, jobType, startTime, endTime, nextFireTime),
+                rs.getBoolean(UI_DEFINED_INDEX)
+        );
     }
 
-    private String getSortColumn(String column) {
-        String sortColumn;
-
-        if (column.equalsIgnoreCase("startDate")) {
-            sortColumn = START_TIME;
-        } else if (column.equalsIgnoreCase("endDate")) {
-            sortColumn = END_TIME;
-        } else if (column.equalsIgnoreCase("status")) {
-            sortColumn = TRIGGER_STATE;
-        } else if (column.equalsIgnoreCase("jobType")) {
-            sortColumn = TRIGGER_TYPE;
-        } else {
-            sortColumn = TRIGGER_NAME;
-        }
-
-        return sortColumn;
-    }
-
-    private String getJobInfo(Trigger trigger, String jobType) throws SchedulerException {
+    private String getJobInfo(ResultSet rs, String jobType, long startTime, long endTime, long nextFireTime) throws SQLException {
         if (jobType.equals(JobBasicInfo.JOBTYPE_REPEATING)) {
-            Integer timesTriggered = 0;
+            String triggerType = rs.getString(TRIGGER_TYPE_INDEX);
+            OperableTrigger trigger = null;
+            int timesTriggered = 0;
             String repeatMaxCount = "-";
 
-            if (trigger instanceof CalendarIntervalTrigger) {
-                CalendarIntervalTrigger calendarIntervalTrigger = (CalendarIntervalTrigger) trigger;
-
-                timesTriggered = calendarIntervalTrigger.getTimesTriggered();
-            } else if (trigger instanceof SimpleTrigger) {
-                SimpleTrigger simpleTrigger = (SimpleTrigger) trigger;
-
-                timesTriggered = simpleTrigger.getTimesTriggered();
+            if (Constants.TTYPE_SIMPLE.equals(triggerType)) {
+                SimpleTriggerImpl simpleTrigger = new SimpleTriggerImpl();
+                simpleTrigger.setRepeatCount(rs.getInt(REPEAT_COUNT_INDEX));
+                simpleTrigger.setRepeatInterval(rs.getLong(REPEAT_INTERVAL_INDEX));
+                timesTriggered = rs.getInt(TIMES_TRIGGERED_INDEX);
+                simpleTrigger.setTimesTriggered(timesTriggered);
+                trigger = simpleTrigger;
+            } else if (Constants.TTYPE_CAL_INT.equals(triggerType)) {
+                CalendarIntervalTriggerImpl calendarIntervalTrigger = new CalendarIntervalTriggerImpl();
+                calendarIntervalTrigger.setRepeatIntervalUnit(DateBuilder.IntervalUnit.valueOf(rs.getString(INTERVAL_UNIT_INDEX)));
+                calendarIntervalTrigger.setRepeatInterval(rs.getInt(INTERVAL_INDEX));
+                String timeZone = rs.getString(TIME_ZONE_INDEX);
+                if (isNotBlank(timeZone)) {
+                    calendarIntervalTrigger.setTimeZone(TimeZone.getTimeZone(timeZone));
+                }
+                timesTriggered = rs.getInt(INTERVAL_TIMES_TRIGGERED_INDEX);
+                calendarIntervalTrigger.setTimesTriggered(timesTriggered);
+                trigger = calendarIntervalTrigger;
             }
 
-            if (trigger.getEndTime() != null) {
+            if (trigger != null && endTime > 0) {
+                trigger.setStartTime(new Date(startTime));
+                trigger.setEndTime(new Date(endTime));
+                trigger.setNextFireTime(nextFireTime > 0 ? new Date(nextFireTime) : null);
+
                 repeatMaxCount = Integer.toString(TriggerUtils.computeFireTimesBetween(
-                        (OperableTrigger) trigger, null, trigger.getStartTime(), trigger.getEndTime()
+                        trigger, null, trigger.getStartTime(), trigger.getEndTime()
                 ).size() + timesTriggered);
             }
 
             return String.format("%d/%s", timesTriggered, repeatMaxCount);
         } else if (jobType.equals(JobBasicInfo.JOBTYPE_CRON)) {
-            CronScheduleBuilder cronScheduleBuilder = (CronScheduleBuilder) trigger.getScheduleBuilder();
-
-            CronTrigger cronTrigger = (CronTrigger) cronScheduleBuilder.build();
-
-            return cronTrigger.getCronExpression();
+            String cronExpression = rs.getString(CRON_EXPRESSION_INDEX);
+            return cronExpression == null ? "-" : cronExpression;
         } else {
             return "-";
         }
     }
 
-    private String getJobType(JobKey jobKey) throws SchedulerException {
-        if (jobKey.getName().endsWith(RunOnceJobId.SUFFIX_RUNONCEJOBID)) {
+    private String getJobType(String jobName) {
+        if (jobName.endsWith(RunOnceJobId.SUFFIX_RUNONCEJOBID)) {
             return JobBasicInfo.JOBTYPE_RUNONCE;
-        } else if (jobKey.getName().endsWith(RepeatingJobId.SUFFIX_REPEATJOBID)) {
+        } else if (jobName.endsWith(RepeatingJobId.SUFFIX_REPEATJOBID)) {
             return JobBasicInfo.JOBTYPE_REPEATING;
-        } else if (jobKey.getName().endsWith(RepeatingPeriodJobId.SUFFIX_REPEATPERIODJOBID)) {
+        } else if (jobName.endsWith(RepeatingPeriodJobId.SUFFIX_REPEATPERIODJOBID)) {
             return JobBasicInfo.JOBTYPE_PERIOD;
         } else {
             return JobBasicInfo.JOBTYPE_CRON;
         }
     }
 
-    private String getStartDate(Trigger trigger) throws SchedulerException {
-        return DateTimeFormat.forPattern(DATE_FORMAT_PATTERN).print(trigger.getStartTime().getTime());
+    private String formatDate(long millis) {
+        return DateTimeFormat.forPattern(DATE_FORMAT_PATTERN).print(millis);
     }
 
-    private String getEndDate(Trigger trigger, String jobType) throws SchedulerException {
-        DateTime endDateTime = new DateTime(trigger.getEndTime());
-        String startDate = getStartDate(trigger);
+    private String getEndDate(String startDate, long endTime, String jobType, long now) {
         String endDate;
 
-        if (!endDateTime.isAfterNow()) {
+        if (endTime <= now) {
             if (jobType.equals(JobBasicInfo.JOBTYPE_RUNONCE)) {
                 endDate = startDate;
             } else {
                 endDate = "-";
             }
         } else {
-            endDate = DateTimeFormat.forPattern(DATE_FORMAT_PATTERN).print(endDateTime);
+            endDate = formatDate(endTime);
         }
 
         return endDate;
     }
 
-    private String getJobActivity(Trigger trigger) throws SchedulerException {
-        DateTime startDateTime = new DateTime(trigger.getStartTime());
-        DateTime endDateTime = new DateTime(trigger.getEndTime());
-
-        if (startDateTime.isAfterNow()) {
+    private String getJobActivity(long startTime, long endTime, long now) {
+        if (startTime > now) {
             return JobBasicInfo.ACTIVITY_NOTSTARTED;
-        } else if (endDateTime.isBeforeNow()) {
-            return  JobBasicInfo.ACTIVITY_FINISHED;
+        } else if (endTime > 0 && endTime < now) {
+            return JobBasicInfo.ACTIVITY_FINISHED;
         } else {
             return JobBasicInfo.ACTIVITY_ACTIVE;
         }
     }
 
-    private String getJobStatus(TriggerKey triggerKey) throws SchedulerException {
-        Trigger.TriggerState currentTriggerState = scheduler.getTriggerState(triggerKey);
-        if (currentTriggerState == Trigger.TriggerState.ERROR) {
+    private String getJobStatus(String triggerState) {
+        if (ERROR.equals(triggerState)) {
             return JobBasicInfo.STATUS_ERROR;
-        } else if (currentTriggerState == Trigger.TriggerState.BLOCKED) {
+        } else if (BLOCKED.equals(triggerState)) {
             return JobBasicInfo.STATUS_BLOCKED;
-        } else if (currentTriggerState == Trigger.TriggerState.PAUSED) {
+        } else if (PAUSED.equals(triggerState) || PAUSED_BLOCKED.equals(triggerState)) {
             return JobBasicInfo.STATUS_PAUSED;
         } else {
             return JobBasicInfo.STATUS_OK;
         }
     }
-
-    private boolean getUiDefined(byte[] bytes) throws IOException, ClassNotFoundException {
-        try (InputStream is = new ByteArrayInputStream(bytes);
-             ObjectInputStream ois = new ObjectInputStream(is)) {
-            JobDataMap jobDataMap = (JobDataMap) ois.readObject();
-            return isUiDefined(jobDataMap);
-        }
-    }
-
-    private boolean isUiDefined(JobDataMap jobDataMap) {
-        return jobDataMap.get(SchedulerConstants.EVENT_METADATA) != null &&  (Boolean) ((Map<String, Object>) jobDataMap.get(SchedulerConstants.EVENT_METADATA)).get(UI_DEFINED);
-    }
-}
\ No newline at end of file
+}
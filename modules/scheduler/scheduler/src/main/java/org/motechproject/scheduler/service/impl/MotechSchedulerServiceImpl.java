@@ -1,12 +1,14 @@
 package org.motechproject.scheduler.service.impl;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.joda.time.DateTime;
 import org.motechproject.commons.date.model.Time;
 import org.motechproject.commons.date.util.DateUtil;
 import org.motechproject.config.SettingsFacade;
 import org.motechproject.event.MotechEvent;
 import org.motechproject.scheduler.builder.SchedulableJobBuilder;
+import org.motechproject.scheduler.contract.BulkOperationResult;
 import org.motechproject.scheduler.contract.CronJobId;
 import org.motechproject.scheduler.contract.CronSchedulableJob;
 import org.motechproject.scheduler.contract.DayOfWeekSchedulableJob;
@@ -25,6 +27,8 @@ import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
 import org.motechproject.scheduler.service.MotechScheduledJob;
 import org.motechproject.scheduler.service.MotechSchedulerService;
 import org.motechproject.scheduler.trigger.PeriodIntervalScheduleBuilder;
+import org.motechproject.scheduler.trigger.PeriodIntervalTriggerImpl;
+import org.motechproject.scheduler.util.JobDataCodec;
 import org.quartz.CalendarIntervalScheduleBuilder;
 import org.quartz.CronScheduleBuilder;
 import org.quartz.CronTrigger;
@@ -40,7 +44,6 @@ import org.quartz.Trigger;
 import org.quartz.TriggerKey;
 import org.quartz.TriggerUtils;
 import org.quartz.impl.calendar.BaseCalendar;
-import org.quartz.impl.matchers.GroupMatcher;
 import org.quartz.impl.triggers.CronTriggerImpl;
 import org.quartz.spi.OperableTrigger;
 import org.slf4j.Logger;
@@ -50,9 +53,12 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -60,8 +66,6 @@ import java.util.Set;
 import static java.lang.String.format;
 import static org.motechproject.commons.date.util.DateUtil.newDateTime;
 import static org.motechproject.commons.date.util.DateUtil.now;
-import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_METADATA;
-import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_TYPE_KEY_NAME;
 import static org.motechproject.scheduler.constants.SchedulerConstants.IGNORE_PAST_FIRES_AT_START;
 import static org.motechproject.scheduler.constants.SchedulerConstants.IS_DAY_OF_WEEK;
 import static org.motechproject.scheduler.constants.SchedulerConstants.UI_DEFINED;
@@ -90,20 +94,26 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
     private static final int MAX_REPEAT_COUNT = 999999;
     private static final int MILLISECOND = 1000;
     private static final String LOG_SUBJECT_EXTERNAL_ID = "subject: %s, externalId: %s";
+    private static final String BULK_CHUNK_SIZE_PROPERTY = "scheduler.bulk.chunkSize";
+    private static final int DEFAULT_BULK_CHUNK_SIZE = 500;
 
     private SettingsFacade schedulerSettings;
 
     private Scheduler scheduler;
 
+    private TriggerKeyFinder triggerKeyFinder;
+
     private Map<String, Integer> cronTriggerMisfirePolicies;
     private Map<String, Integer> simpleTriggerMisfirePolicies;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MotechSchedulerServiceImpl.class);
 
     @Autowired
-    public MotechSchedulerServiceImpl(MotechSchedulerFactoryBean motechSchedulerFactoryBean, SettingsFacade schedulerSettings) {
+    public MotechSchedulerServiceImpl(MotechSchedulerFactoryBean motechSchedulerFactoryBean, SettingsFacade schedulerSettings,
+                                      TriggerKeyFinder triggerKeyFinder) {
         this.schedulerSettings = schedulerSettings;
         this.scheduler = motechSchedulerFactoryBean.getQuartzScheduler();
+        this.triggerKeyFinder = triggerKeyFinder;
         constructMisfirePoliciesMaps();
     }
 
@@ -137,6 +147,65 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         scheduleJob(job, false);
     }
 
+    @Override
+    public BulkOperationResult scheduleJobs(Collection<? extends SchedulableJob> jobs) {
+        assertArgumentNotNull("Jobs", jobs);
+        LOGGER.debug("Scheduling {} jobs", jobs.size());
+
+        BulkOperationResult result = new BulkOperationResult();
+        int chunkSize = getBulkChunkSize();
+        Map<JobDetail, Set<? extends Trigger>> chunk = new LinkedHashMap<>();
+
+        int position = 0;
+        for (SchedulableJob job : jobs) {
+            int current = position++;
+
+            QuartzJob quartzJob;
+            try {
+                quartzJob = buildJob(job);
+            } catch (RuntimeException e) {
+                String jobId = getJobIdValue(job, current);
+                LOGGER.error("Unable to schedule job with ID {}", jobId, e);
+                result.addFailure(jobId, e.getMessage());
+                continue;
+            }
+
+            // job details are equal by key, a later job with the same ID replaces the earlier one
+            chunk.remove(quartzJob.getJobDetail());
+            chunk.put(quartzJob.getJobDetail(), Collections.singleton(quartzJob.getTrigger()));
+
+            if (chunk.size() >= chunkSize) {
+                storeJobs(chunk, result);
+                chunk.clear();
+            }
+        }
+        storeJobs(chunk, result);
+
+        return result;
+    }
+
+    @Override
+    public BulkOperationResult unscheduleJobs(Collection<? extends JobId> jobIds) {
+        assertArgumentNotNull("Job IDs", jobIds);
+        LOGGER.debug("Unscheduling {} jobs", jobIds.size());
+
+        BulkOperationResult result = new BulkOperationResult();
+        int chunkSize = getBulkChunkSize();
+        List<TriggerKey> chunk = new ArrayList<>();
+
+        for (JobId jobId : jobIds) {
+            chunk.add(triggerKey(jobId.value(), JOB_GROUP_NAME));
+
+            if (chunk.size() >= chunkSize) {
+                removeTriggers(chunk, result);
+                chunk.clear();
+            }
+        }
+        removeTriggers(chunk, result);
+
+        return result;
+    }
+
     @Override
     public void safeScheduleJob(CronSchedulableJob cronSchedulableJob) {
         logObjectIfNotNull(cronSchedulableJob);
@@ -294,15 +363,9 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
     public void unscheduleAllJobs(String jobIdPrefix) {
         try {
             if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Unscheduling jobs with prefix: ", jobIdPrefix);
-            }
-            List<TriggerKey> triggerKeys = new ArrayList<>(scheduler.getTriggerKeys(GroupMatcher.triggerGroupContains(JOB_GROUP_NAME)));
-            List<String> triggerNames = extractTriggerNames(triggerKeys);
-            for (String triggerName : triggerNames) {
-                if (StringUtils.isNotEmpty(jobIdPrefix) && triggerName.contains(jobIdPrefix)) {
-                    unscheduleJob(triggerName);
-                }
+                LOGGER.debug("Unscheduling jobs with prefix: {}", jobIdPrefix);
             }
+            unscheduleTriggers(findTriggerKeysWithPrefix(jobIdPrefix));
         } catch (SchedulerException e) {
             throw new MotechSchedulerException(String.format("Can not unschedule jobs given jobIdPrefix: %s %s",
                     jobIdPrefix, e.getMessage()), e);
@@ -353,13 +416,7 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug(format("Safe unscheduling the Jobs given jobIdPrefix: %s", jobIdPrefix));
             }
-            List<TriggerKey> triggerKeys = new ArrayList<>(scheduler.getTriggerKeys(GroupMatcher.triggerGroupContains(JOB_GROUP_NAME)));
-            List<String> triggerNames = extractTriggerNames(triggerKeys);
-            for (String triggerName : triggerNames) {
-                if (StringUtils.isNotEmpty(jobIdPrefix) && triggerName.contains(jobIdPrefix)) {
-                    safeUnscheduleJob(triggerName);
-                }
-            }
+            unscheduleTriggers(findTriggerKeysWithPrefix(jobIdPrefix));
         } catch (SchedulerException e) {
             LOGGER.error("Unable to unschedule all jobs with jobIdPrefix {}", jobIdPrefix, e);
         }
@@ -458,8 +515,8 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         Trigger trigger;
         try {
             trigger = scheduler.getTrigger(triggerKey(jobId.value(), JOB_GROUP_NAME));
-            return DateUtil.datesToDateTimes(TriggerUtils.computeFireTimesBetween(
-                    (OperableTrigger) trigger, new BaseCalendar(), DateUtil.toDate(startDate), DateUtil.toDate(endDate)));
+            return DateUtil.datesToDateTimes(computeFireTimesBetween(
+                    trigger, DateUtil.toDate(startDate), DateUtil.toDate(endDate)));
 
         } catch (SchedulerException e) {
             throw new MotechSchedulerException(String.format(
@@ -469,8 +526,8 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
     }
 
     /*
-     * Loads all triggers and then loops over them to find the applicable trigger using string comparison. This
-     * will work regardless of the jobId being cron or repeating.
+     * Finds the triggers with an indexed prefix query on the job store. This will work regardless of the jobId
+     * being cron or repeating.
      */
     @Override
     public List<DateTime> getScheduledJobTimingsWithPrefix(
@@ -479,13 +536,13 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         JobId jobId = new CronJobId(subject, externalJobIdPrefix);
         List<Date> messageTimings = new ArrayList<>();
         try {
-            List<TriggerKey> triggerKeys = new ArrayList<TriggerKey>(
-                    scheduler.getTriggerKeys(GroupMatcher.triggerGroupContains(JOB_GROUP_NAME)));
-            for (TriggerKey triggerKey : triggerKeys) {
-                if (StringUtils.isNotEmpty(externalJobIdPrefix) && triggerKey.getName().contains(jobId.value())) {
+            if (StringUtils.isNotEmpty(externalJobIdPrefix)) {
+                for (TriggerKey triggerKey : findTriggerKeysWithPrefix(jobId.value())) {
                     Trigger trigger = scheduler.getTrigger(triggerKey);
-                    messageTimings.addAll(TriggerUtils.computeFireTimesBetween(
-                            (OperableTrigger) trigger, new BaseCalendar(), DateUtil.toDate(startDate), DateUtil.toDate(endDate)));
+                    if (trigger != null) {
+                        messageTimings.addAll(computeFireTimesBetween(trigger,
+                                DateUtil.toDate(startDate), DateUtil.toDate(endDate)));
+                    }
                 }
             }
 
@@ -498,6 +555,24 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         return DateUtil.datesToDateTimes(messageTimings);
     }
 
+    /*
+     * Period interval triggers skip their past fire times arithmetically, the other triggers are fired one by one
+     * by quartz.
+     */
+    private List<Date> computeFireTimesBetween(Trigger trigger, Date from, Date to) {
+        if (trigger instanceof PeriodIntervalTriggerImpl) {
+            return ((PeriodIntervalTriggerImpl) trigger).computeFireTimesBetween(from, to);
+        }
+        return TriggerUtils.computeFireTimesBetween((OperableTrigger) trigger, new BaseCalendar(), from, to);
+    }
+
+    private int countFireTimesBetween(Trigger trigger, Date from, Date to) {
+        if (trigger instanceof PeriodIntervalTriggerImpl) {
+            return ((PeriodIntervalTriggerImpl) trigger).countFireTimesBetween(from, to);
+        }
+        return TriggerUtils.computeFireTimesBetween((OperableTrigger) trigger, null, from, to).size();
+    }
+
     /**
      * Asserts that given object is not null.
      *
@@ -523,6 +598,12 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
     }
 
     private void scheduleCronJob(CronSchedulableJob job, boolean isDayOfWeek, boolean update) {
+        QuartzJob quartzJob = buildCronJob(job, isDayOfWeek);
+        unscheduleExistingJob(quartzJob.getJobId());
+        scheduleJob(quartzJob.getJobDetail(), quartzJob.getTrigger(), update);
+    }
+
+    private QuartzJob buildCronJob(CronSchedulableJob job, boolean isDayOfWeek) {
         logObjectIfNotNull(job);
 
         validateCronSchedulableJob(job);
@@ -535,13 +616,12 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                 .withIdentity(jobKey(jobId.value(), JOB_GROUP_NAME))
                 .build();
 
-        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent);
         Map<String, Object> metadata = new HashMap<>();
         metadata.put(IS_DAY_OF_WEEK, isDayOfWeek);
         metadata.put(UI_DEFINED, job.isUiDefined());
         metadata.put(IGNORE_PAST_FIRES_AT_START, job.isIgnorePastFiresAtStart());
         metadata.putAll(motechEvent.getMetadata());
-        jobDetail.getJobDataMap().put(EVENT_METADATA, metadata);
+        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent, metadata);
 
         CronScheduleBuilder cronSchedule = cronSchedule(job.getCronExpression());
 
@@ -556,17 +636,6 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                 .endAt(DateUtil.toDate(job.getEndDate()))
                 .build();
 
-        Trigger existingTrigger;
-        try {
-            existingTrigger = scheduler.getTrigger(triggerKey(jobId.value(), JOB_GROUP_NAME));
-        } catch (SchedulerException e) {
-            throw new MotechSchedulerException(format("Schedule or reschedule the job: %s.\n%s", jobId, e.getMessage()),
-                    "scheduler.error.cantRescheduleJob", Arrays.asList(jobId.value(), e.getMessage()), e);
-        }
-        if (existingTrigger != null) {
-            unscheduleJob(jobId.value());
-        }
-
         DateTime now = now();
 
         if (job.isIgnorePastFiresAtStart() && (job.getStartDate() == null || job.getStartDate().isBefore(now))) {
@@ -585,10 +654,16 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                     .build();
         }
 
-        scheduleJob(jobDetail, trigger, update);
+        return new QuartzJob(jobDetail, trigger);
     }
 
     private void scheduleRepeatingJob(RepeatingSchedulableJob job, boolean update) {
+        QuartzJob quartzJob = buildRepeatingJob(job);
+        unscheduleExistingJob(quartzJob.getJobId());
+        scheduleJob(quartzJob.getJobDetail(), quartzJob.getTrigger(), update);
+    }
+
+    private QuartzJob buildRepeatingJob(RepeatingSchedulableJob job) {
         logObjectIfNotNull(job);
 
         validateRepeatingSchedulableJob(job);
@@ -610,18 +685,8 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                 .withIdentity(jobKey(jobId.value(), JOB_GROUP_NAME))
                 .build();
 
-        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent);
-
-        jobDetail.getJobDataMap().put(EVENT_METADATA, createMetadataForMisfireSchedulableJob(job, motechEvent));
-
-        try {
-            if (scheduler.getTrigger(triggerKey(jobId.value(), JOB_GROUP_NAME)) != null) {
-                unscheduleJob(jobId);
-            }
-        } catch (SchedulerException e) {
-            throw new MotechSchedulerException(format("Schedule or reschedule the job: %s.\n%s", jobId, e.getMessage()),
-                    "scheduler.error.cantRescheduleJob", Arrays.asList(jobId.value(), e.getMessage()), e);
-        }
+        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent,
+                createMetadataForMisfireSchedulableJob(job, motechEvent));
 
         ScheduleBuilder scheduleBuilder;
         if (!job.isUseOriginalFireTimeAfterMisfire()) {
@@ -644,7 +709,7 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
 
         Trigger trigger = buildJobDetail(job, DateUtil.toDate(jobStartTime),
                 DateUtil.toDate(jobEndTime), jobId, jobDetail, scheduleBuilder);
-        scheduleJob(jobDetail, trigger, update);
+        return new QuartzJob(jobDetail, trigger);
     }
 
     private Map<String, Object> createMetadataForMisfireSchedulableJob(MisfireSchedulableJob job, MotechEvent event) {
@@ -659,6 +724,11 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
     }
 
     private void scheduleRepeatingPeriodJob(RepeatingPeriodSchedulableJob job, boolean update) {
+        QuartzJob quartzJob = buildRepeatingPeriodJob(job);
+        scheduleJob(quartzJob.getJobDetail(), quartzJob.getTrigger(), update);
+    }
+
+    private QuartzJob buildRepeatingPeriodJob(RepeatingPeriodSchedulableJob job) {
         logObjectIfNotNull(job);
 
         validateRepeatingPeriodSchedulableJob(job);
@@ -670,9 +740,8 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                 .withIdentity(jobKey(jobId.value(), JOB_GROUP_NAME))
                 .build();
 
-        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent);
-
-        jobDetail.getJobDataMap().put(EVENT_METADATA, createMetadataForMisfireSchedulableJob(job, motechEvent));
+        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent,
+                createMetadataForMisfireSchedulableJob(job, motechEvent));
 
         ScheduleBuilder scheduleBuilder = PeriodIntervalScheduleBuilder.periodIntervalSchedule()
                 .withRepeatPeriod(job.getRepeatPeriod())
@@ -680,10 +749,15 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
 
         Trigger trigger = buildJobDetail(job, DateUtil.toDate(job.getStartDate()),
                 DateUtil.toDate(job.getEndDate()), jobId, jobDetail, scheduleBuilder);
-        scheduleJob(jobDetail, trigger, update);
+        return new QuartzJob(jobDetail, trigger);
     }
 
     private void scheduleRunOnceJob(RunOnceSchedulableJob job, boolean update) {
+        QuartzJob quartzJob = buildRunOnceJob(job);
+        scheduleJob(quartzJob.getJobDetail(), quartzJob.getTrigger(), update);
+    }
+
+    private QuartzJob buildRunOnceJob(RunOnceSchedulableJob job) {
         logObjectIfNotNull(job);
 
         validateRunOnceSchedulableJob(job);
@@ -695,11 +769,10 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                 .withIdentity(jobId.value(), JOB_GROUP_NAME)
                 .build();
 
-        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent);
         Map<String, Object> metadata = new HashMap<>();
         metadata.put(UI_DEFINED, job.isUiDefined());
         metadata.putAll(motechEvent.getMetadata());
-        jobDetail.getJobDataMap().put(EVENT_METADATA, metadata);
+        putMotechEventDataToJobDataMap(jobDetail.getJobDataMap(), motechEvent, metadata);
 
         SimpleScheduleBuilder simpleSchedule = simpleSchedule()
                 .withRepeatCount(0)
@@ -713,10 +786,14 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                 .startAt(DateUtil.toDate(job.getStartDate()))
                 .build();
 
-        scheduleJob(jobDetail, trigger, update);
+        return new QuartzJob(jobDetail, trigger);
     }
 
     private void scheduleDayOfWeekJob(DayOfWeekSchedulableJob job, boolean update) {
+        scheduleCronJob(toCronSchedulableJob(job), true, update);
+    }
+
+    private CronSchedulableJob toCronSchedulableJob(DayOfWeekSchedulableJob job) {
         logObjectIfNotNull(job);
 
         validateDayOfWeekSchedulableJob(job);
@@ -729,10 +806,8 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
                         .toArray(new Integer[job.getCronDays().size()]));
 
         CronTriggerImpl cronTrigger = (CronTriggerImpl) cronScheduleBuilder.build();
-        CronSchedulableJob cronSchedulableJob = new CronSchedulableJob(motechEvent, cronTrigger.getCronExpression(),
+        return new CronSchedulableJob(motechEvent, cronTrigger.getCronExpression(),
                 job.getStartDate(), job.getEndDate(), job.isIgnorePastFiresAtStart(), job.isUiDefined());
-
-        scheduleCronJob(cronSchedulableJob, true, update);
     }
 
     private void scheduleJob(SchedulableJob job, boolean update) {
@@ -749,6 +824,119 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         }
     }
 
+    private QuartzJob buildJob(SchedulableJob job) {
+        assertArgumentNotNull("SchedulableJob", job);
+
+        if (job instanceof CronSchedulableJob) {
+            return buildCronJob((CronSchedulableJob) job, false);
+        } else if (job instanceof DayOfWeekSchedulableJob) {
+            return buildCronJob(toCronSchedulableJob((DayOfWeekSchedulableJob) job), true);
+        } else if (job instanceof RepeatingSchedulableJob) {
+            return buildRepeatingJob((RepeatingSchedulableJob) job);
+        } else if (job instanceof RepeatingPeriodSchedulableJob) {
+            return buildRepeatingPeriodJob((RepeatingPeriodSchedulableJob) job);
+        } else if (job instanceof RunOnceSchedulableJob) {
+            return buildRunOnceJob((RunOnceSchedulableJob) job);
+        }
+
+        throw new IllegalArgumentException(String.format("Unsupported job type: %s", job.getClass().getName()));
+    }
+
+    /**
+     * Stores the given jobs in the job store with a single call to the scheduler, that is in one transaction. If
+     * that fails, the jobs are stored one by one, so that the failing jobs can be reported without losing the others.
+     */
+    private void storeJobs(Map<JobDetail, Set<? extends Trigger>> jobs, BulkOperationResult result) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+
+        try {
+            scheduler.scheduleJobs(jobs, true);
+            for (JobDetail jobDetail : jobs.keySet()) {
+                result.addSuccess(jobDetail.getKey().getName());
+            }
+        } catch (SchedulerException e) {
+            LOGGER.warn("Unable to schedule a batch of {} jobs, scheduling them one by one", jobs.size(), e);
+
+            for (Map.Entry<JobDetail, Set<? extends Trigger>> entry : jobs.entrySet()) {
+                String jobId = entry.getKey().getKey().getName();
+                try {
+                    scheduler.scheduleJob(entry.getKey(), entry.getValue(), true);
+                    result.addSuccess(jobId);
+                } catch (SchedulerException ex) {
+                    LOGGER.error("Unable to schedule job with ID {}", jobId, ex);
+                    result.addFailure(jobId, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the given triggers from the job store in one transaction. If that fails, the triggers are removed one
+     * by one, so that the failing jobs can be reported.
+     */
+    private void removeTriggers(List<TriggerKey> triggerKeys, BulkOperationResult result) {
+        if (triggerKeys.isEmpty()) {
+            return;
+        }
+
+        try {
+            scheduler.unscheduleJobs(triggerKeys);
+            for (TriggerKey triggerKey : triggerKeys) {
+                result.addSuccess(triggerKey.getName());
+            }
+        } catch (SchedulerException e) {
+            LOGGER.warn("Unable to unschedule a batch of {} jobs, unscheduling them one by one", triggerKeys.size(), e);
+
+            for (TriggerKey triggerKey : triggerKeys) {
+                try {
+                    scheduler.unscheduleJob(triggerKey);
+                    result.addSuccess(triggerKey.getName());
+                } catch (SchedulerException ex) {
+                    LOGGER.error("Unable to unschedule job with ID {}", triggerKey.getName(), ex);
+                    result.addFailure(triggerKey.getName(), ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private String getJobIdValue(SchedulableJob job, int position) {
+        MotechEvent motechEvent = (job == null) ? null : job.getMotechEvent();
+        if (motechEvent == null) {
+            return "#" + position;
+        }
+
+        JobId jobId;
+        if (job instanceof RepeatingSchedulableJob) {
+            jobId = new RepeatingJobId(motechEvent);
+        } else if (job instanceof RepeatingPeriodSchedulableJob) {
+            jobId = new RepeatingPeriodJobId(motechEvent);
+        } else if (job instanceof RunOnceSchedulableJob) {
+            jobId = new RunOnceJobId(motechEvent);
+        } else {
+            jobId = new CronJobId(motechEvent);
+        }
+        return jobId.value();
+    }
+
+    private int getBulkChunkSize() {
+        return NumberUtils.toInt(schedulerSettings.getProperty(BULK_CHUNK_SIZE_PROPERTY), DEFAULT_BULK_CHUNK_SIZE);
+    }
+
+    private void unscheduleExistingJob(String jobId) {
+        Trigger existingTrigger;
+        try {
+            existingTrigger = scheduler.getTrigger(triggerKey(jobId, JOB_GROUP_NAME));
+        } catch (SchedulerException e) {
+            throw new MotechSchedulerException(format("Schedule or reschedule the job: %s.\n%s", jobId, e.getMessage()),
+                    "scheduler.error.cantRescheduleJob", Arrays.asList(jobId, e.getMessage()), e);
+        }
+        if (existingTrigger != null) {
+            unscheduleJob(jobId);
+        }
+    }
+
     private void scheduleJob(JobDetail jobDetail, Trigger trigger) {
         scheduleJob(jobDetail, trigger, false);
     }
@@ -781,18 +969,6 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         }
     }
 
-    private void safeUnscheduleJob(String jobId) {
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(jobId);
-        }
-        try {
-            assertArgumentNotNull("ScheduledJobID", jobId);
-            scheduler.unscheduleJob(triggerKey(jobId, JOB_GROUP_NAME));
-        } catch (SchedulerException e) {
-            LOGGER.error("Unable to unschedule job with ID {}", jobId, e);
-        }
-    }
-
     private void validateJob(JobKey key) throws SchedulerException {
         JobDetail detail = scheduler.getJobDetail(key);
 
@@ -803,16 +979,12 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
 
         JobDataMap map = detail.getJobDataMap();
 
-        if (map != null && !isJobUIDefined(map)) {
+        if (map != null && !JobDataCodec.isUiDefined(map)) {
             throw new MotechSchedulerException(String.format("Job is not ui defined:\n %s\n %s", key.getName(),
                     key.getGroup()));
         }
     }
 
-    private boolean isJobUIDefined(JobDataMap jobDataMap) {
-        return jobDataMap.get(EVENT_METADATA) != null &&  (Boolean) ((Map<String, Object>) jobDataMap.get(EVENT_METADATA)).get(UI_DEFINED);
-    }
-
     private MotechEvent assertCronJob(CronSchedulableJob cronSchedulableJob) {
         assertArgumentNotNull("SchedulableJob", cronSchedulableJob);
         MotechEvent motechEvent = cronSchedulableJob.getMotechEvent();
@@ -850,12 +1022,12 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
 
         if (schedulableJob.isIgnorePastFiresAtStart() && newDateTime(jobStartTime).isBefore(now)) {
 
-            List<Date> pastTriggers = TriggerUtils.computeFireTimesBetween((OperableTrigger) trigger, null, jobStartTime, now.toDate());
+            int pastTriggers = countFireTimesBetween(trigger, jobStartTime, now.toDate());
 
-            if (pastTriggers.size() > 0) {
+            if (pastTriggers > 0) {
                 if (scheduleBuilder instanceof SimpleScheduleBuilder && ((RepeatingSchedulableJob) schedulableJob).getRepeatCount() != null) {
                     ((SimpleScheduleBuilder) scheduleBuilder)
-                            .withRepeatCount(((RepeatingSchedulableJob) schedulableJob).getRepeatCount() - pastTriggers.size());
+                            .withRepeatCount(((RepeatingSchedulableJob) schedulableJob).getRepeatCount() - pastTriggers);
                 }
                 Date newStartTime = getFirstTriggerInFuture(trigger, now);
                 trigger = newTrigger()
@@ -914,17 +1086,27 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         return motechEvent;
     }
 
-    private void putMotechEventDataToJobDataMap(JobDataMap jobDataMap, MotechEvent motechEvent) {
-        jobDataMap.putAll(motechEvent.getParameters());
-        jobDataMap.put(EVENT_TYPE_KEY_NAME, motechEvent.getSubject());
+    private void putMotechEventDataToJobDataMap(JobDataMap jobDataMap, MotechEvent motechEvent,
+                                                Map<String, Object> metadata) {
+        JobDataCodec.encode(jobDataMap, motechEvent.getSubject(), motechEvent.getParameters(), metadata);
     }
 
-    private List<String> extractTriggerNames(List<TriggerKey> triggerKeys) {
-        List<String> names = new ArrayList<>();
-        for (TriggerKey key : triggerKeys) {
-            names.add(key.getName());
+    private List<TriggerKey> findTriggerKeysWithPrefix(String jobIdPrefix) throws SchedulerException {
+        if (StringUtils.isEmpty(jobIdPrefix)) {
+            return new ArrayList<>();
+        }
+        return triggerKeyFinder.findTriggerKeys(JOB_GROUP_NAME, jobIdPrefix);
+    }
+
+    /**
+     * Unschedules the given triggers with a single call to the scheduler, which removes them from the job store
+     * in one transaction.
+     */
+    private void unscheduleTriggers(List<TriggerKey> triggerKeys) throws SchedulerException {
+        if (!triggerKeys.isEmpty()) {
+            LOGGER.debug("Unscheduling {} jobs", triggerKeys.size());
+            scheduler.unscheduleJobs(triggerKeys);
         }
-        return names;
     }
 
     private void constructMisfirePoliciesMaps() {
@@ -941,4 +1123,30 @@ public class MotechSchedulerServiceImpl implements MotechSchedulerService {
         simpleTriggerMisfirePolicies.put("reschedule_now_with_existing_count", SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NOW_WITH_EXISTING_REPEAT_COUNT);
         simpleTriggerMisfirePolicies.put("reschedule_now_with_remaining_count", SimpleTrigger.MISFIRE_INSTRUCTION_RESCHEDULE_NOW_WITH_REMAINING_REPEAT_COUNT);
     }
+
+    /**
+     * A Quartz job detail together with the trigger built for it.
+     */
+    private static final class QuartzJob {
+
+        private final JobDetail jobDetail;
+        private final Trigger trigger;
+
+        private QuartzJob(JobDetail jobDetail, Trigger trigger) {
+            this.jobDetail = jobDetail;
+            this.trigger = trigger;
+        }
+
+        public JobDetail getJobDetail() {
+            return jobDetail;
+        }
+
+        public Trigger getTrigger() {
+            return trigger;
+        }
+
+        public String getJobId() {
+            return jobDetail.getKey().getName();
+        }
+    }
 }
@@ -0,0 +1,347 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.event.MotechEvent;
+import org.motechproject.event.listener.EventRelay;
+import org.motechproject.event.listener.EventsNotSentException;
+import org.motechproject.scheduler.contract.JobFiringStatistics;
+import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the events of fired jobs. When many jobs fire at the same time, sending every event separately from
+ * the Quartz thread that fired its job is expensive, so the events are queued instead and a single publishing thread
+ * sends the events collected within a short window as one batch, using {@link EventRelay#sendEventMessages(List)}.
+ * A Quartz thread still waits until the batch holding its event was handed over to the event relay, so a job does
+ * not complete before its event was sent. The queue is bounded, a Quartz thread also waits when it is full. Setting the window to 0 disables coalescing, events
+ * are then sent right away by the threads firing the jobs.
+ * <p>
+ * The publisher also measures the firing lag, which is the time between the scheduled fire time of a job and
+ * the moment its event was handed over to the event relay.
+ */
+@Component
+public class ScheduledEventPublisher {
+
+    public static final String SCHEDULER_CONTEXT_KEY = "scheduledEventPublisher";
+
+    public static final String PUBLISH_WINDOW = "scheduler.publish.window";
+    public static final String PUBLISH_MAX_BATCH_SIZE = "scheduler.publish.maxBatchSize";
+    public static final String PUBLISH_QUEUE_CAPACITY = "scheduler.publish.queueCapacity";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledEventPublisher.class);
+
+    private static final int DEFAULT_WINDOW = 20;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final long POLL_TIMEOUT = 1000;
+
+    private final EventRelay eventRelay;
+    private final SettingsFacade schedulerSettings;
+    private final MotechSchedulerFactoryBean motechSchedulerFactoryBean;
+
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong publishedBatches = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+    private final AtomicLong totalLag = new AtomicLong();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicLong lastLag = new AtomicLong();
+
+    private long window;
+    private int maxBatchSize;
+    private BlockingQueue<Firing> queue;
+    private Thread publisherThread;
+    private volatile boolean running;
+
+    @Autowired
+    public ScheduledEventPublisher(EventRelay eventRelay, SettingsFacade schedulerSettings,
+                                   MotechSchedulerFactoryBean motechSchedulerFactoryBean) {
+        this.eventRelay = eventRelay;
+        this.schedulerSettings = schedulerSettings;
+        this.motechSchedulerFactoryBean = motechSchedulerFactoryBean;
+    }
+
+    /**
+     * Starts the publishing thread and makes the publisher available to the fired jobs through the scheduler context.
+     */
+    @PostConstruct
+    public void init() {
+        window = NumberUtils.toLong(schedulerSettings.getProperty(PUBLISH_WINDOW), DEFAULT_WINDOW);
+        maxBatchSize = Math.max(1, NumberUtils.toInt(schedulerSettings.getProperty(PUBLISH_MAX_BATCH_SIZE), DEFAULT_MAX_BATCH_SIZE));
+        queue = new LinkedBlockingQueue<>(Math.max(1, NumberUtils.toInt(
+                schedulerSettings.getProperty(PUBLISH_QUEUE_CAPACITY), DEFAULT_QUEUE_CAPACITY)));
+
+        if (window > 0) {
+            running = true;
+            publisherThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    publishLoop();
+                }
+            }, "motech-scheduler-event-publisher");
+            publisherThread.setDaemon(true);
+            publisherThread.start();
+        }
+
+        try {
+            getScheduler().getContext().put(SCHEDULER_CONTEXT_KEY, this);
+        } catch (SchedulerException e) {
+            LOGGER.error("Unable to register the event publisher, jobs will send their events directly", e);
+        }
+    }
+
+    /**
+     * Stops the publishing thread, after sending the events that are still queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            getScheduler().getContext().remove(SCHEDULER_CONTEXT_KEY);
+        } catch (SchedulerException e) {
+            LOGGER.warn("Unable to unregister the event publisher", e);
+        }
+
+        running = false;
+        if (publisherThread != null) {
+            publisherThread.interrupt();
+            try {
+                publisherThread.join(POLL_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flushQueue();
+    }
+
+    /**
+     * Publishes the event of a fired job. The event is queued for the next batch, unless coalescing is disabled or
+     * the publisher was stopped, in which case it is sent right away. Either way, this method returns once the event
+     * was handed over to the event relay, or could not be sent.
+     *
+     * @param event the event to publish
+     * @param scheduledFireTime the time at which the job was scheduled to fire, used for measuring the firing lag
+     */
+    public void publish(MotechEvent event, Date scheduledFireTime) {
+        Firing firing = new Firing(event, scheduledFireTime == null ? System.currentTimeMillis() : scheduledFireTime.getTime());
+
+        if (running) {
+            try {
+                queue.put(firing);
+                if (!running) {
+                    // the publisher was stopped in the meantime
+                    flushQueue();
+                }
+                firing.awaitSent();
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        send(Collections.singletonList(firing));
+    }
+
+    /**
+     * Returns the statistics of the events published so far.
+     *
+     * @return the statistics
+     */
+    public JobFiringStatistics getStatistics() {
+        long published = publishedEvents.get();
+        return new JobFiringStatistics(published, publishedBatches.get(), failedEvents.get(), queue.size(),
+                published == 0 ? 0 : totalLag.get() / published, maxLag.get(), lastLag.get());
+    }
+
+    private void flushQueue() {
+        List<Firing> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            sendAndRelease(remaining);
+        }
+    }
+
+    private void publishLoop() {
+        List<Firing> batch = new ArrayList<>(maxBatchSize);
+
+        while (running) {
+            try {
+                Firing first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                // stopping, the remaining events are sent by shutdown
+                LOGGER.debug("Event publisher interrupted");
+            }
+
+            if (!batch.isEmpty()) {
+                sendAndRelease(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<Firing> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + window;
+
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+
+            Firing next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void sendAndRelease(List<Firing> firings) {
+        try {
+            send(firings);
+        } finally {
+            for (Firing firing : firings) {
+                firing.release();
+            }
+        }
+    }
+
+    private void send(List<Firing> firings) {
+        if (firings.size() == 1) {
+            sendOne(firings.get(0));
+            return;
+        }
+
+        List<MotechEvent> events = new ArrayList<>(firings.size());
+        for (Firing firing : firings) {
+            events.add(firing.getEvent());
+        }
+
+        try {
+            eventRelay.sendEventMessages(events);
+        } catch (EventsNotSentException e) {
+            LOGGER.error("Unable to publish {} of {} events of fired jobs", e.getFailedEvents().size(), events.size(), e);
+            sent(firings, e.getFailedEvents());
+            return;
+        } catch (RuntimeException e) {
+            // the relay did not tell which events were sent, so retry them one by one to not lose the whole batch
+            LOGGER.warn("Unable to publish {} events of fired jobs as a batch, publishing them one by one",
+                    events.size(), e);
+            for (Firing firing : firings) {
+                sendOne(firing);
+            }
+            return;
+        }
+
+        sent(firings, Collections.<MotechEvent>emptyList());
+    }
+
+    private void sendOne(Firing firing) {
+        try {
+            eventRelay.sendEventMessage(firing.getEvent());
+        } catch (RuntimeException e) {
+            failedEvents.incrementAndGet();
+            LOGGER.error("Unable to publish the event of a fired job: {}", firing.getEvent(), e);
+            return;
+        }
+
+        sent(Collections.singletonList(firing), Collections.<MotechEvent>emptyList());
+    }
+
+    private void sent(List<Firing> firings, List<MotechEvent> failed) {
+        Set<MotechEvent> notSent = Collections.newSetFromMap(new IdentityHashMap<MotechEvent, Boolean>());
+        notSent.addAll(failed);
+
+        long now = System.currentTimeMillis();
+        int published = 0;
+        for (Firing firing : firings) {
+            if (!notSent.contains(firing.getEvent())) {
+                recordLag(Math.max(0, now - firing.getScheduledFireTime()));
+                published++;
+            }
+        }
+        failedEvents.addAndGet(firings.size() - published);
+        if (published > 0) {
+            publishedEvents.addAndGet(published);
+            publishedBatches.incrementAndGet();
+            LOGGER.debug("Published {} events of fired jobs", published);
+        }
+    }
+
+    private void recordLag(long lag) {
+        totalLag.addAndGet(lag);
+        lastLag.set(lag);
+
+        long max = maxLag.get();
+        while (lag > max && !maxLag.compareAndSet(max, lag)) {
+            max = maxLag.get();
+        }
+    }
+
+    private Scheduler getScheduler() {
+        return motechSchedulerFactoryBean.getQuartzScheduler();
+    }
+
+    private static final class Firing {
+
+        private final MotechEvent event;
+        private final long scheduledFireTime;
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        private Firing(MotechEvent event, long scheduledFireTime) {
+            this.event = event;
+            this.scheduledFireTime = scheduledFireTime;
+        }
+
+        /**
+         * Waits until the batch holding this firing was sent. If the waiting thread is interrupted, the event
+         * is still sent with its batch.
+         */
+        public void awaitSent() {
+            try {
+                sent.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void release() {
+            sent.countDown();
+        }
+
+        public MotechEvent getEvent() {
+            return event;
+        }
+
+        public long getScheduledFireTime() {
+            return scheduledFireTime;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.motechproject.commons.sql.util.Drivers;
+import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.TriggerKey;
+import org.quartz.impl.jdbcjobstore.JobStoreSupport;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.utils.DBConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Finds keys of triggers whose names start with a given job id prefix. When the JDBC job store is used, the keys are
+ * retrieved with a single query on the triggers table, which is backed by an index on the scheduler name, trigger
+ * group and trigger name, instead of loading every trigger key of the group and matching them one by one.
+ * For other job stores the keys of the group are matched in memory.
+ */
+@Component
+public class TriggerKeyFinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TriggerKeyFinder.class);
+
+    private static final String DATA_SOURCE = "org.quartz.jobStore.dataSource";
+    private static final String TABLE_PREFIX = "org.quartz.jobStore.tablePrefix";
+    private static final String DRIVER = "org.quartz.dataSource.motechDS.driver";
+    private static final String TRIGGERS = "TRIGGERS";
+    private static final String TRIGGER_NAME = "TRIGGER_NAME";
+    private static final String TRIGGER_GROUP = "TRIGGER_GROUP";
+    private static final String SCHED_NAME = "SCHED_NAME";
+    private static final char ESCAPE = '!';
+
+    @Autowired
+    private Properties sqlProperties;
+
+    @Autowired
+    private MotechSchedulerFactoryBean motechSchedulerFactoryBean;
+
+    private Scheduler scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = motechSchedulerFactoryBean.getQuartzScheduler();
+    }
+
+    /**
+     * Returns keys of all triggers from the given group, whose names start with the given prefix.
+     *
+     * @param group the group of the triggers
+     * @param jobIdPrefix the prefix of the trigger names, not blank
+     * @return the keys of matching triggers, ordered by name when retrieved from the database
+     * @throws SchedulerException if the keys could not be retrieved
+     */
+    public List<TriggerKey> findTriggerKeys(String group, String jobIdPrefix) throws SchedulerException {
+        if (!isJdbcJobStore()) {
+            return scanTriggerKeys(group, jobIdPrefix);
+        }
+
+        try {
+            return queryTriggerKeys(group, jobIdPrefix);
+        } catch (SQLException e) {
+            throw new SchedulerException(String.format("Unable to retrieve triggers with prefix %s from group %s",
+                    jobIdPrefix, group), e);
+        }
+    }
+
+    private List<TriggerKey> queryTriggerKeys(String group, String jobIdPrefix) throws SQLException, SchedulerException {
+        String query = buildPrefixQuery();
+        LOGGER.debug("Executing {} for prefix {}", query, jobIdPrefix);
+
+        List<TriggerKey> keys = new ArrayList<>();
+
+        try (Connection conn = DBConnectionManager.getInstance().getConnection(sqlProperties.getProperty(DATA_SOURCE));
+                PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, scheduler.getSchedulerName());
+            stmt.setString(2, group);
+            stmt.setString(3, escapeLikePattern(jobIdPrefix) + '%');
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(new TriggerKey(rs.getString(1), group));
+                }
+            }
+        }
+
+        return keys;
+    }
+
+    private List<TriggerKey> scanTriggerKeys(String group, String jobIdPrefix) throws SchedulerException {
+        List<TriggerKey> keys = new ArrayList<>();
+        for (TriggerKey key : scheduler.getTriggerKeys(GroupMatcher.triggerGroupEquals(group))) {
+            if (key.getName().startsWith(jobIdPrefix)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private boolean isJdbcJobStore() throws SchedulerException {
+        return JobStoreSupport.class.isAssignableFrom(scheduler.getMetaData().getJobStoreClass());
+    }
+
+    private String buildPrefixQuery() {
+        return new StringBuilder("SELECT ")
+                .append(getCorrectNameRepresentation(TRIGGER_NAME))
+                .append(" FROM ")
+                .append(getCorrectNameRepresentation(sqlProperties.getProperty(TABLE_PREFIX) + TRIGGERS))
+                .append(" WHERE ")
+                .append(getCorrectNameRepresentation(SCHED_NAME)).append(" = ? AND ")
+                .append(getCorrectNameRepresentation(TRIGGER_GROUP)).append(" = ? AND ")
+                .append(getCorrectNameRepresentation(TRIGGER_NAME)).append(" LIKE ? ESCAPE '").append(ESCAPE).append('\'')
+                .append(" ORDER BY ").append(getCorrectNameRepresentation(TRIGGER_NAME))
+                .toString();
+    }
+
+    private String getCorrectNameRepresentation(String name) {
+        return Drivers.MYSQL_DRIVER.equals(sqlProperties.getProperty(DRIVER)) ? name : "\"" + name.toLowerCase() + "\"";
+    }
+
+    static String escapeLikePattern(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == ESCAPE || c == '%' || c == '_') {
+                sb.append(ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -3,20 +3,14 @@ package org.motechproject.scheduler.tasks;
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.motechproject.commons.sql.util.Drivers;
-import org.motechproject.scheduler.constants.SchedulerConstants;
 import org.motechproject.tasks.service.DynamicChannelProvider;
 import org.motechproject.tasks.domain.mds.channel.EventParameter;
 import org.motechproject.scheduler.service.MotechSchedulerService;
 import org.motechproject.tasks.domain.mds.task.TaskTriggerInformation;
 import org.motechproject.tasks.domain.mds.channel.TriggerEvent;
 import org.motechproject.tasks.exception.TriggerRetrievalException;
-import org.quartz.JobDataMap;
 import org.quartz.utils.DBConnectionManager;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -34,7 +28,7 @@ public class SchedulerChannelProvider implements DynamicChannelProvider {
     private static final String DATA_SOURCE = "org.quartz.jobStore.dataSource";
     private static final String QRTZ_JOB_DETAILS = "QRTZ_JOB_DETAILS";
     private static final String JOB_DESCRIPTION = "DESCRIPTION";
-    private static final String JOB_DATA = "JOB_DATA";
+    private static final String SUBJECT = "SUBJECT";
     private static final String JOB_NAME = "JOB_NAME";
 
     private Properties sqlProperties;
@@ -53,25 +47,20 @@ public class SchedulerChannelProvider implements DynamicChannelProvider {
 
             List<TriggerEvent> triggers = new ArrayList<>();
             while (rs.next()) {
-                try (InputStream is = new ByteArrayInputStream(rs.getBytes(JOB_DATA));
-                     ObjectInputStream ois = new ObjectInputStream(is)) {
-                    JobDataMap dataMap = (JobDataMap) ois.readObject();
-
-                    List<EventParameter> parameters = new ArrayList<>();
-                    parameters.add(new EventParameter("scheduler.jobId", MotechSchedulerService.JOB_ID_KEY));
-
-                    triggers.add(new TriggerEvent(
-                            "Job: " + rs.getString(JOB_NAME),
-                            rs.getString(JOB_NAME),
-                            rs.getString(JOB_DESCRIPTION),
-                            parameters,
-                            dataMap.getString(SchedulerConstants.EVENT_TYPE_KEY_NAME)
-                    ));
-                }
+                List<EventParameter> parameters = new ArrayList<>();
+                parameters.add(new EventParameter("scheduler.jobId", MotechSchedulerService.JOB_ID_KEY));
+
+                triggers.add(new TriggerEvent(
+                        "Job: " + rs.getString(JOB_NAME),
+                        rs.getString(JOB_NAME),
+                        rs.getString(JOB_DESCRIPTION),
+                        parameters,
+                        rs.getString(SUBJECT)
+                ));
             }
 
             return triggers;
-        } catch (SQLException|IOException|ClassNotFoundException e) {
+        } catch (SQLException e) {
             throw new TriggerRetrievalException("Couldn't retrieve triggers for Scheduler channel", e);
         }
     }
@@ -84,25 +73,20 @@ public class SchedulerChannelProvider implements DynamicChannelProvider {
             ResultSet rs = stmt.executeQuery(buildGetTriggerQuery(info.getSubject()));
 
             if (rs.next()) {
-                try (InputStream is = new ByteArrayInputStream(rs.getBytes(JOB_DATA));
-                     ObjectInputStream ois = new ObjectInputStream(is)) {
-                    JobDataMap dataMap = (JobDataMap) ois.readObject();
-
-                    List<EventParameter> parameters = new ArrayList<>();
-                    parameters.add(new EventParameter("scheduler.jobId", MotechSchedulerService.JOB_ID_KEY));
-
-                    return new TriggerEvent(
-                            "Job: " + rs.getString(JOB_NAME),
-                            rs.getString(JOB_NAME),
-                            rs.getString(JOB_DESCRIPTION),
-                            parameters,
-                            dataMap.getString(SchedulerConstants.EVENT_TYPE_KEY_NAME)
-                    );
-                }
+                List<EventParameter> parameters = new ArrayList<>();
+                parameters.add(new EventParameter("scheduler.jobId", MotechSchedulerService.JOB_ID_KEY));
+
+                return new TriggerEvent(
+                        "Job: " + rs.getString(JOB_NAME),
+                        rs.getString(JOB_NAME),
+                        rs.getString(JOB_DESCRIPTION),
+                        parameters,
+                        rs.getString(SUBJECT)
+                );
             }
 
             return null;
-        } catch (SQLException|IOException|ClassNotFoundException e) {
+        } catch (SQLException e) {
             throw new TriggerRetrievalException("Couldn't retrieve triggers for Scheduler channel", e);
         }
     }
@@ -166,7 +150,7 @@ public class SchedulerChannelProvider implements DynamicChannelProvider {
         sb.append(", ");
         sb.append(getCorrectName(JOB_DESCRIPTION, isPostgres));
         sb.append(", ");
-        sb.append(getCorrectName(JOB_DATA, isPostgres));
+        sb.append(getCorrectName(SUBJECT, isPostgres));
         sb.append(" FROM ");
         sb.append(getCorrectName(QRTZ_JOB_DETAILS, isPostgres));
         sb.append(" LIMIT ");
@@ -189,7 +173,7 @@ public class SchedulerChannelProvider implements DynamicChannelProvider {
         sb.append(", ");
         sb.append(getCorrectName(JOB_DESCRIPTION, isPostgres));
         sb.append(", ");
-        sb.append(getCorrectName(JOB_DATA, isPostgres));
+        sb.append(getCorrectName(SUBJECT, isPostgres));
         sb.append(" FROM ");
         sb.append(getCorrectName(QRTZ_JOB_DETAILS, isPostgres));
         sb.append(" WHERE ");
@@ -0,0 +1,200 @@
+package org.motechproject.scheduler.trigger;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Days;
+import org.joda.time.Months;
+import org.joda.time.Period;
+import org.joda.time.field.FieldUtils;
+
+/**
+ * Computes the fire times of a {@link PeriodIntervalTriggerImpl}, that is the times obtained by adding the repeat
+ * period over and over to a base time. The N-th fire time is computed directly from the base time whenever adding
+ * N periods at once gives the same result as adding them one by one:
+ * <ul>
+ *     <li>periods made only of hours, minutes, seconds and milliseconds have a fixed length,</li>
+ *     <li>periods made only of weeks and days are added as a number of days, unless a daylight saving gap would
+ *     have moved the time of day,</li>
+ *     <li>periods made only of years and months are added as a number of months, unless the day of month could have
+ *     been shortened at the end of a month, or a daylight saving gap would have moved the time of day.</li>
+ * </ul>
+ * In every other case the periods are added one by one.
+ */
+final class PeriodFireTimes {
+
+    private static final int LAST_DAY_PRESENT_IN_EVERY_MONTH = 28;
+
+    private enum Kind {
+        FIXED_LENGTH, DAYS, MONTHS, IRREGULAR
+    }
+
+    private final Period period;
+    private final DateTime base;
+    private final Kind kind;
+    private final long periodMillis;
+    private final int periodDays;
+    private final int periodMonths;
+
+    PeriodFireTimes(Period period, DateTime base) {
+        this.period = period;
+        this.base = base;
+        this.periodMillis = period.getHours() * (long) DateTimeConstants.MILLIS_PER_HOUR
+                + period.getMinutes() * (long) DateTimeConstants.MILLIS_PER_MINUTE
+                + period.getSeconds() * (long) DateTimeConstants.MILLIS_PER_SECOND
+                + period.getMillis();
+        this.periodDays = period.getWeeks() * DateTimeConstants.DAYS_PER_WEEK + period.getDays();
+        this.periodMonths = period.getYears() * 12 + period.getMonths();
+        this.kind = kindOf(period);
+    }
+
+    /**
+     * Returns the fire time with the given index, the base time having index 0.
+     *
+     * @param index  the index of the fire time, not negative
+     * @return the fire time
+     */
+    DateTime fireTime(long index) {
+        if (index == 0) {
+            return base;
+        }
+        if (kind != Kind.IRREGULAR) {
+            DateTime fireTime = jump(index);
+            if (canJumpUntil(fireTime)) {
+                return fireTime;
+            }
+        }
+        return step(index);
+    }
+
+    /**
+     * Returns the index of the first fire time that is not before the given time.
+     *
+     * @param time  the time to look for
+     * @return the index of the fire time
+     */
+    long indexAtOrAfter(DateTime time) {
+        if (!time.isAfter(base)) {
+            return 0;
+        }
+        if (kind == Kind.IRREGULAR || !canJumpUntil(time.plus(period))) {
+            return stepTo(time);
+        }
+
+        long index = estimateIndex(time);
+        while (index > 0 && !jump(index - 1).isBefore(time)) {
+            index--;
+        }
+        while (jump(index).isBefore(time)) {
+            index++;
+        }
+        return index;
+    }
+
+    private DateTime jump(long index) {
+        switch (kind) {
+            case FIXED_LENGTH:
+                return base.plus(index * periodMillis);
+            case DAYS:
+                return base.plusDays(FieldUtils.safeToInt(index * periodDays));
+            default:
+                return base.plusMonths(FieldUtils.safeToInt(index * periodMonths));
+        }
+    }
+
+    private long estimateIndex(DateTime time) {
+        switch (kind) {
+            case FIXED_LENGTH:
+                return (time.getMillis() - base.getMillis()) / periodMillis;
+            case DAYS:
+                return Days.daysBetween(base, time).getDays() / periodDays;
+            default:
+                return Months.monthsBetween(base, time).getMonths() / periodMonths;
+        }
+    }
+
+    private DateTime step(long index) {
+        DateTime fireTime = base;
+        for (long i = 0; i < index; i++) {
+            fireTime = fireTime.plus(period);
+        }
+        return fireTime;
+    }
+
+    private long stepTo(DateTime time) {
+        long index = 0;
+        DateTime fireTime = base;
+        while (fireTime.isBefore(time)) {
+            fireTime = fireTime.plus(period);
+            index++;
+        }
+        return index;
+    }
+
+    private boolean canJumpUntil(DateTime limit) {
+        switch (kind) {
+            case FIXED_LENGTH:
+                return true;
+            case DAYS:
+                return keepsTimeOfDayUntil(limit);
+            case MONTHS:
+                return base.getDayOfMonth() <= LAST_DAY_PRESENT_IN_EVERY_MONTH && keepsTimeOfDayUntil(limit);
+            default:
+                return false;
+        }
+    }
+
+    /*
+     * Adding days or months moves the time of day only if the result falls into a daylight saving gap, so it is
+     * enough to check that none of the gaps up to the limit contains the time of day of the base time.
+     */
+    private boolean keepsTimeOfDayUntil(DateTime limit) {
+        DateTimeZone zone = base.getZone();
+        long timeOfDay = base.getMillisOfDay();
+        long instant = base.getMillis();
+        long transition = zone.nextTransition(instant);
+
+        while (transition > instant && transition <= limit.getMillis()) {
+            int offsetBefore = zone.getOffset(transition - 1);
+            int offsetAfter = zone.getOffset(transition);
+
+            if (offsetAfter > offsetBefore) {
+                long gapStart = transition + offsetBefore;
+                long gapEnd = transition + offsetAfter;
+                long dayStart = gapStart - (gapStart % DateTimeConstants.MILLIS_PER_DAY
+                        + DateTimeConstants.MILLIS_PER_DAY) % DateTimeConstants.MILLIS_PER_DAY;
+
+                for (long local = dayStart + timeOfDay; local < gapEnd; local += DateTimeConstants.MILLIS_PER_DAY) {
+                    if (local >= gapStart) {
+                        return false;
+                    }
+                }
+            }
+
+            instant = transition;
+            transition = zone.nextTransition(instant);
+        }
+        return true;
+    }
+
+    private Kind kindOf(Period repeatPeriod) {
+        for (int value : repeatPeriod.getValues()) {
+            if (value < 0) {
+                return Kind.IRREGULAR;
+            }
+        }
+
+        boolean hasTime = periodMillis > 0;
+        boolean hasDays = periodDays > 0;
+        boolean hasMonths = periodMonths > 0;
+
+        if (hasTime && !hasDays && !hasMonths) {
+            return Kind.FIXED_LENGTH;
+        } else if (hasDays && !hasTime && !hasMonths) {
+            return Kind.DAYS;
+        } else if (hasMonths && !hasTime && !hasDays) {
+            return Kind.MONTHS;
+        }
+        return Kind.IRREGULAR;
+    }
+}
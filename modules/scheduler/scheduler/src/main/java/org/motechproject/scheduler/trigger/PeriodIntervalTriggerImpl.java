@@ -8,7 +8,9 @@ import org.quartz.SchedulerException;
 import org.quartz.impl.triggers.AbstractTrigger;
 import org.quartz.impl.triggers.CoreTrigger;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * Implementation of {@link org.motechproject.scheduler.trigger.PeriodIntervalTrigger}
@@ -19,6 +21,8 @@ public class PeriodIntervalTriggerImpl extends AbstractTrigger<PeriodIntervalTri
 
     private static final int YEAR_TO_GIVEUP_SCHEDULING_AT = java.util.Calendar.getInstance().get(java.util.Calendar.YEAR) + 100;
 
+    private static final long TIME_TO_GIVEUP_SCHEDULING_AT = new DateTime(YEAR_TO_GIVEUP_SCHEDULING_AT + 1, 1, 1, 0, 0).getMillis();
+
     private Date startTime;
 
     private Date endTime;
@@ -139,9 +143,7 @@ public class PeriodIntervalTriggerImpl extends AbstractTrigger<PeriodIntervalTri
             }
 
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= TIME_TO_GIVEUP_SCHEDULING_AT) {
                 nextFireTime = null;
             }
         }
@@ -170,9 +172,7 @@ public class PeriodIntervalTriggerImpl extends AbstractTrigger<PeriodIntervalTri
             }
 
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= TIME_TO_GIVEUP_SCHEDULING_AT) {
                 nextFireTime = null;
             }
 
@@ -211,9 +211,7 @@ public class PeriodIntervalTriggerImpl extends AbstractTrigger<PeriodIntervalTri
             }
 
             //avoid infinite loop
-            java.util.Calendar c = java.util.Calendar.getInstance();
-            c.setTime(nextFireTime);
-            if (c.get(java.util.Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT) {
+            if (nextFireTime.getTime() >= TIME_TO_GIVEUP_SCHEDULING_AT) {
                 return null;
             }
         }
@@ -255,18 +253,80 @@ public class PeriodIntervalTriggerImpl extends AbstractTrigger<PeriodIntervalTri
             return null;
         }
 
-        DateTime fireTime;
-        if (afterTime == null) {
-            fireTime = new DateTime(new Date(System.currentTimeMillis())).plus(repeatPeriod);
-        } else {
-            fireTime = new DateTime(new Date(afterTime.getTime())).plus(repeatPeriod);
-        }
+        long after = (afterTime == null) ? System.currentTimeMillis() : afterTime.getTime();
+        Date fireTime = new DateTime(after).plus(repeatPeriod).toDate();
 
-        if (endTime != null && endTime.before(fireTime.toDate())) {
+        if (endTime != null && endTime.before(fireTime)) {
             return null;
         }
 
-        return fireTime.toDate();
+        return fireTime;
+    }
+
+    /**
+     * Returns the times at which this trigger will fire between the given dates, inclusive. The result is the same
+     * as the one of {@link org.quartz.TriggerUtils#computeFireTimesBetween} called without a calendar, but the fire
+     * times before <code>from</code> are skipped with arithmetic on the repeat period instead of firing a copy of
+     * the trigger for each of them. This matters for triggers which started years ago.
+     *
+     * @param from  the beginning of the range
+     * @param to  the end of the range
+     * @return the fire times between the given dates
+     */
+    public List<Date> computeFireTimesBetween(Date from, Date to) {
+        List<Date> fireTimes = new ArrayList<>();
+        walkFireTimesBetween(from, to, fireTimes);
+        return fireTimes;
+    }
+
+    /**
+     * Returns the number of times this trigger will fire between the given dates, inclusive. The fire times are
+     * counted without being computed, whenever the repeat period allows it.
+     *
+     * @param from  the beginning of the range
+     * @param to  the end of the range
+     * @return the number of fire times between the given dates
+     * @see #computeFireTimesBetween(Date, Date)
+     */
+    public int countFireTimesBetween(Date from, Date to) {
+        return (int) Math.min(Integer.MAX_VALUE, walkFireTimesBetween(from, to, null));
+    }
+
+    private long walkFireTimesBetween(Date from, Date to, List<Date> fireTimes) {
+        // same as TriggerUtils, a trigger which was not yet scheduled fires from the beginning of the range
+        Date first = (nextFireTime == null) ? from : nextFireTime;
+        Date end = (nextFireTime == null) ? to : endTime;
+
+        if (first.after(to)) {
+            return 0;
+        }
+
+        long count = 0;
+        if (!first.before(from)) {
+            count++;
+            if (fireTimes != null) {
+                fireTimes.add(first);
+            }
+        }
+        if (complete) {
+            return count;
+        }
+
+        Date last = (end != null && end.before(to)) ? end : to;
+        PeriodFireTimes periodFireTimes = new PeriodFireTimes(repeatPeriod, new DateTime(first.getTime()));
+        long index = Math.max(1, periodFireTimes.indexAtOrAfter(new DateTime(from.getTime())));
+
+        if (fireTimes == null) {
+            long lastIndex = periodFireTimes.indexAtOrAfter(new DateTime(last.getTime() + 1));
+            return count + Math.max(0, lastIndex - index);
+        }
+
+        for (DateTime fireTime = periodFireTimes.fireTime(index); !fireTime.toDate().after(last);
+             fireTime = fireTime.plus(repeatPeriod)) {
+            fireTimes.add(fireTime.toDate());
+            count++;
+        }
+        return count;
     }
 
     @Override
@@ -0,0 +1,211 @@
+package org.motechproject.scheduler.util;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.quartz.JobDataMap;
+
+import javax.xml.bind.DatatypeConverter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_METADATA;
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_TYPE_KEY_NAME;
+import static org.motechproject.scheduler.constants.SchedulerConstants.UI_DEFINED;
+
+/**
+ * Stores the event of a job in its {@code JobDataMap} using strings only, so that the job store can keep the map as
+ * text instead of a serialized Java object. Every value is prefixed with a tag telling its type, strings, numbers,
+ * booleans and dates are written as text, other values are serialized and written in Base64. The subject is kept
+ * under the {@code eventType} key and every metadata key is prefixed with {@link #METADATA_PREFIX}.
+ * Maps stored by older versions, holding objects and a nested metadata map, are decoded as well.
+ */
+public final class JobDataCodec {
+
+    public static final String METADATA_PREFIX = EVENT_METADATA + ".";
+
+    private static final char SEPARATOR = ':';
+    private static final char ZONE_SEPARATOR = '@';
+
+    private static final String NULL = "n";
+    private static final String STRING = "s";
+    private static final String INTEGER = "i";
+    private static final String LONG = "l";
+    private static final String DOUBLE = "d";
+    private static final String FLOAT = "f";
+    private static final String BOOLEAN = "b";
+    private static final String DATE_TIME = "t";
+    private static final String DATE = "D";
+    private static final String SERIALIZED = "o";
+
+    /**
+     * Puts the given subject, event parameters and metadata into the given map.
+     *
+     * @param jobDataMap  the map of the job
+     * @param subject  the subject of the event
+     * @param parameters  the parameters of the event
+     * @param metadata  the metadata of the event and the job
+     */
+    public static void encode(JobDataMap jobDataMap, String subject, Map<String, Object> parameters,
+                              Map<String, Object> metadata) {
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            jobDataMap.put(entry.getKey(), encodeValue(entry.getValue()));
+        }
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            jobDataMap.put(METADATA_PREFIX + entry.getKey(), encodeValue(entry.getValue()));
+        }
+        if (subject != null) {
+            jobDataMap.put(EVENT_TYPE_KEY_NAME, subject);
+        }
+    }
+
+    /**
+     * @param jobDataMap  the map of the job
+     * @return the subject of the event stored in the given map
+     */
+    public static String getSubject(JobDataMap jobDataMap) {
+        Object subject = jobDataMap.get(EVENT_TYPE_KEY_NAME);
+        return (subject == null) ? null : subject.toString();
+    }
+
+    /**
+     * @param jobDataMap  the map of the job
+     * @return the parameters of the event stored in the given map, without the subject and metadata
+     */
+    public static Map<String, Object> decodeParameters(JobDataMap jobDataMap) {
+        Map<String, Object> parameters = new HashMap<>();
+        for (Map.Entry<String, Object> entry : jobDataMap.getWrappedMap().entrySet()) {
+            String key = entry.getKey();
+            if (!EVENT_TYPE_KEY_NAME.equals(key) && !EVENT_METADATA.equals(key) && !key.startsWith(METADATA_PREFIX)) {
+                parameters.put(key, decodeValue(entry.getValue()));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @param jobDataMap  the map of the job
+     * @return the metadata stored in the given map
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> decodeMetadata(JobDataMap jobDataMap) {
+        Map<String, Object> metadata = new HashMap<>();
+        for (Map.Entry<String, Object> entry : jobDataMap.getWrappedMap().entrySet()) {
+            String key = entry.getKey();
+            if (key.startsWith(METADATA_PREFIX)) {
+                metadata.put(key.substring(METADATA_PREFIX.length()), decodeValue(entry.getValue()));
+            } else if (EVENT_METADATA.equals(key) && entry.getValue() instanceof Map) {
+                metadata.putAll((Map<String, Object>) entry.getValue());
+            }
+        }
+        return metadata;
+    }
+
+    /**
+     * @param jobDataMap  the map of the job
+     * @return true if the job stored in the given map was created through the UI, false otherwise
+     */
+    public static boolean isUiDefined(JobDataMap jobDataMap) {
+        return Boolean.TRUE.equals(decodeMetadata(jobDataMap).get(UI_DEFINED));
+    }
+
+    /**
+     * Returns the given value as a string prefixed with its type.
+     *
+     * @param value  the value to encode
+     * @return the encoded value
+     */
+    public static String encodeValue(Object value) {
+        if (value == null) {
+            return NULL + SEPARATOR;
+        } else if (value instanceof String) {
+            return STRING + SEPARATOR + value;
+        } else if (value instanceof Integer) {
+            return INTEGER + SEPARATOR + value;
+        } else if (value instanceof Long) {
+            return LONG + SEPARATOR + value;
+        } else if (value instanceof Double) {
+            return DOUBLE + SEPARATOR + value;
+        } else if (value instanceof Float) {
+            return FLOAT + SEPARATOR + value;
+        } else if (value instanceof Boolean) {
+            return BOOLEAN + SEPARATOR + value;
+        } else if (value instanceof DateTime) {
+            DateTime dateTime = (DateTime) value;
+            return DATE_TIME + SEPARATOR + dateTime.getMillis() + ZONE_SEPARATOR + dateTime.getZone().getID();
+        } else if (value.getClass() == Date.class) {
+            return DATE + SEPARATOR + ((Date) value).getTime();
+        } else if (value instanceof Serializable) {
+            return SERIALIZED + SEPARATOR
+                    + DatatypeConverter.printBase64Binary(SerializationUtils.serialize((Serializable) value));
+        }
+        throw new IllegalArgumentException(String.format("Value of type %s can not be stored in a job",
+                value.getClass().getName()));
+    }
+
+    /**
+     * Returns the value encoded with {@link #encodeValue(Object)}. Values which are not strings, or are strings
+     * without a type prefix, are returned as they are.
+     *
+     * @param value  the encoded value
+     * @return the decoded value
+     */
+    public static Object decodeValue(Object value) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+
+        String encoded = (String) value;
+        int separator = encoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return encoded;
+        }
+
+        String type = encoded.substring(0, separator);
+        String text = encoded.substring(separator + 1);
+
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return text;
+            case INTEGER:
+                return Integer.valueOf(text);
+            case LONG:
+                return Long.valueOf(text);
+            case DOUBLE:
+                return Double.valueOf(text);
+            case FLOAT:
+                return Float.valueOf(text);
+            case BOOLEAN:
+                return Boolean.valueOf(text);
+            case DATE_TIME:
+                int zoneSeparator = text.indexOf(ZONE_SEPARATOR);
+                return new DateTime(Long.parseLong(text.substring(0, zoneSeparator)),
+                        DateTimeZone.forID(text.substring(zoneSeparator + 1)));
+            case DATE:
+                return new Date(Long.parseLong(text));
+            case SERIALIZED:
+                return deserialize(DatatypeConverter.parseBase64Binary(text));
+            default:
+                return encoded;
+        }
+    }
+
+    // resolves classes with the loader of the scheduler bundle, the same way the job store did
+    private static Object deserialize(byte[] bytes) {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to deserialize a value stored in a job", e);
+        }
+    }
+
+    private JobDataCodec() {
+    }
+}
@@ -3,11 +3,13 @@ package org.motechproject.scheduler.web.controller;
 import org.motechproject.scheduler.constants.SchedulerConstants;
 import org.motechproject.scheduler.contract.JobBasicInfo;
 import org.motechproject.scheduler.contract.JobDetailedInfo;
+import org.motechproject.scheduler.contract.JobFiringStatistics;
 import org.motechproject.scheduler.contract.JobsSearchSettings;
 import org.motechproject.scheduler.contract.SchedulableJob;
 import org.motechproject.scheduler.exception.MotechSchedulerException;
 import org.motechproject.scheduler.service.MotechSchedulerDatabaseService;
 import org.motechproject.scheduler.service.MotechSchedulerService;
+import org.motechproject.scheduler.service.impl.ScheduledEventPublisher;
 import org.motechproject.scheduler.web.domain.JobsRecords;
 import org.quartz.SchedulerException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -45,6 +47,9 @@ public class JobsController {
     @Autowired
     private MotechSchedulerService motechSchedulerService;
 
+    @Autowired
+    private ScheduledEventPublisher scheduledEventPublisher;
+
     private JobsRecords previousJobsRecords;
 
     /**
@@ -73,6 +78,17 @@ public class JobsController {
         return previousJobsRecords;
     }
 
+    /**
+     * Returns the statistics of publishing events of fired jobs, including the firing lag.
+     *
+     * @return the statistics of fired jobs
+     */
+    @RequestMapping(value = "/jobs/firing", method = RequestMethod.GET)
+    @ResponseBody
+    public JobFiringStatistics retrieveFiringStatistics() {
+        return scheduledEventPublisher.getStatistics();
+    }
+
     /**
      * Returns detailed information about job with given ID.
      *
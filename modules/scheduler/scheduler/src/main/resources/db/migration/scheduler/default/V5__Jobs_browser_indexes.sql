@@ -0,0 +1,7 @@
+--
+-- Indexes used by the jobs browser for sorting and keyset paging, the trigger name and group break ties between rows
+--
+CREATE INDEX IDX_QRTZ_T_ST_N_G ON QRTZ_TRIGGERS(SCHED_NAME,START_TIME,TRIGGER_NAME,TRIGGER_GROUP);
+CREATE INDEX IDX_QRTZ_T_ET_N_G ON QRTZ_TRIGGERS(SCHED_NAME,END_TIME,TRIGGER_NAME,TRIGGER_GROUP);
+CREATE INDEX IDX_QRTZ_T_STATE_N_G ON QRTZ_TRIGGERS(SCHED_NAME,TRIGGER_STATE,TRIGGER_NAME,TRIGGER_GROUP);
+CREATE INDEX IDX_QRTZ_T_TYPE_N_G ON QRTZ_TRIGGERS(SCHED_NAME,TRIGGER_TYPE,TRIGGER_NAME,TRIGGER_GROUP);
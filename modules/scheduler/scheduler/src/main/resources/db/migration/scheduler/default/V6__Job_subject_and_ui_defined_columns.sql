@@ -0,0 +1,9 @@
+--
+-- The subject and the UI defined flag of jobs are kept in dedicated columns, so that they can be queried without
+-- reading the job data. The columns of existing jobs are filled when the scheduler starts.
+--
+ALTER TABLE qrtz_job_details ADD COLUMN SUBJECT VARCHAR(255) NULL;
+ALTER TABLE qrtz_job_details ADD COLUMN UI_DEFINED BOOL NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IDX_QRTZ_J_SUBJECT ON qrtz_job_details(SCHED_NAME,SUBJECT);
+CREATE INDEX IDX_QRTZ_J_UI_DEFINED ON qrtz_job_details(SCHED_NAME,UI_DEFINED);
@@ -0,0 +1,4 @@
+--
+-- Index used for finding triggers by job id prefix
+--
+CREATE INDEX IDX_QRTZ_T_G_N_PREFIX ON QRTZ_TRIGGERS(SCHED_NAME,TRIGGER_GROUP,TRIGGER_NAME);
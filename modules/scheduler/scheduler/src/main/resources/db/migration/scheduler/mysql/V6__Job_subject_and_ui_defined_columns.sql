@@ -0,0 +1,9 @@
+--
+-- The subject and the UI defined flag of jobs are kept in dedicated columns, so that they can be queried without
+-- reading the job data. The columns of existing jobs are filled when the scheduler starts.
+--
+ALTER TABLE QRTZ_JOB_DETAILS ADD COLUMN SUBJECT VARCHAR(255) NULL;
+ALTER TABLE QRTZ_JOB_DETAILS ADD COLUMN UI_DEFINED BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX IDX_QRTZ_J_SUBJECT ON QRTZ_JOB_DETAILS(SCHED_NAME,SUBJECT);
+CREATE INDEX IDX_QRTZ_J_UI_DEFINED ON QRTZ_JOB_DETAILS(SCHED_NAME,UI_DEFINED);
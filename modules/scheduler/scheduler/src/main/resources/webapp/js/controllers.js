@@ -29,7 +29,12 @@
 
         $scope.reload = function(page, params) {
             if (page >= 1 && page <= $scope.jobs.total) {
-                JobsService.setParam("page", page);
+                var rows = $scope.jobs.rows;
+                if (page === $scope.jobs.page + 1 && rows.length > 0) {
+                    JobsService.setNextPage(page, rows[rows.length - 1]);
+                } else {
+                    JobsService.setParam("page", page);
+                }
                 JobsService.fetchJobs();
             }
         };
@@ -85,6 +85,14 @@
             },
             "setParam": function(fieldName, value) {
                 params[fieldName] = value;
+                // the last job of the previous page is only valid when moving to the next page
+                delete params.lastJobName;
+                delete params.lastJobGroup;
+            },
+            "setNextPage": function(page, lastJob) {
+                params.page = page;
+                params.lastJobName = lastJob.name;
+                params.lastJobGroup = lastJob.group;
             },
             "setCurrentJob": function(job) {
                 currentJob = job;
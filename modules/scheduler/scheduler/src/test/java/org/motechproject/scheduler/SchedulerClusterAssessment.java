@@ -0,0 +1,142 @@
+package org.motechproject.scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+/**
+ * Runs two clustered scheduler instances against the same database and checks that the scheduled jobs are split
+ * between them, with every job fired exactly once.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = {"/performanceTestSchedulerApplicationContext.xml"})
+public class SchedulerClusterAssessment {
+
+    private static final String SCHEDULER_NAME = "MotechClusterAssessment";
+    private static final String GROUP = "cluster";
+    private static final int JOB_COUNT = 500;
+    private static final long TIMEOUT = 60000;
+
+    private static final ConcurrentHashMap<String, AtomicInteger> FIRES_BY_JOB = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, AtomicInteger> FIRES_BY_INSTANCE = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    @Qualifier("sqlProperties")
+    private Properties sqlProperties;
+
+    private MotechSchedulerFactoryBean firstInstance;
+    private MotechSchedulerFactoryBean secondInstance;
+
+    @Before
+    public void setUp() throws SchedulerException {
+        FIRES_BY_JOB.clear();
+        FIRES_BY_INSTANCE.clear();
+
+        firstInstance = startInstance("node1");
+        firstInstance.getQuartzScheduler().clear();
+        secondInstance = startInstance("node2");
+    }
+
+    @After
+    public void tearDown() throws SchedulerException {
+        firstInstance.getQuartzScheduler().clear();
+        firstInstance.shutdown();
+        secondInstance.shutdown();
+    }
+
+    @Test
+    public void shouldSplitJobsBetweenInstancesWithoutFiringTwice() throws Exception {
+        Scheduler scheduler = firstInstance.getQuartzScheduler();
+        Date startTime = new Date(System.currentTimeMillis() + 2000);
+
+        for (int i = 0; i < JOB_COUNT; ++i) {
+            String name = "job" + i;
+            Trigger trigger = newTrigger().withIdentity(name, GROUP).startAt(startTime).build();
+            scheduler.scheduleJob(newJob(CountingJob.class).withIdentity(name, GROUP).build(), trigger);
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (FIRES_BY_JOB.size() < JOB_COUNT && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        // give a possible second firing a chance to happen
+        Thread.sleep(2000);
+
+        assertEquals(JOB_COUNT, FIRES_BY_JOB.size());
+        for (Map.Entry<String, AtomicInteger> entry : FIRES_BY_JOB.entrySet()) {
+            assertEquals("Job " + entry.getKey() + " fired more than once", 1, entry.getValue().get());
+        }
+
+        assertEquals(2, FIRES_BY_INSTANCE.size());
+        for (AtomicInteger fires : FIRES_BY_INSTANCE.values()) {
+            assertTrue(fires.get() > 0);
+        }
+        System.out.println(String.format("Jobs fired by instance: %s", FIRES_BY_INSTANCE));
+    }
+
+    private MotechSchedulerFactoryBean startInstance(String instanceId) {
+        Properties properties = new Properties();
+        properties.putAll(sqlProperties);
+        properties.setProperty("org.quartz.scheduler.instanceName", SCHEDULER_NAME);
+        properties.setProperty("org.quartz.scheduler.instanceId", instanceId);
+        properties.setProperty(MotechSchedulerFactoryBean.CLUSTERED, "true");
+        properties.setProperty(MotechSchedulerFactoryBean.CLUSTER_CHECKIN_INTERVAL, "1000");
+        properties.setProperty(MotechSchedulerFactoryBean.THREAD_COUNT, "5");
+
+        MotechSchedulerFactoryBean schedulerFactoryBean = new MotechSchedulerFactoryBean(applicationContext, properties);
+        schedulerFactoryBean.init();
+        return schedulerFactoryBean;
+    }
+
+    public static class CountingJob implements Job {
+
+        @Override
+        public void execute(JobExecutionContext context) throws JobExecutionException {
+            try {
+                increment(FIRES_BY_INSTANCE, context.getScheduler().getSchedulerInstanceId());
+            } catch (SchedulerException e) {
+                throw new JobExecutionException(e);
+            }
+            increment(FIRES_BY_JOB, context.getJobDetail().getKey().getName());
+        }
+
+        private static void increment(ConcurrentHashMap<String, AtomicInteger> counters, String key) {
+            AtomicInteger counter = counters.get(key);
+            if (counter == null) {
+                AtomicInteger newCounter = new AtomicInteger();
+                counter = counters.putIfAbsent(key, newCounter);
+                if (counter == null) {
+                    counter = newCounter;
+                }
+            }
+            counter.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.motechproject.scheduler.factory;
+
+import org.junit.Test;
+import org.motechproject.commons.sql.util.Drivers;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MotechSchedulerFactoryBeanTest {
+
+    @Test
+    public void shouldTranslateClusterSettings() {
+        Properties properties = new Properties();
+        properties.setProperty(MotechSchedulerFactoryBean.CLUSTERED, "true");
+        properties.setProperty(MotechSchedulerFactoryBean.CLUSTER_CHECKIN_INTERVAL, "20000");
+
+        Properties quartzProperties = MotechSchedulerFactoryBean.buildQuartzProperties(properties, 4);
+
+        assertEquals("true", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_IS_CLUSTERED));
+        assertEquals("AUTO", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_INSTANCE_ID));
+        assertEquals("20000", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_CLUSTER_CHECKIN_INTERVAL));
+    }
+
+    @Test
+    public void shouldNotEnableClusteringByDefault() {
+        Properties quartzProperties = MotechSchedulerFactoryBean.buildQuartzProperties(new Properties(), 4);
+
+        assertNull(quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_IS_CLUSTERED));
+        assertNull(quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_INSTANCE_ID));
+    }
+
+    @Test
+    public void shouldSizeThreadPoolAndBatchFromAvailableProcessors() {
+        Properties properties = new Properties();
+        properties.setProperty(MotechSchedulerFactoryBean.THREAD_COUNT, "auto");
+
+        Properties quartzProperties = MotechSchedulerFactoryBean.buildQuartzProperties(properties, 4);
+
+        assertEquals("8", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_THREAD_COUNT));
+        assertEquals("8", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_BATCH_MAX_COUNT));
+        assertEquals("true", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_ACQUIRE_TRIGGERS_WITHIN_LOCK));
+
+        quartzProperties = MotechSchedulerFactoryBean.buildQuartzProperties(properties, 1);
+
+        assertEquals("3", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_THREAD_COUNT));
+    }
+
+    @Test
+    public void shouldTranslateBatchSettings() {
+        Properties properties = new Properties();
+        properties.setProperty(MotechSchedulerFactoryBean.THREAD_COUNT, "10");
+        properties.setProperty(MotechSchedulerFactoryBean.BATCH_MAX_SIZE, "1");
+        properties.setProperty(MotechSchedulerFactoryBean.BATCH_FIRE_AHEAD_TIME_WINDOW, "500");
+
+        Properties quartzProperties = MotechSchedulerFactoryBean.buildQuartzProperties(properties, 4);
+
+        assertEquals("10", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_THREAD_COUNT));
+        assertEquals("1", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_BATCH_MAX_COUNT));
+        assertEquals("500", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_BATCH_FIRE_AHEAD_TIME_WINDOW));
+        assertNull(quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_ACQUIRE_TRIGGERS_WITHIN_LOCK));
+    }
+
+    @Test
+    public void shouldPreferExplicitQuartzProperties() {
+        Properties properties = new Properties();
+        properties.setProperty(MotechSchedulerFactoryBean.CLUSTERED, "true");
+        properties.setProperty(MotechSchedulerFactoryBean.QUARTZ_INSTANCE_ID, "node1");
+        properties.setProperty(MotechSchedulerFactoryBean.THREAD_COUNT, "auto");
+        properties.setProperty(MotechSchedulerFactoryBean.QUARTZ_THREAD_COUNT, "5");
+
+        Properties quartzProperties = MotechSchedulerFactoryBean.buildQuartzProperties(properties, 4);
+
+        assertEquals("node1", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_INSTANCE_ID));
+        assertEquals("5", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_THREAD_COUNT));
+        assertEquals("5", quartzProperties.getProperty(MotechSchedulerFactoryBean.QUARTZ_BATCH_MAX_COUNT));
+    }
+
+    @Test
+    public void shouldReplaceStandardDriverDelegates() {
+        Properties properties = new Properties();
+        properties.setProperty(MotechSchedulerFactoryBean.QUARTZ_DRIVER_DELEGATE, Drivers.QUARTZ_STD_JDBC_DELEGATE);
+
+        assertEquals(MotechStdJDBCDelegate.class.getName(), MotechSchedulerFactoryBean.buildQuartzProperties(properties, 4)
+                .getProperty(MotechSchedulerFactoryBean.QUARTZ_DRIVER_DELEGATE));
+
+        properties.setProperty(MotechSchedulerFactoryBean.QUARTZ_DRIVER_DELEGATE, Drivers.QUARTZ_POSTGRESQL_DELEGATE);
+
+        assertEquals(MotechPostgreSQLDelegate.class.getName(), MotechSchedulerFactoryBean.buildQuartzProperties(properties, 4)
+                .getProperty(MotechSchedulerFactoryBean.QUARTZ_DRIVER_DELEGATE));
+    }
+}
@@ -14,6 +14,7 @@ import org.motechproject.commons.date.model.Time;
 import org.motechproject.event.MotechEvent;
 import org.motechproject.event.listener.EventListener;
 import org.motechproject.event.listener.EventListenerRegistryService;
+import org.motechproject.scheduler.contract.BulkOperationResult;
 import org.motechproject.scheduler.contract.CronJobId;
 import org.motechproject.scheduler.contract.CronSchedulableJob;
 import org.motechproject.scheduler.contract.DayOfWeekSchedulableJob;
@@ -21,6 +22,7 @@ import org.motechproject.scheduler.contract.JobBasicInfo;
 import org.motechproject.scheduler.contract.RepeatingPeriodSchedulableJob;
 import org.motechproject.scheduler.contract.RepeatingSchedulableJob;
 import org.motechproject.scheduler.contract.RunOnceSchedulableJob;
+import org.motechproject.scheduler.contract.SchedulableJob;
 import org.motechproject.scheduler.exception.MotechSchedulerException;
 import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
 import org.motechproject.scheduler.service.MotechSchedulerService;
@@ -46,6 +48,7 @@ import java.util.Map;
 
 import static java.util.Arrays.asList;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
@@ -610,6 +613,59 @@ public class MotechSchedulerServiceImplBundleIT extends BasePaxIT {
         assertNull(scheduler.getTrigger(triggerKey("test_event3-job_id", "default")));
     }
 
+    @Test
+    public void shouldScheduleAndUnscheduleJobsInBulkReportingFailures() throws SchedulerException {
+        List<SchedulableJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> params = new HashMap<>();
+            params.put(MotechSchedulerService.JOB_ID_KEY, "bulk_" + i);
+            jobs.add(new CronSchedulableJob(new MotechEvent("test_event", params), "0 0 12 * * ?"));
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put(MotechSchedulerService.JOB_ID_KEY, "bulk_invalid");
+        jobs.add(new CronSchedulableJob(new MotechEvent("test_event", params), "invalid cron expression"));
+
+        BulkOperationResult result = schedulerService.scheduleJobs(jobs);
+
+        assertEquals(asList("test_event-bulk_0", "test_event-bulk_1", "test_event-bulk_2"), result.getSucceeded());
+        assertEquals(1, result.getFailed().size());
+        assertTrue(result.getFailed().containsKey("test_event-bulk_invalid"));
+        assertNotNull(scheduler.getTrigger(triggerKey("test_event-bulk_0", "default")));
+        assertNotNull(scheduler.getTrigger(triggerKey("test_event-bulk_2", "default")));
+
+        result = schedulerService.unscheduleJobs(asList(new CronJobId("test_event", "bulk_0"),
+                new CronJobId("test_event", "bulk_1"), new CronJobId("test_event", "bulk_2")));
+
+        assertFalse(result.hasFailures());
+        assertNull(scheduler.getTrigger(triggerKey("test_event-bulk_0", "default")));
+        assertNull(scheduler.getTrigger(triggerKey("test_event-bulk_1", "default")));
+        assertNull(scheduler.getTrigger(triggerKey("test_event-bulk_2", "default")));
+    }
+
+    @Test
+    public void shouldUnscheduleOnlyJobsStartingWithTheGivenJobIdPrefix() throws SchedulerException {
+        Map<String, Object> params = new HashMap<>();
+        params.put(MotechSchedulerService.JOB_ID_KEY, "patient_1");
+        schedulerService.scheduleJob(new CronSchedulableJob(new MotechEvent("test_event", params), "0 0 12 * * ?"));
+
+        params.put(MotechSchedulerService.JOB_ID_KEY, "patient_10");
+        schedulerService.scheduleJob(new CronSchedulableJob(new MotechEvent("test_event", params), "0 0 12 * * ?"));
+
+        params.put(MotechSchedulerService.JOB_ID_KEY, "patientX1");
+        schedulerService.scheduleJob(new CronSchedulableJob(new MotechEvent("test_event", params), "0 0 12 * * ?"));
+
+        params.put(MotechSchedulerService.JOB_ID_KEY, "test_event-patient_1");
+        schedulerService.scheduleJob(new CronSchedulableJob(new MotechEvent("test_event_2", params), "0 0 12 * * ?"));
+
+        schedulerService.unscheduleAllJobs("test_event-patient_1");
+
+        assertNull(scheduler.getTrigger(triggerKey("test_event-patient_1", "default")));
+        assertNull(scheduler.getTrigger(triggerKey("test_event-patient_10", "default")));
+        // '_' is not treated as a wildcard and the prefix is not matched in the middle of job ids
+        assertNotNull(scheduler.getTrigger(triggerKey("test_event-patientX1", "default")));
+        assertNotNull(scheduler.getTrigger(triggerKey("test_event_2-test_event-patient_1", "default")));
+    }
+
     @Test
     public void shouldPauseJobIfItIsUiDefined() throws Exception {
         Map<String, Object> params = new HashMap<>();
@@ -0,0 +1,53 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.junit.Test;
+import org.motechproject.scheduler.util.JobDataCodec;
+import org.quartz.JobDataMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_METADATA;
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_TYPE_KEY_NAME;
+import static org.motechproject.scheduler.constants.SchedulerConstants.UI_DEFINED;
+
+public class JobDataMigrationTest {
+
+    @Test
+    public void shouldKeepLegacyValuesLookingLikeEncodedOnes() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(UI_DEFINED, true);
+        metadata.put("owner", "s:admin");
+
+        JobDataMap legacy = new JobDataMap();
+        legacy.put(EVENT_TYPE_KEY_NAME, "subject");
+        legacy.put(EVENT_METADATA, metadata);
+        legacy.put("string", "s:abc");
+        legacy.put("null", "n:x");
+        legacy.put("integer", "i:x");
+        legacy.put("path", "D:\\path");
+        legacy.put("number", 5);
+        legacy.put("empty", null);
+
+        JobDataMap encoded = JobDataMigration.encodeLegacyJobData(legacy);
+
+        for (Object value : encoded.getWrappedMap().values()) {
+            assertTrue(value instanceof String);
+        }
+        assertEquals("subject", JobDataCodec.getSubject(encoded));
+
+        Map<String, Object> parameters = JobDataCodec.decodeParameters(encoded);
+        assertEquals(6, parameters.size());
+        assertEquals("s:abc", parameters.get("string"));
+        assertEquals("n:x", parameters.get("null"));
+        assertEquals("i:x", parameters.get("integer"));
+        assertEquals("D:\\path", parameters.get("path"));
+        assertEquals(5, parameters.get("number"));
+        assertTrue(parameters.containsKey("empty"));
+
+        assertEquals(metadata, JobDataCodec.decodeMetadata(encoded));
+        assertTrue(JobDataCodec.isUiDefined(encoded));
+    }
+}
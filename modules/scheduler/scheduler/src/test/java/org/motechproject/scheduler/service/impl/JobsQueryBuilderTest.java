@@ -0,0 +1,88 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.junit.Test;
+import org.motechproject.scheduler.contract.JobBasicInfo;
+import org.motechproject.scheduler.contract.JobsSearchSettings;
+import org.motechproject.scheduler.service.impl.JobsQueryBuilder.JobsQuery;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JobsQueryBuilderTest {
+
+    private static final String SCHEDULER = "MotechScheduler";
+    private static final long NOW = 1000L;
+
+    private JobsQueryBuilder mysqlBuilder = new JobsQueryBuilder("QRTZ_", true);
+    private JobsQueryBuilder postgresBuilder = new JobsQueryBuilder("QRTZ_", false);
+
+    @Test
+    public void shouldJoinTriggerTablesInSingleQuery() {
+        JobsQuery query = mysqlBuilder.buildSelectQuery(new JobsSearchSettings(), SCHEDULER, NOW, false);
+
+        assertTrue(query.getSql().contains("FROM QRTZ_TRIGGERS AS A JOIN QRTZ_JOB_DETAILS AS B"));
+        assertTrue(query.getSql().contains("LEFT JOIN QRTZ_SIMPLE_TRIGGERS AS S"));
+        assertTrue(query.getSql().contains("LEFT JOIN QRTZ_CRON_TRIGGERS AS C"));
+        assertTrue(query.getSql().contains("LEFT JOIN QRTZ_SIMPROP_TRIGGERS AS P"));
+        assertTrue(query.getSql().endsWith(" WHERE A.SCHED_NAME = ? ORDER BY A.TRIGGER_NAME ASC, A.TRIGGER_GROUP ASC"));
+        assertEquals(asList((Object) SCHEDULER), query.getParameters());
+    }
+
+    @Test
+    public void shouldPassFiltersAsParameters() {
+        JobsSearchSettings settings = settings();
+        settings.setName("patient_1");
+        settings.setActivity(JobBasicInfo.ACTIVITY_NOTSTARTED);
+        settings.setStatus(JobBasicInfo.STATUS_PAUSED);
+
+        JobsQuery query = mysqlBuilder.buildSelectQuery(settings, SCHEDULER, NOW, false);
+
+        assertTrue(query.getSql().contains(" AND (A.START_TIME > ?) AND A.TRIGGER_STATE IN (?, ?)" +
+                " AND A.TRIGGER_NAME LIKE ? ESCAPE '!'"));
+        assertFalse(query.getSql().contains("patient"));
+        assertEquals(asList((Object) SCHEDULER, NOW, "PAUSED", "PAUSED_BLOCKED", "%patient!_1%", 10, 20),
+                query.getParameters());
+    }
+
+    @Test
+    public void shouldSortAndPageWithOffset() {
+        JobsQuery query = mysqlBuilder.buildSelectQuery(settings(), SCHEDULER, NOW, false);
+
+        assertTrue(query.getSql().endsWith(" ORDER BY A.START_TIME DESC, A.TRIGGER_NAME DESC, A.TRIGGER_GROUP DESC" +
+                " LIMIT ? OFFSET ?"));
+        assertEquals(asList((Object) SCHEDULER, 10, 20), query.getParameters());
+    }
+
+    @Test
+    public void shouldPageAfterLastJob() {
+        JobsSearchSettings settings = settings();
+        settings.setLastJobName("subject-job_id");
+        settings.setLastJobGroup("default");
+
+        JobsQuery query = mysqlBuilder.buildSelectQuery(settings, SCHEDULER, NOW, true);
+
+        assertTrue(query.getSql().contains(" AND (A.START_TIME, A.TRIGGER_NAME, A.TRIGGER_GROUP) <" +
+                " (SELECT START_TIME, TRIGGER_NAME, TRIGGER_GROUP FROM QRTZ_TRIGGERS" +
+                " WHERE SCHED_NAME = ? AND TRIGGER_NAME = ? AND TRIGGER_GROUP = ?)"));
+        assertTrue(query.getSql().endsWith(" LIMIT ?"));
+        assertEquals(asList((Object) SCHEDULER, SCHEDULER, "subject-job_id", "default", 10), query.getParameters());
+    }
+
+    @Test
+    public void shouldQuoteNamesForPostgres() {
+        JobsQuery query = postgresBuilder.buildCountQuery(new JobsSearchSettings(), SCHEDULER, NOW);
+
+        assertEquals("SELECT COUNT(*) FROM \"qrtz_triggers\" AS A WHERE A.\"sched_name\" = ?", query.getSql());
+    }
+
+    private JobsSearchSettings settings() {
+        JobsSearchSettings settings = new JobsSearchSettings();
+        settings.setPage(3);
+        settings.setRows(10);
+        settings.setSortColumn("startDate");
+        settings.setSortDirection("desc");
+        return settings;
+    }
+}
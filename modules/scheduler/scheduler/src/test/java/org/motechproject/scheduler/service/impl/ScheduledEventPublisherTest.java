@@ -0,0 +1,193 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.event.MotechEvent;
+import org.motechproject.event.listener.EventRelay;
+import org.motechproject.event.listener.EventsNotSentException;
+import org.motechproject.scheduler.contract.JobFiringStatistics;
+import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ScheduledEventPublisherTest {
+
+    @Mock
+    private EventRelay eventRelay;
+
+    @Mock
+    private SettingsFacade schedulerSettings;
+
+    @Mock
+    private MotechSchedulerFactoryBean motechSchedulerFactoryBean;
+
+    @Mock
+    private Scheduler scheduler;
+
+    private SchedulerContext schedulerContext = new SchedulerContext();
+
+    private ScheduledEventPublisher publisher;
+
+    @Before
+    public void setUp() throws Exception {
+        when(motechSchedulerFactoryBean.getQuartzScheduler()).thenReturn(scheduler);
+        when(scheduler.getContext()).thenReturn(schedulerContext);
+
+        publisher = new ScheduledEventPublisher(eventRelay, schedulerSettings, motechSchedulerFactoryBean);
+    }
+
+    @After
+    public void tearDown() {
+        publisher.shutdown();
+    }
+
+    @Test
+    public void shouldPublishEventsFiringWithinWindowAsOneBatch() throws InterruptedException {
+        when(schedulerSettings.getProperty(ScheduledEventPublisher.PUBLISH_WINDOW)).thenReturn("300");
+        publisher.init();
+
+        assertSame(publisher, schedulerContext.get(ScheduledEventPublisher.SCHEDULER_CONTEXT_KEY));
+
+        Date fireTime = new Date(System.currentTimeMillis() - 1000);
+        publishConcurrently(fireTime, new MotechEvent("subject1"), new MotechEvent("subject2"),
+                new MotechEvent("subject3"));
+
+        // every publish call returned only after its batch was sent
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventRelay).sendEventMessages(captor.capture());
+
+        List<MotechEvent> events = captor.getValue();
+        Set<String> subjects = new HashSet<>();
+        for (MotechEvent event : events) {
+            subjects.add(event.getSubject());
+        }
+        assertEquals(3, events.size());
+        assertEquals(new HashSet<>(Arrays.asList("subject1", "subject2", "subject3")), subjects);
+
+        JobFiringStatistics statistics = publisher.getStatistics();
+        assertEquals(3, statistics.getPublishedEvents());
+        assertEquals(1, statistics.getPublishedBatches());
+        assertTrue(statistics.getMaxLag() >= 1000);
+        assertTrue(statistics.getAverageLag() >= 1000);
+    }
+
+    @Test
+    public void shouldCountOnlyEventsThatCouldNotBeSentAsFailed() throws InterruptedException {
+        when(schedulerSettings.getProperty(ScheduledEventPublisher.PUBLISH_WINDOW)).thenReturn("300");
+        publisher.init();
+
+        MotechEvent failing = new MotechEvent("subject2");
+        doThrow(new EventsNotSentException(Arrays.asList(failing), new IllegalStateException()))
+                .when(eventRelay).sendEventMessages(anyListOf(MotechEvent.class));
+
+        publishConcurrently(new Date(), new MotechEvent("subject1"), failing, new MotechEvent("subject3"));
+
+        verify(eventRelay).sendEventMessages(anyListOf(MotechEvent.class));
+        verify(eventRelay, never()).sendEventMessage(any(MotechEvent.class));
+
+        JobFiringStatistics statistics = publisher.getStatistics();
+        assertEquals(2, statistics.getPublishedEvents());
+        assertEquals(1, statistics.getFailedEvents());
+    }
+
+    @Test
+    public void shouldPublishEventsOneByOneWhenBatchFails() throws InterruptedException {
+        when(schedulerSettings.getProperty(ScheduledEventPublisher.PUBLISH_WINDOW)).thenReturn("300");
+        publisher.init();
+
+        MotechEvent failing = new MotechEvent("subject2");
+        doThrow(new IllegalStateException()).when(eventRelay).sendEventMessages(anyListOf(MotechEvent.class));
+        doThrow(new IllegalStateException()).when(eventRelay).sendEventMessage(failing);
+
+        publishConcurrently(new Date(), new MotechEvent("subject1"), failing, new MotechEvent("subject3"));
+
+        verify(eventRelay, times(3)).sendEventMessage(any(MotechEvent.class));
+
+        JobFiringStatistics statistics = publisher.getStatistics();
+        assertEquals(2, statistics.getPublishedEvents());
+        assertEquals(1, statistics.getFailedEvents());
+    }
+
+    @Test
+    public void shouldWaitUntilTheEventWasSent() {
+        when(schedulerSettings.getProperty(ScheduledEventPublisher.PUBLISH_WINDOW)).thenReturn("300");
+        publisher.init();
+
+        MotechEvent event = new MotechEvent("subject");
+        publisher.publish(event, new Date());
+
+        verify(eventRelay).sendEventMessage(event);
+        assertEquals(1, publisher.getStatistics().getPublishedEvents());
+    }
+
+    @Test
+    public void shouldPublishRightAwayWhenCoalescingIsDisabled() {
+        when(schedulerSettings.getProperty(ScheduledEventPublisher.PUBLISH_WINDOW)).thenReturn("0");
+        publisher.init();
+
+        MotechEvent event = new MotechEvent("subject");
+        publisher.publish(event, new Date());
+
+        verify(eventRelay).sendEventMessage(event);
+        verify(eventRelay, never()).sendEventMessages(anyListOf(MotechEvent.class));
+        assertEquals(1, publisher.getStatistics().getPublishedEvents());
+    }
+
+    @Test
+    public void shouldUnregisterFromSchedulerContextOnShutdown() {
+        publisher.init();
+        publisher.shutdown();
+
+        assertNull(schedulerContext.get(ScheduledEventPublisher.SCHEDULER_CONTEXT_KEY));
+
+        MotechEvent event = new MotechEvent("subject");
+        publisher.publish(event, new Date());
+
+        verify(eventRelay).sendEventMessage(event);
+    }
+
+    private void publishConcurrently(final Date fireTime, MotechEvent... events) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (final MotechEvent event : events) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    publisher.publish(event, fireTime);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.motechproject.scheduler.service.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.motechproject.scheduler.factory.MotechSchedulerFactoryBean;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerMetaData;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.quartz.simpl.RAMJobStore;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+import static org.quartz.TriggerKey.triggerKey;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TriggerKeyFinderTest {
+
+    @InjectMocks
+    private TriggerKeyFinder triggerKeyFinder = new TriggerKeyFinder();
+
+    @Mock
+    private MotechSchedulerFactoryBean motechSchedulerFactoryBean;
+
+    @Mock
+    private Scheduler scheduler;
+
+    @Mock
+    private SchedulerMetaData metaData;
+
+    @Before
+    public void setUp() throws Exception {
+        when(motechSchedulerFactoryBean.getQuartzScheduler()).thenReturn(scheduler);
+        when(scheduler.getMetaData()).thenReturn(metaData);
+        triggerKeyFinder.init();
+    }
+
+    @Test
+    public void shouldMatchPrefixInMemoryForNonJdbcJobStores() throws Exception {
+        when(metaData.getJobStoreClass()).thenReturn((Class) RAMJobStore.class);
+        when(scheduler.getTriggerKeys(any(GroupMatcher.class))).thenReturn(new HashSet<>(asList(
+                triggerKey("subject-patient1", "default"), triggerKey("other-subject-patient1", "default"))));
+
+        List<TriggerKey> keys = triggerKeyFinder.findTriggerKeys("default", "subject-patient");
+
+        assertEquals(asList(triggerKey("subject-patient1", "default")), keys);
+    }
+
+    @Test
+    public void shouldEscapeLikeWildcards() {
+        assertEquals("subject-patient!_1!%!!", TriggerKeyFinder.escapeLikePattern("subject-patient_1%!"));
+        assertEquals("subject-patient", TriggerKeyFinder.escapeLikePattern("subject-patient"));
+    }
+}
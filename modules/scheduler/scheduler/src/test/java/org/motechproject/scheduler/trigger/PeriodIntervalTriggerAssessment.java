@@ -0,0 +1,63 @@
+package org.motechproject.scheduler.trigger;
+
+import org.joda.time.DateTime;
+import org.joda.time.Period;
+import org.junit.Test;
+import org.motechproject.commons.api.NanoStopWatch;
+import org.quartz.TriggerUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the time it takes to compute the fire times of repeating jobs that were started years ago, for a week
+ * from now, by firing copies of the triggers with quartz and by skipping the past fire times arithmetically.
+ */
+public class PeriodIntervalTriggerAssessment {
+
+    private static final int YEARS_AGO = 5;
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void shouldComputeFireTimesOfYearsOldTriggers() {
+        assess(Period.minutes(15));
+        assess(Period.hours(1));
+        assess(Period.days(1));
+        assess(Period.weeks(1));
+        assess(Period.months(1));
+        assess(Period.months(1).plusDays(1));
+    }
+
+    private void assess(Period period) {
+        PeriodIntervalTriggerImpl trigger = new PeriodIntervalTriggerImpl();
+        trigger.setRepeatPeriod(period);
+        trigger.setStartTime(DateTime.now().minusYears(YEARS_AGO).toDate());
+        trigger.computeFirstFireTime(null);
+
+        Date from = DateTime.now().toDate();
+        Date to = DateTime.now().plusWeeks(1).toDate();
+
+        List<Date> expected = TriggerUtils.computeFireTimesBetween(trigger, null, from, to);
+        assertEquals(expected, trigger.computeFireTimesBetween(from, to));
+
+        NanoStopWatch quartz = new NanoStopWatch().start();
+        for (int i = 0; i < ROUNDS; i++) {
+            TriggerUtils.computeFireTimesBetween(trigger, null, from, to);
+        }
+        long quartzTime = quartz.duration() / ROUNDS;
+
+        NanoStopWatch arithmetic = new NanoStopWatch().start();
+        for (int i = 0; i < ROUNDS; i++) {
+            trigger.computeFireTimesBetween(from, to);
+        }
+        long arithmeticTime = arithmetic.duration() / ROUNDS;
+
+        System.out.println(format("%s started %d years ago, %d fire times in a week: quartz %dus, arithmetic %dus",
+                period, YEARS_AGO, expected.size(), TimeUnit.NANOSECONDS.toMicros(quartzTime),
+                TimeUnit.NANOSECONDS.toMicros(arithmeticTime)));
+    }
+}
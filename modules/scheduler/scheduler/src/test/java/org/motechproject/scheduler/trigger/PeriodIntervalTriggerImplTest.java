@@ -0,0 +1,103 @@
+package org.motechproject.scheduler.trigger;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.quartz.TriggerUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PeriodIntervalTriggerImplTest {
+
+    private DateTimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        defaultZone = DateTimeZone.getDefault();
+        // a zone with daylight saving gaps at 2:00
+        DateTimeZone.setDefault(DateTimeZone.forID("Europe/Warsaw"));
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    public void shouldComputeFireTimesOfTriggersWithFixedLengthPeriods() {
+        assertSameFireTimes(scheduledTrigger(new DateTime(2012, 3, 4, 10, 15), Period.hours(1)));
+        assertSameFireTimes(scheduledTrigger(new DateTime(2012, 3, 4, 10, 15), Period.minutes(37)));
+    }
+
+    @Test
+    public void shouldComputeFireTimesOfTriggersWithDayPeriods() {
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 7, 9, 10, 0), Period.days(1)));
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 7, 9, 10, 0), Period.weeks(2)));
+        // the time of day moves after the first daylight saving gap
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 1, 3, 2, 30), Period.days(1)));
+    }
+
+    @Test
+    public void shouldComputeFireTimesOfTriggersWithMonthPeriods() {
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 1, 15, 8, 0), Period.months(1)));
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 1, 15, 8, 0), Period.years(1)));
+        // the day of month is shortened in february
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 1, 31, 8, 0), Period.months(1)));
+    }
+
+    @Test
+    public void shouldComputeFireTimesOfTriggersWithIrregularPeriods() {
+        assertSameFireTimes(scheduledTrigger(new DateTime(2011, 1, 31, 8, 0), Period.months(1).plusDays(2)));
+    }
+
+    @Test
+    public void shouldNotComputeFireTimesAfterEndTime() {
+        PeriodIntervalTriggerImpl trigger = scheduledTrigger(new DateTime(2012, 3, 4, 10, 15), Period.days(1));
+        trigger.setEndTime(new DateTime(2016, 5, 10, 0, 0).toDate());
+
+        assertSameFireTimes(trigger);
+        assertEquals(9, trigger.countFireTimesBetween(from(), to()));
+    }
+
+    @Test
+    public void shouldCountFireTimesOfTriggersNotYetScheduled() {
+        PeriodIntervalTriggerImpl trigger = new PeriodIntervalTriggerImpl();
+        trigger.setRepeatPeriod(Period.hours(2));
+        trigger.setStartTime(new DateTime(2010, 1, 1, 0, 0).toDate());
+
+        Date to = new DateTime(2010, 1, 11, 0, 0).toDate();
+
+        assertEquals(TriggerUtils.computeFireTimesBetween(trigger, null, trigger.getStartTime(), to).size(),
+                trigger.countFireTimesBetween(trigger.getStartTime(), to));
+        assertEquals(121, trigger.countFireTimesBetween(trigger.getStartTime(), to));
+    }
+
+    private void assertSameFireTimes(PeriodIntervalTriggerImpl trigger) {
+        List<Date> expected = TriggerUtils.computeFireTimesBetween(trigger, null, from(), to());
+
+        assertEquals(expected, trigger.computeFireTimesBetween(from(), to()));
+        assertEquals(expected.size(), trigger.countFireTimesBetween(from(), to()));
+    }
+
+    private PeriodIntervalTriggerImpl scheduledTrigger(DateTime startTime, Period period) {
+        PeriodIntervalTriggerImpl trigger = new PeriodIntervalTriggerImpl();
+        trigger.setRepeatPeriod(period);
+        trigger.setStartTime(startTime.toDate());
+        trigger.computeFirstFireTime(null);
+        return trigger;
+    }
+
+    private Date from() {
+        return new DateTime(2016, 5, 1, 0, 0).toDate();
+    }
+
+    private Date to() {
+        return new DateTime(2016, 6, 1, 0, 0).toDate();
+    }
+}
@@ -0,0 +1,73 @@
+package org.motechproject.scheduler.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.Period;
+import org.junit.Test;
+import org.quartz.JobDataMap;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_METADATA;
+import static org.motechproject.scheduler.constants.SchedulerConstants.EVENT_TYPE_KEY_NAME;
+import static org.motechproject.scheduler.constants.SchedulerConstants.UI_DEFINED;
+
+public class JobDataCodecTest {
+
+    @Test
+    public void shouldStoreEventUsingStringsOnly() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("string", "value:with:separators");
+        parameters.put("integer", 5);
+        parameters.put("long", 5L);
+        parameters.put("double", 1.5);
+        parameters.put("float", 2.5f);
+        parameters.put("boolean", true);
+        parameters.put("dateTime", new DateTime(2015, 3, 4, 10, 15, DateTimeZone.forID("Europe/Warsaw")));
+        parameters.put("date", new Date(1425460500000L));
+        parameters.put("period", Period.days(3));
+        parameters.put("list", Arrays.asList("a", "b"));
+        parameters.put("null", null);
+
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(UI_DEFINED, true);
+
+        JobDataMap jobDataMap = new JobDataMap();
+        JobDataCodec.encode(jobDataMap, "subject", parameters, metadata);
+
+        for (Object value : jobDataMap.getWrappedMap().values()) {
+            assertTrue(value instanceof String);
+        }
+        assertEquals("subject", JobDataCodec.getSubject(jobDataMap));
+        assertEquals(parameters, JobDataCodec.decodeParameters(jobDataMap));
+        assertEquals(metadata, JobDataCodec.decodeMetadata(jobDataMap));
+        assertTrue(JobDataCodec.isUiDefined(jobDataMap));
+    }
+
+    @Test
+    public void shouldDecodeMapsStoredByOlderVersions() {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put(UI_DEFINED, false);
+
+        JobDataMap jobDataMap = new JobDataMap();
+        jobDataMap.put(EVENT_TYPE_KEY_NAME, "subject");
+        jobDataMap.put(EVENT_METADATA, metadata);
+        jobDataMap.put("patientId", "001");
+        jobDataMap.put("count", 3);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("patientId", "001");
+        parameters.put("count", 3);
+
+        assertEquals("subject", JobDataCodec.getSubject(jobDataMap));
+        assertEquals(parameters, JobDataCodec.decodeParameters(jobDataMap));
+        assertEquals(metadata, JobDataCodec.decodeMetadata(jobDataMap));
+        assertFalse(JobDataCodec.isUiDefined(jobDataMap));
+    }
+}
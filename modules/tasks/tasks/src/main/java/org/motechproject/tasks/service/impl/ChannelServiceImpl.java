@@ -55,6 +55,7 @@ public class ChannelServiceImpl implements ChannelService {
     private MotechJsonReader motechJsonReader;
     private EventRelay eventRelay;
     private BundleContext bundleContext;
+    private TaskActionRegistry actionRegistry;
 
     static {
         typeAdapters.put(ActionEventRequest.class, new ActionEventRequestDeserializer());
@@ -124,10 +125,12 @@ public class ChannelServiceImpl implements ChannelService {
             existingChannel.setModuleVersion(channel.getModuleVersion());
 
             channelsDataService.update(existingChannel);
+            actionRegistry.evictModule(channel.getModuleName());
             sendChannelUpdatedEvent(channel);
         } else if (existingChannel == null) {
             LOGGER.debug("Creating channel {}", channel.getDisplayName());
             channelsDataService.create(channel);
+            actionRegistry.evictModule(channel.getModuleName());
         }
 
         LOGGER.info(String.format("Saved channel: %s", channel.getDisplayName()));
@@ -142,6 +145,7 @@ public class ChannelServiceImpl implements ChannelService {
         if (existingChannel != null) {
             LOGGER.debug("Deleting channel {}", moduleName);
             channelsDataService.delete(existingChannel);
+            actionRegistry.evictModule(moduleName);
             sendChannelDeleteEvent(moduleName);
         } else if (existingChannel == null) {
             LOGGER.debug("Channel doesn't exists {}", moduleName);
@@ -194,6 +198,11 @@ public class ChannelServiceImpl implements ChannelService {
         this.bundleContext = bundleContext;
     }
 
+    @Autowired
+    public void setActionRegistry(TaskActionRegistry actionRegistry) {
+        this.actionRegistry = actionRegistry;
+    }
+
     private void sendChannelUpdatedEvent(Channel channel) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put(CHANNEL_MODULE_NAME, channel.getModuleName());
@@ -17,15 +17,13 @@ import org.motechproject.tasks.service.TaskService;
 import org.motechproject.tasks.service.util.KeyEvaluator;
 import org.motechproject.tasks.service.util.TaskContext;
 import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceReference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -52,6 +50,7 @@ public class TaskActionExecutor {
     private TaskService taskService;
     private TaskActivityService activityService;
     private TasksPostExecutionHandler postExecutionHandler;
+    private TaskActionRegistry actionRegistry;
 
     /**
      * Executes the action for the given task.
@@ -93,12 +92,14 @@ public class TaskActionExecutor {
 
     private ActionEvent getActionEvent(TaskActionInformation actionInformation)
             throws TaskHandlerException {
-        ActionEvent action;
+        ActionEvent action = actionRegistry.getAction(actionInformation);
 
-        try {
-            action = taskService.getActionEventFor(actionInformation);
-        } catch (ActionNotFoundException e) {
-            throw new TaskHandlerException(TRIGGER, "task.error.actionNotFound", e);
+        if (action == null) {
+            try {
+                action = actionRegistry.putAction(actionInformation, taskService.getActionEventFor(actionInformation));
+            } catch (ActionNotFoundException e) {
+                throw new TaskHandlerException(TRIGGER, "task.error.actionNotFound", e);
+            }
         }
 
         return action;
@@ -220,34 +221,41 @@ public class TaskActionExecutor {
 
     private boolean callActionServiceMethod(ActionEvent action, Integer actionIndex, Map<String, Object> parameters, TaskContext taskContext)
             throws TaskHandlerException {
-        ServiceReference reference = bundleContext.getServiceReference(
-                action.getServiceInterface()
-        );
-        boolean serviceAvailable = reference != null;
+        TaskActionRegistry.ServiceBinding binding = actionRegistry.getServiceBinding(action.getServiceInterface());
+        boolean serviceAvailable = binding != null;
         if (serviceAvailable) {
-            Object service = bundleContext.getService(reference);
             String serviceMethod = action.getServiceMethod();
             MethodHandler methodHandler = new MethodHandler(action, parameters);
-            try {
-                Method method = service.getClass().getMethod(serviceMethod, methodHandler.getClasses());
+            MethodHandle method;
 
-                try {
-                    Object object = method.invoke(service, methodHandler.getObjects());
-
-                    if (object != null) {
-                        addPostActionParametersToTaskContext(action, actionIndex, taskContext, object);
-                    }
-                } catch (IllegalAccessException | InvocationTargetException e) {
-                    throw new TaskHandlerException(
-                            ACTION, "task.error.serviceMethodInvokeError", e,
-                            serviceMethod, action.getServiceInterface()
-                    );
-                }
+            try {
+                method = binding.getMethod(serviceMethod, methodHandler.getClasses());
             } catch (NoSuchMethodException e) {
                 throw new TaskHandlerException(
                         ACTION, "task.error.notFoundMethodForService", e,
                         serviceMethod, action.getServiceInterface()
                 );
+            } catch (IllegalAccessException e) {
+                throw new TaskHandlerException(
+                        ACTION, "task.error.serviceMethodInvokeError", e,
+                        serviceMethod, action.getServiceInterface()
+                );
+            }
+
+            Object object;
+            try {
+                object = (Object) method.invokeExact(methodHandler.getObjects());
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new TaskHandlerException(
+                        ACTION, "task.error.serviceMethodInvokeError", e,
+                        serviceMethod, action.getServiceInterface()
+                );
+            }
+
+            if (object != null) {
+                addPostActionParametersToTaskContext(action, actionIndex, taskContext, object);
             }
         }
 
@@ -294,4 +302,9 @@ public class TaskActionExecutor {
     public void setTasksPostExecutionHandler(TasksPostExecutionHandler postExecutionHandler) {
         this.postExecutionHandler = postExecutionHandler;
     }
+
+    @Autowired
+    public void setActionRegistry(TaskActionRegistry actionRegistry) {
+        this.actionRegistry = actionRegistry;
+    }
 }
@@ -0,0 +1,322 @@
+package org.motechproject.tasks.service.impl;
+
+import org.motechproject.tasks.domain.mds.channel.ActionEvent;
+import org.motechproject.tasks.domain.mds.task.TaskActionInformation;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceListener;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.SynchronousBundleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the actions executed by tasks resolved, so that executing an action does not load its channel and look up
+ * the service it calls every time. The registry holds:
+ * <ul>
+ *     <li>a copy of the {@link ActionEvent} of every executed action, keyed by the module and the identity of the
+ *     action, evicted when the channel of the module is registered again, unregistered or when its bundle is
+ *     uninstalled,</li>
+ *     <li>the services called by actions, along with method handles bound to them, dropped as soon as the service
+ *     is modified or unregistered, or another service with the same interface is registered.</li>
+ * </ul>
+ */
+@Component
+public class TaskActionRegistry implements ServiceListener, SynchronousBundleListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskActionRegistry.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final ConcurrentMap<ActionKey, ActionEvent> actions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ServiceBinding> services = new ConcurrentHashMap<>();
+    private final AtomicLong actionsGeneration = new AtomicLong();
+    private final AtomicLong servicesGeneration = new AtomicLong();
+
+    private BundleContext bundleContext;
+
+    /**
+     * Returns the resolved action matching the given action information.
+     *
+     * @param actionInformation  the information about the action, not null
+     * @return the action, or null if it was not resolved yet
+     */
+    ActionEvent getAction(TaskActionInformation actionInformation) {
+        return actions.get(new ActionKey(actionInformation));
+    }
+
+    /**
+     * Stores the action resolved for the given action information. Actions are stored as copies, since the given
+     * action can be bound to the transaction it was retrieved in.
+     *
+     * @param actionInformation  the information about the action, not null
+     * @param action  the action matching the given information
+     * @return the stored copy of the action, or null if the given action is null
+     */
+    ActionEvent putAction(TaskActionInformation actionInformation, ActionEvent action) {
+        if (action == null) {
+            return null;
+        }
+
+        long generation = actionsGeneration.get();
+        ActionKey key = new ActionKey(actionInformation);
+        ActionEvent copy = new ActionEvent(action);
+
+        actions.put(key, copy);
+        // the action could have been read before the change of its channel was committed
+        if (actionsGeneration.get() != generation) {
+            actions.remove(key, copy);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Evicts the actions of the given module. If called in a transaction, the actions are evicted again when the
+     * transaction completes.
+     *
+     * @param moduleName  the name of the module
+     */
+    public void evictModule(final String moduleName) {
+        evictActions(moduleName);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictActions(moduleName);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the binding of the service with the given interface.
+     *
+     * @param serviceInterface  the name of the service interface
+     * @return the binding of the service, or null if the service is not available
+     */
+    ServiceBinding getServiceBinding(String serviceInterface) {
+        ServiceBinding binding = services.get(serviceInterface);
+        if (binding != null || bundleContext == null) {
+            return binding;
+        }
+
+        long generation = servicesGeneration.get();
+        ServiceReference reference = bundleContext.getServiceReference(serviceInterface);
+        Object service = (reference == null) ? null : bundleContext.getService(reference);
+        if (service == null) {
+            return null;
+        }
+
+        binding = new ServiceBinding(reference, service);
+        ServiceBinding existing = services.putIfAbsent(serviceInterface, binding);
+        if (existing != null) {
+            bundleContext.ungetService(reference);
+            return existing;
+        }
+
+        // the service could have been unregistered after it was retrieved
+        if (servicesGeneration.get() != generation && services.remove(serviceInterface, binding)) {
+            bundleContext.ungetService(reference);
+        }
+
+        return binding;
+    }
+
+    @Override
+    public void serviceChanged(ServiceEvent event) {
+        // a service registered with the same interface can have a higher ranking than the bound one
+        String[] classes = (String[]) event.getServiceReference().getProperty(Constants.OBJECTCLASS);
+        if (classes == null) {
+            return;
+        }
+
+        servicesGeneration.incrementAndGet();
+        for (String serviceInterface : classes) {
+            ServiceBinding binding = services.remove(serviceInterface);
+            if (binding != null) {
+                LOGGER.debug("Service {} changed, dropping its binding", serviceInterface);
+                bundleContext.ungetService(binding.reference);
+            }
+        }
+    }
+
+    @Override
+    public void bundleChanged(BundleEvent event) {
+        if (event.getType() == BundleEvent.UNINSTALLED && event.getBundle().getSymbolicName() != null) {
+            evictActions(event.getBundle().getSymbolicName());
+        }
+    }
+
+    @Autowired(required = false)
+    public void setBundleContext(BundleContext bundleContext) {
+        this.bundleContext = bundleContext;
+
+        if (bundleContext != null) {
+            bundleContext.addServiceListener(this);
+            bundleContext.addBundleListener(this);
+        }
+    }
+
+    /**
+     * Stops listening to service and bundle events and releases the services held by the registry.
+     */
+    @PreDestroy
+    public void close() {
+        if (bundleContext == null) {
+            return;
+        }
+
+        bundleContext.removeServiceListener(this);
+        bundleContext.removeBundleListener(this);
+
+        for (String serviceInterface : services.keySet()) {
+            ServiceBinding binding = services.remove(serviceInterface);
+            if (binding != null) {
+                bundleContext.ungetService(binding.reference);
+            }
+        }
+    }
+
+    private void evictActions(String moduleName) {
+        actionsGeneration.incrementAndGet();
+
+        for (ActionKey key : actions.keySet()) {
+            if (Objects.equals(moduleName, key.moduleName)) {
+                actions.remove(key);
+            }
+        }
+    }
+
+    /**
+     * A service called by actions, with the method handles of its methods bound to it. Every handle takes the
+     * method arguments as an array and returns the result as an object, null for void methods.
+     */
+    static final class ServiceBinding {
+
+        private final ServiceReference reference;
+        private final Object service;
+        private final ConcurrentMap<MethodKey, MethodHandle> methods = new ConcurrentHashMap<>();
+
+        private ServiceBinding(ServiceReference reference, Object service) {
+            this.reference = reference;
+            this.service = service;
+        }
+
+        /**
+         * Returns the handle of the public service method with the given name and parameter types.
+         *
+         * @param name  the name of the method
+         * @param parameterTypes  the types of the method parameters
+         * @return the method handle bound to the service, of type {@code (Object[])Object}
+         * @throws NoSuchMethodException if the service has no such method
+         * @throws IllegalAccessException if the method is not accessible
+         */
+        MethodHandle getMethod(String name, Class[] parameterTypes) throws NoSuchMethodException, IllegalAccessException {
+            MethodKey key = new MethodKey(name, parameterTypes);
+
+            MethodHandle handle = methods.get(key);
+            if (handle == null) {
+                Method method = service.getClass().getMethod(name, parameterTypes);
+
+                handle = LOOKUP.unreflect(method);
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    handle = handle.bindTo(service);
+                }
+                handle = handle.asSpreader(Object[].class, parameterTypes.length).asType(INVOKER_TYPE);
+
+                methods.put(key, handle);
+            }
+
+            return handle;
+        }
+    }
+
+    private static final class ActionKey {
+
+        private final String moduleName;
+        private final String name;
+        private final String subject;
+        private final String serviceInterface;
+        private final String serviceMethod;
+
+        private ActionKey(TaskActionInformation actionInformation) {
+            this.moduleName = actionInformation.getModuleName();
+            this.name = actionInformation.getName();
+            this.subject = actionInformation.getSubject();
+            this.serviceInterface = actionInformation.getServiceInterface();
+            this.serviceMethod = actionInformation.getServiceMethod();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(moduleName, name, subject, serviceInterface, serviceMethod);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            ActionKey other = (ActionKey) obj;
+
+            return Objects.equals(moduleName, other.moduleName) && Objects.equals(name, other.name) &&
+                    Objects.equals(subject, other.subject) && Objects.equals(serviceInterface, other.serviceInterface) &&
+                    Objects.equals(serviceMethod, other.serviceMethod);
+        }
+    }
+
+    private static final class MethodKey {
+
+        private final String name;
+        private final Class[] parameterTypes;
+
+        private MethodKey(String name, Class[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(name) + Arrays.hashCode(parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            MethodKey other = (MethodKey) obj;
+
+            return Objects.equals(name, other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+    }
+}
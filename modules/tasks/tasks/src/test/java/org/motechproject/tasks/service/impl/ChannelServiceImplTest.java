@@ -82,6 +82,9 @@ public class ChannelServiceImplTest {
     @Mock
     private TriggerEventService triggerEventService;
 
+    @Mock
+    private TaskActionRegistry actionRegistry;
+
     private ChannelService channelService;
 
     @Before
@@ -90,6 +93,7 @@ public class ChannelServiceImplTest {
 
         channelService = new ChannelServiceImpl(triggerEventService, channelsDataService, eventRelay);
         ((ChannelServiceImpl) channelService).setBundleContext(bundleContext);
+        ((ChannelServiceImpl) channelService).setActionRegistry(actionRegistry);
     }
 
     @Test(expected = ValidationException.class)
@@ -186,6 +190,7 @@ public class ChannelServiceImplTest {
         channelService.delete(deletedChannel.getModuleName());
 
         verify(channelsDataService).delete(channel);
+        verify(actionRegistry).evictModule(BUNDLE_SYMBOLIC_NAME);
 
         verify(eventRelay).sendEventMessage(captor.capture());
 
@@ -215,6 +220,7 @@ public class ChannelServiceImplTest {
         channelService.addOrUpdate(updatedChannel);
 
         verify(channelsDataService).update(channel);
+        verify(actionRegistry).evictModule(BUNDLE_SYMBOLIC_NAME);
 
         verify(eventRelay).sendEventMessage(captor.capture());
 
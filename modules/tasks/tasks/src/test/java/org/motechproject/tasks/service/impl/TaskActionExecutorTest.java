@@ -1,5 +1,6 @@
 package org.motechproject.tasks.service.impl;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
@@ -57,6 +58,13 @@ public class TaskActionExecutorTest {
     @InjectMocks
     private TaskActionExecutor taskActionExecutor = new TaskActionExecutor();
 
+    @Before
+    public void setUp() {
+        TaskActionRegistry actionRegistry = new TaskActionRegistry();
+        actionRegistry.setBundleContext(bundleContext);
+        taskActionExecutor.setActionRegistry(actionRegistry);
+    }
+
     @Test
     public void shouldRaiseEventIfActionHasSubject() throws ActionNotFoundException, TaskHandlerException {
         TaskActionInformation actionInformation = new TaskActionInformation("action", "channel", "module", "0.1", "actionSubject");
@@ -142,6 +150,16 @@ public class TaskActionExecutorTest {
         assertTrue(testService.serviceMethodInvoked());
     }
 
+    @Test(expected = TaskHandlerException.class)
+    public void shouldWrapExceptionsThrownByServiceMethod() throws ActionNotFoundException, TaskHandlerException {
+        executeServiceAction(new FailingService(new IllegalStateException("failure")));
+    }
+
+    @Test(expected = LinkageError.class)
+    public void shouldRethrowErrorsThrownByServiceMethod() throws ActionNotFoundException, TaskHandlerException {
+        executeServiceAction(new FailingService(new LinkageError("failure")));
+    }
+
     @Test(expected = TaskHandlerException.class)
     public void shouldThrowExceptionIfBundleContextIsNotAvailable() throws TaskHandlerException, ActionNotFoundException {
         TaskActionInformation actionInformation = new TaskActionInformation("action", "channel", "module", "0.1", "serviceInterface", "serviceMethod");
@@ -319,6 +337,37 @@ public class TaskActionExecutorTest {
         return actionEvent;
     }
 
+    private void executeServiceAction(Object service) throws ActionNotFoundException, TaskHandlerException {
+        TaskActionInformation actionInformation = new TaskActionInformation("action", "channel", "module", "0.1", "serviceInterface", "serviceMethod");
+        ActionEvent actionEvent = new ActionEventBuilder().setDisplayName("Action")
+                .setDescription("").setServiceInterface("serviceInterface").setServiceMethod("serviceMethod")
+                .setActionParameters(new TreeSet<>()).build();
+        when(taskService.getActionEventFor(actionInformation)).thenReturn(actionEvent);
+
+        ServiceReference serviceReference = mock(ServiceReference.class);
+        when(bundleContext.getServiceReference("serviceInterface")).thenReturn(serviceReference);
+        when(bundleContext.getService(serviceReference)).thenReturn(service);
+
+        Task task = new TaskBuilder().addAction(new TaskActionInformation("Action", "channel", "module", "0.1", "actionSubject")).build();
+
+        taskActionExecutor.setBundleContext(bundleContext);
+
+        taskActionExecutor.execute(task, actionInformation, 0, new TaskContext(task, new HashMap<>(), new HashMap<>(), activityService), TASK_ACTIVITY_ID);
+    }
+
+    private class FailingService {
+
+        private final Throwable failure;
+
+        private FailingService(Throwable failure) {
+            this.failure = failure;
+        }
+
+        public void serviceMethod() throws Throwable {
+            throw failure;
+        }
+    }
+
     private class TestService {
 
         private boolean invoked;
@@ -0,0 +1,163 @@
+package org.motechproject.tasks.service.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.motechproject.tasks.domain.mds.channel.ActionEvent;
+import org.motechproject.tasks.domain.mds.channel.builder.ActionEventBuilder;
+import org.motechproject.tasks.domain.mds.task.TaskActionInformation;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceEvent;
+import org.osgi.framework.ServiceReference;
+
+import java.lang.invoke.MethodHandle;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TaskActionRegistryTest {
+
+    private static final String MODULE_NAME = "module";
+    private static final String SERVICE_INTERFACE = "serviceInterface";
+
+    @Mock
+    private BundleContext bundleContext;
+
+    @Mock
+    private ServiceReference serviceReference;
+
+    @Mock
+    private Bundle bundle;
+
+    private TaskActionRegistry actionRegistry;
+
+    private TaskActionInformation actionInformation;
+
+    private ActionEvent actionEvent;
+
+    @Before
+    public void setUp() {
+        actionRegistry = new TaskActionRegistry();
+        actionRegistry.setBundleContext(bundleContext);
+
+        actionInformation = new TaskActionInformation("action", "channel", MODULE_NAME, "0.1", SERVICE_INTERFACE, "add");
+        actionEvent = new ActionEventBuilder().setDisplayName("Action").setDescription("")
+                .setServiceInterface(SERVICE_INTERFACE).setServiceMethod("add").setActionParameters(new TreeSet<>())
+                .build();
+
+        when(bundleContext.getServiceReference(SERVICE_INTERFACE)).thenReturn(serviceReference);
+        when(bundleContext.getService(serviceReference)).thenReturn(new TestService());
+        when(serviceReference.getProperty(Constants.OBJECTCLASS)).thenReturn(new String[]{SERVICE_INTERFACE});
+    }
+
+    @Test
+    public void shouldListenToServiceAndBundleEvents() {
+        verify(bundleContext).addServiceListener(actionRegistry);
+        verify(bundleContext).addBundleListener(actionRegistry);
+    }
+
+    @Test
+    public void shouldStoreCopiesOfActions() {
+        assertNull(actionRegistry.getAction(actionInformation));
+
+        ActionEvent stored = actionRegistry.putAction(actionInformation, actionEvent);
+
+        assertNotSame(actionEvent, stored);
+        assertEquals(actionEvent.getServiceInterface(), stored.getServiceInterface());
+        assertSame(stored, actionRegistry.getAction(actionInformation));
+        assertNull(actionRegistry.putAction(actionInformation, null));
+    }
+
+    @Test
+    public void shouldEvictActionsOfModule() {
+        TaskActionInformation otherModuleAction = new TaskActionInformation("action", "channel", "otherModule", "0.1",
+                SERVICE_INTERFACE, "add");
+
+        actionRegistry.putAction(actionInformation, actionEvent);
+        actionRegistry.putAction(otherModuleAction, actionEvent);
+
+        actionRegistry.evictModule(MODULE_NAME);
+
+        assertNull(actionRegistry.getAction(actionInformation));
+        assertNotNull(actionRegistry.getAction(otherModuleAction));
+    }
+
+    @Test
+    public void shouldEvictActionsWhenBundleIsUninstalled() {
+        when(bundle.getSymbolicName()).thenReturn(MODULE_NAME);
+
+        actionRegistry.putAction(actionInformation, actionEvent);
+        actionRegistry.bundleChanged(new BundleEvent(BundleEvent.STARTED, bundle));
+
+        assertNotNull(actionRegistry.getAction(actionInformation));
+
+        actionRegistry.bundleChanged(new BundleEvent(BundleEvent.UNINSTALLED, bundle));
+
+        assertNull(actionRegistry.getAction(actionInformation));
+    }
+
+    @Test
+    public void shouldInvokeServiceMethods() throws Throwable {
+        TaskActionRegistry.ServiceBinding binding = actionRegistry.getServiceBinding(SERVICE_INTERFACE);
+        MethodHandle method = binding.getMethod("add", new Class[]{Integer.class, int.class});
+
+        assertEquals(5, (Object) method.invokeExact(new Object[]{2, 3}));
+        assertSame(method, binding.getMethod("add", new Class[]{Integer.class, int.class}));
+        assertSame(binding, actionRegistry.getServiceBinding(SERVICE_INTERFACE));
+
+        verify(bundleContext, times(1)).getService(serviceReference);
+    }
+
+    @Test
+    public void shouldReturnNullForUnavailableServices() {
+        when(bundleContext.getServiceReference(SERVICE_INTERFACE)).thenReturn(null);
+
+        assertNull(actionRegistry.getServiceBinding(SERVICE_INTERFACE));
+    }
+
+    @Test
+    public void shouldDropBindingsOfUnregisteredServices() {
+        TaskActionRegistry.ServiceBinding binding = actionRegistry.getServiceBinding(SERVICE_INTERFACE);
+
+        actionRegistry.serviceChanged(new ServiceEvent(ServiceEvent.UNREGISTERING, serviceReference));
+
+        verify(bundleContext).ungetService(serviceReference);
+        assertNotSame(binding, actionRegistry.getServiceBinding(SERVICE_INTERFACE));
+    }
+
+    @Test
+    public void shouldBindHigherRankedServiceRegisteredLater() {
+        TaskActionRegistry.ServiceBinding binding = actionRegistry.getServiceBinding(SERVICE_INTERFACE);
+
+        ServiceReference otherReference = mock(ServiceReference.class);
+        when(otherReference.getProperty(Constants.OBJECTCLASS)).thenReturn(new String[]{SERVICE_INTERFACE});
+        when(bundleContext.getServiceReference(SERVICE_INTERFACE)).thenReturn(otherReference);
+        when(bundleContext.getService(otherReference)).thenReturn(new TestService());
+
+        actionRegistry.serviceChanged(new ServiceEvent(ServiceEvent.REGISTERED, otherReference));
+
+        verify(bundleContext).ungetService(serviceReference);
+        assertNotSame(binding, actionRegistry.getServiceBinding(SERVICE_INTERFACE));
+        verify(bundleContext).getService(otherReference);
+    }
+
+    public static class TestService {
+        public int add(Integer first, int second) {
+            return first + second;
+        }
+    }
+}
@@ -167,6 +167,10 @@ public class TaskTriggerHandlerTest extends TasksTestBase {
         initMocks(this);
         initTask();
 
+        TaskActionRegistry actionRegistry = new TaskActionRegistry();
+        actionRegistry.setBundleContext(bundleContext);
+        taskActionExecutor.setActionRegistry(actionRegistry);
+
         when(taskService.getAllTasks()).thenReturn(tasks);
         when(settingsFacade.getProperty("task.possible.errors")).thenReturn("5");
         when(dataProvider.getName()).thenReturn(TASK_DATA_PROVIDER_NAME);
@@ -1079,7 +1083,8 @@ public class TaskTriggerHandlerTest extends TasksTestBase {
 
         verify(taskService).findActiveTasksForTriggerSubject(TRIGGER_SUBJECT);
         verify(taskService).getActionEventFor(task.getActions().get(0));
-        verify(taskService).getActionEventFor(task.getActions().get(1));
+        // both actions are the same action of the same module, it is resolved once
+        verify(taskService, never()).getActionEventFor(task.getActions().get(1));
         verify(eventRelay, times(2)).sendEventMessage(captor.capture());
 
         List<MotechEvent> events = captor.getAllValues();
@@ -0,0 +1,38 @@
+package org.motechproject.commons.api.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Base class for the metrics, holding their name and description.
+ */
+abstract class AbstractMetric implements Metric {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private final String name;
+    private final String description;
+
+    AbstractMetric(String name, String description) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+
+        this.name = name;
+        this.description = description == null ? "" : description;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{name=%s}", getClass().getSimpleName(), name);
+    }
+}
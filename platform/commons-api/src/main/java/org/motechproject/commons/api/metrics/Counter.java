@@ -0,0 +1,51 @@
+package org.motechproject.commons.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter, a value that only goes up, for example the number of sent e-mails. The count is kept in a
+ * {@link LongAdder}, so incrementing it from many threads does not contend on a single memory location.
+ */
+public final class Counter extends AbstractMetric {
+
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * @param name the name of the counter
+     * @param description the description of the counter
+     */
+    public Counter(String name, String description) {
+        super(name, description);
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Increments the counter by the given amount.
+     *
+     * @param amount the amount to add, not negative
+     */
+    public void increment(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("A counter can not be decremented");
+        }
+        count.add(amount);
+    }
+
+    /**
+     * @return the current count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public MetricType getType() {
+        return MetricType.COUNTER;
+    }
+}
@@ -0,0 +1,40 @@
+package org.motechproject.commons.api.metrics;
+
+import java.util.function.Supplier;
+
+/**
+ * A gauge, a value which is read when the metrics are exported, for example the size of a queue. The value is
+ * supplied by the module registering the gauge, so reading it must be cheap and thread safe.
+ */
+public final class Gauge extends AbstractMetric {
+
+    private final Supplier<? extends Number> value;
+
+    /**
+     * @param name the name of the gauge
+     * @param description the description of the gauge
+     * @param value the supplier of the value of the gauge
+     */
+    public Gauge(String name, String description, Supplier<? extends Number> value) {
+        super(name, description);
+        if (value == null) {
+            throw new IllegalArgumentException("The value supplier of a gauge can not be null");
+        }
+        this.value = value;
+    }
+
+    /**
+     * Reads the current value of the gauge.
+     *
+     * @return the value, {@link Double#NaN} if the supplier returned null
+     */
+    public double getValue() {
+        Number number = value.get();
+        return number == null ? Double.NaN : number.doubleValue();
+    }
+
+    @Override
+    public MetricType getType() {
+        return MetricType.GAUGE;
+    }
+}
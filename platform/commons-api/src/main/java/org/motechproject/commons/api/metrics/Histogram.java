@@ -0,0 +1,240 @@
+package org.motechproject.commons.api.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntToLongFunction;
+
+/**
+ * A histogram of recorded values, for example the latencies of handling events, in the unit chosen by the module
+ * recording them. Like an HDR histogram, it counts the values in buckets of exponentially growing size, split
+ * linearly into {@value #SUB_BUCKET_COUNT} sub-buckets each, so any non-negative long value can be recorded in a
+ * fixed amount of memory, with a relative error of the percentiles below 1/64, about 1.6%. Values below
+ * {@value #SUB_BUCKET_COUNT} are counted exactly. Recording a value does not allocate and does not lock.
+ * Single statistics can be read right from the histogram, without copying its buckets into a {@link Snapshot}.
+ */
+public final class Histogram extends AbstractMetric {
+
+    static final int SUB_BUCKET_BITS = 7;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_EXPONENT = 62;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT +
+            (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKET_COUNT;
+    private static final double PERCENT = 100.0;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param name the name of the histogram
+     * @param description the description of the histogram
+     */
+    public Histogram(String name, String description) {
+        super(name, description);
+    }
+
+    /**
+     * Records the given value.
+     *
+     * @param value the value to record, not negative
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("A histogram can not record negative values: " + value);
+        }
+
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Takes a snapshot of the recorded values, for computing their statistics. Values recorded while the snapshot is
+     * taken may be left out of it.
+     *
+     * @return the snapshot of the histogram
+     */
+    public Snapshot getSnapshot() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+            count += snapshotCounts[i];
+        }
+
+        return new Snapshot(snapshotCounts, count, sum.sum(), max.get());
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of the recorded values
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the highest recorded value, 0 if no values were recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values, 0 if no values were recorded
+     */
+    public double getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : (double) sum.sum() / recorded;
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of the recorded values are, like
+     * {@link Snapshot#getValueAtPercentile(double)}, but reading the buckets of the histogram directly. Values
+     * recorded meanwhile may be partly taken into account.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at the percentile, 0 if no values were recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        return valueAtPercentile(counts::get, count.sum(), max.get(), percentile);
+    }
+
+    @Override
+    public MetricType getType() {
+        return MetricType.HISTOGRAM;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS + 1)) - HALF_SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long valueAtPercentile(IntToLongFunction counts, long count, long max, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        double clamped = Math.min(Math.max(percentile, 0), PERCENT);
+        long rank = Math.max(1, (long) Math.ceil(clamped / PERCENT * count));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.applyAsLong(i);
+            if (seen >= rank) {
+                return Math.min(highestValueInBucket(i), max);
+            }
+        }
+
+        return max;
+    }
+
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int exponent = (index - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT;
+        int shift = exponent - SUB_BUCKET_BITS + 1;
+        long lowest = (long) (subBucket + HALF_SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * A snapshot of the values recorded by a {@link Histogram}.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * @return the number of recorded values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the sum of the recorded values
+         */
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * @return the highest recorded value, 0 if no values were recorded
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @return the mean of the recorded values, 0 if no values were recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Returns the value below or at which the given percentage of the recorded values are. The returned value is
+         * the highest value counted in the same bucket, but not higher than the highest recorded value.
+         *
+         * @param percentile the percentage, from 0 to 100
+         * @return the value at the percentile, 0 if no values were recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            return valueAtPercentile(i -> counts[i], count, max, percentile);
+        }
+
+        /**
+         * Returns the number of recorded values lower than each power of two, from 2 to the power of 0 up to the
+         * lowest power of two above the highest recorded value. Powers of two are bucket boundaries, so the numbers
+         * are exact.
+         *
+         * @return the numbers of values lower than 2 to the power of the index
+         */
+        public long[] getCountsBelowPowersOfTwo() {
+            int highestExponent = Long.SIZE - Long.numberOfLeadingZeros(max);
+            long[] below = new long[highestExponent + 1];
+
+            long seen = 0;
+            int index = 0;
+            for (int exponent = 0; exponent <= highestExponent; exponent++) {
+                int end = exponent < Long.SIZE - 1 ? bucketIndex(1L << exponent) : counts.length;
+                while (index < end) {
+                    seen += counts[index++];
+                }
+                below[exponent] = seen;
+            }
+
+            return below;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.motechproject.commons.api.metrics;
+
+/**
+ * A metric kept in the {@link MetricRegistry}. The name of a metric is unique within the registry and follows the
+ * Prometheus naming rules, for example {@code motech_events_sent_total}.
+ */
+public interface Metric {
+
+    /**
+     * @return the name of the metric
+     */
+    String getName();
+
+    /**
+     * @return the description of the metric, for people looking at the exported metrics
+     */
+    String getDescription();
+
+    /**
+     * @return the type of the metric
+     */
+    MetricType getType();
+}
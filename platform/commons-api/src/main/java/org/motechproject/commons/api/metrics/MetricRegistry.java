@@ -0,0 +1,67 @@
+package org.motechproject.commons.api.metrics;
+
+import java.util.SortedMap;
+import java.util.function.Supplier;
+
+/**
+ * The registry of the platform metrics, published as an OSGi service. Modules register their counters, gauges and
+ * histograms in it, and the registered metrics are exported over JMX and as Prometheus text. The metrics are meant
+ * to be registered once, for example when a bean is created, and then updated on the hot path without looking
+ * them up again.
+ */
+public interface MetricRegistry {
+
+    /**
+     * Returns the counter with the given name, registering it if it does not exist yet.
+     *
+     * @param name the name of the counter
+     * @param description the description of the counter, used if the counter is registered
+     * @return the counter
+     * @throws IllegalArgumentException if the name is invalid or a metric of another type has the same name
+     */
+    Counter counter(String name, String description);
+
+    /**
+     * Returns the histogram with the given name, registering it if it does not exist yet.
+     *
+     * @param name the name of the histogram
+     * @param description the description of the histogram, used if the histogram is registered
+     * @return the histogram
+     * @throws IllegalArgumentException if the name is invalid or a metric of another type has the same name
+     */
+    Histogram histogram(String name, String description);
+
+    /**
+     * Registers a gauge, replacing the gauge with the same name, if there is one.
+     *
+     * @param name the name of the gauge
+     * @param description the description of the gauge
+     * @param value the supplier of the value of the gauge, called whenever the metrics are exported
+     * @return the gauge
+     * @throws IllegalArgumentException if the name is invalid or a metric of another type has the same name
+     */
+    Gauge gauge(String name, String description, Supplier<? extends Number> value);
+
+    /**
+     * Removes the metric with the given name, for example when the bundle which registered it is stopped.
+     *
+     * @param name the name of the metric
+     * @return true if the metric was removed, false if there was no such metric
+     */
+    boolean remove(String name);
+
+    /**
+     * Returns the metric with the given name, without copying the registered metrics.
+     *
+     * @param name the name of the metric
+     * @return the metric, null if there is no such metric
+     */
+    Metric getMetric(String name);
+
+    /**
+     * Returns the registered metrics.
+     *
+     * @return the registered metrics, by name
+     */
+    SortedMap<String, Metric> getMetrics();
+}
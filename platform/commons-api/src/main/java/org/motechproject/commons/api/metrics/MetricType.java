@@ -0,0 +1,22 @@
+package org.motechproject.commons.api.metrics;
+
+/**
+ * The types of metrics.
+ */
+public enum MetricType {
+
+    /**
+     * A value that only goes up, see {@link Counter}.
+     */
+    COUNTER,
+
+    /**
+     * A value read when the metrics are exported, see {@link Gauge}.
+     */
+    GAUGE,
+
+    /**
+     * A distribution of recorded values, see {@link Histogram}.
+     */
+    HISTOGRAM
+}
@@ -0,0 +1,116 @@
+package org.motechproject.commons.api.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+    @Test
+    public void shouldCountSmallValuesExactly() {
+        Histogram histogram = new Histogram("test_histogram", "Test");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050, snapshot.getSum());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(50.5, snapshot.getMean(), 0.0001);
+        assertEquals(50, snapshot.getValueAtPercentile(50));
+        assertEquals(99, snapshot.getValueAtPercentile(99));
+        assertEquals(100, snapshot.getValueAtPercentile(100));
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void shouldKeepTheRelativeErrorOfLargeValuesLow() {
+        Histogram histogram = new Histogram("test_histogram", "Test");
+        Random random = new Random(42);
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.abs(random.nextGaussian() * 1000000000L);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = snapshot.getValueAtPercentile(percentile);
+            assertTrue(actual >= expected);
+            assertTrue((actual - expected) / (double) expected < 1.0 / 64);
+        }
+        assertEquals(values[values.length - 1], snapshot.getMax());
+    }
+
+    @Test
+    public void shouldMapValuesToBucketsContainingThem() {
+        long[] values = {0, 1, 127, 128, 129, 255, 256, 1000, 123456789, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.bucketIndex(value);
+            assertTrue(Histogram.highestValueInBucket(index) >= value);
+            assertTrue(index == 0 || Histogram.highestValueInBucket(index - 1) < value);
+        }
+    }
+
+    @Test
+    public void shouldReadStatisticsWithoutSnapshot() {
+        Histogram histogram = new Histogram("test_histogram", "Test");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(5050, histogram.getSum());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.0001);
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void shouldCountValuesBelowPowersOfTwo() {
+        Histogram histogram = new Histogram("test_histogram", "Test");
+        for (long value : new long[]{0, 1, 2, 200, 255, 256, 1000000}) {
+            histogram.record(value);
+        }
+
+        long[] below = histogram.getSnapshot().getCountsBelowPowersOfTwo();
+
+        // 2 to the power of 20 is the lowest power of two above the highest value
+        assertEquals(21, below.length);
+        assertEquals(1, below[0]);
+        assertEquals(2, below[1]);
+        assertEquals(3, below[2]);
+        assertEquals(3, below[7]);
+        assertEquals(5, below[8]);
+        assertEquals(6, below[9]);
+        assertEquals(6, below[19]);
+        assertEquals(7, below[20]);
+    }
+
+    @Test
+    public void shouldReturnZerosWhenEmpty() {
+        Histogram.Snapshot snapshot = new Histogram("test_histogram", "Test").getSnapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0, snapshot.getMean(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRecordNegativeValues() {
+        new Histogram("test_histogram", "Test").record(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptInvalidNames() {
+        new Counter("invalid name", "Test");
+    }
+}
@@ -0,0 +1,23 @@
+package org.motechproject.commons.date.osgi;
+
+import org.motechproject.commons.date.util.datetime.CoarseClock;
+import org.osgi.framework.BundleActivator;
+import org.osgi.framework.BundleContext;
+
+/**
+ * The OSGi activator that is called when this bundle starts or stops. It stops the thread of the
+ * {@link CoarseClock} along with the bundle, so that the thread does not outlive a refresh of the bundle. The thread is
+ * not started with the bundle, only when the clock is first read.
+ */
+public class Activator implements BundleActivator {
+
+    @Override
+    public void start(BundleContext context) {
+        CoarseClock.enable();
+    }
+
+    @Override
+    public void stop(BundleContext context) throws InterruptedException {
+        CoarseClock.stop();
+    }
+}
@@ -29,6 +29,25 @@ public final class DateTimeSourceUtil {
         return sourceInstance.now();
     }
 
+    /**
+     * Returns current time in milliseconds, without creating a {@code DateTime} if possible.
+     *
+     * @return the current time in milliseconds since the epoch
+     */
+    public static long nowMillis() {
+        return sourceInstance.nowMillis();
+    }
+
+    /**
+     * Returns current time in milliseconds, with a coarse resolution if the source allows it.
+     *
+     * @return the current time in milliseconds since the epoch
+     * @see org.motechproject.commons.date.util.datetime.CoarseClock
+     */
+    public static long coarseNowMillis() {
+        return sourceInstance.coarseNowMillis();
+    }
+
     /**
      * Returns current local date.
      *
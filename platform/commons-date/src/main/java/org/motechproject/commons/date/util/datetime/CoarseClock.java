@@ -0,0 +1,129 @@
+package org.motechproject.commons.date.util.datetime;
+
+/**
+ * A clock with a coarse resolution, which can be read without asking the system for the time. A background daemon
+ * thread stores the current time every {@link #RESOLUTION} milliseconds, so a reading can lag behind the system
+ * clock by about the resolution, or by the sleep granularity of the system if that is coarser. The thread is started
+ * when the clock is first read, or by {@link #start()}, and ended by {@link #stop()}. The activator of this bundle
+ * stops the thread along with the bundle, so the thread does not outlive it, and calls {@link #enable()} when the
+ * bundle starts, so the thread only runs once something reads the clock. While the thread is not running, the clock
+ * reads the system clock. Meant for time stamps and time outs on hot paths, where such a lag does not matter.
+ */
+public final class CoarseClock {
+
+    /**
+     * The interval, in milliseconds, at which the time is updated.
+     */
+    public static final long RESOLUTION = 1;
+
+    private static final long STOP_TIMEOUT = 1000;
+
+    private static volatile long millis = System.currentTimeMillis();
+    private static volatile boolean ticking;
+    private static volatile boolean stopped;
+
+    private static Thread ticker;
+
+    /**
+     * This is a utility class and should not be instantiated
+     */
+    private CoarseClock() {
+    }
+
+    /**
+     * Returns the current time with the resolution of this clock.
+     *
+     * @return the current time in milliseconds since the epoch
+     */
+    public static long currentTimeMillis() {
+        if (ticking) {
+            return millis;
+        }
+
+        if (!stopped) {
+            startTicking(false);
+        }
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Starts the thread updating the time, unless it is already running. Allows the clock to be started again
+     * after it was stopped.
+     */
+    public static void start() {
+        startTicking(true);
+    }
+
+    /**
+     * Allows the thread updating the time to be started again when the clock is next read, after it was stopped.
+     * Does not start the thread itself.
+     */
+    public static synchronized void enable() {
+        stopped = false;
+    }
+
+    /**
+     * Stops the thread updating the time and waits for it to end. Until {@link #start()} or {@link #enable()}
+     * is called, the clock reads the system clock.
+     *
+     * @throws InterruptedException if the current thread was interrupted while waiting for the thread to end
+     */
+    public static void stop() throws InterruptedException {
+        Thread stoppedTicker;
+
+        synchronized (CoarseClock.class) {
+            stopped = true;
+            ticking = false;
+            stoppedTicker = ticker;
+            ticker = null;
+        }
+
+        if (stoppedTicker != null) {
+            stoppedTicker.interrupt();
+            stoppedTicker.join(STOP_TIMEOUT);
+        }
+    }
+
+    private static synchronized void startTicking(boolean restart) {
+        if (restart) {
+            stopped = false;
+        }
+        if (stopped || ticker != null) {
+            return;
+        }
+
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (tick(Thread.currentThread())) {
+                        Thread.sleep(RESOLUTION);
+                    }
+                } catch (InterruptedException e) {
+                    // stopped, the clock falls back to the system clock
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "motech-coarse-clock");
+        thread.setDaemon(true);
+        // the thread must not keep the class loader of whoever read the clock first
+        thread.setContextClassLoader(null);
+
+        ticker = thread;
+        thread.start();
+    }
+
+    /**
+     * Updates the time, unless the given thread was stopped. Holding the lock makes sure a stopped thread does not
+     * mark the clock as ticking again.
+     */
+    private static synchronized boolean tick(Thread thread) {
+        if (ticker != thread) {
+            return false;
+        }
+
+        millis = System.currentTimeMillis();
+        ticking = true;
+        return true;
+    }
+}
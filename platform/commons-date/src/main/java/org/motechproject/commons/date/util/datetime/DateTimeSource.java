@@ -26,4 +26,21 @@ public interface DateTimeSource {
      * @return {@link org.joda.time.DateTime} representing the current date
      */
     LocalDate today();
+
+    /**
+     * Used for retrieving the current time as a number, without creating any objects if possible.
+     * @return the current time in milliseconds since the epoch
+     */
+    default long nowMillis() {
+        return now().getMillis();
+    }
+
+    /**
+     * Used for retrieving the current time as a number, possibly with a coarse resolution, like the one of the
+     * {@link CoarseClock}, in exchange for a cheaper reading.
+     * @return the current time in milliseconds since the epoch
+     */
+    default long coarseNowMillis() {
+        return nowMillis();
+    }
 }
@@ -8,12 +8,18 @@ import java.util.Calendar;
 import java.util.TimeZone;
 
 /**
- * Default implementation of {@code DateTimeSource}.
+ * Default implementation of {@code DateTimeSource}. The time zone is resolved once. Since the returned date and
+ * time objects are immutable, the last one is reused for as long as it is current: calls within the same millisecond
+ * share one {@code DateTime}, but {@link #now()} still creates a new one every millisecond it is called in. Callers
+ * which only need the instant should use {@link #nowMillis()}, which creates no objects.
  */
 public class DefaultDateTimeSource implements DateTimeSource {
 
     private DateTimeZone timeZone;
 
+    private volatile DateTime lastNow;
+    private volatile Day lastDay;
+
     public DefaultDateTimeSource() {
         TimeZone tz = Calendar.getInstance().getTimeZone();
         this.timeZone = DateTimeZone.forTimeZone(tz);
@@ -26,11 +32,53 @@ public class DefaultDateTimeSource implements DateTimeSource {
 
     @Override
     public DateTime now() {
-        return new DateTime(timeZone);
+        long millis = System.currentTimeMillis();
+
+        DateTime now = lastNow;
+        if (now == null || now.getMillis() != millis) {
+            now = new DateTime(millis, timeZone);
+            lastNow = now;
+        }
+
+        return now;
     }
 
     @Override
     public LocalDate today() {
-        return new LocalDate(timeZone);
+        long millis = System.currentTimeMillis();
+
+        Day day = lastDay;
+        if (day == null || millis < day.start || millis >= day.end) {
+            day = new Day(millis, timeZone);
+            lastDay = day;
+        }
+
+        return day.date;
+    }
+
+    @Override
+    public long nowMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long coarseNowMillis() {
+        return CoarseClock.currentTimeMillis();
+    }
+
+    /**
+     * A date, with the instants at which it starts and ends in the time zone.
+     */
+    private static final class Day {
+
+        private final LocalDate date;
+        private final long start;
+        private final long end;
+
+        private Day(long millis, DateTimeZone timeZone) {
+            date = new LocalDate(millis, timeZone);
+            start = date.toDateTimeAtStartOfDay(timeZone).getMillis();
+            end = date.plusDays(1).toDateTimeAtStartOfDay(timeZone).getMillis();
+        }
     }
 }
@@ -0,0 +1,99 @@
+package org.motechproject.commons.date.util;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the time it takes, and the memory it allocates, to read the current time by creating a new
+ * {@link DateTime}, as {@link DateUtil#now()} used to do, with the cheaper ways offered by {@link DateUtil}.
+ * {@link DateUtil#now()} still creates a new {@link DateTime} every millisecond, so its bytes per call are close to
+ * zero only because this loop calls it many times within each millisecond. Callers reading the time less often
+ * allocate on nearly every call; only {@link DateUtil#nowMillis()} and {@link DateUtil#coarseNowMillis()} never do.
+ */
+public class DateUtilAssessment {
+
+    private static final int CALLS = 10000000;
+    private static final int ROUNDS = 3;
+
+    private long sink;
+    private DateTime lastDateTime;
+
+    @Test
+    public void shouldReadTheCurrentTimeCheaply() {
+        final DateTimeZone timeZone = DateTimeSourceUtil.timeZone();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            assess("new DateTime(zone)", new Clock() {
+                @Override
+                public long read() {
+                    return keep(new DateTime(timeZone));
+                }
+            });
+            assess("DateUtil.now()", new Clock() {
+                @Override
+                public long read() {
+                    return keep(DateUtil.now());
+                }
+            });
+            assess("DateUtil.nowMillis()", new Clock() {
+                @Override
+                public long read() {
+                    return DateUtil.nowMillis();
+                }
+            });
+            assess("DateUtil.coarseNowMillis()", new Clock() {
+                @Override
+                public long read() {
+                    return DateUtil.coarseNowMillis();
+                }
+            });
+        }
+
+        System.out.println(format("(checksum %d)", sink));
+    }
+
+    private void assess(String name, Clock clock) {
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+
+        long sum = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sum += clock.read();
+        }
+
+        long time = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        sink += sum;
+
+        System.out.println(format("%-28s %6.1fns, %5.1f bytes per call", name, time / (double) CALLS,
+                allocated / (double) CALLS));
+    }
+
+    /**
+     * Keeps the date, as the callers on hot paths do, so that its allocation is not optimized away.
+     */
+    private long keep(DateTime dateTime) {
+        lastDateTime = dateTime;
+        return dateTime.getMillis();
+    }
+
+    @SuppressWarnings("restriction")
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private interface Clock {
+        long read();
+    }
+}
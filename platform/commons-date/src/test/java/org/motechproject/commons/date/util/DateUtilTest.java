@@ -177,6 +177,16 @@ public class DateUtilTest {
         assertEquals(null, DateUtil.toDateTimeAtStartOfDay(null));
     }
 
+    @Test
+    public void shouldReturnMockedTimeInMillis() {
+        DateTime currentDate = new DateTime(2011, 9, 9, 9, 30, 0, 0);
+        mockCurrentDate(currentDate);
+
+        assertEquals(currentDate.getMillis(), DateUtil.nowMillis());
+        assertEquals(currentDate.getMillis(), DateUtil.coarseNowMillis());
+        assertEquals(currentDate, DateUtil.coarseNow());
+    }
+
     private void mockCurrentDate(final DateTime currentDate) {
         DateTimeSourceUtil.setSourceInstance(new DateTimeSource() {
             @Override
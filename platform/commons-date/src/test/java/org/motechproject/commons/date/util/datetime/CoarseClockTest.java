@@ -0,0 +1,56 @@
+package org.motechproject.commons.date.util.datetime;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoarseClockTest {
+
+    private static final String TICKER_NAME = "motech-coarse-clock";
+
+    @After
+    public void tearDown() {
+        CoarseClock.start();
+    }
+
+    @Test
+    public void shouldStopAndRestartTheTicker() throws InterruptedException {
+        CoarseClock.start();
+        assertTrue(isTickerAlive());
+
+        CoarseClock.stop();
+        assertFalse(isTickerAlive());
+
+        // the system clock is read instead, and reading does not start the ticker again
+        long before = System.currentTimeMillis();
+        TimeUnit.MILLISECONDS.sleep(5);
+        assertTrue(CoarseClock.currentTimeMillis() > before);
+        assertFalse(isTickerAlive());
+
+        CoarseClock.start();
+        assertTrue(isTickerAlive());
+    }
+
+    @Test
+    public void shouldStartTheTickerOnFirstReadOnceEnabled() throws InterruptedException {
+        CoarseClock.stop();
+        CoarseClock.enable();
+        assertFalse(isTickerAlive());
+
+        CoarseClock.currentTimeMillis();
+        assertTrue(isTickerAlive());
+    }
+
+    private static boolean isTickerAlive() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (TICKER_NAME.equals(thread.getName()) && thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package org.motechproject.commons.date.util.datetime;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultDateTimeSourceTest {
+
+    private static final long WAIT_TIMEOUT = 10000;
+
+    private DefaultDateTimeSource dateTimeSource = new DefaultDateTimeSource();
+
+    @Test
+    public void shouldReturnTheCurrentTime() throws InterruptedException {
+        long before = System.currentTimeMillis();
+        DateTime now = dateTimeSource.now();
+        long millis = dateTimeSource.nowMillis();
+        long after = System.currentTimeMillis();
+
+        assertEquals(dateTimeSource.timeZone(), now.getZone());
+        assertTrue(before <= now.getMillis() && now.getMillis() <= millis && millis <= after);
+
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        // not the cached instance
+        assertTrue(dateTimeSource.now().isAfter(now));
+    }
+
+    @Test
+    public void shouldReturnToday() {
+        LocalDate before = new LocalDate(dateTimeSource.timeZone());
+        LocalDate today = dateTimeSource.today();
+        LocalDate after = new LocalDate(dateTimeSource.timeZone());
+
+        assertTrue(today.equals(before) || today.equals(after));
+        assertEquals(dateTimeSource.today(), dateTimeSource.today());
+    }
+
+    @Test
+    public void shouldFollowTheSystemClockWithTheCoarseClock() throws InterruptedException {
+        long before = System.currentTimeMillis();
+
+        long deadline = before + WAIT_TIMEOUT;
+        while (dateTimeSource.coarseNowMillis() < before && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+
+        long coarse = dateTimeSource.coarseNowMillis();
+        assertTrue(coarse >= before);
+        assertTrue(coarse <= System.currentTimeMillis());
+    }
+}
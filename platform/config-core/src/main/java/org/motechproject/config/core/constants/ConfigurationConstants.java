@@ -37,6 +37,7 @@ public final class ConfigurationConstants {
     public static final String FILE_CREATED_EVENT_SUBJECT = BASE_SUBJECT + "file.created";
     public static final String BUNDLE_SETTINGS_CHANGED_EVENT_SUBJECT =  BASE_SUBJECT + "bundle.settings.changed";
     public static final String PLATFORM_SETTINGS_CHANGED_EVENT_SUBJECT = BASE_SUBJECT + "platform.settings.changed";
+    public static final String BUNDLE_PROPERTIES_CHANGED_EVENT_SUBJECT = BASE_SUBJECT + "bundle.properties.changed";
 
     public static final String FILE_PATH = "file.path";
     public static final String BUNDLE_ID = "bundle.id";
@@ -0,0 +1,114 @@
+package org.motechproject.email.domain;
+
+import org.motechproject.email.constants.EmailRolesConstants;
+import org.motechproject.mds.annotations.Access;
+import org.motechproject.mds.annotations.CrudEvents;
+import org.motechproject.mds.annotations.Entity;
+import org.motechproject.mds.annotations.Field;
+import org.motechproject.mds.event.CrudEventType;
+import org.motechproject.mds.util.SecurityMode;
+
+import java.util.Objects;
+
+/**
+ * The <code>EmailRecordGram</code> class represents an entry of the email log search index, saying that a field of an
+ * {@link EmailRecord} contains a trigram, a sequence of three characters. Every indexed record also has one entry
+ * marking it as indexed. This class is exposed as an {@link org.motechproject.mds.annotations.Entity} through
+ * Motech Data Services.
+ *
+ * @see org.motechproject.email.service.impl.EmailRecordIndex
+ */
+@Entity(nonEditable = true)
+@CrudEvents(CrudEventType.NONE)
+@Access(value = SecurityMode.PERMISSIONS, members = { EmailRolesConstants.BASIC_EMAIL_LOGS })
+public class EmailRecordGram {
+
+    @Field
+    private Long id;
+
+    @Field(required = true)
+    private String field;
+
+    @Field(required = true)
+    private String gram;
+
+    @Field(required = true)
+    private Long recordId;
+
+    /**
+     * Creates a new instance of <code>EmailRecordGram</code>, with all fields set to null.
+     */
+    public EmailRecordGram() {
+        this(null, null, null);
+    }
+
+    /**
+     * Creates a new instance of <code>EmailRecordGram</code>, with all fields set to the values specified in the
+     * parameters.
+     *
+     * @param field  the name of the record field containing the trigram
+     * @param gram  the lowercased trigram
+     * @param recordId  the id of the record
+     */
+    public EmailRecordGram(String field, String gram, Long recordId) {
+        this.field = field;
+        this.gram = gram;
+        this.recordId = recordId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getGram() {
+        return gram;
+    }
+
+    public void setGram(String gram) {
+        this.gram = gram;
+    }
+
+    public Long getRecordId() {
+        return recordId;
+    }
+
+    public void setRecordId(Long recordId) {
+        this.recordId = recordId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, gram, recordId);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        EmailRecordGram other = (EmailRecordGram) obj;
+        return Objects.equals(this.field, other.field) &&
+               Objects.equals(this.gram, other.gram) &&
+               Objects.equals(this.recordId, other.recordId);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EmailRecordGram{field='%s', gram='%s', recordId='%s'}", field, gram, recordId);
+    }
+}
@@ -25,15 +25,22 @@ import java.util.Set;
 /**
  * This is an abstract base for searches done in the email module.
  * This abstract base prepares the query for its implementations by setting
- * three conditions
+ * three conditions. The search can be narrowed down to a set of candidate records,
+ * found in the {@link org.motechproject.email.service.impl.EmailRecordIndex}.
  * @param <T>
  */
 public abstract class AbstractSearchExecution<T> implements QueryExecution<T> {
 
     private final EmailRecordSearchCriteria criteria;
+    private final Set<Long> candidateIds;
 
     public AbstractSearchExecution(EmailRecordSearchCriteria criteria) {
+        this(criteria, null);
+    }
+
+    public AbstractSearchExecution(EmailRecordSearchCriteria criteria, Set<Long> candidateIds) {
         this.criteria = criteria;
+        this.candidateIds = candidateIds;
     }
 
     @Override
@@ -53,6 +60,12 @@ public abstract class AbstractSearchExecution<T> implements QueryExecution<T> {
         properties.add(new SetProperty<>("deliveryStatus", deliveryStatuses, DeliveryStatus.class.getName()));
 
         StringBuilder queryBuilder = new StringBuilder(initialQuery(dateRangeUsed));
+
+        if (candidateIds != null) {
+            properties.add(new SetProperty<>("id", candidateIds, Long.class.getName()));
+            queryBuilder.append(" && %s");
+        }
+
         int initialLength = queryBuilder.length();
 
         if (StringUtils.isNotEmpty(criteria.getToAddress())) {
@@ -7,6 +7,7 @@ import org.motechproject.mds.query.QueryUtil;
 
 import javax.jdo.Query;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Email record search implementation that returns the total record count
@@ -18,6 +19,10 @@ public class CountSearch extends AbstractSearchExecution<Long> {
         super(criteria);
     }
 
+    public CountSearch(EmailRecordSearchCriteria criteria, Set<Long> candidateIds) {
+        super(criteria, candidateIds);
+    }
+
     @Override
     public Long execute(Query query, List<Property> properties) {
         QueryUtil.setCountResult(query);
@@ -0,0 +1,40 @@
+package org.motechproject.email.search;
+
+import org.motechproject.mds.query.Property;
+import org.motechproject.mds.query.QueryExecution;
+import org.motechproject.mds.query.QueryExecutor;
+import org.motechproject.mds.query.QueryUtil;
+import org.motechproject.mds.query.SetProperty;
+import org.motechproject.mds.util.InstanceSecurityRestriction;
+
+import javax.jdo.Query;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes the email log search index entries of the records with the given ids, with a single query.
+ * Returns the number of deleted entries.
+ */
+public class RecordGramsDeletion implements QueryExecution<Long> {
+
+    private final Set<Long> recordIds;
+
+    public RecordGramsDeletion(Set<Long> recordIds) {
+        this.recordIds = recordIds;
+    }
+
+    public Set<Long> getRecordIds() {
+        return recordIds;
+    }
+
+    @Override
+    public Long execute(Query query, InstanceSecurityRestriction restriction) {
+        List<Property> properties = Collections.<Property>singletonList(
+                new SetProperty<>("recordId", recordIds, Long.class.getName()));
+
+        QueryUtil.useFilter(query, properties, restriction);
+
+        return QueryExecutor.executeDelete(query, properties.toArray(), restriction);
+    }
+}
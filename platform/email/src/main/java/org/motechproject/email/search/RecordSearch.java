@@ -8,6 +8,7 @@ import org.motechproject.mds.query.QueryUtil;
 
 import javax.jdo.Query;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Email record search implementation returning a list of records
@@ -19,6 +20,10 @@ public class RecordSearch extends AbstractSearchExecution<List<EmailRecord>> {
         super(criteria);
     }
 
+    public RecordSearch(EmailRecordSearchCriteria criteria, Set<Long> candidateIds) {
+        super(criteria, candidateIds);
+    }
+
     @Override
     public List<EmailRecord> execute(Query query, List<Property> properties) {
         QueryUtil.setQueryParams(query, getCriteria().getQueryParams());
@@ -0,0 +1,50 @@
+package org.motechproject.email.search;
+
+import org.motechproject.commons.api.Range;
+import org.motechproject.email.domain.EmailRecord;
+import org.motechproject.mds.query.Property;
+import org.motechproject.mds.query.QueryExecution;
+import org.motechproject.mds.query.QueryExecutor;
+import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.query.QueryUtil;
+import org.motechproject.mds.query.RangeProperty;
+import org.motechproject.mds.util.InstanceSecurityRestriction;
+import org.motechproject.mds.util.Order;
+
+import javax.jdo.Query;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Email record search returning the records with ids greater than the given one, in the order of their ids.
+ * Used for reading the whole email log in batches.
+ */
+public class RecordsAfterIdSearch implements QueryExecution<List<EmailRecord>> {
+
+    private final long lastId;
+    private final int batchSize;
+
+    public RecordsAfterIdSearch(long lastId, int batchSize) {
+        this.lastId = lastId;
+        this.batchSize = batchSize;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public List<EmailRecord> execute(Query query, InstanceSecurityRestriction restriction) {
+        List<Property> properties = Collections.<Property>singletonList(
+                new RangeProperty<>("id", new Range<>(lastId + 1, null), Long.class.getName()));
+
+        QueryUtil.useFilter(query, properties);
+        QueryUtil.setQueryParams(query, new QueryParams(1, batchSize, new Order("id", Order.Direction.ASC)));
+
+        return (List<EmailRecord>) QueryExecutor.executeWithArray(query, properties);
+    }
+}
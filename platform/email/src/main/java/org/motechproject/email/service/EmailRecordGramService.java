@@ -0,0 +1,44 @@
+package org.motechproject.email.service;
+
+import org.motechproject.email.domain.EmailRecordGram;
+import org.motechproject.mds.annotations.Lookup;
+import org.motechproject.mds.annotations.LookupField;
+import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.service.MotechDataService;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This service provides data access for {@link org.motechproject.email.domain.EmailRecordGram}, the entries of the
+ * email log search index. The implementation is generated by Motech Data Services and published as an OSGi service.
+ * The lookups create the database indexes on the looked up fields.
+ */
+public interface EmailRecordGramService extends MotechDataService<EmailRecordGram> {
+
+    /**
+     * Finds the entries of the given trigram in the given record field.
+     *
+     * @param field  the name of the record field
+     * @param gram  the lowercased trigram
+     * @param queryParams  the query parameters, used for limiting the number of entries
+     * @return the matching entries
+     */
+    @Lookup(name = "By gram")
+    List<EmailRecordGram> findByGram(@LookupField(name = "field") String field,
+                                     @LookupField(name = "gram") String gram,
+                                     QueryParams queryParams);
+
+    /**
+     * Finds the entries of the given trigram in the given record field, for the records with the given ids.
+     *
+     * @param field  the name of the record field
+     * @param gram  the lowercased trigram
+     * @param recordIds  the ids of the records
+     * @return the matching entries
+     */
+    @Lookup(name = "By gram and records")
+    List<EmailRecordGram> findByGramAndRecordIds(@LookupField(name = "field") String field,
+                                                 @LookupField(name = "gram") String gram,
+                                                 @LookupField(name = "recordId") Set<Long> recordIds);
+}
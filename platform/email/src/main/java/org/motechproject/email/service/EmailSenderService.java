@@ -17,4 +17,20 @@ public interface EmailSenderService {
      * @param message  the body of the email
      */
     void send(String fromAddress, String toAddress, String subject, String message) throws EmailSendException;
+
+    /**
+     * Queues the supplied email message for sending. The message is sent in the background, unless the email
+     * module is configured to send messages synchronously, and the {@link org.motechproject.email.domain.EmailRecord}
+     * entry is added once it was sent or failed to be sent. A message sent in the background which could not be sent
+     * is only recorded in the log, the caller is not notified. By default the message is sent right away, using
+     * {@link #send(String, String, String, String)}.
+     * @param fromAddress  the email address of the sender
+     * @param toAddress  the email address of the recipient
+     * @param subject  the subject of the email
+     * @param message  the body of the email
+     * @throws EmailSendException if the queue is full, or if the message was sent right away and could not be sent
+     */
+    default void queue(String fromAddress, String toAddress, String subject, String message) throws EmailSendException {
+        send(fromAddress, toAddress, subject, message);
+    }
 }
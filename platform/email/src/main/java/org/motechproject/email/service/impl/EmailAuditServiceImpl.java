@@ -1,6 +1,7 @@
 package org.motechproject.email.service.impl;
 
 import org.joda.time.DateTime;
+import org.motechproject.commons.api.Range;
 import org.motechproject.email.domain.EmailRecord;
 import org.motechproject.email.search.CountSearch;
 import org.motechproject.email.search.RecordSearch;
@@ -11,7 +12,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The <code>EmailAuditServiceImpl</code> class provides API for everything connected with logging e-mails
@@ -23,6 +26,9 @@ public class EmailAuditServiceImpl implements EmailAuditService {
     @Autowired
     private EmailRecordService emailRecordService;
 
+    @Autowired
+    private EmailRecordIndex emailRecordIndex;
+
     @Override
     @Transactional
     public EmailRecord findById(long id) {
@@ -38,30 +44,44 @@ public class EmailAuditServiceImpl implements EmailAuditService {
     @Override
     @Transactional
     public void delete(EmailRecord emailRecord) {
+        // the fields of deleted records can not be read
+        emailRecordIndex.remove(Collections.singletonList(emailRecord));
         emailRecordService.delete(emailRecord);
     }
 
     @Override
     @Transactional
     public List<EmailRecord> findEmailRecords(EmailRecordSearchCriteria criteria) {
-        return emailRecordService.executeQuery(new RecordSearch(criteria));
+        Set<Long> candidateIds = emailRecordIndex.findCandidates(criteria);
+        if (candidateIds != null && candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return emailRecordService.executeQuery(new RecordSearch(criteria, candidateIds));
     }
 
     @Override
     @Transactional
     public long countEmailRecords(EmailRecordSearchCriteria criteria) {
-        return emailRecordService.executeQuery(new CountSearch(criteria));
+        Set<Long> candidateIds = emailRecordIndex.findCandidates(criteria);
+        if (candidateIds != null && candidateIds.isEmpty()) {
+            return 0;
+        }
+
+        return emailRecordService.executeQuery(new CountSearch(criteria, candidateIds));
     }
 
     @Override
     @Transactional
     public void purgeEmailDeliveredBeforeDate(DateTime date) {
-        List<EmailRecord> emailRecordList = findAllEmailRecords();
+        // the range is inclusive
+        EmailRecordSearchCriteria criteria = new EmailRecordSearchCriteria()
+                .withMessageTimeRange(new Range<>(null, date.minusMillis(1)));
+        List<EmailRecord> emailRecordList = emailRecordService.executeQuery(new RecordSearch(criteria));
 
+        emailRecordIndex.remove(emailRecordList);
         for (EmailRecord record : emailRecordList) {
-            if (record.getDeliveryTime().isBefore(date)) {
-                delete(record);
-            }
+            emailRecordService.delete(record);
         }
     }
 }
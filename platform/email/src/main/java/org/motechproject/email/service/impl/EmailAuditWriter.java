@@ -0,0 +1,223 @@
+package org.motechproject.email.service.impl;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.domain.DeliveryStatus;
+import org.motechproject.email.domain.EmailRecord;
+import org.motechproject.email.domain.Mail;
+import org.motechproject.email.service.EmailRecordService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.motechproject.commons.date.util.DateUtil.coarseNow;
+import static org.motechproject.email.settings.SettingsDto.MAIL_LOG_ADDRESS_PROPERTY;
+import static org.motechproject.email.settings.SettingsDto.MAIL_LOG_BODY_PROPERTY;
+import static org.motechproject.email.settings.SettingsDto.MAIL_LOG_SUBJECT_PROPERTY;
+
+/**
+ * Writes the {@link EmailRecord} audit entries of the sent e-mails. Writing every record in its own transaction,
+ * from the thread which sent the e-mail, is expensive when many e-mails are sent, so the records are queued instead
+ * and a single writer thread stores the records collected within a short window in one transaction. The queue is
+ * bounded, when it is full the record is written right away by the calling thread. Setting the window to 0 disables
+ * batching. The written records are added to the {@link EmailRecordIndex} in the same transaction.
+ */
+@Component
+public class EmailAuditWriter {
+
+    public static final String AUDIT_WINDOW = "mail.audit.window";
+    public static final String AUDIT_MAX_BATCH_SIZE = "mail.audit.maxBatchSize";
+    public static final String AUDIT_QUEUE_CAPACITY = "mail.audit.queueCapacity";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailAuditWriter.class);
+
+    private static final String FALSE = "false";
+    private static final int DEFAULT_WINDOW = 200;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 200;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+    private static final long POLL_TIMEOUT = 1000;
+
+    private final SettingsFacade settings;
+    private final EmailRecordService emailRecordService;
+    private final EmailRecordIndex emailRecordIndex;
+
+    private long window;
+    private int maxBatchSize;
+    private BlockingQueue<EmailRecord> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @Autowired
+    public EmailAuditWriter(@Qualifier("emailSettings") SettingsFacade settings, EmailRecordService emailRecordService,
+                            EmailRecordIndex emailRecordIndex) {
+        this.settings = settings;
+        this.emailRecordService = emailRecordService;
+        this.emailRecordIndex = emailRecordIndex;
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void init() {
+        window = NumberUtils.toLong(settings.getProperty(AUDIT_WINDOW), DEFAULT_WINDOW);
+        maxBatchSize = Math.max(1, NumberUtils.toInt(settings.getProperty(AUDIT_MAX_BATCH_SIZE), DEFAULT_MAX_BATCH_SIZE));
+        queue = new LinkedBlockingQueue<>(Math.max(1, NumberUtils.toInt(
+                settings.getProperty(AUDIT_QUEUE_CAPACITY), DEFAULT_QUEUE_CAPACITY)));
+
+        if (window > 0) {
+            running = true;
+            writerThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }
+            }, "motech-email-audit-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    /**
+     * Stops the writer thread, after writing the records that are still queued.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+            try {
+                writerThread.join(POLL_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        flush();
+    }
+
+    /**
+     * Records the delivery of the given e-mail. The address, subject and body of the e-mail are left out of the
+     * record if the settings say so.
+     *
+     * @param mail  the e-mail
+     * @param deliveryStatus  the status of the delivery
+     */
+    public void record(Mail mail, DeliveryStatus deliveryStatus) {
+        EmailRecord emailRecord = new EmailRecord(mail.getFromAddress(), mail.getToAddress(), mail.getSubject(),
+                mail.getMessage(), coarseNow(), deliveryStatus);
+
+        if (FALSE.equals(settings.getProperty(MAIL_LOG_BODY_PROPERTY))) {
+            emailRecord.setMessage("");
+        }
+
+        if (FALSE.equals(settings.getProperty(MAIL_LOG_ADDRESS_PROPERTY))) {
+            emailRecord.setFromAddress("");
+            emailRecord.setToAddress("");
+        }
+
+        if (FALSE.equals(settings.getProperty(MAIL_LOG_SUBJECT_PROPERTY))) {
+            emailRecord.setSubject("");
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Logging: {}", emailRecord.toString());
+        }
+
+        if (!running || !queue.offer(emailRecord)) {
+            write(Collections.singletonList(emailRecord));
+        } else if (!running) {
+            // the writer was stopped in the meantime
+            flush();
+        }
+    }
+
+    /**
+     * Writes the records that are queued.
+     */
+    public void flush() {
+        List<EmailRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private void writeLoop() {
+        List<EmailRecord> batch = new ArrayList<>(maxBatchSize);
+
+        while (running) {
+            try {
+                EmailRecord first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch);
+            } catch (InterruptedException e) {
+                // stopping, the remaining records are written by shutdown
+                LOGGER.debug("Email audit writer interrupted");
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<EmailRecord> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + window;
+
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+
+            EmailRecord next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(final List<EmailRecord> records) {
+        try {
+            emailRecordService.doInTransaction(new TransactionCallback<List<EmailRecord>>() {
+                @Override
+                public List<EmailRecord> doInTransaction(TransactionStatus status) {
+                    List<EmailRecord> stored = new ArrayList<>(records.size());
+                    for (EmailRecord emailRecord : records) {
+                        EmailRecord storedRecord = emailRecordService.create(emailRecord);
+                        if (storedRecord != null) {
+                            stored.add(storedRecord);
+                        }
+                    }
+
+                    emailRecordIndex.add(stored);
+                    return stored;
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to write {} email audit records", records.size(), e);
+        }
+    }
+}
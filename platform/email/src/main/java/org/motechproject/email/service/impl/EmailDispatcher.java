@@ -0,0 +1,328 @@
+package org.motechproject.email.service.impl;
+
+import org.apache.commons.lang.math.NumberUtils;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.domain.DeliveryStatus;
+import org.motechproject.email.domain.Mail;
+import org.motechproject.email.exception.EmailSendException;
+import org.motechproject.email.service.impl.SmtpTransportPool.SmtpConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends e-mails over pooled SMTP connections. E-mails can be sent right away, by the calling thread, or queued and
+ * sent by a number of sending threads, each of them sending the e-mails it takes from the queue in batches over one
+ * connection. The queue is bounded, a thread queuing an e-mail waits for a while when it is full and fails if there
+ * is still no room in the queue afterwards. The number of e-mails sent per second by all threads can be limited.
+ * The delivery of every e-mail is recorded by the {@link EmailAuditWriter}.
+ * <p>
+ * Connections are pooled only if the mail sender is a {@link JavaMailSenderImpl}, otherwise every e-mail is sent
+ * through the mail sender.
+ */
+@Component
+public class EmailDispatcher {
+
+    public static final String SEND_ASYNC = "mail.send.async";
+    public static final String SEND_THREADS = "mail.send.threads";
+    public static final String SEND_MAX_BATCH_SIZE = "mail.send.maxBatchSize";
+    public static final String SEND_RATE_LIMIT = "mail.send.rateLimit";
+    public static final String QUEUE_CAPACITY = "mail.queue.capacity";
+    public static final String QUEUE_OFFER_TIMEOUT = "mail.queue.offerTimeout";
+    public static final String TRANSPORT_MAX_MESSAGES = "mail.transport.maxMessages";
+    public static final String TRANSPORT_IDLE_TIMEOUT = "mail.transport.idleTimeout";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private static final String FALSE = "false";
+    private static final int DEFAULT_THREADS = 2;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 50;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final long DEFAULT_OFFER_TIMEOUT = 5000;
+    private static final int DEFAULT_TRANSPORT_MAX_MESSAGES = 100;
+    private static final long DEFAULT_TRANSPORT_IDLE_TIMEOUT = 30000;
+    private static final long POLL_TIMEOUT = 1000;
+
+    private final SettingsFacade settings;
+    private final JavaMailSender mailSender;
+    private final EmailAuditWriter auditWriter;
+    private final SendRateLimiter rateLimiter = new SendRateLimiter();
+    private final List<Thread> senderThreads = new ArrayList<>();
+
+    private int maxBatchSize;
+    private long offerTimeout;
+    private SmtpTransportPool transportPool;
+    private BlockingQueue<Mail> queue;
+    private volatile boolean running;
+
+    @Autowired
+    public EmailDispatcher(@Qualifier("emailSettings") SettingsFacade settings, JavaMailSender mailSender,
+                           EmailAuditWriter auditWriter) {
+        this.settings = settings;
+        this.mailSender = mailSender;
+        this.auditWriter = auditWriter;
+    }
+
+    /**
+     * Starts the sending threads, unless e-mails are sent synchronously.
+     */
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, NumberUtils.toInt(settings.getProperty(SEND_THREADS), DEFAULT_THREADS));
+        maxBatchSize = Math.max(1, NumberUtils.toInt(settings.getProperty(SEND_MAX_BATCH_SIZE), DEFAULT_MAX_BATCH_SIZE));
+        offerTimeout = NumberUtils.toLong(settings.getProperty(QUEUE_OFFER_TIMEOUT), DEFAULT_OFFER_TIMEOUT);
+        queue = new LinkedBlockingQueue<>(Math.max(1, NumberUtils.toInt(
+                settings.getProperty(QUEUE_CAPACITY), DEFAULT_QUEUE_CAPACITY)));
+
+        if (mailSender instanceof JavaMailSenderImpl) {
+            // the sending threads and a few callers sending right away share the pool
+            transportPool = new SmtpTransportPool((JavaMailSenderImpl) mailSender, threads * 2,
+                    NumberUtils.toInt(settings.getProperty(TRANSPORT_MAX_MESSAGES), DEFAULT_TRANSPORT_MAX_MESSAGES),
+                    NumberUtils.toLong(settings.getProperty(TRANSPORT_IDLE_TIMEOUT), DEFAULT_TRANSPORT_IDLE_TIMEOUT));
+        }
+
+        if (FALSE.equals(settings.getProperty(SEND_ASYNC))) {
+            return;
+        }
+
+        running = true;
+        for (int i = 0; i < threads; i++) {
+            Thread senderThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    sendLoop();
+                }
+            }, "motech-email-sender-" + i);
+            senderThread.setDaemon(true);
+            // the mail providers are looked up through the context class loader
+            senderThread.setContextClassLoader(EmailDispatcher.class.getClassLoader());
+            senderThread.start();
+            senderThreads.add(senderThread);
+        }
+    }
+
+    /**
+     * Stops the sending threads, after sending the e-mails that are still queued, and closes the pooled
+     * connections.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Thread senderThread : senderThreads) {
+            try {
+                senderThread.join(POLL_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        senderThreads.clear();
+
+        flushQueue();
+
+        if (transportPool != null) {
+            transportPool.close();
+        }
+    }
+
+    /**
+     * Sends the given e-mail right away.
+     *
+     * @param mail  the e-mail to send
+     * @throws EmailSendException if the e-mail could not be sent
+     */
+    public void send(Mail mail) throws EmailSendException {
+        acquirePermit();
+
+        try {
+            SmtpConnection connection = deliver(null, mail);
+            if (connection != null) {
+                transportPool.release(connection);
+            }
+        } catch (MessagingException | MailException e) {
+            auditWriter.record(mail, DeliveryStatus.ERROR);
+            throw new EmailSendException("Unable to send an email to " + mail.getToAddress(), e);
+        }
+
+        auditWriter.record(mail, DeliveryStatus.SENT);
+    }
+
+    /**
+     * Queues the given e-mail for sending. The e-mail is sent right away if e-mails are sent synchronously.
+     *
+     * @param mail  the e-mail to send
+     * @throws EmailSendException if there was no room for the e-mail in the queue, or if it was sent right away
+     * and could not be sent
+     */
+    public void queue(Mail mail) throws EmailSendException {
+        if (!running) {
+            send(mail);
+            return;
+        }
+
+        boolean queued;
+        try {
+            queued = queue.offer(mail, offerTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+
+        if (!queued) {
+            auditWriter.record(mail, DeliveryStatus.ERROR);
+            throw new EmailSendException("The email queue is full, unable to send an email to " + mail.getToAddress());
+        }
+
+        if (!running) {
+            // the dispatcher was stopped in the meantime
+            flushQueue();
+        }
+    }
+
+    /**
+     * Returns the number of e-mails waiting for the sending threads.
+     *
+     * @return the number of queued e-mails
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void sendLoop() {
+        List<Mail> batch = new ArrayList<>(maxBatchSize);
+
+        while (running) {
+            try {
+                Mail first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (transportPool != null) {
+                        transportPool.evictIdle();
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+            } catch (InterruptedException e) {
+                LOGGER.debug("Email sender interrupted");
+            }
+
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushQueue() {
+        List<Mail> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            sendBatch(remaining);
+        }
+    }
+
+    private void sendBatch(List<Mail> batch) {
+        SmtpConnection connection = null;
+
+        try {
+            for (Mail mail : batch) {
+                acquirePermit();
+
+                try {
+                    connection = deliver(connection, mail);
+                    auditWriter.record(mail, DeliveryStatus.SENT);
+                } catch (MessagingException | RuntimeException e) {
+                    // the connection was closed by deliver, the failure is only recorded in the email log since
+                    // nobody waits for the queued e-mail
+                    connection = null;
+                    LOGGER.error("Unable to send an email to {}", mail.getToAddress(), e);
+                    auditWriter.record(mail, DeliveryStatus.ERROR);
+                }
+            }
+        } finally {
+            if (connection != null) {
+                transportPool.release(connection);
+            }
+        }
+
+        LOGGER.debug("Sent a batch of {} emails", batch.size());
+    }
+
+    /**
+     * Sends the given e-mail over the given connection, or over a pooled one if there is none. The connection which
+     * should be used for the next e-mail is returned, on failure the connection is closed.
+     */
+    private SmtpConnection deliver(SmtpConnection connection, Mail mail) throws MessagingException {
+        MotechMimeMessagePreparator preparator = new MotechMimeMessagePreparator(mail);
+
+        if (transportPool == null) {
+            mailSender.send(preparator);
+            return null;
+        }
+
+        SmtpConnection current = connection;
+        boolean sent = false;
+
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            preparator.prepare(message);
+
+            if (current == null) {
+                current = transportPool.borrow();
+            }
+
+            try {
+                current.send(message);
+            } catch (MessagingException e) {
+                if (!current.isReused() || e instanceof SendFailedException) {
+                    throw e;
+                }
+
+                // the server could have closed the connection in the meantime, retry once over a new one
+                LOGGER.debug("Unable to send an email over a pooled connection, reconnecting", e);
+                transportPool.discard(current);
+                current = null;
+                current = transportPool.borrow();
+                current.send(message);
+            }
+
+            sent = true;
+        } finally {
+            if (!sent && current != null) {
+                transportPool.discard(current);
+            }
+        }
+
+        if (transportPool.isExhausted(current)) {
+            transportPool.release(current);
+            return null;
+        }
+
+        return current;
+    }
+
+    private void acquirePermit() {
+        try {
+            rateLimiter.acquire(NumberUtils.toDouble(settings.getProperty(SEND_RATE_LIMIT), 0));
+        } catch (InterruptedException e) {
+            LOGGER.debug("Interrupted while waiting for sending an email");
+            Thread.currentThread().interrupt();
+        }
+    }
+}
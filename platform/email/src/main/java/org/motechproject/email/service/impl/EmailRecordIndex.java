@@ -0,0 +1,463 @@
+package org.motechproject.email.service.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.builder.EmailRecordSearchCriteria;
+import org.motechproject.email.domain.EmailRecord;
+import org.motechproject.email.domain.EmailRecordGram;
+import org.motechproject.email.search.RecordGramsDeletion;
+import org.motechproject.email.search.RecordsAfterIdSearch;
+import org.motechproject.email.service.EmailRecordGramService;
+import org.motechproject.email.service.EmailRecordService;
+import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.util.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An index of the trigrams, the sequences of three characters, of the addresses, subjects and bodies of the
+ * {@link EmailRecord}s, used for narrowing down the text searches through the email log to a small set of candidate
+ * records. The index is stored in the database, as {@link EmailRecordGram} entries mapping the trigrams of every
+ * field, lowercased, to the ids of the records containing them, so it is shared by all instances and survives
+ * restarts. Text criteria are matched by the database as {@code .*text.*} patterns, a record matching such a pattern
+ * contains every trigram of the text, so the candidates are the records containing all of them. Trigrams contained in
+ * too many records are left out, and texts using any pattern syntax other than the {@code .} wildcard, without three
+ * characters in a row or without any rare enough trigram, are not narrowed down.
+ * <p>
+ * The records written by the {@link EmailAuditWriter} are added in the transaction writing them, and the records
+ * deleted through the {@link org.motechproject.email.service.EmailAuditService} are removed in the transaction
+ * deleting them. Every indexed record has an entry marking it as indexed. Records written in any other way are found
+ * by comparing the highest record id with the highest id checked so far, which is cheap, and added before the search.
+ * When the module starts, the records which were never indexed are added in the background, searches are not
+ * narrowed down until that is done. Records deleted in any other way leave their entries behind, which only adds
+ * candidates. The index only narrows the searches down, the candidate records are still matched against the search
+ * criteria by the database.
+ */
+@Component
+public class EmailRecordIndex {
+
+    public static final String SEARCH_MAX_CANDIDATES = "mail.search.maxCandidates";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailRecordIndex.class);
+
+    private static final int DEFAULT_MAX_CANDIDATES = 1000;
+    private static final int SCAN_BATCH_SIZE = 500;
+    private static final int GRAM_LENGTH = 3;
+    private static final long JOIN_TIMEOUT = 1000;
+    private static final String PATTERN_CHARACTERS = "\\^$|?*+()[]{}";
+    private static final char WILDCARD = '.';
+    private static final String RECORD_FIELD = "RECORD";
+    private static final String RECORD_GRAM = "*";
+    private static final String RECORD_ID = "recordId";
+    private static final String ID = "id";
+
+    /**
+     * A trigram is not used for narrowing down a search if this many times more records than allowed contain it.
+     */
+    private static final int MAX_GRAM_CANDIDATES_FACTOR = 8;
+
+    private final SettingsFacade settings;
+    private final EmailRecordService emailRecordService;
+    private final EmailRecordGramService emailRecordGramService;
+    private final Lock scanLock = new ReentrantLock();
+
+    private int maxCandidates;
+    private Thread builderThread;
+    private volatile long checkedUpTo = -1;
+    private volatile boolean ready;
+    private volatile boolean running;
+
+    @Autowired
+    public EmailRecordIndex(@Qualifier("emailSettings") SettingsFacade settings,
+                            EmailRecordService emailRecordService, EmailRecordGramService emailRecordGramService) {
+        this.settings = settings;
+        this.emailRecordService = emailRecordService;
+        this.emailRecordGramService = emailRecordGramService;
+    }
+
+    /**
+     * Starts adding the records which were never indexed, unless the index is disabled.
+     */
+    @PostConstruct
+    public void init() {
+        maxCandidates = NumberUtils.toInt(settings.getProperty(SEARCH_MAX_CANDIDATES), DEFAULT_MAX_CANDIDATES);
+        if (maxCandidates <= 0) {
+            return;
+        }
+
+        running = true;
+        startCatchingUp();
+    }
+
+    /**
+     * Stops adding the records which were never indexed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        ready = false;
+
+        Thread thread;
+        synchronized (this) {
+            thread = builderThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join(JOIN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns whether all records were indexed and searches are narrowed down.
+     *
+     * @return true if the index is ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds the given records, which must have been stored already, to the index. Must be called in the transaction
+     * which stored the records.
+     *
+     * @param records  the records to add
+     */
+    public void add(Collection<EmailRecord> records) {
+        if (maxCandidates <= 0) {
+            return;
+        }
+
+        for (EmailRecord emailRecord : records) {
+            Long id = emailRecord.getId();
+            if (id == null) {
+                continue;
+            }
+
+            emailRecordGramService.create(new EmailRecordGram(RECORD_FIELD, RECORD_GRAM, id));
+            for (Field field : Field.values()) {
+                for (String gram : grams(field.valueOf(emailRecord))) {
+                    emailRecordGramService.create(new EmailRecordGram(field.name(), gram, id));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the given records from the index. Must be called in the transaction which deletes the records.
+     *
+     * @param records  the deleted records
+     */
+    public void remove(Collection<EmailRecord> records) {
+        Set<Long> ids = new HashSet<>();
+        for (EmailRecord emailRecord : records) {
+            if (emailRecord.getId() != null) {
+                ids.add(emailRecord.getId());
+            }
+
+            if (ids.size() == SCAN_BATCH_SIZE) {
+                emailRecordGramService.executeQuery(new RecordGramsDeletion(ids));
+                ids = new HashSet<>();
+            }
+        }
+
+        if (!ids.isEmpty()) {
+            emailRecordGramService.executeQuery(new RecordGramsDeletion(ids));
+        }
+    }
+
+    /**
+     * Returns the ids of the records which could match the text criteria of the given search criteria. Null is
+     * returned if the search can not be narrowed down, because the index is not ready, there are no text criteria,
+     * a text can not be looked up in the index or the number of candidates exceeds the limit.
+     *
+     * @param criteria  the search criteria
+     * @return the ids of the candidate records, or null if every record is a candidate
+     */
+    public Set<Long> findCandidates(EmailRecordSearchCriteria criteria) {
+        Map<Field, String> texts = new EnumMap<>(Field.class);
+        putIfNotEmpty(texts, Field.FROM_ADDRESS, criteria.getFromAddress());
+        putIfNotEmpty(texts, Field.TO_ADDRESS, criteria.getToAddress());
+        putIfNotEmpty(texts, Field.SUBJECT, criteria.getSubject());
+        putIfNotEmpty(texts, Field.MESSAGE, criteria.getMessage());
+
+        if (!ready || texts.isEmpty()) {
+            return null;
+        }
+
+        if (!catchUp()) {
+            return null;
+        }
+
+        // the text criteria are alternatives
+        Set<Long> candidates = new HashSet<>();
+        for (Map.Entry<Field, String> entry : texts.entrySet()) {
+            Set<Long> ids = findCandidates(entry.getKey(), entry.getValue());
+            if (ids == null) {
+                return null;
+            }
+
+            candidates.addAll(ids);
+            if (candidates.size() > maxCandidates) {
+                return null;
+            }
+        }
+        return candidates;
+    }
+
+    private Set<Long> findCandidates(Field field, String text) {
+        Set<String> required = requiredGrams(text);
+        if (required == null || required.isEmpty()) {
+            return null;
+        }
+
+        int maxGramCandidates = maxCandidates * MAX_GRAM_CANDIDATES_FACTOR;
+        QueryParams limit = new QueryParams(1, maxGramCandidates + 1);
+
+        Set<Long> candidates = null;
+        for (String gram : required) {
+            List<EmailRecordGram> entries = emailRecordGramService.findByGram(field.name(), gram, limit);
+            if (entries.size() > maxGramCandidates) {
+                // too common to narrow the search down
+                continue;
+            }
+
+            Set<Long> ids = recordIds(entries);
+            if (candidates == null) {
+                candidates = ids;
+            } else {
+                candidates.retainAll(ids);
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Adds the records with ids greater than the ones checked so far, which were not indexed. Returns whether the
+     * index holds all records, if there are too many records to add before a search, they are added in the
+     * background instead.
+     */
+    private boolean catchUp() {
+        long lastId = lastRecordId();
+        if (lastId <= checkedUpTo) {
+            return true;
+        }
+
+        // while records are added in the background, searches do not wait for them
+        if (!scanLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (lastId - checkedUpTo > SCAN_BATCH_SIZE) {
+                startCatchingUp();
+                return false;
+            }
+
+            while (checkedUpTo < lastId && scanBatch() == SCAN_BATCH_SIZE) {
+                LOGGER.debug("Indexed email records up to id {}", checkedUpTo);
+            }
+            checkedUpTo = Math.max(checkedUpTo, lastId);
+            return true;
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    private synchronized void startCatchingUp() {
+        if (!running || (builderThread != null && builderThread.isAlive())) {
+            return;
+        }
+
+        ready = false;
+        builderThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                catchUpInBackground();
+            }
+        }, "motech-email-search-index");
+        builderThread.setDaemon(true);
+        builderThread.start();
+    }
+
+    private void catchUpInBackground() {
+        long start = System.currentTimeMillis();
+
+        scanLock.lock();
+        try {
+            if (checkedUpTo < 0) {
+                checkedUpTo = lastIndexedRecordId();
+            }
+
+            while (running && scanBatch() == SCAN_BATCH_SIZE) {
+                LOGGER.debug("Indexed email records up to id {}", checkedUpTo);
+            }
+            ready = running;
+            LOGGER.info("Indexed the email log for searching in {}ms", System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOGGER.error("Unable to index the email log, searches will not be narrowed down", e);
+        } finally {
+            scanLock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next batch of records and adds the ones which were not indexed yet. Returns the number of records
+     * read.
+     */
+    private int scanBatch() {
+        int read = emailRecordService.doInTransaction(new TransactionCallback<Integer>() {
+            @Override
+            public Integer doInTransaction(TransactionStatus status) {
+                List<EmailRecord> records = emailRecordService.executeQuery(
+                        new RecordsAfterIdSearch(checkedUpTo, SCAN_BATCH_SIZE));
+                if (records.isEmpty()) {
+                    return 0;
+                }
+
+                Set<Long> ids = new HashSet<>();
+                for (EmailRecord emailRecord : records) {
+                    ids.add(emailRecord.getId());
+                }
+                Set<Long> indexed = recordIds(emailRecordGramService.findByGramAndRecordIds(RECORD_FIELD,
+                        RECORD_GRAM, ids));
+
+                List<EmailRecord> missing = new ArrayList<>();
+                for (EmailRecord emailRecord : records) {
+                    if (!indexed.contains(emailRecord.getId())) {
+                        missing.add(emailRecord);
+                    }
+                }
+                add(missing);
+
+                checkedUpTo = records.get(records.size() - 1).getId();
+                return records.size();
+            }
+        });
+
+        return read;
+    }
+
+    private long lastRecordId() {
+        List<EmailRecord> last = emailRecordService.retrieveAll(
+                new QueryParams(1, 1, new Order(ID, Order.Direction.DESC)));
+        return last.isEmpty() ? 0 : last.get(0).getId();
+    }
+
+    private long lastIndexedRecordId() {
+        List<EmailRecordGram> last = emailRecordGramService.findByGram(RECORD_FIELD, RECORD_GRAM,
+                new QueryParams(1, 1, new Order(RECORD_ID, Order.Direction.DESC)));
+        return last.isEmpty() ? 0 : last.get(0).getRecordId();
+    }
+
+    private static Set<Long> recordIds(Collection<EmailRecordGram> entries) {
+        Set<Long> ids = new HashSet<>();
+        for (EmailRecordGram entry : entries) {
+            ids.add(entry.getRecordId());
+        }
+        return ids;
+    }
+
+    private static void putIfNotEmpty(Map<Field, String> texts, Field field, String text) {
+        if (StringUtils.isNotEmpty(text)) {
+            texts.put(field, text);
+        }
+    }
+
+    /**
+     * Splits the given text into its lowercased trigrams. Characters are lowercased one by one, so that every
+     * substring of the text is a substring of the lowercased text as well.
+     */
+    static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null) {
+            return grams;
+        }
+
+        char[] lowercased = new char[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            lowercased[i] = Character.toLowerCase(text.charAt(i));
+        }
+        for (int i = 0; i + GRAM_LENGTH <= lowercased.length; i++) {
+            grams.add(new String(lowercased, i, GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+
+    /**
+     * Returns the trigrams a record has to contain to match the given search text, used as a {@code .*text.*}
+     * pattern. The {@code .} wildcard matches any character, so only the trigrams of the parts between wildcards are
+     * returned. Null is returned if the text uses any other pattern syntax.
+     */
+    static Set<String> requiredGrams(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (PATTERN_CHARACTERS.indexOf(text.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+
+        Set<String> grams = new LinkedHashSet<>();
+        for (String part : StringUtils.split(text, WILDCARD)) {
+            grams.addAll(grams(part));
+        }
+        return grams;
+    }
+
+    /**
+     * The indexed fields of the email records.
+     */
+    private enum Field {
+        FROM_ADDRESS {
+            @Override
+            String valueOf(EmailRecord emailRecord) {
+                return emailRecord.getFromAddress();
+            }
+        },
+        TO_ADDRESS {
+            @Override
+            String valueOf(EmailRecord emailRecord) {
+                return emailRecord.getToAddress();
+            }
+        },
+        SUBJECT {
+            @Override
+            String valueOf(EmailRecord emailRecord) {
+                return emailRecord.getSubject();
+            }
+        },
+        MESSAGE {
+            @Override
+            String valueOf(EmailRecord emailRecord) {
+                return emailRecord.getMessage();
+            }
+        };
+
+        abstract String valueOf(EmailRecord emailRecord);
+    }
+}
@@ -12,7 +12,9 @@ import org.springframework.stereotype.Service;
 
 /**
  * The <code>SendEmailEventHandlerImpl</code> class is responsible for listening to and handling events
- * connected with sending e-mails
+ * connected with sending e-mails. E-mails are queued, so an e-mail which can not be sent does not fail the
+ * handling of its event and the event is not retried, the failure is recorded in the email log instead. Setting
+ * {@code mail.send.async} to false sends the e-mails while handling their events, so failures are retried.
  */
 @Service
 public class SendEmailEventHandlerImpl {
@@ -34,6 +36,6 @@ public class SendEmailEventHandlerImpl {
                     fromAddress, toAddress, subject, message);
         }
 
-        emailSenderService.send(fromAddress, toAddress, subject, message);
+        emailSenderService.queue(fromAddress, toAddress, subject, message);
     }
 }
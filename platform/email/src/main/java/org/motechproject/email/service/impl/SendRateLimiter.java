@@ -0,0 +1,42 @@
+package org.motechproject.email.service.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out the e-mails sent by all sending threads, so that no more than the given number of e-mails is sent
+ * per second. Unused capacity does not accumulate, so there are no bursts after idle periods.
+ */
+class SendRateLimiter {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long nextSlot = System.nanoTime();
+
+    /**
+     * Waits until the next e-mail can be sent.
+     *
+     * @param permitsPerSecond  the maximum number of e-mails sent per second, 0 or less for no limit
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    void acquire(double permitsPerSecond) throws InterruptedException {
+        if (permitsPerSecond <= 0) {
+            return;
+        }
+
+        long interval = (long) (NANOS_PER_SECOND / permitsPerSecond);
+        long wait;
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (nextSlot - now < 0) {
+                nextSlot = now;
+            }
+            wait = nextSlot - now;
+            nextSlot += interval;
+        }
+
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
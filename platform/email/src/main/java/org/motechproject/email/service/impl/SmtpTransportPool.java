@@ -0,0 +1,244 @@
+package org.motechproject.email.service.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A pool of connected mail transports, so that many e-mails can be sent over one SMTP connection instead of
+ * connecting to the server for every e-mail, as {@link JavaMailSenderImpl#send} does. The connections use the
+ * current settings of the mail sender, connections opened with different settings are closed instead of being
+ * reused. A connection is closed after it sent the maximum number of messages or stayed idle for too long.
+ */
+class SmtpTransportPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private static final String DEFAULT_PROTOCOL = "smtp";
+    private static final String PROTOCOL_PROPERTY = "mail.transport.protocol";
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxIdle;
+    private final int maxMessages;
+    private final long idleTimeout;
+    private final Deque<SmtpConnection> idle = new ArrayDeque<>();
+
+    private boolean closed;
+
+    SmtpTransportPool(JavaMailSenderImpl mailSender, int maxIdle, int maxMessages, long idleTimeout) {
+        this.mailSender = mailSender;
+        this.maxIdle = maxIdle;
+        this.maxMessages = maxMessages;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Returns an idle connection opened with the current settings of the mail sender, or opens a new one.
+     *
+     * @return the connection
+     * @throws MessagingException if the connection could not be opened
+     */
+    SmtpConnection borrow() throws MessagingException {
+        Session session = mailSender.getSession();
+        String settings = getSettings();
+        long now = System.currentTimeMillis();
+
+        List<SmtpConnection> stale = new ArrayList<>();
+        SmtpConnection connection = null;
+
+        synchronized (idle) {
+            while (connection == null && !idle.isEmpty()) {
+                SmtpConnection candidate = idle.pollFirst();
+                if (candidate.isOpenedWith(session, settings) && now - candidate.lastUsed < idleTimeout) {
+                    connection = candidate;
+                } else {
+                    stale.add(candidate);
+                }
+            }
+        }
+
+        for (SmtpConnection staleConnection : stale) {
+            staleConnection.close();
+        }
+
+        return (connection == null) ? connect(session, settings) : connection;
+    }
+
+    /**
+     * Returns the given connection to the pool. The connection is closed if it should not be reused.
+     *
+     * @param connection  the connection to return
+     */
+    void release(SmtpConnection connection) {
+        if (isExhausted(connection)) {
+            connection.close();
+            return;
+        }
+
+        connection.lastUsed = System.currentTimeMillis();
+        connection.reused = true;
+
+        boolean pooled = false;
+        synchronized (idle) {
+            if (!closed && idle.size() < maxIdle) {
+                idle.addFirst(connection);
+                pooled = true;
+            }
+        }
+
+        if (!pooled) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Closes the given connection, which is not usable anymore.
+     *
+     * @param connection  the connection to close
+     */
+    void discard(SmtpConnection connection) {
+        connection.close();
+    }
+
+    /**
+     * Checks whether the given connection sent the maximum number of messages and should not be used anymore.
+     *
+     * @param connection  the connection to check
+     * @return true if the connection should be closed
+     */
+    boolean isExhausted(SmtpConnection connection) {
+        return maxMessages > 0 && connection.sentMessages >= maxMessages;
+    }
+
+    /**
+     * Closes the connections which stayed idle for too long.
+     */
+    void evictIdle() {
+        long now = System.currentTimeMillis();
+        List<SmtpConnection> expired = new ArrayList<>();
+
+        synchronized (idle) {
+            while (!idle.isEmpty() && now - idle.peekLast().lastUsed >= idleTimeout) {
+                expired.add(idle.pollLast());
+            }
+        }
+
+        for (SmtpConnection connection : expired) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Closes all idle connections, connections returned afterwards are closed right away.
+     */
+    void close() {
+        List<SmtpConnection> connections;
+
+        synchronized (idle) {
+            closed = true;
+            connections = new ArrayList<>(idle);
+            idle.clear();
+        }
+
+        for (SmtpConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private SmtpConnection connect(Session session, String settings) throws MessagingException {
+        String protocol = mailSender.getProtocol();
+        if (protocol == null) {
+            protocol = StringUtils.defaultIfEmpty(session.getProperty(PROTOCOL_PROPERTY), DEFAULT_PROTOCOL);
+        }
+
+        Transport transport = session.getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                StringUtils.trimToNull(mailSender.getUsername()), StringUtils.trimToNull(mailSender.getPassword()));
+
+        LOGGER.debug("Opened a {} connection to {}:{}", protocol, mailSender.getHost(), mailSender.getPort());
+
+        return new SmtpConnection(transport, session, settings);
+    }
+
+    private String getSettings() {
+        return StringUtils.join(new Object[]{mailSender.getProtocol(), mailSender.getHost(), mailSender.getPort(),
+                mailSender.getUsername(), mailSender.getPassword()}, '\n');
+    }
+
+    /**
+     * A connected transport, used by one thread at a time.
+     */
+    static final class SmtpConnection {
+
+        private final Transport transport;
+        private final Session session;
+        private final String settings;
+
+        private int sentMessages;
+        private boolean reused;
+        private long lastUsed;
+
+        private SmtpConnection(Transport transport, Session session, String settings) {
+            this.transport = transport;
+            this.session = session;
+            this.settings = settings;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * Sends the given message over this connection, the same way {@link JavaMailSenderImpl} does it.
+         *
+         * @param message  the message to send
+         * @throws MessagingException if the message could not be sent
+         */
+        void send(MimeMessage message) throws MessagingException {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+
+            String messageId = message.getMessageID();
+            message.saveChanges();
+            if (messageId != null) {
+                // preserve the explicitly specified message id, as it might get overwritten by saveChanges
+                message.setHeader("Message-ID", messageId);
+            }
+
+            transport.sendMessage(message, message.getAllRecipients());
+            sentMessages++;
+        }
+
+        /**
+         * Checks whether this connection was already used, in which case the server could have closed it in the
+         * meantime.
+         *
+         * @return true if the connection was used before
+         */
+        boolean isReused() {
+            return reused || sentMessages > 0;
+        }
+
+        private boolean isOpenedWith(Session otherSession, String otherSettings) {
+            return session == otherSession && Objects.equals(settings, otherSettings);
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                LOGGER.debug("Unable to close the mail transport", e);
+            }
+        }
+    }
+}
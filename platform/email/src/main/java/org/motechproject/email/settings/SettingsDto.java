@@ -7,7 +7,9 @@ import org.springframework.util.CollectionUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -27,6 +29,11 @@ public class SettingsDto {
     public static final String MAIL_LOG_PURGE_TIME_PROPERY = "mail.log.purgetime";
     public static final String MAIL_LOG_PURGE_TIME_MULTIPLIER_PROPERTY = "mail.log.purgetimemultiplier";
 
+    private static final List<String> EDITED_PROPERTIES = Arrays.asList(MAIL_HOST_PROPERTY, MAIL_PORT_PROPERTY,
+            MAIL_USERNAME_PROPERTY, MAIL_PASSWORD_PROPERTY, MAIL_LOG_ADDRESS_PROPERTY, MAIL_LOG_SUBJECT_PROPERTY,
+            MAIL_LOG_BODY_PROPERTY, MAIL_LOG_PURGE_ENABLE_PROPERTY, MAIL_LOG_PURGE_TIME_PROPERY,
+            MAIL_LOG_PURGE_TIME_MULTIPLIER_PROPERTY);
+
     private String host;
     private String port;
     private String username;
@@ -38,6 +45,7 @@ public class SettingsDto {
     private String logPurgeTime;
     private String logPurgeTimeMultiplier;
     private Map<String, String> additionalProperties;
+    private Map<String, String> otherProperties = new HashMap<>();
 
     public SettingsDto() {
         this(null, null, null, null, null, null, null, null, null);
@@ -57,10 +65,20 @@ public class SettingsDto {
                 settingsFacade.getProperty(MAIL_LOG_PURGE_TIME_PROPERY, EMAIL_PROPERTIES_FILE_NAME),
                 settingsFacade.getProperty(MAIL_LOG_PURGE_TIME_MULTIPLIER_PROPERTY, EMAIL_PROPERTIES_FILE_NAME)
         );
+
+        Properties current = settingsFacade.getProperties(EMAIL_PROPERTIES_FILE_NAME);
+        if (current != null) {
+            for (String name : current.stringPropertyNames()) {
+                if (!EDITED_PROPERTIES.contains(name)) {
+                    otherProperties.put(name, current.getProperty(name));
+                }
+            }
+        }
     }
 
     public Properties toProperties() {
         Properties properties = new Properties();
+        properties.putAll(getOtherProperties());
         properties.put(MAIL_HOST_PROPERTY, host);
         properties.put(MAIL_PORT_PROPERTY, port);
         properties.put(MAIL_USERNAME_PROPERTY, username);
@@ -217,6 +235,24 @@ public class SettingsDto {
         this.logPurgeTimeMultiplier = logPurgeTimeMultiplier;
     }
 
+    /**
+     * Returns the properties of the {@link #EMAIL_PROPERTIES_FILE_NAME} file which are not edited through the
+     * settings page, like the properties of the sending pipeline. They are sent back unchanged by the page, so that
+     * they are saved along with the edited ones.
+     *
+     * @return the properties not edited through the settings page
+     */
+    public Map<String, String> getOtherProperties() {
+        if (this.otherProperties == null) {
+            this.otherProperties = new HashMap<>();
+        }
+        return this.otherProperties;
+    }
+
+    public void setOtherProperties(Map<String, String> otherProperties) {
+        this.otherProperties = (otherProperties == null) ? new HashMap<String, String>() : otherProperties;
+    }
+
     @JsonIgnore
     public Properties getAdditionalProps() {
         Properties props = new Properties();
@@ -226,7 +262,7 @@ public class SettingsDto {
 
     @Override
     public int hashCode() {
-        return Objects.hash(host, port, username, password, additionalProperties,  logAddress, logSubject, logBody, logPurgeEnable, logPurgeTime, logPurgeTimeMultiplier);
+        return Objects.hash(host, port, username, password, additionalProperties,  logAddress, logSubject, logBody, logPurgeEnable, logPurgeTime, logPurgeTimeMultiplier, otherProperties);
     }
 
     @Override
@@ -247,8 +283,8 @@ public class SettingsDto {
     @Override
     public String toString() {
         return String.format(
-                "SettingsDto{host='%s', port='%s', username='%s', password='%s', additionalProperties='%s', logAddress='%s', logSubject='%s', logBody='%s', logPurgeEnable='%s', logPurgeTime='%s', logPurgeTimeMultiplier='%s'}",
-                host, port, username, password, additionalProperties, logAddress, logSubject, logBody, logPurgeEnable, logPurgeTime, logPurgeTimeMultiplier);
+                "SettingsDto{host='%s', port='%s', username='%s', password='%s', additionalProperties='%s', logAddress='%s', logSubject='%s', logBody='%s', logPurgeEnable='%s', logPurgeTime='%s', logPurgeTimeMultiplier='%s', otherProperties='%s'}",
+                host, port, username, password, additionalProperties, logAddress, logSubject, logBody, logPurgeEnable, logPurgeTime, logPurgeTimeMultiplier, otherProperties);
     }
 
     private Boolean compareFields(SettingsDto other) {
@@ -270,6 +306,8 @@ public class SettingsDto {
             return false;
         } else if (!Objects.equals(this.logPurgeTimeMultiplier, other.logPurgeTimeMultiplier)) {
             return false;
+        } else if (!Objects.equals(this.otherProperties, other.otherProperties)) {
+            return false;
         }
         return true;
     }
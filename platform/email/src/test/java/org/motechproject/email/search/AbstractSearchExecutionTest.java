@@ -42,6 +42,8 @@ public abstract class AbstractSearchExecutionTest {
     protected abstract void verifyImplementationDetails();
     protected abstract void assertResult(Object result);
     protected abstract AbstractSearchExecution createExecution(EmailRecordSearchCriteria criteria);
+    protected abstract AbstractSearchExecution createExecution(EmailRecordSearchCriteria criteria,
+                                                               Set<Long> candidateIds);
 
     @Mock
     private Query query;
@@ -85,6 +87,28 @@ public abstract class AbstractSearchExecutionTest {
         assertResult(result);
     }
 
+    @Test
+    public void shouldNarrowDownToCandidates() {
+        when(restriction.isEmpty()).thenReturn(true);
+        when(query.executeWithArray(anyVararg())).thenReturn(queryResult());
+
+        EmailRecordSearchCriteria criteria = new EmailRecordSearchCriteria()
+                .withSubject("reminder").withDeliveryStatuses(DeliveryStatus.SENT)
+                .withQueryParams(queryParams);
+
+        AbstractSearchExecution execution = createExecution(criteria, new HashSet<>(asList(7L)));
+
+        Object result = execution.execute(query, restriction);
+
+        verify(query).setFilter("(deliveryStatus == param0_0) && (id == param1_0) && (subject.matches(param2))");
+        verify(query).declareParameters(DeliveryStatus.class.getName() + " param0_0, java.lang.Long param1_0, " +
+                "java.lang.String param2");
+        verify(query).executeWithArray(DeliveryStatus.SENT, 7L, ".*reminder.*");
+
+        verifyImplementationDetails();
+        assertResult(result);
+    }
+
     protected Query getQuery() {
         return query;
     }
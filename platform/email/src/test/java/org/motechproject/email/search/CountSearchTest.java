@@ -2,6 +2,8 @@ package org.motechproject.email.search;
 
 import org.motechproject.email.builder.EmailRecordSearchCriteria;
 
+import java.util.Set;
+
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
 
@@ -26,4 +28,9 @@ public class CountSearchTest extends AbstractSearchExecutionTest {
     protected AbstractSearchExecution createExecution(EmailRecordSearchCriteria criteria) {
         return new CountSearch(criteria);
     }
+
+    @Override
+    protected AbstractSearchExecution createExecution(EmailRecordSearchCriteria criteria, Set<Long> candidateIds) {
+        return new CountSearch(criteria, candidateIds);
+    }
 }
@@ -4,6 +4,8 @@ import org.mockito.Mock;
 import org.motechproject.email.builder.EmailRecordSearchCriteria;
 import org.motechproject.email.domain.EmailRecord;
 
+import java.util.Set;
+
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
@@ -36,4 +38,9 @@ public class RecordSearchTest extends AbstractSearchExecutionTest {
     protected AbstractSearchExecution createExecution(EmailRecordSearchCriteria criteria) {
         return new RecordSearch(criteria);
     }
+
+    @Override
+    protected AbstractSearchExecution createExecution(EmailRecordSearchCriteria criteria, Set<Long> candidateIds) {
+        return new RecordSearch(criteria, candidateIds);
+    }
 }
@@ -0,0 +1,111 @@
+package org.motechproject.email.service.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.domain.DeliveryStatus;
+import org.motechproject.email.domain.EmailRecord;
+import org.motechproject.email.domain.Mail;
+import org.motechproject.email.service.EmailRecordService;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.motechproject.email.settings.SettingsDto.MAIL_LOG_ADDRESS_PROPERTY;
+import static org.motechproject.email.settings.SettingsDto.MAIL_LOG_BODY_PROPERTY;
+
+public class EmailAuditWriterTest {
+
+    @Mock
+    private SettingsFacade settings;
+
+    @Mock
+    private EmailRecordService emailRecordService;
+
+    @Mock
+    private EmailRecordIndex emailRecordIndex;
+
+    private EmailAuditWriter auditWriter;
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        when(emailRecordService.doInTransaction(any(TransactionCallback.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return ((TransactionCallback) invocation.getArguments()[0]).doInTransaction(null);
+            }
+        });
+
+        auditWriter = new EmailAuditWriter(settings, emailRecordService, emailRecordIndex);
+    }
+
+    @Test
+    public void shouldWriteQueuedRecordsInOneTransaction() {
+        // a long window, so that the records are written on shutdown
+        when(settings.getProperty(EmailAuditWriter.AUDIT_WINDOW)).thenReturn("60000");
+        auditWriter.init();
+
+        auditWriter.record(new Mail("from", "to1", "subject", "message"), DeliveryStatus.SENT);
+        auditWriter.record(new Mail("from", "to2", "subject", "message"), DeliveryStatus.ERROR);
+        auditWriter.shutdown();
+
+        ArgumentCaptor<EmailRecord> captor = ArgumentCaptor.forClass(EmailRecord.class);
+        verify(emailRecordService).doInTransaction(any(TransactionCallback.class));
+        verify(emailRecordService, times(2)).create(captor.capture());
+
+        List<EmailRecord> records = captor.getAllValues();
+        assertEquals("to1", records.get(0).getToAddress());
+        assertEquals(DeliveryStatus.SENT, records.get(0).getDeliveryStatus());
+        assertEquals("to2", records.get(1).getToAddress());
+        assertEquals(DeliveryStatus.ERROR, records.get(1).getDeliveryStatus());
+    }
+
+    @Test
+    public void shouldAddWrittenRecordsToTheIndex() {
+        when(settings.getProperty(EmailAuditWriter.AUDIT_WINDOW)).thenReturn("0");
+        auditWriter.init();
+
+        EmailRecord stored = new EmailRecord();
+        when(emailRecordService.create(any(EmailRecord.class))).thenReturn(stored);
+
+        auditWriter.record(new Mail("from", "to", "subject", "message"), DeliveryStatus.SENT);
+
+        verify(emailRecordIndex).add(asList(stored));
+
+        auditWriter.shutdown();
+    }
+
+    @Test
+    public void shouldWriteRecordsRightAwayWhenBatchingIsDisabled() {
+        when(settings.getProperty(EmailAuditWriter.AUDIT_WINDOW)).thenReturn("0");
+        when(settings.getProperty(MAIL_LOG_ADDRESS_PROPERTY)).thenReturn("false");
+        when(settings.getProperty(MAIL_LOG_BODY_PROPERTY)).thenReturn("false");
+        auditWriter.init();
+
+        auditWriter.record(new Mail("from", "to", "subject", "message"), DeliveryStatus.SENT);
+
+        ArgumentCaptor<EmailRecord> captor = ArgumentCaptor.forClass(EmailRecord.class);
+        verify(emailRecordService).create(captor.capture());
+
+        EmailRecord emailRecord = captor.getValue();
+        assertEquals("", emailRecord.getFromAddress());
+        assertEquals("", emailRecord.getToAddress());
+        assertEquals("", emailRecord.getMessage());
+        assertEquals("subject", emailRecord.getSubject());
+
+        auditWriter.shutdown();
+    }
+}
@@ -0,0 +1,84 @@
+package org.motechproject.email.service.impl;
+
+import org.junit.Test;
+import org.motechproject.commons.api.NanoStopWatch;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.domain.Mail;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.subethamail.wiser.Wiser;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures the number of e-mails per second sent to an in-process SMTP server, by connecting to the server for every
+ * e-mail, as the {@link JavaMailSenderImpl} does, and by the {@link EmailDispatcher}, with pooled connections and
+ * 1, 2 and 4 sending threads.
+ */
+public class EmailDispatcherAssessment {
+
+    private static final int EMAILS = 2000;
+
+    @Test
+    public void shouldSendManyEmails() throws Exception {
+        int port = EmailDispatcherTest.findFreePort();
+
+        Wiser smtpServer = new Wiser();
+        smtpServer.setPort(port);
+        smtpServer.start();
+
+        try {
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setHost("localhost");
+            mailSender.setPort(port);
+
+            NanoStopWatch direct = new NanoStopWatch().start();
+            for (int i = 0; i < EMAILS; i++) {
+                mailSender.send(new MotechMimeMessagePreparator(mail(i)));
+            }
+            report("connection per email", direct.duration());
+            smtpServer.getMessages().clear();
+
+            assess(smtpServer, mailSender, 1);
+            assess(smtpServer, mailSender, 2);
+            assess(smtpServer, mailSender, 4);
+        } finally {
+            smtpServer.stop();
+        }
+    }
+
+    private void assess(Wiser smtpServer, JavaMailSenderImpl mailSender, int threads) throws Exception {
+        SettingsFacade settings = mock(SettingsFacade.class);
+        when(settings.getProperty(EmailDispatcher.SEND_THREADS)).thenReturn(String.valueOf(threads));
+        when(settings.getProperty(EmailDispatcher.QUEUE_CAPACITY)).thenReturn(String.valueOf(EMAILS));
+
+        EmailDispatcher dispatcher = new EmailDispatcher(settings, mailSender, mock(EmailAuditWriter.class));
+        dispatcher.init();
+
+        try {
+            NanoStopWatch pooled = new NanoStopWatch().start();
+            for (int i = 0; i < EMAILS; i++) {
+                dispatcher.queue(mail(i));
+            }
+            while (smtpServer.getMessages().size() < EMAILS) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            report(format("pooled connections, %d threads", threads), pooled.duration());
+        } finally {
+            dispatcher.shutdown();
+            smtpServer.getMessages().clear();
+        }
+    }
+
+    private static void report(String mode, long nanos) {
+        System.out.println(format("%s: %d emails in %dms, %.0f emails/s", mode, EMAILS,
+                TimeUnit.NANOSECONDS.toMillis(nanos), EMAILS / (nanos / 1e9)));
+    }
+
+    private static Mail mail(int i) {
+        return new Mail("from@motech.org", "to" + i + "@motech.org", "subject " + i, "message " + i);
+    }
+}
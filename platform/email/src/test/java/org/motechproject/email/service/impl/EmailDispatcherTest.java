@@ -0,0 +1,192 @@
+package org.motechproject.email.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.domain.DeliveryStatus;
+import org.motechproject.email.domain.Mail;
+import org.motechproject.email.exception.EmailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.subethamail.wiser.Wiser;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class EmailDispatcherTest {
+
+    private static final long WAIT_TIMEOUT = 10000;
+
+    @Mock
+    private SettingsFacade settings;
+
+    @Mock
+    private EmailAuditWriter auditWriter;
+
+    private Wiser smtpServer;
+
+    private JavaMailSenderImpl mailSender;
+
+    private EmailDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws IOException {
+        initMocks(this);
+
+        int port = findFreePort();
+
+        smtpServer = new Wiser();
+        smtpServer.setPort(port);
+        smtpServer.start();
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+    }
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        smtpServer.stop();
+    }
+
+    @Test
+    public void shouldSendEmailsRightAway() throws EmailSendException {
+        when(settings.getProperty(EmailDispatcher.SEND_ASYNC)).thenReturn("false");
+        dispatcher = createDispatcher(mailSender);
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.queue(mail(i));
+            assertEquals(i + 1, smtpServer.getMessages().size());
+        }
+
+        assertEquals("to0@motech.org", smtpServer.getMessages().get(0).getEnvelopeReceiver());
+        verify(auditWriter, times(3)).record(any(Mail.class), any(DeliveryStatus.class));
+        verify(auditWriter).record(mail(2), DeliveryStatus.SENT);
+    }
+
+    @Test
+    public void shouldSendQueuedEmailsInBackground() throws EmailSendException, InterruptedException {
+        dispatcher = createDispatcher(mailSender);
+
+        for (int i = 0; i < 50; i++) {
+            dispatcher.queue(mail(i));
+        }
+
+        verify(auditWriter, timeout(WAIT_TIMEOUT).times(50)).record(any(Mail.class), any(DeliveryStatus.class));
+        verify(auditWriter).record(mail(49), DeliveryStatus.SENT);
+        assertEquals(50, smtpServer.getMessages().size());
+    }
+
+    @Test
+    public void shouldRecordEmailsWhichCouldNotBeSent() throws EmailSendException, IOException {
+        when(settings.getProperty(EmailDispatcher.SEND_ASYNC)).thenReturn("false");
+        // no server listens on that port
+        mailSender.setPort(findFreePort());
+        dispatcher = createDispatcher(mailSender);
+
+        try {
+            dispatcher.send(mail(0));
+            fail("The email should not be sent");
+        } catch (EmailSendException e) {
+            verify(auditWriter).record(mail(0), DeliveryStatus.ERROR);
+        }
+    }
+
+    @Test
+    public void shouldRecordQueuedEmailsWhichCouldNotBeSent() throws EmailSendException {
+        JavaMailSender failingSender = mock(JavaMailSender.class);
+        doAnswer(new Answer<Void>() {
+            private boolean failed;
+
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("Unable to prepare the message");
+                }
+                return null;
+            }
+        }).when(failingSender).send(any(MimeMessagePreparator.class));
+        dispatcher = createDispatcher(failingSender);
+
+        dispatcher.queue(mail(0));
+        verify(auditWriter, timeout(WAIT_TIMEOUT)).record(mail(0), DeliveryStatus.ERROR);
+
+        dispatcher.queue(mail(1));
+        verify(auditWriter, timeout(WAIT_TIMEOUT)).record(mail(1), DeliveryStatus.SENT);
+    }
+
+    @Test
+    public void shouldFailWhenTheQueueIsFull() throws Exception {
+        when(settings.getProperty(EmailDispatcher.SEND_THREADS)).thenReturn("1");
+        when(settings.getProperty(EmailDispatcher.QUEUE_CAPACITY)).thenReturn("1");
+        when(settings.getProperty(EmailDispatcher.QUEUE_OFFER_TIMEOUT)).thenReturn("0");
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        JavaMailSender blockingSender = mock(JavaMailSender.class);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                sending.countDown();
+                release.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        }).when(blockingSender).send(any(MimeMessagePreparator.class));
+
+        dispatcher = createDispatcher(blockingSender);
+
+        dispatcher.queue(mail(0));
+        assertTrue(sending.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS));
+        dispatcher.queue(mail(1));
+
+        try {
+            dispatcher.queue(mail(2));
+            fail("The queue should be full");
+        } catch (EmailSendException e) {
+            verify(auditWriter).record(mail(2), DeliveryStatus.ERROR);
+        } finally {
+            release.countDown();
+        }
+
+        verify(auditWriter, timeout(WAIT_TIMEOUT)).record(mail(1), DeliveryStatus.SENT);
+    }
+
+    private EmailDispatcher createDispatcher(JavaMailSender sender) {
+        EmailDispatcher emailDispatcher = new EmailDispatcher(settings, sender, auditWriter);
+        emailDispatcher.init();
+        return emailDispatcher;
+    }
+
+    private static Mail mail(int i) {
+        return new Mail("from@motech.org", "to" + i + "@motech.org", "subject " + i, "message " + i);
+    }
+
+    static int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package org.motechproject.email.service.impl;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.motechproject.commons.date.util.DateUtil;
+import org.motechproject.config.SettingsFacade;
+import org.motechproject.email.builder.EmailRecordSearchCriteria;
+import org.motechproject.email.domain.DeliveryStatus;
+import org.motechproject.email.domain.EmailRecord;
+import org.motechproject.email.domain.EmailRecordGram;
+import org.motechproject.email.search.RecordGramsDeletion;
+import org.motechproject.email.search.RecordsAfterIdSearch;
+import org.motechproject.email.service.EmailRecordGramService;
+import org.motechproject.email.service.EmailRecordService;
+import org.motechproject.mds.query.QueryExecution;
+import org.motechproject.mds.query.QueryParams;
+import org.springframework.transaction.support.TransactionCallback;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class EmailRecordIndexTest {
+
+    private static final long WAIT_TIMEOUT = 10000;
+
+    @Mock
+    private SettingsFacade settings;
+
+    @Mock
+    private EmailRecordService emailRecordService;
+
+    @Mock
+    private EmailRecordGramService emailRecordGramService;
+
+    private EmailRecordIndex emailRecordIndex;
+
+    // the stored records and index entries
+    private List<EmailRecord> storedRecords = new CopyOnWriteArrayList<>();
+    private List<EmailRecordGram> storedGrams = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() {
+        initMocks(this);
+
+        when(emailRecordService.doInTransaction(any(TransactionCallback.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return ((TransactionCallback) invocation.getArguments()[0]).doInTransaction(null);
+            }
+        });
+        when(emailRecordService.executeQuery(any(QueryExecution.class))).thenAnswer(new Answer<List<EmailRecord>>() {
+            @Override
+            public List<EmailRecord> answer(InvocationOnMock invocation) {
+                RecordsAfterIdSearch search = (RecordsAfterIdSearch) invocation.getArguments()[0];
+                List<EmailRecord> records = new ArrayList<>();
+                for (EmailRecord emailRecord : storedRecords) {
+                    if (emailRecord.getId() > search.getLastId() && records.size() < search.getBatchSize()) {
+                        records.add(emailRecord);
+                    }
+                }
+                return records;
+            }
+        });
+        when(emailRecordService.retrieveAll(any(QueryParams.class))).thenAnswer(new Answer<List<EmailRecord>>() {
+            @Override
+            public List<EmailRecord> answer(InvocationOnMock invocation) {
+                return storedRecords.isEmpty() ? Collections.<EmailRecord>emptyList()
+                        : asList(storedRecords.get(storedRecords.size() - 1));
+            }
+        });
+
+        when(emailRecordGramService.create(any(EmailRecordGram.class))).thenAnswer(new Answer<EmailRecordGram>() {
+            @Override
+            public EmailRecordGram answer(InvocationOnMock invocation) {
+                EmailRecordGram gram = (EmailRecordGram) invocation.getArguments()[0];
+                storedGrams.add(gram);
+                return gram;
+            }
+        });
+        when(emailRecordGramService.findByGram(anyString(), anyString(), any(QueryParams.class)))
+                .thenAnswer(new Answer<List<EmailRecordGram>>() {
+                    @Override
+                    public List<EmailRecordGram> answer(InvocationOnMock invocation) {
+                        Object[] args = invocation.getArguments();
+                        List<EmailRecordGram> grams = findGrams((String) args[0], (String) args[1], null);
+                        // the entries are stored in the order of the record ids, the last one is looked up first
+                        if (((QueryParams) args[2]).isOrderSet()) {
+                            Collections.reverse(grams);
+                        }
+                        int pageSize = ((QueryParams) args[2]).getPageSize();
+                        return grams.size() > pageSize ? grams.subList(0, pageSize) : grams;
+                    }
+                });
+        when(emailRecordGramService.findByGramAndRecordIds(anyString(), anyString(), any(Set.class)))
+                .thenAnswer(new Answer<List<EmailRecordGram>>() {
+                    @Override
+                    public List<EmailRecordGram> answer(InvocationOnMock invocation) {
+                        Object[] args = invocation.getArguments();
+                        return findGrams((String) args[0], (String) args[1], (Set<Long>) args[2]);
+                    }
+                });
+        when(emailRecordGramService.executeQuery(isA(RecordGramsDeletion.class))).thenAnswer(new Answer<Long>() {
+            @Override
+            public Long answer(InvocationOnMock invocation) {
+                Set<Long> recordIds = ((RecordGramsDeletion) invocation.getArguments()[0]).getRecordIds();
+                long deleted = 0;
+                for (EmailRecordGram gram : storedGrams) {
+                    if (recordIds.contains(gram.getRecordId())) {
+                        storedGrams.remove(gram);
+                        deleted++;
+                    }
+                }
+                return deleted;
+            }
+        });
+
+        emailRecordIndex = new EmailRecordIndex(settings, emailRecordService, emailRecordGramService);
+    }
+
+    @After
+    public void tearDown() {
+        emailRecordIndex.shutdown();
+    }
+
+    @Test
+    public void shouldFindRecordsContainingTexts() throws InterruptedException {
+        start();
+
+        write(record(1, "john.doe@motech.org", "Appointment reminder", "See you tomorrow"),
+                record(2, "jane@example.com", "Lab Report", "Your results are ready"),
+                record(3, "john@example.com", "Reminder", "Your appointment is tomorrow"));
+
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("john"), 1L, 3L);
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("oe@motech"), 1L);
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("john.doe"), 1L);
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("n.doe@motech.org"), 1L);
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("jane@example"), 2L);
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("port"), 2L);
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("APPOINT"), 1L);
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("ntment remi"), 1L);
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("appointment").withMessage("appointment"), 1L, 3L);
+        assertCandidates(new EmailRecordSearchCriteria().withMessage("results tomorrow"));
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("nobody"));
+    }
+
+    @Test
+    public void shouldNotNarrowDownTextsWhichCanNotBeLookedUp() throws InterruptedException {
+        start();
+
+        write(record(1, "john@motech.org", "subject", "message"));
+
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria()
+                .withDeliveryStatuses(DeliveryStatus.SENT)));
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withToAddress("@")));
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withToAddress("jo")));
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withToAddress("jo.n")));
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withToAddress("j.*@motech")));
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withToAddress("(?i)JOHN")));
+    }
+
+    @Test
+    public void shouldIndexLongValues() throws InterruptedException {
+        start();
+
+        write(record(1, "john@motech.org", "subject", StringUtils.repeat("x", 5000) + " results"),
+                record(2, "jane@motech.org", "subject", "hello"));
+
+        assertCandidates(new EmailRecordSearchCriteria().withMessage("hello"), 2L);
+        assertCandidates(new EmailRecordSearchCriteria().withMessage("xx results"), 1L);
+    }
+
+    @Test
+    public void shouldNotNarrowDownSearchesWithTooManyCandidates() throws InterruptedException {
+        when(settings.getProperty(EmailRecordIndex.SEARCH_MAX_CANDIDATES)).thenReturn("2");
+        start();
+
+        write(record(1, "to1", "hello", ""), record(2, "to2", "hello", ""), record(3, "to3", "hello", ""));
+
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withSubject("hello")));
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("to2"), 2L);
+    }
+
+    @Test
+    public void shouldSkipCommonTrigrams() throws InterruptedException {
+        // trigrams of more than 8 records are too common
+        when(settings.getProperty(EmailRecordIndex.SEARCH_MAX_CANDIDATES)).thenReturn("1");
+        start();
+
+        for (long id = 1; id <= 10; id++) {
+            write(record(id, "to", "hello", ""));
+        }
+        write(record(11, "to", "hello world", ""));
+
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("hello wor"), 11L);
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withSubject("hello")));
+    }
+
+    @Test
+    public void shouldRemoveRecords() throws InterruptedException {
+        start();
+
+        EmailRecord first = record(1, "john@motech.org", "Appointment", "");
+        EmailRecord second = record(2, "jane@motech.org", "Appointment", "");
+        write(first, second);
+
+        storedRecords.remove(first);
+        emailRecordIndex.remove(asList(first));
+
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("appointment"), 2L);
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("john"));
+    }
+
+    @Test
+    public void shouldIndexRecordsStoredInAnyOtherWay() throws InterruptedException {
+        storedRecords.add(record(1, "john@motech.org", "Appointment", ""));
+
+        start();
+
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("appointment"), 1L);
+
+        storedRecords.add(record(2, "jane@motech.org", "Appointment", ""));
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("appointment"), 1L, 2L);
+    }
+
+    @Test
+    public void shouldIndexRecordsOnlyOnce() throws InterruptedException {
+        start();
+        write(record(1, "john@motech.org", "Appointment", ""));
+        int entries = storedGrams.size();
+
+        // restarted, the stored records are checked again
+        emailRecordIndex.shutdown();
+        emailRecordIndex = new EmailRecordIndex(settings, emailRecordService, emailRecordGramService);
+        start();
+
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("appointment"), 1L);
+        assertEquals(entries, storedGrams.size());
+    }
+
+    @Test
+    public void shouldIndexManyMissingRecordsInTheBackground() throws InterruptedException {
+        start();
+
+        for (long id = 1; id <= 1200; id++) {
+            storedRecords.add(record(id, "to" + id + "@motech.org", "subject", ""));
+        }
+
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withToAddress("to1000@")));
+
+        waitUntilReady();
+        assertCandidates(new EmailRecordSearchCriteria().withToAddress("to1000@"), 1000L);
+    }
+
+    @Test
+    public void shouldNotCountRecordsWhenSearching() throws InterruptedException {
+        start();
+
+        write(record(1, "john@motech.org", "Appointment", ""));
+        assertCandidates(new EmailRecordSearchCriteria().withSubject("appointment"), 1L);
+
+        verify(emailRecordService, never()).count();
+        verify(emailRecordGramService, never()).count();
+    }
+
+    @Test
+    public void shouldNotNarrowDownSearchesBeforeTheIndexIsBuilt() {
+        write(record(1, "john@motech.org", "Appointment", ""));
+
+        assertNull(emailRecordIndex.findCandidates(new EmailRecordSearchCriteria().withSubject("appointment")));
+    }
+
+    @Test
+    public void shouldSplitTextsIntoTrigrams() {
+        assertEquals(asList("joh", "ohn", "hn.", "n.d", ".do", "doe"),
+                asList(EmailRecordIndex.grams("John.Doe").toArray()));
+        assertTrue(EmailRecordIndex.grams("ab").isEmpty());
+
+        assertEquals(asList("joh", "ohn", "doe", "oe@", "mot"),
+                asList(EmailRecordIndex.requiredGrams("john.doe@.mot").toArray()));
+        assertNull(EmailRecordIndex.requiredGrams("john|jane"));
+    }
+
+    /**
+     * Stores the records the way the {@link EmailAuditWriter} does.
+     */
+    private void write(EmailRecord... records) {
+        storedRecords.addAll(asList(records));
+        emailRecordIndex.add(asList(records));
+    }
+
+    private void start() throws InterruptedException {
+        emailRecordIndex.init();
+        waitUntilReady();
+    }
+
+    private void waitUntilReady() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+        while (!emailRecordIndex.isReady() && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertTrue(emailRecordIndex.isReady());
+    }
+
+    private void assertCandidates(EmailRecordSearchCriteria criteria, Long... ids) {
+        assertEquals(new HashSet<>(asList(ids)), emailRecordIndex.findCandidates(criteria));
+    }
+
+    private List<EmailRecordGram> findGrams(String field, String gram, Set<Long> recordIds) {
+        List<EmailRecordGram> grams = new ArrayList<>();
+        for (EmailRecordGram stored : storedGrams) {
+            if (stored.getField().equals(field) && stored.getGram().equals(gram)
+                    && (recordIds == null || recordIds.contains(stored.getRecordId()))) {
+                grams.add(stored);
+            }
+        }
+        return grams;
+    }
+
+    private static EmailRecord record(long id, String toAddress, String subject, String message) {
+        EmailRecord emailRecord = new EmailRecord("from@motech.org", toAddress, subject, message, DateUtil.now(),
+                DeliveryStatus.SENT);
+        emailRecord.setId(id);
+        return emailRecord;
+    }
+}
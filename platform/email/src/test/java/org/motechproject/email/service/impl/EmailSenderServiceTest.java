@@ -5,15 +5,10 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.motechproject.email.domain.Mail;
-import org.motechproject.email.service.EmailRecordService;
 import org.motechproject.email.service.EmailSenderService;
-import org.motechproject.config.SettingsFacade;
-import org.springframework.mail.javamail.JavaMailSender;
 
-import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
-import static org.powermock.api.mockito.PowerMockito.when;
 
 public class EmailSenderServiceTest {
 
@@ -21,13 +16,7 @@ public class EmailSenderServiceTest {
     private EmailSenderService emailSender = new EmailSenderServiceImpl();
 
     @Mock
-    private EmailRecordService emailRecordService;
-
-    @Mock
-    private SettingsFacade settings;
-
-    @Mock
-    private JavaMailSender javaMailSender;
+    private EmailDispatcher emailDispatcher;
 
     @Before
     public void setUp() {
@@ -36,11 +25,15 @@ public class EmailSenderServiceTest {
 
     @Test
     public void shouldSendCriticalNotification() throws Exception {
-
-        when(settings.getProperty(anyString())).thenReturn("true");
         emailSender.send( "from", "to", "subject", "text");
 
-        verify(javaMailSender).send(new MotechMimeMessagePreparator(new Mail ("from", "to", "subject", "text")));
+        verify(emailDispatcher).send(new Mail("from", "to", "subject", "text"));
     }
 
+    @Test
+    public void shouldQueueNotification() throws Exception {
+        emailSender.queue("from", "to", "subject", "text");
+
+        verify(emailDispatcher).queue(new Mail("from", "to", "subject", "text"));
+    }
 }
@@ -56,7 +56,7 @@ public class SendEmailEventHandlerImplTest {
 
         emailEventHandler.handle(new MotechEvent(SEND_EMAIL_SUBJECT, values));
 
-        verify(emailSenderService).send(from, to, subject, message);
+        verify(emailSenderService).queue(from, to, subject, message);
 
     }
 
@@ -5,6 +5,7 @@ import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.node.ObjectNode;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.motechproject.email.purging.EmailPurger;
 import org.motechproject.email.settings.SettingsDto;
@@ -18,9 +19,12 @@ import java.io.StringBufferInputStream;
 import java.util.Map.Entry;
 import java.util.Properties;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.motechproject.email.settings.SettingsDto.*;
@@ -128,6 +132,59 @@ public class SettingsControllerTest {
         verify(javaMailSender).setPort(Integer.valueOf(port));
     }
 
+    @Test
+    public void shouldReturnPropertiesNotEditedThroughSettingsPage() throws Exception {
+        Properties current = new Properties();
+        current.put(MAIL_HOST_PROPERTY, HOST);
+        current.put("mail.send.threads", "4");
+        when(settingsFacade.getProperties(EMAIL_PROPERTIES_FILE_NAME)).thenReturn(current);
+
+        Properties properties = new Properties();
+        properties.put("mail.smtp.starttls.enable", "true");
+        properties.put("mail.smtp.auth", "true");
+        Properties otherProperties = new Properties();
+        otherProperties.put("mail.send.threads", "4");
+
+        controller.perform(
+                get("/settings")
+        ).andExpect(
+                status().is(HttpStatus.SC_OK)
+        ).andExpect(
+                content().string(jsonMatcher(
+                        settingsJson(HOST, PORT, USERNAME, PASSWORD, properties, LOG_ADDRESS, LOG_SUBJECT, LOG_BODY, LOG_PURGE, LOG_TIME, LOG_MULTIPLIER,
+                                otherProperties)
+                ))
+        );
+    }
+
+    @Test
+    public void shouldSaveSubmittedPropertiesOnly() throws Exception {
+        Properties current = new Properties();
+        current.put("mail.send.threads", "4");
+        current.put("mail.send.rateLimit", "10");
+        when(settingsFacade.getProperties(EMAIL_PROPERTIES_FILE_NAME)).thenReturn(current);
+
+        Properties otherProperties = new Properties();
+        otherProperties.put("mail.send.threads", "8");
+
+        controller.perform(
+                post("/settings").body(
+                        settingsJson(
+                                HOST, PORT, USERNAME, PASSWORD, new Properties(), LOG_ADDRESS, LOG_SUBJECT, LOG_BODY, LOG_PURGE, LOG_TIME,
+                                LOG_MULTIPLIER, otherProperties
+                        ).getBytes()
+                ).contentType(APPLICATION_JSON)
+        ).andExpect(
+                status().is(HttpStatus.SC_OK)
+        );
+
+        ArgumentCaptor<Properties> captor = ArgumentCaptor.forClass(Properties.class);
+        verify(settingsFacade).saveConfigProperties(eq(EMAIL_PROPERTIES_FILE_NAME), captor.capture());
+        assertEquals("8", captor.getValue().getProperty("mail.send.threads"));
+        assertFalse(captor.getValue().containsKey("mail.send.rateLimit"));
+        assertEquals(HOST, captor.getValue().getProperty(MAIL_HOST_PROPERTY));
+    }
+
     @Test
     public void shouldNotChangeSettingsWhenHostIsBlank() throws Exception {
         String port = "9999";
@@ -215,6 +272,12 @@ public class SettingsControllerTest {
 
     private String settingsJson(String host, String port, String username, String password, Properties props, String logAddress, String logSubject, String logBody,
                                 String logPurgeEnable, String logPurgeTime, String logPurgeTimeMultiplier) {
+        return settingsJson(host, port, username, password, props, logAddress, logSubject, logBody, logPurgeEnable, logPurgeTime,
+                logPurgeTimeMultiplier, new Properties());
+    }
+
+    private String settingsJson(String host, String port, String username, String password, Properties props, String logAddress, String logSubject, String logBody,
+                                String logPurgeEnable, String logPurgeTime, String logPurgeTimeMultiplier, Properties otherProps) {
 
         ObjectNode jsonNode = new ObjectMapper().createObjectNode();
         jsonNode.put("host", host);
@@ -234,6 +297,11 @@ public class SettingsControllerTest {
             }
         }
         jsonNode.put("additionalProperties",jsonProps);
+        ObjectNode jsonOtherProps = new ObjectMapper().createObjectNode();
+        for (String name : otherProps.stringPropertyNames()) {
+            jsonOtherProps.put(name, otherProps.getProperty(name));
+        }
+        jsonNode.put("otherProperties", jsonOtherProps);
         return jsonNode.toString();
     }
 }
@@ -2,6 +2,9 @@ package org.motechproject.event.listener;
 
 import org.motechproject.event.MotechEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * The <code>EventRelay</code> interface provides methods that allow sending {@link org.motechproject.event.MotechEvent}
  * via ActiveMQ, either to the queue (ActiveMQ selects the subscriber that will handle the event) or to the topic (event
@@ -22,6 +25,36 @@ public interface EventRelay {
      */
     void sendEventMessage(MotechEvent motechEvent);
 
+    /**
+     * Publishes the given event messages in a queue, exactly as if {@link #sendEventMessage(MotechEvent)} was called
+     * for each of them. A failure to send one of the events does not prevent the others from being sent, the events
+     * that could not be sent are reported with a single {@link EventsNotSentException} once the whole batch was
+     * processed. Implementations may resolve the listeners once for every subject present in the batch, which makes
+     * this method preferable when many events are published at the same time.
+     *
+     * @param motechEvents the events to be sent
+     * @throws EventsNotSentException if some of the events could not be sent
+     */
+    default void sendEventMessages(List<MotechEvent> motechEvents) {
+        List<MotechEvent> failedEvents = new ArrayList<>();
+        RuntimeException firstFailure = null;
+
+        for (MotechEvent motechEvent : motechEvents) {
+            try {
+                sendEventMessage(motechEvent);
+            } catch (RuntimeException e) {
+                failedEvents.add(motechEvent);
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+
+        if (!failedEvents.isEmpty()) {
+            throw new EventsNotSentException(failedEvents, firstFailure);
+        }
+    }
+
     /**
      * Publishes the event message in a topic. The message goes to a JMS topic, so if you have multiple Motech instances, they will
      * all receive the event. This allows broadcasting administration-type events that should be handled by each node separately.
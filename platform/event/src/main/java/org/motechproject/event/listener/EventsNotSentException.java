@@ -0,0 +1,34 @@
+package org.motechproject.event.listener;
+
+import org.motechproject.event.MotechEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown by {@link EventRelay#sendEventMessages(List)} when some of the events in the batch could not be sent.
+ * All the other events of the batch were sent. The first failure is available as the cause of this exception.
+ */
+public class EventsNotSentException extends RuntimeException {
+
+    private static final long serialVersionUID = 2843705531290751624L;
+
+    private final List<MotechEvent> failedEvents;
+
+    /**
+     * @param failedEvents the events that could not be sent
+     * @param cause the exception thrown while sending the first of the failed events
+     */
+    public EventsNotSentException(List<MotechEvent> failedEvents, Throwable cause) {
+        super(String.format("Unable to send %d events", failedEvents.size()), cause);
+        this.failedEvents = Collections.unmodifiableList(new ArrayList<>(failedEvents));
+    }
+
+    /**
+     * @return the events that could not be sent, in the order they were passed
+     */
+    public List<MotechEvent> getFailedEvents() {
+        return failedEvents;
+    }
+}
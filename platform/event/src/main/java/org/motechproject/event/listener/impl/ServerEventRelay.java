@@ -6,6 +6,7 @@ import org.motechproject.event.exception.CallbackServiceNotFoundException;
 import org.motechproject.event.listener.EventCallbackService;
 import org.motechproject.event.listener.EventListener;
 import org.motechproject.event.listener.EventRelay;
+import org.motechproject.event.listener.EventsNotSentException;
 import org.motechproject.event.messaging.MotechEventConfig;
 import org.motechproject.event.messaging.OutboundEventGateway;
 import org.motechproject.event.utils.MotechProxyUtils;
@@ -21,8 +22,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -66,6 +69,39 @@ public class ServerEventRelay implements EventRelay, EventHandler {
         }
     }
 
+    @Override
+    public void sendEventMessages(List<MotechEvent> events) {
+        List<MotechEvent> failedEvents = new ArrayList<>();
+        RuntimeException firstFailure = null;
+
+        Map<String, Set<EventListener>> listenersBySubject = new HashMap<>();
+        for (MotechEvent event : events) {
+            try {
+                verifyEventNotNull(event);
+
+                Set<EventListener> listeners = listenersBySubject.get(event.getSubject());
+                if (listeners == null) {
+                    listeners = getEventListeners(event);
+                    listenersBySubject.put(event.getSubject(), listeners);
+                }
+
+                if (!listeners.isEmpty()) {
+                    splitEvent(event, listeners);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Unable to send event: {}", event, e);
+                failedEvents.add(event);
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+
+        if (!failedEvents.isEmpty()) {
+            throw new EventsNotSentException(failedEvents, firstFailure);
+        }
+    }
+
     @Override
     public void broadcastEventMessage(MotechEvent event) {
         verifyEventNotNull(event);
@@ -13,6 +13,7 @@ import org.motechproject.event.domain.BuggyListener;
 import org.motechproject.event.exception.CallbackServiceNotFoundException;
 import org.motechproject.event.listener.EventCallbackService;
 import org.motechproject.event.listener.EventListener;
+import org.motechproject.event.listener.EventsNotSentException;
 import org.motechproject.event.messaging.MotechEventConfig;
 import org.motechproject.event.messaging.OutboundEventGateway;
 import org.osgi.framework.BundleContext;
@@ -30,8 +31,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -92,6 +95,52 @@ public class ServerEventRelayTest {
         verify(eventListener).handle(motechEvent);
     }
 
+    @Test
+    public void shouldSendBatchOfEventsResolvingListenersOncePerSubject() throws Exception {
+        setUpListeners(SUBJECT, eventListener, secondaryEventListener);
+        setUpListeners("other.subject");
+
+        eventRelay.sendEventMessages(Arrays.asList(createEvent(), createEvent(),
+                new MotechEvent("other.subject", new HashMap<String, Object>())));
+
+        ArgumentCaptor<MotechEvent> captor = ArgumentCaptor.forClass(MotechEvent.class);
+        verify(outboundEventGateway, times(4)).sendEventMessage(captor.capture());
+        verify(registry, times(1)).getListeners(SUBJECT);
+        verify(registry, times(1)).getListeners("other.subject");
+
+        assertEquals(LISTENER_IDENTIFIER, captor.getAllValues().get(0).getMessageDestination());
+        assertEquals(SECONDARY_LISTENER_IDENTIFIER, captor.getAllValues().get(1).getMessageDestination());
+        assertEquals(LISTENER_IDENTIFIER, captor.getAllValues().get(2).getMessageDestination());
+        assertEquals(SECONDARY_LISTENER_IDENTIFIER, captor.getAllValues().get(3).getMessageDestination());
+    }
+
+    @Test
+    public void shouldSendRemainingEventsOfBatchWhenOneFails() throws Exception {
+        setUpListeners(SUBJECT, eventListener);
+        setUpListeners("other.subject", secondaryEventListener);
+        MotechEvent failing = new MotechEvent("other.subject", new HashMap<String, Object>());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                MotechEvent event = (MotechEvent) invocation.getArguments()[0];
+                if ("other.subject".equals(event.getSubject())) {
+                    throw new IllegalStateException("broker down");
+                }
+                return null;
+            }
+        }).when(outboundEventGateway).sendEventMessage(any(MotechEvent.class));
+
+        try {
+            eventRelay.sendEventMessages(Arrays.asList(createEvent(), failing, null, createEvent()));
+            fail("Expected EventsNotSentException");
+        } catch (EventsNotSentException e) {
+            assertEquals(Arrays.asList(failing, null), e.getFailedEvents());
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        verify(outboundEventGateway, times(3)).sendEventMessage(any(MotechEvent.class));
+    }
+
     @Test
     public void shouldNotifyCallbackServiceOnSuccessfulEventHandling() throws Exception {
         MotechEvent motechEvent = createEvent(LISTENER_IDENTIFIER);
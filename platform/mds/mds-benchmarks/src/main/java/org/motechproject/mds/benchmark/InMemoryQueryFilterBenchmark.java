@@ -0,0 +1,62 @@
+package org.motechproject.mds.benchmark;
+
+import org.motechproject.mds.benchmark.domain.Patient;
+import org.motechproject.mds.benchmark.domain.Patients;
+import org.motechproject.mds.query.InMemoryQueryFilter;
+import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.util.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks ordering and paging of collections done by {@link InMemoryQueryFilter}, which is used
+ * for related collections and for lookups which can't be handled by the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class InMemoryQueryFilterBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private List<Patient> patients;
+
+    private QueryParams orderById;
+    private QueryParams orderByNameAndAgePaged;
+
+    @Setup
+    public void setUp() {
+        patients = Patients.generate(size);
+
+        orderById = new QueryParams(new Order("id", Order.Direction.DESC));
+        orderByNameAndAgePaged = new QueryParams(2, 20, Arrays.asList(
+                new Order("lastName", Order.Direction.ASC), new Order("age", Order.Direction.DESC)));
+    }
+
+    @Benchmark
+    public List<Patient> orderById() {
+        return InMemoryQueryFilter.filter(patients, orderById);
+    }
+
+    @Benchmark
+    public List<Patient> orderByNameAndAgePaged() {
+        return InMemoryQueryFilter.filter(patients, orderByNameAndAgePaged);
+    }
+}
@@ -0,0 +1,71 @@
+package org.motechproject.mds.benchmark;
+
+import org.motechproject.mds.benchmark.domain.Patient;
+import org.motechproject.mds.benchmark.domain.PatientHistory;
+import org.motechproject.mds.benchmark.domain.Patients;
+import org.motechproject.mds.util.PropertyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the bean property copying and diffing done by {@link PropertyUtil}. Copying to the
+ * same class happens on every update done through the data service, copying to a different class
+ * happens when history or trash records are created and diffing happens when the changed fields of an
+ * instance are determined.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PropertyUtilBenchmark {
+
+    private Patient source;
+    private Patient changed;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        source = Patients.patient(1L, random);
+        changed = Patients.patient(1L, random);
+        changed.setFirstName(source.getFirstName());
+        changed.setAge(source.getAge());
+    }
+
+    @Benchmark
+    public Patient copyToSameClass() {
+        Patient target = new Patient();
+        PropertyUtil.copyProperties(target, source);
+        return target;
+    }
+
+    @Benchmark
+    public PatientHistory copyToHistoryClass() {
+        PatientHistory target = new PatientHistory();
+        PropertyUtil.copyProperties(target, source);
+        return target;
+    }
+
+    @Benchmark
+    public List<String> findChangedFields() {
+        return PropertyUtil.findChangedFields(changed, source);
+    }
+
+    @Benchmark
+    public Object safeGetProperty() {
+        return PropertyUtil.safeGetProperty(source, "lastName");
+    }
+}
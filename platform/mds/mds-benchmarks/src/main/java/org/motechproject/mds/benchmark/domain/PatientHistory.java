@@ -0,0 +1,27 @@
+package org.motechproject.mds.benchmark.domain;
+
+/**
+ * Resembles the history class generated by MDS for the {@link Patient} entity. Values are copied
+ * to it from the entity instance whenever a history record is created.
+ */
+public class PatientHistory extends Patient {
+
+    private Long patientCurrentVersion;
+    private Long patientSchemaVersion;
+
+    public Long getPatientCurrentVersion() {
+        return patientCurrentVersion;
+    }
+
+    public void setPatientCurrentVersion(Long patientCurrentVersion) {
+        this.patientCurrentVersion = patientCurrentVersion;
+    }
+
+    public Long getPatientSchemaVersion() {
+        return patientSchemaVersion;
+    }
+
+    public void setPatientSchemaVersion(Long patientSchemaVersion) {
+        this.patientSchemaVersion = patientSchemaVersion;
+    }
+}
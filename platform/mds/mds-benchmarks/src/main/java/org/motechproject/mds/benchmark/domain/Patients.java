@@ -0,0 +1,54 @@
+package org.motechproject.mds.benchmark.domain;
+
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates {@link Patient} instances with deterministic, pseudo random values, so that every benchmark
+ * run works on the same data.
+ */
+public final class Patients {
+
+    private static final long SEED = 42L;
+
+    public static List<Patient> generate(int count) {
+        Random random = new Random(SEED);
+        List<Patient> patients = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            patients.add(patient((long) i, random));
+        }
+
+        return patients;
+    }
+
+    public static Patient patient(Long id, Random random) {
+        Patient patient = new Patient();
+        DateTime now = new DateTime(1420070400000L + random.nextInt(Integer.MAX_VALUE));
+
+        patient.setId(id);
+        patient.setFirstName("First" + random.nextInt(1000));
+        patient.setLastName("Last" + random.nextInt(1000));
+        patient.setAge(random.nextInt(100));
+        patient.setActive(random.nextBoolean());
+        patient.setDateOfBirth(new LocalDate(1950 + random.nextInt(60), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        patient.setRegistered(now);
+        patient.setPhoneNumbers(new ArrayList<>(Arrays.asList(String.valueOf(random.nextInt()),
+                String.valueOf(random.nextInt()))));
+        patient.setCreator("motech");
+        patient.setOwner("motech");
+        patient.setModifiedBy("motech");
+        patient.setCreationDate(now);
+        patient.setModificationDate(now);
+
+        return patient;
+    }
+
+    private Patients() {
+    }
+}
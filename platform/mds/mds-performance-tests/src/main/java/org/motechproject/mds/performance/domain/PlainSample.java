@@ -0,0 +1,38 @@
+package org.motechproject.mds.performance.domain;
+
+
+import org.motechproject.mds.annotations.Entity;
+
+/**
+ * The same as {@link Sample}, but without history recording. Used for measuring the overhead of
+ * history recording.
+ */
+@Entity
+public class PlainSample {
+    private Integer testInt;
+    private String testString;
+
+    public PlainSample() {
+    }
+
+    public PlainSample(Integer testInt, String testString) {
+        this.testInt = testInt;
+        this.testString = testString;
+    }
+
+    public Integer getTestInt() {
+        return testInt;
+    }
+
+    public void setTestInt(Integer testInt) {
+        this.testInt = testInt;
+    }
+
+    public String getTestString() {
+        return testString;
+    }
+
+    public void setTestString(String testString) {
+        this.testString = testString;
+    }
+}
@@ -0,0 +1,14 @@
+package org.motechproject.mds.performance.service;
+
+import org.motechproject.mds.annotations.Lookup;
+import org.motechproject.mds.annotations.LookupField;
+import org.motechproject.mds.performance.domain.PlainSample;
+import org.motechproject.mds.service.MotechDataService;
+
+import java.util.List;
+
+public interface PlainSampleService extends MotechDataService<PlainSample> {
+
+    @Lookup
+    List<PlainSample> findByTestString(@LookupField(name = "testString") String testString);
+}
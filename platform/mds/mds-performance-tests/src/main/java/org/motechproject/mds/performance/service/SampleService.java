@@ -1,7 +1,14 @@
 package org.motechproject.mds.performance.service;
 
+import org.motechproject.mds.annotations.Lookup;
+import org.motechproject.mds.annotations.LookupField;
 import org.motechproject.mds.performance.domain.Sample;
 import org.motechproject.mds.service.MotechDataService;
 
+import java.util.List;
+
 public interface SampleService extends MotechDataService<Sample> {
+
+    @Lookup
+    List<Sample> findByTestString(@LookupField(name = "testString") String testString);
 }
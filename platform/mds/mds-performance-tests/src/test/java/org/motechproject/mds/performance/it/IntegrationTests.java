@@ -2,6 +2,7 @@ package org.motechproject.mds.performance.it;
 
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
+import org.motechproject.mds.performance.osgi.MdsDataLayerBenchmarkIT;
 import org.motechproject.mds.performance.osgi.MdsDiskSpaceUsageIT;
 import org.motechproject.mds.performance.osgi.MdsDummyDataGeneratorIT;
 import org.motechproject.mds.performance.osgi.MdsStressIT;
@@ -11,6 +12,7 @@ import org.motechproject.mds.performance.osgi.MdsStressIT;
  * Instead, they are run with profile "MDSP"
  */
 @RunWith(Suite.class)
-@Suite.SuiteClasses({MdsDummyDataGeneratorIT.class, MdsStressIT.class, MdsDiskSpaceUsageIT.class})
+@Suite.SuiteClasses({MdsDummyDataGeneratorIT.class, MdsStressIT.class, MdsDiskSpaceUsageIT.class,
+        MdsDataLayerBenchmarkIT.class})
 public class IntegrationTests {
 }
@@ -0,0 +1,88 @@
+package org.motechproject.mds.performance.osgi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects the timings of the data layer benchmarks and writes them in a machine readable, json
+ * format, so that results of different releases can be compared.
+ */
+class BenchmarkResults {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkResults.class);
+
+    private final Map<String, List<Long>> timings = new LinkedHashMap<>();
+    private final Map<String, Integer> operations = new LinkedHashMap<>();
+
+    /**
+     * Records a single measured round of a benchmark.
+     *
+     * @param name the name of the benchmark
+     * @param ops the number of operations done in the round
+     * @param nanos the time the round took, in nanoseconds
+     */
+    void record(String name, int ops, long nanos) {
+        if (!timings.containsKey(name)) {
+            timings.put(name, new ArrayList<Long>());
+        }
+        timings.get(name).add(nanos);
+        operations.put(name, ops);
+
+        LOGGER.info("{}: {} operations took {} ms", name, ops, nanos / 1000000);
+    }
+
+    void writeJson(File file, int instances, int warmupRounds, int rounds) {
+        File dir = file.getParentFile();
+        if (null != dir && !dir.exists() && !dir.mkdirs()) {
+            LOGGER.error("Unable to create directory {}", dir);
+            return;
+        }
+
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            out.println("{");
+            out.println(String.format("  \"instances\": %d,", instances));
+            out.println(String.format("  \"warmupRounds\": %d,", warmupRounds));
+            out.println(String.format("  \"rounds\": %d,", rounds));
+            out.println("  \"results\": [");
+
+            int i = 0;
+            for (Map.Entry<String, List<Long>> entry : timings.entrySet()) {
+                out.print(toJson(entry.getKey(), operations.get(entry.getKey()), entry.getValue()));
+                out.println(++i < timings.size() ? "," : "");
+            }
+
+            out.println("  ]");
+            out.println("}");
+        } catch (IOException e) {
+            LOGGER.error("Unable to write benchmark results to {}", file, e);
+        }
+    }
+
+    private String toJson(String name, int ops, List<Long> rounds) {
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        long total = 0;
+        for (Long nanos : rounds) {
+            min = Math.min(min, nanos);
+            max = Math.max(max, nanos);
+            total += nanos;
+        }
+
+        double avgMicrosPerOp = ops == 0 ? 0 : (double) total / rounds.size() / ops / 1000;
+        double opsPerSecond = total == 0 ? 0 : (double) ops * rounds.size() * 1000000000 / total;
+
+        return String.format(Locale.ENGLISH, "    {\"name\": \"%s\", \"operations\": %d, \"avgMicrosPerOp\": %.3f, " +
+                "\"opsPerSecond\": %.3f, \"minRoundMillis\": %.3f, \"maxRoundMillis\": %.3f}",
+                name, ops, avgMicrosPerOp, opsPerSecond, min / 1000000.0, max / 1000000.0);
+    }
+}
@@ -0,0 +1,207 @@
+package org.motechproject.mds.performance.osgi;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.motechproject.mds.config.DeleteMode;
+import org.motechproject.mds.config.ModuleSettings;
+import org.motechproject.mds.config.SettingsService;
+import org.motechproject.mds.performance.domain.PlainSample;
+import org.motechproject.mds.performance.domain.Sample;
+import org.motechproject.mds.performance.service.PlainSampleService;
+import org.motechproject.mds.performance.service.SampleService;
+import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.service.CsvImportExportService;
+import org.motechproject.mds.service.MotechDataService;
+import org.motechproject.mds.util.Order;
+import org.motechproject.testing.osgi.container.MotechNativeTestContainerFactory;
+import org.motechproject.testing.osgi.helper.ServiceRetriever;
+import org.ops4j.pax.exam.ExamFactory;
+import org.ops4j.pax.exam.junit.PaxExam;
+import org.ops4j.pax.exam.spi.reactors.ExamReactorStrategy;
+import org.ops4j.pax.exam.spi.reactors.PerSuite;
+import org.osgi.framework.BundleContext;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.motechproject.mds.util.Constants.BundleNames.MDS_BUNDLE_SYMBOLIC_NAME;
+
+/**
+ * Repeatable benchmarks of the MDS data layer. Every benchmark is run for a number of warmup rounds, which
+ * are not recorded, followed by a number of measured rounds. The paths covered are creating, updating,
+ * looking up, retrieving with ordering and paging and deleting instances through the data service, the overhead
+ * of history recording and of the trash, and CSV import and export. Results are written in json format to
+ * target/benchmark-results/mds-data-layer.json.
+ */
+@RunWith(PaxExam.class)
+@ExamReactorStrategy(PerSuite.class)
+@ExamFactory(MotechNativeTestContainerFactory.class)
+public class MdsDataLayerBenchmarkIT extends LoggingPerformanceIT {
+
+    private static final int INSTANCES = Integer.parseInt(System.getProperty("mds.performance.quantity"));
+    private static final int WARMUP_ROUNDS = Integer.getInteger("mds.performance.warmupRounds", 2);
+    private static final int ROUNDS = Integer.getInteger("mds.performance.rounds", 5);
+    private static final int PAGE_SIZE = 20;
+    private static final int DISTINCT_STRINGS = 100;
+
+    private static final String RESULTS_FILE = "target/benchmark-results/mds-data-layer.json";
+
+    @Inject
+    private BundleContext bundleContext;
+
+    private SampleService sampleService;
+    private PlainSampleService plainSampleService;
+    private CsvImportExportService csvImportExportService;
+    private SettingsService settingsService;
+
+    private DeleteMode originalDeleteMode;
+
+    private BenchmarkResults results = new BenchmarkResults();
+
+    @Before
+    public void setUp() {
+        setUpSecurityContext("motech_bot", "motech", "mdsSchemaAccess");
+
+        sampleService = ServiceRetriever.getService(bundleContext, SampleService.class);
+        plainSampleService = ServiceRetriever.getService(bundleContext, PlainSampleService.class);
+        csvImportExportService = ServiceRetriever.getService(bundleContext, CsvImportExportService.class);
+
+        WebApplicationContext context = ServiceRetriever.getWebAppContext(bundleContext, MDS_BUNDLE_SYMBOLIC_NAME);
+        settingsService = context.getBean(SettingsService.class);
+        originalDeleteMode = settingsService.getDeleteMode();
+
+        sampleService.deleteAll();
+        plainSampleService.deleteAll();
+    }
+
+    @After
+    public void tearDown() {
+        setDeleteMode(originalDeleteMode);
+
+        sampleService.deleteAll();
+        plainSampleService.deleteAll();
+    }
+
+    @Test
+    public void benchmarkDataLayer() {
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; ++round) {
+            boolean measured = round >= WARMUP_ROUNDS;
+
+            runRound(sampleService, "history", measured);
+            runRound(plainSampleService, "plain", measured);
+            runCsvRound(measured);
+        }
+
+        results.writeJson(new File(RESULTS_FILE), INSTANCES, WARMUP_ROUNDS, ROUNDS);
+    }
+
+    private <T> void runRound(MotechDataService<T> service, String variant, boolean measured) {
+        List<T> instances = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; ++i) {
+            instances.add(newInstance(service, i));
+        }
+
+        long start = System.nanoTime();
+        for (T instance : instances) {
+            service.create(instance);
+        }
+        record(measured, "create." + variant, INSTANCES, start);
+
+        start = System.nanoTime();
+        for (T instance : service.retrieveAll()) {
+            service.update(instance);
+        }
+        record(measured, "update." + variant, INSTANCES, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < INSTANCES; ++i) {
+            lookup(service, "string" + (i % DISTINCT_STRINGS));
+        }
+        record(measured, "lookup." + variant, INSTANCES, start);
+
+        int pages = Math.max(1, INSTANCES / PAGE_SIZE);
+        start = System.nanoTime();
+        for (int page = 1; page <= pages; ++page) {
+            service.retrieveAll(new QueryParams(page, PAGE_SIZE, new Order("testInt", Order.Direction.DESC)));
+        }
+        record(measured, "retrievePaged." + variant, pages, start);
+
+        start = System.nanoTime();
+        assertEquals(INSTANCES, service.count());
+        record(measured, "count." + variant, 1, start);
+
+        // delete half of the instances with the trash enabled and the other half without it
+        List<T> all = service.retrieveAll();
+        int half = all.size() / 2;
+
+        setDeleteMode(DeleteMode.TRASH);
+        start = System.nanoTime();
+        for (T instance : all.subList(0, half)) {
+            service.delete(instance);
+        }
+        record(measured, "deleteToTrash." + variant, half, start);
+
+        setDeleteMode(DeleteMode.DELETE);
+        start = System.nanoTime();
+        for (T instance : all.subList(half, all.size())) {
+            service.delete(instance);
+        }
+        record(measured, "delete." + variant, all.size() - half, start);
+
+        setDeleteMode(originalDeleteMode);
+    }
+
+    private void runCsvRound(boolean measured) {
+        StringBuilder csv = new StringBuilder("testInt,testString\n");
+        for (int i = 0; i < INSTANCES; ++i) {
+            csv.append(i).append(",string").append(i % DISTINCT_STRINGS).append('\n');
+        }
+
+        long start = System.nanoTime();
+        csvImportExportService.importCsv(PlainSample.class.getName(), new StringReader(csv.toString()),
+                "benchmark.csv", false);
+        record(measured, "csvImport", INSTANCES, start);
+
+        start = System.nanoTime();
+        long exported = csvImportExportService.exportCsv(PlainSample.class.getName(), new StringWriter());
+        record(measured, "csvExport", (int) exported, start);
+
+        plainSampleService.deleteAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T newInstance(MotechDataService<T> service, int i) {
+        String testString = "string" + (i % DISTINCT_STRINGS);
+        return (T) (service == sampleService ? new Sample(i, testString) : new PlainSample(i, testString));
+    }
+
+    private <T> void lookup(MotechDataService<T> service, String testString) {
+        if (service == sampleService) {
+            sampleService.findByTestString(testString);
+        } else {
+            plainSampleService.findByTestString(testString);
+        }
+    }
+
+    private void record(boolean measured, String name, int ops, long start) {
+        long nanos = System.nanoTime() - start;
+        if (measured) {
+            results.record(name, ops, nanos);
+            logToFile(nanos / 1000000.0);
+        }
+    }
+
+    private void setDeleteMode(DeleteMode deleteMode) {
+        ModuleSettings settings = settingsService.getModuleSettings();
+        settings.setDeleteMode(deleteMode);
+        settingsService.saveModuleSettings(settings);
+    }
+}
@@ -12,6 +12,7 @@ import org.motechproject.mds.exception.rest.RestNotSupportedException;
 import org.motechproject.mds.exception.rest.RestOperationNotSupportedException;
 import org.motechproject.mds.query.QueryParams;
 import org.motechproject.mds.rest.MdsRestFacade;
+import org.motechproject.mds.rest.RestFormat;
 import org.motechproject.mds.web.exception.InvalidParameterException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import javax.jdo.JDOUserException;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -50,47 +52,54 @@ public class MdsRestController  {
     @RequestMapping(value = "/{moduleName}/{namespace}/{entityName}", method = RequestMethod.GET)
     @ResponseBody
     public Object get(@PathVariable String moduleName, @PathVariable String namespace,
-                    @PathVariable String entityName, @RequestParam Map<String, String> requestParams) {
-        return doGet(entityName, moduleName, namespace, requestParams, null);
+                    @PathVariable String entityName, @RequestParam Map<String, String> requestParams,
+                    HttpServletResponse response) throws IOException {
+        return doGet(entityName, moduleName, namespace, requestParams, null, response);
     }
 
     @RequestMapping(value = "/{moduleName}/{entityName}", method = RequestMethod.GET)
     @ResponseBody
     public Object get(@PathVariable String moduleName, @PathVariable String entityName,
-                    @RequestParam Map<String, String> requestParams) {
-        return doGet(entityName, moduleName, null, requestParams, null);
+                    @RequestParam Map<String, String> requestParams, HttpServletResponse response)
+            throws IOException {
+        return doGet(entityName, moduleName, null, requestParams, null, response);
     }
 
     @RequestMapping(value = "/lookup/{entityName}/{lookupName}", method = RequestMethod.GET)
     @ResponseBody
     public Object lookupGet(@PathVariable String entityName, @PathVariable String lookupName,
-                      @RequestParam Map<String, String> requestParams) {
-        return doGet(entityName, null, null, requestParams, lookupName);
+                      @RequestParam Map<String, String> requestParams, HttpServletResponse response)
+            throws IOException {
+        return doGet(entityName, null, null, requestParams, lookupName, response);
     }
 
     @RequestMapping(value = "/lookup/{moduleName}/{entityName}/{lookupName}", method = RequestMethod.GET)
     @ResponseBody
     public Object lookupGet(@PathVariable String moduleName, @PathVariable String entityName,
-                      @PathVariable String lookupName, @RequestParam Map<String, String> requestParams) {
-        return doGet(entityName, moduleName, null, requestParams, lookupName);
+                      @PathVariable String lookupName, @RequestParam Map<String, String> requestParams,
+                      HttpServletResponse response) throws IOException {
+        return doGet(entityName, moduleName, null, requestParams, lookupName, response);
     }
 
     @RequestMapping(value = "/lookup/{moduleName}/{namespace}/{entityName}/{lookupName}", method = RequestMethod.GET)
     @ResponseBody
     public Object lookupGet(@PathVariable String moduleName, @PathVariable String namespace,
                       @PathVariable String entityName, @PathVariable String lookupName,
-                      @RequestParam Map<String, String> requestParams) {
-        return doGet(entityName, moduleName, namespace, requestParams, lookupName);
+                      @RequestParam Map<String, String> requestParams, HttpServletResponse response)
+            throws IOException {
+        return doGet(entityName, moduleName, namespace, requestParams, lookupName, response);
     }
 
     @RequestMapping(value = "/{entityName}", method = RequestMethod.GET)
     @ResponseBody
-    public Object get(@PathVariable String entityName, @RequestParam Map<String, String> requestParams) {
-        return doGet(entityName, null, null, requestParams, null);
+    public Object get(@PathVariable String entityName, @RequestParam Map<String, String> requestParams,
+                      HttpServletResponse response) throws IOException {
+        return doGet(entityName, null, null, requestParams, null, response);
     }
 
     private Object doGet(String entityName, String moduleName, String namespace,
-                       Map<String, String> requestParams, String pathLookupName) {
+                       Map<String, String> requestParams, String pathLookupName, HttpServletResponse response)
+            throws IOException {
         debugRequest("GET", entityName, moduleName, namespace);
 
         QueryParams queryParams = ParamParser.buildQueryParams(requestParams);
@@ -102,6 +111,11 @@ public class MdsRestController  {
         MdsRestFacade restFacade = restFacadeRetriever.getRestFacade(entityName, moduleName, namespace);
 
         Boolean includeBlob = ParamParser.getIncludeBlob(requestParams);
+        RestFormat format = ParamParser.getFormat(requestParams);
+
+        if (format == RestFormat.NDJSON && (lookupName != null || id != null)) {
+            throw new InvalidParameterException("The \"ndjson\" format is only supported when retrieving records");
+        }
 
         if (lookupName != null) {
             // lookup
@@ -110,8 +124,15 @@ public class MdsRestController  {
             // retrieve by id
             return restFacade.get(id, includeBlob == null || includeBlob);
         } else {
-            // get records
-            return restFacade.get(queryParams, includeBlob != null && includeBlob);
+            if (format == RestFormat.NDJSON && !requestParams.containsKey(ParamParser.PAGE)
+                    && !requestParams.containsKey(ParamParser.PAGE_SIZE)) {
+                // a bulk export, all records are streamed
+                queryParams = new QueryParams(null, null, queryParams.getOrderList());
+            }
+            // get records, written directly to the response
+            response.setContentType(format.getContentType());
+            restFacade.get(queryParams, includeBlob != null && includeBlob, format, response.getOutputStream());
+            return null;
         }
     }
 
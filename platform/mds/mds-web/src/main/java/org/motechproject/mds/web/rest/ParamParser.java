@@ -2,6 +2,7 @@ package org.motechproject.mds.web.rest;
 
 import org.apache.commons.lang.StringUtils;
 import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.rest.RestFormat;
 import org.motechproject.mds.util.Order;
 import org.motechproject.mds.web.exception.InvalidParameterException;
 
@@ -20,6 +21,7 @@ public final class ParamParser {
     public static final String LOOKUP_NAME = "lookup";
     public static final String ID = "id";
     public static final String INCLUDE_BLOB = "includeBlob";
+    public static final String FORMAT = "format";
 
     public static QueryParams buildQueryParams(Map<String, String> requestParams) {
         Integer page;
@@ -85,6 +87,19 @@ public final class ParamParser {
         return includeBlob;
     }
 
+    public static RestFormat getFormat(Map<String, String> requestParams) {
+        if (!requestParams.containsKey(FORMAT)) {
+            return RestFormat.JSON;
+        }
+
+        RestFormat format = RestFormat.fromName(requestParams.get(FORMAT));
+        if (format == null) {
+            throw new InvalidParameterException("The \"format\" is neither \"json\" nor \"ndjson\"");
+        }
+
+        return format;
+    }
+
     private static Integer getInteger(Map<String, String> requestParams, String key, Integer defaultVal) {
         return requestParams.containsKey(key) ? Integer.valueOf(requestParams.get(key)) : defaultVal;
     }
@@ -8,6 +8,8 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.motechproject.mds.exception.rest.RestBadBodyFormatException;
 import org.motechproject.mds.exception.rest.RestEntityNotFoundException;
@@ -18,15 +20,18 @@ import org.motechproject.mds.exception.rest.RestNotSupportedException;
 import org.motechproject.mds.exception.rest.RestOperationNotSupportedException;
 import org.motechproject.mds.query.QueryParams;
 import org.motechproject.mds.rest.MdsRestFacade;
+import org.motechproject.mds.rest.RestFormat;
 import org.motechproject.mds.rest.RestProjection;
 import org.motechproject.mds.rest.RestResponse;
 import org.motechproject.mds.util.Order;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.server.MockMvc;
 import org.springframework.test.web.server.request.DefaultRequestBuilder;
 import org.springframework.test.web.server.setup.MockMvcBuilders;
 
 import javax.validation.ConstraintViolationException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -34,11 +39,14 @@ import java.util.Map;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.server.request.MockMvcRequestBuilders.delete;
@@ -98,6 +106,47 @@ public class MdsRestControllerTest {
         testRead(ENTITY_NAME, MODULE_NAME, NAMESPACE);
     }
 
+    @Test
+    public void shouldWriteRecordsAsNdjson() throws Exception {
+        final String lines = "{\"name\":\"T1\"}\n{\"name\":\"T2\"}\n";
+
+        when(restFacadeRetriever.getRestFacade(ENTITY_NAME, MODULE_NAME, NAMESPACE))
+                .thenReturn(restFacade);
+        doAnswer(writeResponse(lines)).when(restFacade)
+                .get(any(QueryParams.class), eq(true), eq(RestFormat.NDJSON), any(OutputStream.class));
+
+        mockMvc.perform(
+                get(buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?format=ndjson&includeBlob=true&" + PAGINATION_STR)
+        ).andExpect(status().isOk())
+         .andExpect(content().type(MediaType.parseMediaType(RestFormat.NDJSON.getContentType())))
+         .andExpect(content().string(lines));
+
+        ArgumentCaptor<QueryParams> captor = ArgumentCaptor.forClass(QueryParams.class);
+        verify(restFacade).get(captor.capture(), eq(true), eq(RestFormat.NDJSON), any(OutputStream.class));
+
+        verifyQueryParams(captor.getValue());
+    }
+
+    @Test
+    public void shouldWriteAllRecordsAsNdjsonWithoutPaging() throws Exception {
+        when(restFacadeRetriever.getRestFacade(ENTITY_NAME, MODULE_NAME, NAMESPACE))
+                .thenReturn(restFacade);
+        doAnswer(writeResponse("")).when(restFacade)
+                .get(any(QueryParams.class), eq(false), eq(RestFormat.NDJSON), any(OutputStream.class));
+
+        mockMvc.perform(
+                get(buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?format=ndjson&sort=value&order=desc")
+        ).andExpect(status().isOk());
+
+        ArgumentCaptor<QueryParams> captor = ArgumentCaptor.forClass(QueryParams.class);
+        verify(restFacade).get(captor.capture(), eq(false), eq(RestFormat.NDJSON), any(OutputStream.class));
+
+        assertFalse(captor.getValue().isPagingSet());
+        assertEquals(1, captor.getValue().getOrderList().size());
+        assertEquals("value", captor.getValue().getOrderList().get(0).getField());
+        assertEquals(Order.Direction.DESC, captor.getValue().getOrderList().get(0).getDirection());
+    }
+
     // POST
 
     @Test
@@ -194,8 +243,8 @@ public class MdsRestControllerTest {
         when(restFacadeRetriever.getRestFacade(ENTITY_NAME, MODULE_NAME, NAMESPACE))
                 .thenReturn(restFacade);
 
-        when(restFacade.get(any(QueryParams.class), anyBoolean()))
-                .thenThrow(new RestOperationNotSupportedException("not supported"));
+        doThrow(new RestOperationNotSupportedException("not supported")).when(restFacade)
+                .get(any(QueryParams.class), anyBoolean(), any(RestFormat.class), any(OutputStream.class));
         doThrow(new RestOperationNotSupportedException("not supported")).
                 when(restFacade).create(any(InputStream.class));
         doThrow(new RestOperationNotSupportedException("not supported")).
@@ -229,6 +278,8 @@ public class MdsRestControllerTest {
         String url2 = buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?page=foo";
         String url3 = buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?pageSize=foo";
         String url4 = buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?id=foo";
+        String url5 = buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?format=foo";
+        String url6 = buildUrl(ENTITY_NAME, MODULE_NAME, NAMESPACE) + "?id=1&format=ndjson";
 
         mockMvc.perform(
                 get(url1)
@@ -245,6 +296,14 @@ public class MdsRestControllerTest {
         mockMvc.perform(
                 get(url4)
         ).andExpect(status().isBadRequest());
+
+        mockMvc.perform(
+                get(url5)
+        ).andExpect(status().isBadRequest());
+
+        mockMvc.perform(
+                get(url6)
+        ).andExpect(status().isBadRequest());
     }
 
     // lookup executions
@@ -396,7 +455,8 @@ public class MdsRestControllerTest {
 
         when(restFacadeRetriever.getRestFacade(entityName, moduleName, namespace))
                 .thenReturn(restFacade);
-        when(restFacade.get(any(QueryParams.class), anyBoolean())).thenReturn(response);
+        doAnswer(writeResponse(objectMapper.writeValueAsString(response))).when(restFacade)
+                .get(any(QueryParams.class), anyBoolean(), eq(RestFormat.JSON), any(OutputStream.class));
 
         when(restFacade.get(1l, true)).thenReturn(response2);
 
@@ -413,7 +473,8 @@ public class MdsRestControllerTest {
          .andExpect(content().string(objectMapper.writeValueAsString(response2)));
 
         ArgumentCaptor<QueryParams> captor = ArgumentCaptor.forClass(QueryParams.class);
-        verify(restFacade).get(captor.capture(), anyBoolean());
+        verify(restFacade).get(captor.capture(), anyBoolean(), eq(RestFormat.JSON), any(OutputStream.class));
+        verify(restFacade, never()).get(any(QueryParams.class), anyBoolean());
         ArgumentCaptor<Long> longCaptor = ArgumentCaptor.forClass(Long.class);
         verify(restFacade).get(longCaptor.capture(), anyBoolean());
 
@@ -542,6 +603,17 @@ public class MdsRestControllerTest {
         assertEquals(Order.Direction.DESC, order.getDirection());
     }
 
+    private Answer<Void> writeResponse(final String content) {
+        return new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                OutputStream output = (OutputStream) invocation.getArguments()[3];
+                output.write(content.getBytes(Charset.forName("UTF-8")));
+                return null;
+            }
+        };
+    }
+
     private String buildUrl(String entityName, String moduleName, String namespace) {
         return buildUrl(entityName, moduleName, namespace, null);
     }
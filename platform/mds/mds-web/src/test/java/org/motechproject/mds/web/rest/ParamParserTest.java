@@ -2,7 +2,9 @@ package org.motechproject.mds.web.rest;
 
 import org.junit.Test;
 import org.motechproject.mds.query.QueryParams;
+import org.motechproject.mds.rest.RestFormat;
 import org.motechproject.mds.util.Order;
+import org.motechproject.mds.web.exception.InvalidParameterException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -69,4 +71,21 @@ public class ParamParserTest {
         requestParams.put("id", "14");
         assertEquals(Long.valueOf(14), ParamParser.getId(requestParams));
     }
+
+    @Test
+    public void shouldGetFormat() {
+        Map<String, String> requestParams = new HashMap<>();
+        assertEquals(RestFormat.JSON, ParamParser.getFormat(requestParams));
+
+        requestParams.put("format", "NDJSON");
+        assertEquals(RestFormat.NDJSON, ParamParser.getFormat(requestParams));
+    }
+
+    @Test(expected = InvalidParameterException.class)
+    public void shouldNotAcceptUnknownFormat() {
+        Map<String, String> requestParams = new HashMap<>();
+        requestParams.put("format", "xml");
+
+        ParamParser.getFormat(requestParams);
+    }
 }
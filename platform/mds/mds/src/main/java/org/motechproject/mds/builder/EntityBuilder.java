@@ -52,6 +52,17 @@ public interface EntityBuilder {
      */
     ClassData buildTrash(EntityDto entity, List<FieldDto> fields);
 
+    /**
+     * Builds a {@link org.motechproject.mds.util.PropertyAccessor} for a class built before, which reads and writes
+     * its properties without reflection. The name of the accessor is generated by
+     * {@link org.motechproject.mds.util.ClassName#getAccessorClassName(String)}. The accessor is an optimization,
+     * so if it can not be built, the properties are simply accessed with reflection.
+     *
+     * @param className the name of the entity, history or trash class present in the class pool
+     * @return bytes of the constructed accessor, or null if it could not be built
+     */
+    ClassData buildAccessor(String className);
+
     /**
      * Builds empty history class definition for the given entity and adds it to the class pool.
      *
@@ -7,7 +7,10 @@ import javassist.CtConstructor;
 import javassist.CtField;
 import javassist.CtMethod;
 import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.CtPrimitiveType;
 import javassist.NotFoundException;
+import javassist.bytecode.AccessFlag;
 import org.apache.commons.lang.StringUtils;
 import org.motechproject.mds.builder.EntityBuilder;
 import org.motechproject.mds.domain.ClassData;
@@ -26,15 +29,20 @@ import org.motechproject.mds.util.ClassName;
 import org.motechproject.mds.util.Constants;
 import org.motechproject.mds.util.JavassistUtil;
 import org.motechproject.mds.util.MemberUtil;
+import org.motechproject.mds.util.PropertyAccessor;
 import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.beans.Introspector;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.apache.commons.lang.StringUtils.isBlank;
 import static org.apache.commons.lang.StringUtils.uncapitalize;
@@ -107,6 +115,37 @@ public class EntityBuilderImpl implements EntityBuilder {
         return build(entity, fields, EntityType.TRASH, null);
     }
 
+    @Override
+    public ClassData buildAccessor(String className) {
+        String accessorClassName = ClassName.getAccessorClassName(className);
+        LOGGER.debug("Building property accessor for: {}", className);
+
+        try {
+            CtClass declaring = classPool.get(className);
+            Map<String, CtMethod[]> properties = findProperties(declaring);
+
+            CtClass accessorClass = classPool.getOrNull(accessorClassName);
+            // we can edit classes
+            if (accessorClass != null) {
+                accessorClass.defrost();
+            }
+
+            accessorClass = classPool.makeClass(accessorClassName, classPool.get(PropertyAccessor.class.getName()));
+
+            accessorClass.addConstructor(CtNewConstructor.make(String.format("public %s(){super(\"%s\");}",
+                    ClassName.getSimpleName(accessorClassName), StringUtils.join(properties.keySet(), ',')),
+                    accessorClass));
+            accessorClass.addMethod(CtNewMethod.make(createAccessorGetter(className, properties), accessorClass));
+            accessorClass.addMethod(CtNewMethod.make(createAccessorSetter(className, properties), accessorClass));
+
+            return new ClassData(accessorClassName, accessorClass.toBytecode());
+        } catch (NotFoundException | CannotCompileException | IOException | RuntimeException e) {
+            LOGGER.warn("Unable to build the property accessor for {}, its properties will be accessed with reflection",
+                    className, e);
+            return null;
+        }
+    }
+
     private ClassData build(EntityDto entity, List<FieldDto> fields, EntityType type, Bundle bundle) {
         try {
             CtClass declaring = makeClass(entity, fields, type, bundle);
@@ -376,6 +415,122 @@ public class EntityBuilderImpl implements EntityBuilder {
                     JavassistUtil.containsDeclaredMethod(declaring, methodName));
     }
 
+    /**
+     * Finds the bean properties of the given class, the same way as {@link Introspector} does, but only these with
+     * both a public getter and a public setter.
+     *
+     * @return the getter and setter of each property, sorted by the property names
+     */
+    private Map<String, CtMethod[]> findProperties(CtClass declaring) throws NotFoundException {
+        Map<String, CtMethod> getters = new HashMap<>();
+        Map<String, CtMethod> setters = new HashMap<>();
+
+        for (CtMethod method : declaring.getMethods()) {
+            int accessFlags = method.getMethodInfo().getAccessFlags();
+            if (Modifier.isStatic(method.getModifiers()) || (accessFlags & AccessFlag.BRIDGE) != 0) {
+                continue;
+            }
+
+            String name = method.getName();
+            CtClass returnType = method.getReturnType();
+            CtClass[] parameters = method.getParameterTypes();
+
+            if (parameters.length == 0 && returnType == CtClass.booleanType
+                    && name.length() > MemberUtil.IS_END_INDEX && name.startsWith(MemberUtil.BOOLEAN_GETTER_PREFIX)) {
+                // the is prefix takes precedence
+                getters.put(Introspector.decapitalize(name.substring(MemberUtil.IS_END_INDEX)), method);
+            } else if (parameters.length == 0 && returnType != CtClass.voidType
+                    && name.length() > MemberUtil.GET_OR_SET_END_INDEX && name.startsWith(MemberUtil.GETTER_PREFIX)) {
+                String propertyName = Introspector.decapitalize(name.substring(MemberUtil.GET_OR_SET_END_INDEX));
+                if (!getters.containsKey(propertyName)) {
+                    getters.put(propertyName, method);
+                }
+            } else if (parameters.length == 1 && returnType == CtClass.voidType
+                    && name.length() > MemberUtil.GET_OR_SET_END_INDEX && name.startsWith(MemberUtil.SETTER_PREFIX)) {
+                String propertyName = Introspector.decapitalize(name.substring(MemberUtil.GET_OR_SET_END_INDEX));
+                setters.put(propertyName + ':' + parameters[0].getName(), method);
+            }
+        }
+
+        Map<String, CtMethod[]> properties = new TreeMap<>();
+
+        for (Map.Entry<String, CtMethod> entry : getters.entrySet()) {
+            CtMethod getter = entry.getValue();
+            CtMethod setter = setters.get(entry.getKey() + ':' + getter.getReturnType().getName());
+
+            if (setter != null) {
+                properties.put(entry.getKey(), new CtMethod[]{getter, setter});
+            }
+        }
+
+        return properties;
+    }
+
+    private String createAccessorGetter(String className, Map<String, CtMethod[]> properties)
+            throws NotFoundException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public Object get(Object bean, int index) {");
+
+        if (!properties.isEmpty()) {
+            sb.append(String.format("%1$s b = (%1$s) bean; switch (index) {", className));
+
+            int index = 0;
+            for (CtMethod[] methods : properties.values()) {
+                CtClass type = methods[0].getReturnType();
+                String value = String.format("b.%s()", methods[0].getName());
+
+                if (type.isPrimitive()) {
+                    // javassist does not box values
+                    value = String.format("%s.valueOf(%s)", ((CtPrimitiveType) type).getWrapperName(), value);
+                }
+
+                sb.append(String.format("case %d: return %s;", index++, value));
+            }
+
+            sb.append('}');
+        }
+
+        sb.append("throw new java.lang.IndexOutOfBoundsException(\"No property with index \" + index);}");
+
+        return sb.toString();
+    }
+
+    private String createAccessorSetter(String className, Map<String, CtMethod[]> properties)
+            throws NotFoundException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("public void set(Object bean, int index, Object value) {");
+
+        if (!properties.isEmpty()) {
+            sb.append(String.format("%1$s b = (%1$s) bean; switch (index) {", className));
+
+            int index = 0;
+            for (Map.Entry<String, CtMethod[]> entry : properties.entrySet()) {
+                CtClass type = entry.getValue()[0].getReturnType();
+                String setter = entry.getValue()[1].getName();
+
+                sb.append(String.format("case %d: ", index++));
+
+                if (type.isPrimitive()) {
+                    // javassist does not unbox values
+                    CtPrimitiveType primitiveType = (CtPrimitiveType) type;
+                    sb.append(String.format(
+                            "if (value == null) {throw new java.lang.IllegalArgumentException(\"%s can not be null\");}",
+                            entry.getKey()));
+                    sb.append(String.format("b.%s(((%s) value).%s()); return;", setter,
+                            primitiveType.getWrapperName(), primitiveType.getGetMethodName()));
+                } else {
+                    sb.append(String.format("b.%s((%s) value); return;", setter, type.getName()));
+                }
+            }
+
+            sb.append('}');
+        }
+
+        sb.append("throw new java.lang.IndexOutOfBoundsException(\"No property with index \" + index);}");
+
+        return sb.toString();
+    }
+
     private boolean isObjectNullOrBlankString(Object obj) {
         if (obj instanceof String) {
             String str = (String) obj;
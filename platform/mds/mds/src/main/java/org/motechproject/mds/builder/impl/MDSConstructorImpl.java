@@ -24,6 +24,7 @@ import org.motechproject.mds.enhancer.MdsJDOEnhancer;
 import org.motechproject.mds.exception.entity.EntityCreationException;
 import org.motechproject.mds.helper.ClassTableName;
 import org.motechproject.mds.helper.EntitySorter;
+import org.motechproject.mds.helper.SchemaFingerprints;
 import org.motechproject.mds.helper.bundle.MdsBundleHelper;
 import org.motechproject.mds.javassist.JavassistLoader;
 import org.motechproject.mds.javassist.MotechClassPool;
@@ -55,12 +56,15 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Default implementation of {@link org.motechproject.mds.builder.MDSConstructor} interface.
@@ -125,16 +129,24 @@ public class MDSConstructorImpl implements MDSConstructor {
         Map<String, ClassData> classDataMap = buildClasses(entities, schemaHolder);
         List<Class> classes = new ArrayList<>();
 
-        // We add the java classes to both
-        // the temporary ClassLoader and enhancer
+        // entities that did not change since the last construction reuse their enhanced bytecode
+        Map<String, String> fingerprints = getFingerprints(entities, schemaHolder);
+        Set<String> unchanged = findUnchangedEntities(entities, fingerprints);
+
+        LOGGER.info("{} of {} entities changed and require enhancement", entities.size() - unchanged.size(),
+                entities.size());
+
+        // We add the java classes to the temporary ClassLoader,
+        // only classes of the changed entities are added to the enhancer
         for (EntityDto entity : entities) {
             String className = entity.getClassName();
+            boolean enhance = !unchanged.contains(className);
 
-            Class<?> definition = addClassData(loader, enhancer, classDataMap.get(className));
+            Class<?> definition = addClassData(loader, enhancer, classDataMap.get(className), enhance);
             if (entity.isRecordHistory()) {
-                addClassData(loader, enhancer, classDataMap.get(ClassName.getHistoryClassName(className)));
+                addClassData(loader, enhancer, classDataMap.get(ClassName.getHistoryClassName(className)), enhance);
             }
-            addClassData(loader, enhancer, classDataMap.get(ClassName.getTrashClassName(className)));
+            addClassData(loader, enhancer, classDataMap.get(ClassName.getTrashClassName(className)), enhance);
 
             classes.add(definition);
 
@@ -156,30 +168,97 @@ public class MDSConstructorImpl implements MDSConstructor {
 
         // we register the enhanced class bytes
         // and build the infrastructure classes
-        registerEnhancedClassBytes(entities, enhancer, schemaHolder);
+        registerEnhancedClassBytes(entities, enhancer, schemaHolder, fingerprints, unchanged);
 
         metadataBuilder.fixEnhancerIssuesInMetadata(jdoMetadata, schemaHolder);
 
         return CollectionUtils.isNotEmpty(entities);
     }
 
-    private void registerEnhancedClassBytes(List<EntityDto> entities, MdsJDOEnhancer enhancer, SchemaHolder schemaHolder) {
+    private void registerEnhancedClassBytes(List<EntityDto> entities, MdsJDOEnhancer enhancer, SchemaHolder schemaHolder,
+                                            Map<String, String> fingerprints, Set<String> unchanged) {
         for (EntityDto entity : entities) {
             // register
             String className = entity.getClassName();
+            String fingerprint = fingerprints.get(className);
+            boolean reuse = unchanged.contains(className);
             LOGGER.debug("Registering {}", className);
 
-            registerClass(enhancer, entity);
+            registerClass(getEnhancedBytes(enhancer, className, fingerprint, className, reuse), entity);
+            if (entity.isRecordHistory()) {
+                String historyClassName = ClassName.getHistoryClassName(className);
+                registerHistoryClass(getEnhancedBytes(enhancer, className, fingerprint, historyClassName, reuse),
+                        historyClassName);
+            }
+            String trashClassName = ClassName.getTrashClassName(className);
+            registerTrashClass(getEnhancedBytes(enhancer, className, fingerprint, trashClassName, reuse),
+                    trashClassName);
+
+            // accessors for the classes included in the entities bundle, the DDE classes come from their bundles
+            if (!entity.isDDE()) {
+                registerAccessorClass(className);
+            }
             if (entity.isRecordHistory()) {
-                registerHistoryClass(enhancer, className);
+                registerAccessorClass(ClassName.getHistoryClassName(className));
             }
-            registerTrashClass(enhancer, className);
+            registerAccessorClass(trashClassName);
+
+            MotechClassPool.registerEntityFingerprint(className, fingerprint);
 
             LOGGER.debug("Building infrastructure for {}", className);
             buildInfrastructure(entity, schemaHolder);
         }
     }
 
+    private byte[] getEnhancedBytes(MdsJDOEnhancer enhancer, String entityClassName, String fingerprint,
+                                    String className, boolean reuse) {
+        return reuse
+                ? MotechClassPool.getPreviousClassData(entityClassName, fingerprint, className).getBytecode()
+                : enhancer.getEnhancedBytes(className);
+    }
+
+    private Map<String, String> getFingerprints(List<EntityDto> entities, SchemaHolder schemaHolder) {
+        Map<String, String> fingerprints = new HashMap<>();
+
+        for (EntityDto entity : entities) {
+            String fingerprint;
+
+            if (entity.isDDE()) {
+                // the class of a DDE comes from its bundle, so a bundle update must invalidate it
+                Bundle declaringBundle = MdsBundleHelper.searchForBundle(bundleContext, entity);
+                fingerprint = SchemaFingerprints.entityFingerprint(schemaHolder, entity,
+                        String.valueOf(declaringBundle.getVersion()), String.valueOf(declaringBundle.getLastModified()));
+            } else {
+                fingerprint = SchemaFingerprints.entityFingerprint(schemaHolder, entity);
+            }
+
+            fingerprints.put(entity.getClassName(), fingerprint);
+        }
+
+        return fingerprints;
+    }
+
+    private Set<String> findUnchangedEntities(List<EntityDto> entities, Map<String, String> fingerprints) {
+        Set<String> unchanged = new HashSet<>();
+
+        for (EntityDto entity : entities) {
+            String className = entity.getClassName();
+            String fingerprint = fingerprints.get(className);
+
+            boolean available = null != MotechClassPool.getPreviousClassData(className, fingerprint, className)
+                    && null != MotechClassPool.getPreviousClassData(className, fingerprint,
+                        ClassName.getTrashClassName(className))
+                    && (!entity.isRecordHistory() || null != MotechClassPool.getPreviousClassData(className,
+                        fingerprint, ClassName.getHistoryClassName(className)));
+
+            if (available) {
+                unchanged.add(className);
+            }
+        }
+
+        return unchanged;
+    }
+
     private void sortEntities(List<EntityDto> entities, SchemaHolder schemaHolder) {
         List<EntityDto> byInheritance = EntitySorter.sortByInheritance(entities);
         List<EntityDto> byHasARelation = EntitySorter.sortByHasARelation(byInheritance, schemaHolder);
@@ -339,10 +418,7 @@ public class MDSConstructorImpl implements MDSConstructor {
         }
     }
 
-    private void registerHistoryClass(MdsJDOEnhancer enhancer, String className) {
-        String historyClassName = ClassName.getHistoryClassName(className);
-
-        byte[] enhancedBytes = enhancer.getEnhancedBytes(historyClassName);
+    private void registerHistoryClass(byte[] enhancedBytes, String historyClassName) {
         ClassData classData = new ClassData(historyClassName, enhancedBytes);
 
         // register with the classloader so that we avoid issues with the persistence manager
@@ -351,10 +427,7 @@ public class MDSConstructorImpl implements MDSConstructor {
         MotechClassPool.registerHistoryClassData(classData);
     }
 
-    private void registerTrashClass(MdsJDOEnhancer enhancer, String className) {
-        String trashClassName = ClassName.getTrashClassName(className);
-
-        byte[] enhancedBytes = enhancer.getEnhancedBytes(trashClassName);
+    private void registerTrashClass(byte[] enhancedBytes, String trashClassName) {
         ClassData classData = new ClassData(trashClassName, enhancedBytes);
 
         // register with the classloader so that we avoid issues with the persistence manager
@@ -363,8 +436,18 @@ public class MDSConstructorImpl implements MDSConstructor {
         MotechClassPool.registerTrashClassData(classData);
     }
 
-    private void registerClass(MdsJDOEnhancer enhancer, EntityDto entity) {
-        byte[] enhancedBytes = enhancer.getEnhancedBytes(entity.getClassName());
+    private void registerAccessorClass(String className) {
+        ClassData classData = entityBuilder.buildAccessor(className);
+
+        if (classData != null) {
+            // register with the classloader, so that the accessor is also used for the classes defined there
+            MDSClassLoader.getInstance().safeDefineClass(classData.getClassName(), classData.getBytecode());
+
+            MotechClassPool.registerAccessorClassData(classData);
+        }
+    }
+
+    private void registerClass(byte[] enhancedBytes, EntityDto entity) {
         ClassData classData = new ClassData(entity, enhancedBytes);
 
         // register with the classloader so that we avoid issues with the persistence manager
@@ -374,8 +457,14 @@ public class MDSConstructorImpl implements MDSConstructor {
     }
 
     private Class<?> addClassData(JavassistLoader loader, MdsJDOEnhancer enhancer, ClassData data) {
+        return addClassData(loader, enhancer, data, true);
+    }
+
+    private Class<?> addClassData(JavassistLoader loader, MdsJDOEnhancer enhancer, ClassData data, boolean enhance) {
         Class<?> definition = loader.loadClass(data);
-        enhancer.addClass(data);
+        if (enhance) {
+            enhancer.addClass(data);
+        }
         return definition;
     }
 
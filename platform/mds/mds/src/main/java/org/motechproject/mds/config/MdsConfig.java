@@ -31,6 +31,7 @@ public class MdsConfig {
     private static final String FLYWAY_JAVA_MIGRATION_PATH = "org/motechproject/mdsmigration/java";
     private static final String FLYWAY_DEFAULT_MIGRATION_PATH = "db/migration/default";
     private static final String CONNECTION_URL_KEY = "javax.jdo.option.ConnectionURL";
+    private static final String ENTITIES_BUNDLE_CACHE_DIRECTORY = "mds-entities-cache";
 
     private Map<String, Properties> config = new HashMap<>();
 
@@ -148,6 +149,10 @@ public class MdsConfig {
         return migrationDirectory;
     }
 
+    public File getEntitiesBundleCacheDirectory() {
+        return new File(coreConfigurationService.loadBootstrapConfig().getMotechDir(), ENTITIES_BUNDLE_CACHE_DIRECTORY);
+    }
+
     public Properties getFlywayDataProperties() {
         return coreConfigurationService.loadFlywayDataConfig();
     }
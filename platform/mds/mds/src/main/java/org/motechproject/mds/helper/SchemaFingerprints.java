@@ -0,0 +1,114 @@
+package org.motechproject.mds.helper;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.motechproject.mds.dto.EntityDto;
+import org.motechproject.mds.dto.SchemaHolder;
+import org.motechproject.mds.exception.MdsException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The <code>SchemaFingerprints</code> is a helper class for computing fingerprints of entity definitions
+ * held in a {@link org.motechproject.mds.dto.SchemaHolder}. The fingerprint of an entity changes whenever
+ * anything that has influence on the classes generated for it changes - the entity definition itself,
+ * its fields, its advanced settings or the definition of its superclass.
+ */
+public final class SchemaFingerprints {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    static {
+        OBJECT_MAPPER.configure(SerializationConfig.Feature.SORT_PROPERTIES_ALPHABETICALLY, true);
+    }
+
+    /**
+     * Computes the fingerprint of the given entity.
+     *
+     * @param schemaHolder the holder of the current MDS schema
+     * @param entity the entity for which the fingerprint should be computed
+     * @param extras additional values that should be included in the fingerprint, for example the version
+     *               of the bundle declaring a DDE
+     * @return the fingerprint of the entity, as a hex string
+     */
+    public static String entityFingerprint(SchemaHolder schemaHolder, EntityDto entity, String... extras) {
+        StringBuilder sb = new StringBuilder();
+        appendEntity(sb, schemaHolder, entity, new HashSet<String>());
+
+        if (null != extras) {
+            sb.append(Arrays.toString(extras));
+        }
+
+        return DigestUtils.md5Hex(sb.toString());
+    }
+
+    /**
+     * Computes the fingerprint of the whole schema, that is of all entities held by the given schema holder.
+     *
+     * @param schemaHolder the holder of the current MDS schema
+     * @param extras additional values that should be included in the fingerprint, for example the versions
+     *               of bundles taking part in the generation of the entities bundle
+     * @return the fingerprint of the schema, as a hex string
+     */
+    public static String schemaFingerprint(SchemaHolder schemaHolder, String... extras) {
+        List<EntityDto> entities = schemaHolder.getAllEntities();
+        Collections.sort(entities, new Comparator<EntityDto>() {
+            @Override
+            public int compare(EntityDto one, EntityDto other) {
+                return one.getClassName().compareTo(other.getClassName());
+            }
+        });
+
+        StringBuilder sb = new StringBuilder();
+        for (EntityDto entity : entities) {
+            sb.append(entity.getClassName()).append('=').append(entityFingerprint(schemaHolder, entity)).append('\n');
+        }
+
+        if (null != extras) {
+            sb.append(Arrays.toString(extras));
+        }
+
+        return DigestUtils.md5Hex(sb.toString());
+    }
+
+    private static void appendEntity(StringBuilder sb, SchemaHolder schemaHolder, EntityDto entity,
+                                     Set<String> visited) {
+        // guard against broken inheritance cycles
+        if (!visited.add(entity.getClassName())) {
+            return;
+        }
+
+        sb.append(toJson(entity))
+                .append(toJson(schemaHolder.getFields(entity)))
+                .append(toJson(schemaHolder.getAdvancedSettings(entity)));
+
+        String superClass = entity.getSuperClass();
+        if (StringUtils.isNotBlank(superClass)) {
+            EntityDto superEntity = schemaHolder.getEntityByClassName(superClass);
+            if (null != superEntity) {
+                appendEntity(sb, schemaHolder, superEntity, visited);
+            } else {
+                sb.append(superClass);
+            }
+        }
+    }
+
+    private static String toJson(Object object) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(object);
+        } catch (IOException e) {
+            throw new MdsException("Unable to compute the schema fingerprint", e);
+        }
+    }
+
+    private SchemaFingerprints() {
+    }
+}
@@ -12,6 +12,7 @@ import org.motechproject.mds.util.ClassName;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -29,9 +30,15 @@ public final class MotechClassPool {
     private static Map<String, ClassData> classData = new LinkedHashMap<>();
     private static Map<String, ClassData> historyClassData = new LinkedHashMap<>();
     private static Map<String, ClassData> trashClassData = new LinkedHashMap<>();
+    private static Map<String, ClassData> accessorClassData = new LinkedHashMap<>();
     private static Map<String, String> serviceInterfaces = new LinkedHashMap<>();
     private static Set<String> enums = new LinkedHashSet<>();
     private static Set<String> readyDDE = new LinkedHashSet<>();
+    private static Map<String, String> entityFingerprints = new LinkedHashMap<>();
+
+    // enhanced data from the previous construction, reused for entities that did not change
+    private static Map<String, ClassData> previousClassData = new HashMap<>();
+    private static Map<String, String> previousEntityFingerprints = new HashMap<>();
 
     static {
         POOL = ClassPool.getDefault();
@@ -70,10 +77,26 @@ public final class MotechClassPool {
         return values;
     }
 
+    /**
+     * Clears the enhanced data. The data registered so far is retained as the previous data, so that it can be reused
+     * for entities whose fingerprint did not change.
+     *
+     * @see #getPreviousClassData(String, String, String)
+     */
     public static void clearEnhancedData() {
+        previousClassData.clear();
+        previousClassData.putAll(classData);
+        previousClassData.putAll(historyClassData);
+        previousClassData.putAll(trashClassData);
+
+        previousEntityFingerprints.clear();
+        previousEntityFingerprints.putAll(entityFingerprints);
+
+        entityFingerprints.clear();
         classData.clear();
         trashClassData.clear();
         historyClassData.clear();
+        accessorClassData.clear();
         enums.clear();
     }
 
@@ -132,6 +155,20 @@ public final class MotechClassPool {
         return trashClassData.get(ClassName.getTrashClassName(className));
     }
 
+    public static void registerAccessorClassData(ClassData cData) {
+        accessorClassData.put(cData.getClassName(), cData);
+    }
+
+    /**
+     * Returns the generated property accessor of the given entity, history or trash class.
+     *
+     * @param className the name of the class accessed
+     * @return the accessor class data, or null if there is no accessor for the class
+     */
+    public static ClassData getAccessorClassData(String className) {
+        return accessorClassData.get(ClassName.getAccessorClassName(className));
+    }
+
     public static void registerDDE(String className) {
         readyDDE.add(className);
     }
@@ -140,6 +177,33 @@ public final class MotechClassPool {
         return readyDDE.contains(className);
     }
 
+    public static void registerEntityFingerprint(String className, String fingerprint) {
+        entityFingerprints.put(className, fingerprint);
+    }
+
+    public static String getEntityFingerprint(String className) {
+        return entityFingerprints.get(className);
+    }
+
+    public static Map<String, String> getEntityFingerprints() {
+        return new LinkedHashMap<>(entityFingerprints);
+    }
+
+    /**
+     * Returns the class data registered for the given class before the last call to {@link #clearEnhancedData()},
+     * but only if the entity the class belongs to had the same fingerprint back then.
+     *
+     * @param entityClassName the class name of the entity
+     * @param fingerprint the current fingerprint of the entity
+     * @param className the name of the class to retrieve, either the entity, history or trash class
+     * @return the previous class data, or null if it is not available or the entity has changed
+     */
+    public static ClassData getPreviousClassData(String entityClassName, String fingerprint, String className) {
+        return null != fingerprint && fingerprint.equals(previousEntityFingerprints.get(entityClassName))
+                ? previousClassData.get(className)
+                : null;
+    }
+
     // private, use getInterfaceName instead
     private static String getServiceInterface(String className) {
         return serviceInterfaces.get(className);
@@ -12,7 +12,7 @@ public abstract class DateTimeValueGenerator extends AbstractObjectValueGenerato
 
     @Override
     protected DateTime modify(DateTime value) {
-        return null == value ? DateUtil.now() : value;
+        return null == value ? DateUtil.coarseNow() : value;
     }
 
 }
@@ -0,0 +1,467 @@
+package org.motechproject.mds.osgi;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.time.StopWatch;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.motechproject.mds.config.MdsConfig;
+import org.motechproject.mds.domain.ClassData;
+import org.motechproject.mds.domain.EntityType;
+import org.motechproject.mds.dto.SchemaHolder;
+import org.motechproject.mds.helper.SchemaFingerprints;
+import org.motechproject.mds.helper.bundle.MdsBundleHelper;
+import org.motechproject.mds.javassist.MotechClassPool;
+import org.motechproject.mds.util.JavassistUtil;
+import org.motechproject.mds.util.MDSClassLoader;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+/**
+ * The <code>EntitiesBundleCache</code> persists the generated entities bundle in the MOTECH directory, together with
+ * the enhanced classes registered in the {@link org.motechproject.mds.javassist.MotechClassPool} and a fingerprint
+ * of the schema and bundles they were generated from. When MDS starts and the fingerprint still matches, the cached
+ * bundle can be installed without constructing and enhancing the entity classes again.
+ */
+@Component
+public class EntitiesBundleCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EntitiesBundleCache.class);
+
+    private static final String BUNDLE_FILE = "mds-entities.jar";
+    private static final String CLASSES_FILE = "enhanced-classes.jar";
+    private static final String INDEX_FILE = "index.json";
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private MdsConfig mdsConfig;
+    private BundleContext bundleContext;
+
+    /**
+     * Computes the fingerprint of the given schema and the bundles that take part in the entities bundle generation.
+     * Release versions of bundles are considered immutable, snapshot bundles are also identified by their last
+     * modification time.
+     *
+     * @param schemaHolder the holder of the current MDS schema
+     * @return the fingerprint, as a hex string
+     */
+    public String getFingerprint(SchemaHolder schemaHolder) {
+        List<String> bundles = new ArrayList<>();
+
+        for (Bundle bundle : bundleContext.getBundles()) {
+            boolean relevant = MdsBundleHelper.isMdsBundle(bundle) || (!MdsBundleHelper.isMdsEntitiesBundle(bundle)
+                    && !MdsBundleHelper.isFrameworkBundle(bundle) && MdsBundleHelper.isBundleMdsDependent(bundle));
+
+            if (relevant) {
+                String version = String.valueOf(bundle.getVersion());
+                String bundleId = bundle.getSymbolicName() + ':' + version;
+
+                if (StringUtils.contains(version, SNAPSHOT)) {
+                    bundleId += ':' + String.valueOf(bundle.getLastModified());
+                }
+
+                bundles.add(bundleId);
+            }
+        }
+
+        Collections.sort(bundles);
+
+        return SchemaFingerprints.schemaFingerprint(schemaHolder, bundles.toArray(new String[bundles.size()]));
+    }
+
+    /**
+     * Restores the enhanced classes from the cache, if the cache was stored for the given fingerprint. The classes are
+     * registered in the {@link org.motechproject.mds.javassist.MotechClassPool} and defined in the
+     * {@link org.motechproject.mds.util.MDSClassLoader}, the same way the
+     * {@link org.motechproject.mds.builder.MDSConstructor} does it.
+     *
+     * @param fingerprint the current fingerprint
+     * @return true if the classes were restored, false if the cache is not available or outdated
+     */
+    public boolean restore(String fingerprint) {
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+
+        CacheIndex index = readIndex();
+
+        if (index == null || !StringUtils.equals(fingerprint, index.getFingerprint())
+                || !getCacheFile(BUNDLE_FILE).exists()) {
+            LOGGER.info("The entities bundle cache is not available or outdated, the entities will be constructed");
+            return false;
+        }
+
+        try {
+            restoreClasses(index);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Unable to restore the enhanced classes from the entities bundle cache", e);
+            MotechClassPool.clearEnhancedData();
+            MDSClassLoader.reloadClassLoader();
+            return false;
+        }
+
+        stopWatch.stop();
+
+        LOGGER.info("Restored {} classes from the entities bundle cache in {} ms, saving about {} ms of generation time",
+                index.getClasses().size(), stopWatch.getTime(),
+                Math.max(0, index.getGenerationTime() - stopWatch.getTime()));
+
+        return true;
+    }
+
+    /**
+     * Copies the cached entities bundle to a temporary file.
+     *
+     * @return the temporary copy of the cached bundle
+     * @throws IOException if the bundle could not be copied
+     */
+    public File copyBundle() throws IOException {
+        Path tempDir = Files.createTempDirectory("mds");
+        Path tempFile = Files.createTempFile(tempDir, "mds-entities", ".jar");
+
+        FileUtils.copyFile(getCacheFile(BUNDLE_FILE), tempFile.toFile());
+
+        return tempFile.toFile();
+    }
+
+    /**
+     * Stores the given entities bundle and the classes currently registered in the
+     * {@link org.motechproject.mds.javassist.MotechClassPool} in the cache. Problems with storing the cache are only
+     * logged, since the cache is not required for MDS to work.
+     *
+     * @param fingerprint the fingerprint of the schema the bundle was generated from
+     * @param bundleFile the generated entities bundle
+     * @param generationTime the time in milliseconds it took to construct the entities and generate the bundle
+     */
+    public void store(String fingerprint, File bundleFile, long generationTime) {
+        try {
+            File cacheDir = mdsConfig.getEntitiesBundleCacheDirectory();
+            FileUtils.forceMkdir(cacheDir);
+
+            // the index is written last, so that an incomplete cache is never used
+            FileUtils.deleteQuietly(getCacheFile(INDEX_FILE));
+
+            CacheIndex index = new CacheIndex();
+            index.setFingerprint(fingerprint);
+            index.setGenerationTime(generationTime);
+            index.setEnums(new ArrayList<>(MotechClassPool.registeredEnums()));
+            index.setEntityFingerprints(MotechClassPool.getEntityFingerprints());
+
+            writeClasses(index);
+            FileUtils.copyFile(bundleFile, getCacheFile(BUNDLE_FILE));
+
+            objectMapper.writeValue(getCacheFile(INDEX_FILE), index);
+
+            LOGGER.info("Stored the entities bundle in the cache with fingerprint {}", fingerprint);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Unable to store the entities bundle cache", e);
+        }
+    }
+
+    private void writeClasses(CacheIndex index) throws IOException {
+        List<CachedClass> classes = new ArrayList<>();
+
+        try (JarOutputStream output = new JarOutputStream(new FileOutputStream(getCacheFile(CLASSES_FILE)))) {
+            for (ClassData classData : MotechClassPool.getEnhancedClasses(true)) {
+                writeClass(output, classes, classData, CachedClass.ENHANCED);
+
+                ClassData historyClassData = MotechClassPool.getHistoryClassData(classData.getClassName());
+                if (historyClassData != null) {
+                    writeClass(output, classes, historyClassData, CachedClass.HISTORY);
+                }
+
+                ClassData trashClassData = MotechClassPool.getTrashClassData(classData.getClassName());
+                if (trashClassData != null) {
+                    writeClass(output, classes, trashClassData, CachedClass.TRASH);
+                }
+
+                writeAccessor(output, classes, classData);
+                writeAccessor(output, classes, historyClassData);
+                writeAccessor(output, classes, trashClassData);
+            }
+        }
+
+        index.setClasses(classes);
+    }
+
+    private void writeAccessor(JarOutputStream output, List<CachedClass> classes, ClassData classData)
+            throws IOException {
+        ClassData accessorClassData = null == classData
+                ? null
+                : MotechClassPool.getAccessorClassData(classData.getClassName());
+
+        if (accessorClassData != null) {
+            writeClass(output, classes, accessorClassData, CachedClass.ACCESSOR);
+        }
+    }
+
+    private void writeClass(JarOutputStream output, List<CachedClass> classes, ClassData classData, String kind)
+            throws IOException {
+        CachedClass cachedClass = new CachedClass();
+        cachedClass.setClassName(classData.getClassName());
+        cachedClass.setModule(classData.getModule());
+        cachedClass.setNamespace(classData.getNamespace());
+        cachedClass.setInterfaceClass(classData.isInterfaceClass());
+        cachedClass.setEnumClassData(classData.isEnumClassData());
+        cachedClass.setType(null == classData.getType() ? null : classData.getType().name());
+        cachedClass.setKind(kind);
+        cachedClass.setDefined(isDefinedInMdsClassLoader(classData.getClassName()));
+        cachedClass.setEntry(kind + '/' + JavassistUtil.toClassPath(classData.getClassName()));
+
+        output.putNextEntry(new JarEntry(cachedClass.getEntry()));
+        output.write(classData.getBytecode());
+        output.closeEntry();
+
+        classes.add(cachedClass);
+    }
+
+    private void restoreClasses(CacheIndex index) throws IOException {
+        MotechClassPool.clearEnhancedData();
+        MDSClassLoader.reloadClassLoader();
+
+        try (JarFile jarFile = new JarFile(getCacheFile(CLASSES_FILE))) {
+            for (CachedClass cachedClass : index.getClasses()) {
+                JarEntry entry = jarFile.getJarEntry(cachedClass.getEntry());
+
+                if (entry == null) {
+                    throw new IOException("Missing cached class: " + cachedClass.getEntry());
+                }
+
+                byte[] bytecode;
+                try (InputStream in = jarFile.getInputStream(entry)) {
+                    bytecode = IOUtils.toByteArray(in);
+                }
+
+                ClassData classData = new ClassData(cachedClass.getClassName(), cachedClass.getModule(),
+                        cachedClass.getNamespace(), bytecode, cachedClass.isInterfaceClass(),
+                        null == cachedClass.getType() ? null : EntityType.valueOf(cachedClass.getType()),
+                        cachedClass.isEnumClassData());
+
+                // register with the classloader so that we avoid issues with the persistence manager
+                if (cachedClass.isDefined()) {
+                    MDSClassLoader.getInstance().safeDefineClass(classData.getClassName(), classData.getBytecode());
+                }
+
+                if (CachedClass.HISTORY.equals(cachedClass.getKind())) {
+                    MotechClassPool.registerHistoryClassData(classData);
+                } else if (CachedClass.TRASH.equals(cachedClass.getKind())) {
+                    MotechClassPool.registerTrashClassData(classData);
+                } else if (CachedClass.ACCESSOR.equals(cachedClass.getKind())) {
+                    MotechClassPool.registerAccessorClassData(classData);
+                } else {
+                    MotechClassPool.registerEnhancedClassData(classData);
+                }
+            }
+        }
+
+        for (String enumName : index.getEnums()) {
+            MotechClassPool.registerEnum(enumName);
+        }
+
+        for (Map.Entry<String, String> entry : index.getEntityFingerprints().entrySet()) {
+            MotechClassPool.registerEntityFingerprint(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private boolean isDefinedInMdsClassLoader(String className) {
+        MDSClassLoader classLoader = MDSClassLoader.getInstance();
+        try {
+            return classLoader.loadClass(className).getClassLoader() == classLoader;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private CacheIndex readIndex() {
+        File indexFile = getCacheFile(INDEX_FILE);
+
+        if (!indexFile.exists()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(indexFile, CacheIndex.class);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to read the entities bundle cache index", e);
+            return null;
+        }
+    }
+
+    private File getCacheFile(String name) {
+        return new File(mdsConfig.getEntitiesBundleCacheDirectory(), name);
+    }
+
+    @Autowired
+    public void setMdsConfig(MdsConfig mdsConfig) {
+        this.mdsConfig = mdsConfig;
+    }
+
+    @Autowired
+    public void setBundleContext(BundleContext bundleContext) {
+        this.bundleContext = bundleContext;
+    }
+
+    /**
+     * The index of the cache, stored as JSON.
+     */
+    public static class CacheIndex {
+
+        private String fingerprint;
+        private long generationTime;
+        private List<String> enums = new ArrayList<>();
+        private Map<String, String> entityFingerprints = new LinkedHashMap<>();
+        private List<CachedClass> classes = new ArrayList<>();
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public long getGenerationTime() {
+            return generationTime;
+        }
+
+        public void setGenerationTime(long generationTime) {
+            this.generationTime = generationTime;
+        }
+
+        public List<String> getEnums() {
+            return enums;
+        }
+
+        public void setEnums(List<String> enums) {
+            this.enums = enums;
+        }
+
+        public Map<String, String> getEntityFingerprints() {
+            return entityFingerprints;
+        }
+
+        public void setEntityFingerprints(Map<String, String> entityFingerprints) {
+            this.entityFingerprints = entityFingerprints;
+        }
+
+        public List<CachedClass> getClasses() {
+            return classes;
+        }
+
+        public void setClasses(List<CachedClass> classes) {
+            this.classes = classes;
+        }
+    }
+
+    /**
+     * Describes a single cached class, its bytecode is stored in a separate jar file.
+     */
+    public static class CachedClass {
+
+        public static final String ENHANCED = "enhanced";
+        public static final String HISTORY = "history";
+        public static final String TRASH = "trash";
+        public static final String ACCESSOR = "accessor";
+
+        private String className;
+        private String module;
+        private String namespace;
+        private boolean interfaceClass;
+        private boolean enumClassData;
+        private boolean defined;
+        private String type;
+        private String kind;
+        private String entry;
+
+        public String getClassName() {
+            return className;
+        }
+
+        public void setClassName(String className) {
+            this.className = className;
+        }
+
+        public String getModule() {
+            return module;
+        }
+
+        public void setModule(String module) {
+            this.module = module;
+        }
+
+        public String getNamespace() {
+            return namespace;
+        }
+
+        public void setNamespace(String namespace) {
+            this.namespace = namespace;
+        }
+
+        public boolean isInterfaceClass() {
+            return interfaceClass;
+        }
+
+        public void setInterfaceClass(boolean interfaceClass) {
+            this.interfaceClass = interfaceClass;
+        }
+
+        public boolean isEnumClassData() {
+            return enumClassData;
+        }
+
+        public void setEnumClassData(boolean enumClassData) {
+            this.enumClassData = enumClassData;
+        }
+
+        public boolean isDefined() {
+            return defined;
+        }
+
+        public void setDefined(boolean defined) {
+            this.defined = defined;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public void setKind(String kind) {
+            this.kind = kind;
+        }
+
+        public String getEntry() {
+            return entry;
+        }
+
+        public void setEntry(String entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.motechproject.mds.rest;
+
+import org.apache.commons.lang.StringUtils;
+import org.motechproject.commons.api.Range;
+import org.motechproject.mds.query.Property;
+import org.motechproject.mds.query.QueryExecution;
+import org.motechproject.mds.query.QueryExecutor;
+import org.motechproject.mds.query.QueryUtil;
+import org.motechproject.mds.query.RangeProperty;
+import org.motechproject.mds.util.Constants;
+import org.motechproject.mds.util.InstanceSecurityRestriction;
+import org.motechproject.mds.util.Order;
+
+import javax.jdo.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads one chunk of the instances retrieved over REST. If the instances are ordered by their id only, a chunk
+ * continues after the id of the last instance of the previous chunk, so that reading a chunk costs the same wherever
+ * it is. Otherwise a chunk is read by its offset, with the id as the last order, so that instances with equal values
+ * keep their order between chunks.
+ *
+ * @param <T> the entity class
+ */
+class InstancesChunkSearch<T> implements QueryExecution<List<T>> {
+
+    private final List<Order> orderList;
+    private final Range<Long> idRange;
+    private final long offset;
+    private final int size;
+
+    /**
+     * @param orderList the order of the instances
+     * @param idRange the ids of the instances in the chunk, null if not restricted
+     * @param offset the offset of the chunk among the matching instances
+     * @param size the maximum number of instances in the chunk
+     */
+    InstancesChunkSearch(List<Order> orderList, Range<Long> idRange, long offset, int size) {
+        this.orderList = orderList;
+        this.idRange = idRange;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public List<T> execute(Query query, InstanceSecurityRestriction restriction) {
+        List<Property> properties = idRange == null
+                ? Collections.<Property>emptyList()
+                : Collections.<Property>singletonList(
+                        new RangeProperty<>(Constants.Util.ID_FIELD_NAME, idRange, Long.class.getName()));
+
+        QueryUtil.useFilter(query, properties, restriction);
+        query.setOrdering(StringUtils.join(orderList, ", "));
+        query.setRange(offset, offset + size);
+
+        Collection<T> collection = (Collection<T>) QueryExecutor.executeWithArray(query, properties.toArray(),
+                restriction);
+
+        return new ArrayList<>(collection);
+    }
+}
@@ -3,7 +3,9 @@ package org.motechproject.mds.rest;
 import org.motechproject.mds.exception.rest.RestLookupExecutionForbiddenException;
 import org.motechproject.mds.query.QueryParams;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 
 /**
@@ -27,6 +29,24 @@ public interface MdsRestFacade<T> {
      */
     RestResponse get(QueryParams queryParams, boolean includeBlob);
 
+    /**
+     * Retrieves entity instances for REST and writes them directly to the given stream. This will only include fields
+     * that are visible for REST. Unlike {@link #get(QueryParams, boolean)}, instances are not converted to
+     * {@link RestProjection} maps first, and binary object fields are encoded while writing. The instances are read
+     * in small chunks, each in a short transaction which ends before the chunk is written, and binary object fields
+     * are loaded one at a time when written, so neither the page nor a slow reader of the stream holds memory or a
+     * database transaction. If no paging is set, all instances are written. It throws
+     * {@link org.motechproject.mds.exception.rest.RestOperationNotSupportedException} if the entity settings
+     * do not permit READ access via REST, before anything is written.
+     *
+     * @param queryParams query parameters to use retrieving instances
+     * @param includeBlob set to true, if you wish to retrieve value for binary object fields
+     * @param format the format of the written response
+     * @param output the stream to which the response will be written, it is not closed
+     * @throws IOException if writing to the stream failed
+     */
+    void get(QueryParams queryParams, boolean includeBlob, RestFormat format, OutputStream output) throws IOException;
+
     /**
      * Retrieves a single instance for REST. This will only include fields that are visible for REST.
      * It throws {@link org.motechproject.mds.exception.rest.RestOperationNotSupportedException} if the entity settings
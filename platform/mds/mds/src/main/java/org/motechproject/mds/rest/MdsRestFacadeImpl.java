@@ -4,6 +4,7 @@ import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.Version;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.module.SimpleModule;
+import org.motechproject.commons.api.Range;
 import org.motechproject.mds.domain.RelationshipHolder;
 import org.motechproject.mds.dto.DtoHelper;
 import org.motechproject.mds.entityinfo.EntityInfo;
@@ -24,17 +25,23 @@ import org.motechproject.mds.query.QueryParams;
 import org.motechproject.mds.service.MotechDataService;
 import org.motechproject.mds.util.BlobDeserializer;
 import org.motechproject.mds.util.Constants;
+import org.motechproject.mds.util.Order;
 import org.motechproject.mds.util.PropertyUtil;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -48,6 +55,11 @@ import java.util.Set;
  */
 public class MdsRestFacadeImpl<T> implements MdsRestFacade<T> {
 
+    /**
+     * The maximum number of instances read in one transaction, when instances are written to a stream.
+     */
+    static final int CHUNK_SIZE = 100;
+
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private MotechDataService<T> dataService;
@@ -107,6 +119,34 @@ public class MdsRestFacadeImpl<T> implements MdsRestFacade<T> {
                 RestProjection.createProjectionCollection(values, restFields, blobFields));
     }
 
+    @Override
+    public void get(QueryParams queryParams, boolean includeBlob, RestFormat format, OutputStream output)
+            throws IOException {
+        if (!restOptions.isRead()) {
+            throw operationNotSupportedEx("READ");
+        }
+
+        RestMetadata metadata = new RestMetadata(entityName, entityClass.getName(), moduleName, namespace,
+                dataService.count(), queryParams);
+
+        try (RestResponseWriter writer = new RestResponseWriter(output, format, OBJECT_MAPPER)) {
+            writer.writeStart(metadata);
+
+            PageCursor cursor = new PageCursor(queryParams);
+            List<ReadInstance> chunk = readChunk(cursor, includeBlob);
+            while (!chunk.isEmpty()) {
+                for (ReadInstance instance : chunk) {
+                    writeInstance(writer, instance, includeBlob);
+                }
+                // a chunk is written before the next one is read, so that only one chunk is held at a time
+                writer.flush();
+                chunk = readChunk(cursor, includeBlob);
+            }
+
+            writer.writeEnd();
+        }
+    }
+
     @Override
     @Transactional
     public RestResponse get(Long id, boolean includeBlob) {
@@ -213,6 +253,70 @@ public class MdsRestFacadeImpl<T> implements MdsRestFacade<T> {
         }
     }
 
+    /**
+     * Reads the next chunk of instances in a short transaction of its own. The values of the fields exposed over REST
+     * are read in the transaction, except for binary objects, which are loaded only when written.
+     */
+    private List<ReadInstance> readChunk(PageCursor cursor, final boolean includeBlob) {
+        final InstancesChunkSearch<T> search = cursor.nextSearch();
+        if (search == null) {
+            return Collections.emptyList();
+        }
+
+        List<ReadInstance> chunk = dataService.doInTransaction(new TransactionCallback<List<ReadInstance>>() {
+            @Override
+            public List<ReadInstance> doInTransaction(TransactionStatus status) {
+                List<T> values = dataService.executeQuery(search);
+                List<ReadInstance> instances = new ArrayList<>(values.size());
+                for (T value : values) {
+                    instances.add(readInstance(value, includeBlob));
+                }
+                return instances;
+            }
+        });
+
+        cursor.advance(chunk);
+        return chunk;
+    }
+
+    private ReadInstance readInstance(T value, boolean includeBlob) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (String field : restFields) {
+            boolean loadedWhenWritten = includeBlob && blobFields.contains(field);
+            fields.put(field, loadedWhenWritten ? null : PropertyUtil.safeGetProperty(value, field));
+        }
+
+        return new ReadInstance((Long) PropertyUtil.safeGetProperty(value, Constants.Util.ID_FIELD_NAME), fields);
+    }
+
+    private void writeInstance(RestResponseWriter writer, ReadInstance instance, boolean includeBlob)
+            throws IOException {
+        writer.writeStartInstance();
+
+        for (Map.Entry<String, Object> field : instance.fields.entrySet()) {
+            if (blobFields.contains(field.getKey())) {
+                // the blob is loaded in a transaction of its own and not set in the instance, so that it can be
+                // released once written
+                Object blob = includeBlob ? loadBlob(instance.id, field.getKey()) : field.getValue();
+                writer.writeBlobField(field.getKey(), (Byte[]) blob);
+            } else {
+                writer.writeField(field.getKey(), field.getValue());
+            }
+        }
+
+        writer.writeEndInstance();
+    }
+
+    private Object loadBlob(final Long id, final String field) {
+        return dataService.doInTransaction(new TransactionCallback<Object>() {
+            @Override
+            public Object doInTransaction(TransactionStatus status) {
+                T instance = dataService.findById(id);
+                return instance == null ? null : dataService.getDetachedField(instance, field);
+            }
+        });
+    }
+
     private RestOperationNotSupportedException operationNotSupportedEx(String operation) {
         return new RestOperationNotSupportedException(String.format("%s operation not supported for entity: %s",
                 operation, entityClass));
@@ -293,4 +397,84 @@ public class MdsRestFacadeImpl<T> implements MdsRestFacade<T> {
         fields.removeAll(Arrays.asList(Constants.Util.GENERATED_FIELD_NAMES));
         return fields;
     }
+
+    /**
+     * The id of an instance read in a chunk, along with the values of its fields exposed over REST.
+     */
+    private static final class ReadInstance {
+
+        private final Long id;
+        private final Map<String, Object> fields;
+
+        private ReadInstance(Long id, Map<String, Object> fields) {
+            this.id = id;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Keeps track of the chunks of a page of instances which were already read. If the instances are ordered by id
+     * only, or not ordered at all, the next chunk is read after the id of the last instance read, otherwise by its
+     * offset. Without paging, all instances are read.
+     */
+    private static final class PageCursor {
+
+        private final List<Order> orderList = new ArrayList<>();
+        private final boolean byId;
+        private final boolean ascending;
+        private final long start;
+        private final long limit;
+
+        private long read;
+        private Long lastId;
+        private boolean finished;
+
+        private PageCursor(QueryParams queryParams) {
+            List<Order> requested = queryParams.getOrderList();
+
+            byId = requested.isEmpty() || (requested.size() == 1
+                    && Constants.Util.ID_FIELD_NAME.equals(requested.get(0).getField()));
+            ascending = requested.isEmpty() || !byId || requested.get(0).getDirection() == Order.Direction.ASC;
+
+            orderList.addAll(requested);
+            if (!queryParams.containsOrderOnField(Constants.Util.ID_FIELD_NAME)) {
+                orderList.add(new Order(Constants.Util.ID_FIELD_NAME, Order.Direction.ASC));
+            }
+
+            if (queryParams.isPagingSet()) {
+                start = (long) (queryParams.getPage() - 1) * queryParams.getPageSize();
+                limit = queryParams.getPageSize();
+            } else {
+                start = 0;
+                limit = Long.MAX_VALUE;
+            }
+        }
+
+        private <T> InstancesChunkSearch<T> nextSearch() {
+            if (finished || read >= limit) {
+                return null;
+            }
+
+            int size = (int) Math.min(CHUNK_SIZE, limit - read);
+
+            if (!byId) {
+                return new InstancesChunkSearch<>(orderList, null, start + read, size);
+            } else if (read == 0) {
+                return new InstancesChunkSearch<>(orderList, null, start, size);
+            } else {
+                Range<Long> idRange = ascending ? new Range<>(lastId + 1, null) : new Range<>(null, lastId - 1);
+                return new InstancesChunkSearch<>(orderList, idRange, 0, size);
+            }
+        }
+
+        private void advance(List<ReadInstance> chunk) {
+            int expected = (int) Math.min(CHUNK_SIZE, limit - read);
+
+            read += chunk.size();
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).id;
+            }
+            finished = chunk.size() < expected;
+        }
+    }
 }
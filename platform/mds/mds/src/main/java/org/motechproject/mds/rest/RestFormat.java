@@ -0,0 +1,49 @@
+package org.motechproject.mds.rest;
+
+/**
+ * The <code>RestFormat</code> enum represents the formats in which instances can be written over REST.
+ *
+ * @see org.motechproject.mds.rest.MdsRestFacade
+ * @see org.motechproject.mds.rest.RestResponseWriter
+ */
+public enum RestFormat {
+
+    /**
+     * A single JSON document, containing metadata and the list of instances, the same as {@link RestResponse}.
+     */
+    JSON("application/json;charset=UTF-8"),
+
+    /**
+     * Newline delimited JSON, with one instance per line and no metadata. Meant for bulk consumers, which can
+     * process instances one by one.
+     */
+    NDJSON("application/x-ndjson;charset=UTF-8");
+
+    private final String contentType;
+
+    RestFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the content type of the responses in this format
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Returns the format with the given name, ignoring the case.
+     *
+     * @param name the name of the format
+     * @return the format, or null if there is no format with the given name
+     */
+    public static RestFormat fromName(String name) {
+        for (RestFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
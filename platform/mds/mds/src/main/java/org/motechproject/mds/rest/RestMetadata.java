@@ -40,7 +40,8 @@ public class RestMetadata {
      * @param moduleName the module name
      * @param namespace the namespace in which the entity is defined
      * @param totalCount the total number of instances that match the search conditions
-     * @param queryParams the query params used to retrieve instances
+     * @param queryParams the query params used to retrieve instances, if they set no paging all instances are
+     *                    treated as a single page
      */
     public RestMetadata(String entity, String className, String moduleName, String namespace, Long totalCount, QueryParams queryParams) {
         this.entity = entity;
@@ -48,8 +49,14 @@ public class RestMetadata {
         this.module = moduleName;
         this.namespace = namespace;
         this.totalCount = totalCount;
-        this.page = queryParams.getPage();
-        this.pageSize = queryParams.getPageSize();
+        if (queryParams.isPagingSet()) {
+            this.page = queryParams.getPage();
+            this.pageSize = queryParams.getPageSize();
+        } else {
+            // all instances were retrieved, as a single page
+            this.page = 1;
+            this.pageSize = totalCount == null ? 0 : (int) Math.min(totalCount, Integer.MAX_VALUE);
+        }
     }
 
     /**
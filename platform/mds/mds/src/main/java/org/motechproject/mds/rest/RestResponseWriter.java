@@ -0,0 +1,154 @@
+package org.motechproject.mds.rest;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang.ArrayUtils;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.impl.MinimalPrettyPrinter;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The <code>RestResponseWriter</code> writes instances retrieved over REST directly to an output stream, one
+ * field at a time, using a streaming JSON generator. In the {@link RestFormat#JSON} format the written document is
+ * the same as the serialized {@link RestResponse}, in the {@link RestFormat#NDJSON} format each instance is written
+ * in a separate line, without metadata.
+ * <p>
+ * The response is complete only after {@link #writeEnd()} was called, closing the writer only flushes what was
+ * written, so that a failure in the middle of writing does not produce a valid, but truncated, document.
+ *
+ * @see org.motechproject.mds.rest.MdsRestFacade
+ */
+public class RestResponseWriter implements Closeable {
+
+    private final JsonGenerator generator;
+    private final RestFormat format;
+
+    private boolean instanceWritten;
+
+    /**
+     * Constructor.
+     *
+     * @param output the stream to which the response will be written, it is not closed by the writer
+     * @param format the format of the response
+     * @param objectMapper the mapper used for serializing metadata and field values
+     * @throws IOException if the generator could not be created
+     */
+    public RestResponseWriter(OutputStream output, RestFormat format, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+
+        generator = objectMapper.getJsonFactory().createJsonGenerator(output, JsonEncoding.UTF8);
+        generator.setCodec(objectMapper);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+        if (format == RestFormat.NDJSON) {
+            generator.setPrettyPrinter(new LinePerValuePrinter());
+        }
+    }
+
+    /**
+     * Writes the beginning of the response.
+     *
+     * @param metadata the metadata of the response, ignored in the NDJSON format
+     * @throws IOException if writing failed
+     */
+    public void writeStart(RestMetadata metadata) throws IOException {
+        if (format == RestFormat.JSON) {
+            generator.writeStartObject();
+            generator.writeObjectField("metadata", metadata);
+            generator.writeArrayFieldStart("data");
+        }
+    }
+
+    /**
+     * Writes the beginning of an instance.
+     *
+     * @throws IOException if writing failed
+     */
+    public void writeStartInstance() throws IOException {
+        generator.writeStartObject();
+        instanceWritten = true;
+    }
+
+    /**
+     * Writes a field of the current instance.
+     *
+     * @param name the name of the field
+     * @param value the value of the field
+     * @throws IOException if writing failed
+     */
+    public void writeField(String name, Object value) throws IOException {
+        generator.writeObjectField(name, value);
+    }
+
+    /**
+     * Writes a binary object field of the current instance. The value is written the same way as in
+     * {@link RestProjection}, that is Base64 encoded.
+     *
+     * @param name the name of the field
+     * @param value the value of the field
+     * @throws IOException if writing failed
+     */
+    public void writeBlobField(String name, Byte[] value) throws IOException {
+        generator.writeFieldName(name);
+
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBinary(Base64.encodeBase64(ArrayUtils.toPrimitive(value)));
+        }
+    }
+
+    /**
+     * Writes the end of the current instance.
+     *
+     * @throws IOException if writing failed
+     */
+    public void writeEndInstance() throws IOException {
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the end of the response.
+     *
+     * @throws IOException if writing failed
+     */
+    public void writeEnd() throws IOException {
+        if (format == RestFormat.JSON) {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } else if (instanceWritten) {
+            // the last line is terminated as well
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Flushes what was written so far to the underlying stream.
+     *
+     * @throws IOException if the response could not be flushed
+     */
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+
+    /**
+     * Writes compact values, separating root level values with new lines instead of spaces.
+     */
+    private static class LinePerValuePrinter extends MinimalPrettyPrinter {
+
+        @Override
+        public void writeRootValueSeparator(JsonGenerator jg) throws IOException {
+            jg.writeRaw('\n');
+        }
+    }
+}
@@ -247,7 +247,7 @@ public abstract class DefaultMotechDataService<T> implements MotechDataService<T
     }
 
     private void updateModificationData(Object obj) {
-        safeSetProperty(obj, MODIFICATION_DATE_FIELD_NAME, DateUtil.now());
+        safeSetProperty(obj, MODIFICATION_DATE_FIELD_NAME, DateUtil.coarseNow());
         safeSetProperty(obj, MODIFIED_BY_FIELD_NAME, defaultIfBlank(getUsername(), ""));
     }
 
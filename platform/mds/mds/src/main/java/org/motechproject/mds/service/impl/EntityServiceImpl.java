@@ -124,10 +124,17 @@ public class EntityServiceImpl implements EntityService {
     private BundleContext bundleContext;
     private EntityValidator entityValidator;
     private ComboboxDataMigrationHelper comboboxDataMigrationHelper;
+    private SchemaSnapshotHolder schemaSnapshotHolder;
 
     @Override
     @Transactional
     public Long getCurrentSchemaVersion(String className) {
+        SchemaSnapshot snapshot = getSchemaSnapshot();
+        Long version = (null == snapshot) ? null : snapshot.getEntityVersion(className);
+        if (null != version) {
+            return version;
+        }
+
         Entity entity = allEntities.retrieveByClassName(className);
         assertEntityExists(entity, className);
 
@@ -137,6 +144,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void incrementVersion(Long entityId) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
         entity.incrementVersion();
@@ -145,6 +154,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public EntityDto createEntity(EntityDto entityDto) {
+        schemaSnapshotHolder.invalidate();
+
         String packageName = ClassName.getPackage(entityDto.getClassName());
         boolean fromUI = StringUtils.isEmpty(packageName);
         String username = getUsername();
@@ -403,6 +414,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public List<String> commitChanges(Long entityId, String changesOwner) {
+        schemaSnapshotHolder.invalidate();
+
         List<String> modulesToRefresh = new ArrayList<>();
         EntityDraft draft = getEntityDraft(entityId, changesOwner);
         if (draft.isOutdated()) {
@@ -652,6 +665,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void updateRestOptions(Long entityId, RestOptionsDto restOptionsDto) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
 
@@ -661,6 +676,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void updateTracking(Long entityId, TrackingDto trackingDto) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
 
@@ -688,6 +705,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void addLookups(Long entityId, Collection<LookupDto> lookups) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
 
@@ -754,6 +773,12 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public Map<String, FieldDto> getLookupFieldsMapping(Long entityId, String lookupName) {
+        SchemaSnapshot snapshot = getSchemaSnapshot();
+        Map<String, FieldDto> mapping = (null == snapshot) ? null : snapshot.getLookupFieldsMapping(entityId, lookupName);
+        if (null != mapping) {
+            return mapping;
+        }
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
         Lookup lookup = entity.getLookupByName(lookupName);
@@ -776,6 +801,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void deleteEntity(Long entityId) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
 
         assertWritableEntity(entity, entityId);
@@ -859,6 +886,11 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public EntityDto getEntity(Long entityId) {
+        SchemaSnapshot snapshot = getSchemaSnapshot();
+        if (null != snapshot && snapshot.containsEntity(entityId)) {
+            return snapshot.getEntity(entityId);
+        }
+
         Entity entity = allEntities.retrieveById(entityId);
         return (entity == null) ? null : entity.toDto();
     }
@@ -866,6 +898,12 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public EntityDto getEntityByClassName(String className) {
+        SchemaSnapshot snapshot = getSchemaSnapshot();
+        EntityDto entityDto = (null == snapshot) ? null : snapshot.getEntityByClassName(className);
+        if (null != entityDto) {
+            return entityDto;
+        }
+
         Entity entity = allEntities.retrieveByClassName(className);
         return (entity == null) ? null : entity.toDto();
     }
@@ -907,6 +945,11 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public List<LookupDto> getEntityLookups(Long entityId) {
+        SchemaSnapshot snapshot = getSchemaSnapshot();
+        if (null != snapshot && snapshot.containsEntity(entityId)) {
+            return snapshot.getLookups(entityId);
+        }
+
         return getLookups(entityId, false);
     }
 
@@ -1009,6 +1052,13 @@ public class EntityServiceImpl implements EntityService {
     }
 
     private List<FieldDto> getEntityFieldsByClassName(String className, boolean forUI) {
+        // combobox options supplied by users are not part of the snapshot
+        SchemaSnapshot snapshot = forUI ? null : getSchemaSnapshot();
+        List<FieldDto> fieldDtos = (null == snapshot) ? null : snapshot.getFieldsByClassName(className);
+        if (null != fieldDtos) {
+            return fieldDtos;
+        }
+
         Entity entity = allEntities.retrieveByClassName(className);
         assertEntityExists(entity, className);
 
@@ -1138,6 +1188,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void addFields(Long entityId, Collection<FieldDto> fields) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
 
         assertEntityExists(entity, entityId);
@@ -1235,6 +1287,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void addFilterableFields(EntityDto entityDto, Collection<String> fieldNames) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityDto.getId());
 
         assertEntityExists(entity, entityDto.getId());
@@ -1261,6 +1315,11 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public LookupDto getLookupByName(Long entityId, String lookupName) {
+        SchemaSnapshot snapshot = getSchemaSnapshot();
+        if (null != snapshot && snapshot.containsEntity(entityId)) {
+            return snapshot.getLookupByName(entityId, lookupName);
+        }
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
 
@@ -1290,6 +1349,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void addNonEditableFields(EntityDto entityDto, Map<String, Boolean> nonEditableFields) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityDto.getId());
 
         assertEntityExists(entity, entityDto.getId());
@@ -1313,6 +1374,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void addDisplayedFields(EntityDto entityDto, Map<String, Long> positions) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityDto.getId());
 
         assertEntityExists(entity, entityDto.getId());
@@ -1349,6 +1412,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void updateSecurityOptions(Long entityId, SecurityMode securityMode, Set<String> securityMembers, SecurityMode readOnlySecurityMode, Set<String> readOnlySecurityMembers) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
 
         assertEntityExists(entity, entityId);
@@ -1364,6 +1429,8 @@ public class EntityServiceImpl implements EntityService {
     @Override
     @Transactional
     public void updateMaxFetchDepth(Long entityId, Integer maxFetchDepth) {
+        schemaSnapshotHolder.invalidate();
+
         Entity entity = allEntities.retrieveById(entityId);
         assertEntityExists(entity, entityId);
 
@@ -1372,6 +1439,30 @@ public class EntityServiceImpl implements EntityService {
         allEntities.update(entity);
     }
 
+    /**
+     * Returns the snapshot of the committed entity definitions, building it if necessary. Reads which
+     * can't be answered by the snapshot, such as reads of drafts, fall back to the database.
+     *
+     * @return the current snapshot or null if it can't be used in the current transaction
+     */
+    private SchemaSnapshot getSchemaSnapshot() {
+        SchemaSnapshot snapshot = schemaSnapshotHolder.getSnapshot();
+
+        if (null == snapshot && schemaSnapshotHolder.canUseSnapshot()) {
+            StopWatch stopWatch = new StopWatch();
+            stopWatch.start();
+
+            long version = schemaSnapshotHolder.getVersion();
+            snapshot = SchemaSnapshot.build(version, allEntities.getActualEntities());
+            schemaSnapshotHolder.install(snapshot);
+
+            stopWatch.stop();
+            LOGGER.debug("Schema snapshot version {} built in {} ms", version, stopWatch.getTime());
+        }
+
+        return snapshot;
+    }
+
     private void assertEntityExists(Entity entity, Long entityId) {
         if (entity == null) {
             throw new EntityNotFoundException(entityId);
@@ -1552,6 +1643,11 @@ public class EntityServiceImpl implements EntityService {
         this.comboboxDataMigrationHelper = comboboxDataMigrationHelper;
     }
 
+    @Autowired
+    public void setSchemaSnapshotHolder(SchemaSnapshotHolder schemaSnapshotHolder) {
+        this.schemaSnapshotHolder = schemaSnapshotHolder;
+    }
+
     @Autowired
     public void setUserPreferencesService(UserPreferencesService userPreferencesService) {
         this.userPreferencesService = userPreferencesService;
@@ -6,9 +6,9 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.time.StopWatch;
 import org.apache.velocity.app.VelocityEngine;
 import org.codehaus.jackson.map.ObjectMapper;
-import org.motechproject.commons.api.ThreadSuspender;
 import org.motechproject.mds.tasks.MDSDataProvider;
 import org.motechproject.mds.builder.MDSConstructor;
 import org.motechproject.mds.domain.ClassData;
@@ -25,6 +25,7 @@ import org.motechproject.mds.exception.MdsException;
 import org.motechproject.mds.helper.ActionParameterTypeResolver;
 import org.motechproject.mds.helper.bundle.MdsBundleHelper;
 import org.motechproject.mds.javassist.MotechClassPool;
+import org.motechproject.mds.osgi.EntitiesBundleCache;
 import org.motechproject.mds.osgi.EntitiesBundleMonitor;
 import org.motechproject.mds.repository.internal.MetadataHolder;
 import org.motechproject.mds.service.JarGeneratorService;
@@ -105,8 +106,11 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
     private BundleContext bundleContext;
     private MdsOsgiBundleApplicationContextListener mdsOsgiBundleApplicationContextListener;
 
+    private EntitiesBundleCache entitiesBundleCache;
+
     private final Object lock = new Object();
     private boolean moduleRefreshed;
+    private boolean initialRegeneration = true;
 
     @Override
     public synchronized void regenerateMdsDataBundle(SchemaHolder schemaHolder) {
@@ -133,10 +137,20 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
             clearModulesCache(moduleNames);
             cleanEntitiesBundleCachedClasses();
 
-            boolean constructed = mdsConstructor.constructEntities(schemaHolder);
+            StopWatch stopWatch = new StopWatch();
+            stopWatch.start();
+
+            // during startup we try to reuse the bundle generated for the same schema during the previous run
+            String fingerprint = entitiesBundleCache.getFingerprint(schemaHolder);
+            boolean restored = initialRegeneration && entitiesBundleCache.restore(fingerprint);
+            initialRegeneration = false;
 
-            if (!constructed) {
-                return;
+            if (!restored) {
+                boolean constructed = mdsConstructor.constructEntities(schemaHolder);
+
+                if (!constructed) {
+                    return;
+                }
             }
 
             LOGGER.info("Updating mds data provider");
@@ -152,9 +166,18 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
             File tmpBundleFile;
 
             try {
-                LOGGER.info("Generating bundle jar");
-                tmpBundleFile = generate(schemaHolder);
-                LOGGER.info("Generated bundle jar");
+                if (restored) {
+                    LOGGER.info("Using the cached bundle jar");
+                    tmpBundleFile = entitiesBundleCache.copyBundle();
+                    updateListenerRegistry();
+                } else {
+                    LOGGER.info("Generating bundle jar");
+                    tmpBundleFile = generate(schemaHolder);
+                    LOGGER.info("Generated bundle jar");
+
+                    stopWatch.stop();
+                    entitiesBundleCache.store(fingerprint, tmpBundleFile, stopWatch.getTime());
+                }
             } catch (IOException e) {
                 throw new MdsException("Unable to generate entities bundle", e);
             }
@@ -191,8 +214,10 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
             // Start bundles again if we stopped them manually
             startModulesForCoreBundleRefresh(moduleNames);
 
-            // Give framework some time before returning to the caller
-            ThreadSuspender.sleep(2000);
+            // restarting the core modules can refresh the entities bundle again, return only once its context is back
+            if (startBundle) {
+                monitor.waitForEntitiesContext();
+            }
         } finally {
             Thread.currentThread().setContextClassLoader(currentClassLoader);
         }
@@ -313,6 +338,15 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
                             trashClassData.getBytecode());
                 }
 
+                // insert property accessors, next to the classes they access
+                addAccessor(output, className);
+                if (historyClassData != null) {
+                    addAccessor(output, historyClassData.getClassName());
+                }
+                if (trashClassData != null) {
+                    addAccessor(output, trashClassData.getClassName());
+                }
+
                 if (!classData.isEnumClassData()) {
                     EntityDto entity = schemaHolder.getEntityByClassName(classData.getClassName());
                     List<FieldDto> fields = schemaHolder.getFields(entity);
@@ -368,6 +402,20 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
         }
     }
 
+    private void updateListenerRegistry() {
+        // the same updates as during the generation, based on the classes restored from the cache
+        StringBuilder entityNamesSb = new StringBuilder();
+
+        for (ClassData classData : MotechClassPool.getEnhancedClasses(false)) {
+            if (!classData.isEnumClassData()) {
+                entityNamesSb.append(classData.getClassName()).append('\n');
+            }
+        }
+
+        jdoListenerRegistryService.updateEntityNames();
+        jdoListenerRegistryService.removeInactiveListeners(entityNamesSb.toString());
+    }
+
     private EntityInfo buildEntityInfo(EntityDto entity, List<FieldDto> fields, AdvancedSettingsDto advancedSettings) {
         EntityInfo info = new EntityInfo();
 
@@ -404,6 +452,14 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
         }
     }
 
+    private void addAccessor(JarOutputStream output, String className) throws IOException {
+        ClassData accessorClassData = MotechClassPool.getAccessorClassData(className);
+        if (accessorClassData != null) {
+            addEntry(output, JavassistUtil.toClassPath(accessorClassData.getClassName()),
+                    accessorClassData.getBytecode());
+        }
+    }
+
     private boolean addClass(JarOutputStream output, String name) {
         CtClass clazz = MotechClassPool.getDefault().getOrNull(name);
         boolean added = false;
@@ -678,6 +734,11 @@ public class JarGeneratorServiceImpl implements JarGeneratorService {
         this.monitor = monitor;
     }
 
+    @Autowired
+    public void setEntitiesBundleCache(EntitiesBundleCache entitiesBundleCache) {
+        this.entitiesBundleCache = entitiesBundleCache;
+    }
+
     @Autowired
     public void setListenerRegistryService(JdoListenerRegistryService jdoListenerRegistryService) {
         this.jdoListenerRegistryService = jdoListenerRegistryService;
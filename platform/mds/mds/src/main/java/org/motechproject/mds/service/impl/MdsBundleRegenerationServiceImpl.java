@@ -1,18 +1,22 @@
 package org.motechproject.mds.service.impl;
 
 import org.motechproject.mds.dto.SchemaHolder;
+import org.motechproject.mds.exception.MdsException;
 import org.motechproject.mds.service.EntityService;
 import org.motechproject.mds.service.JarGeneratorService;
 import org.motechproject.mds.service.MdsBundleRegenerationService;
 import org.motechproject.server.osgi.event.OsgiEventProxy;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -22,12 +26,16 @@ import java.util.UUID;
  * {@link org.motechproject.mds.service.JarGeneratorService} to perform the MDS Entities Bundle regeneration
  * and messages broadcasting for communication with other Motech instances. This class uses {@link OsgiEventProxy}
  * to proxy Motech events though OSGi events, in order to avoid a dependency on the event module.
+ * Concurrent regeneration requests are coalesced - requests made while a regeneration is running are
+ * satisfied together by a single subsequent regeneration, which uses the schema from the time it starts.
  *
  * @see org.motechproject.mds.service.JarGeneratorService
  */
 @Service
 public class MdsBundleRegenerationServiceImpl implements MdsBundleRegenerationService, EventHandler {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MdsBundleRegenerationServiceImpl.class);
+
     private static final String REGENERATE_REQUEST_ID_EVENT_PARAM = "regenerate_request_id";
     private static final String MODULE_NAMES_EVENT_PARAM = "module_names";
 
@@ -35,12 +43,21 @@ public class MdsBundleRegenerationServiceImpl implements MdsBundleRegenerationSe
     private JarGeneratorService jarGeneratorService;
     private final Set<UUID> regenerateRequestIds = Collections.synchronizedSet(new HashSet<>());
     private EntityService entityService;
+    private SchemaSnapshotHolder schemaSnapshotHolder;
+
+    private final Object regenerationLock = new Object();
+    private final Set<String> pendingModuleNames = new LinkedHashSet<>();
+    private long requestedRegenerations;
+    private long completedRegenerations;
+    private boolean regenerationRunning;
+    private long failedRegenerationsFrom;
+    private long failedRegenerationsTo;
+    private RuntimeException lastFailure;
 
     @Override
     public void regenerateMdsDataBundle() {
         broadcast(REGENERATE_MDS_DATA_BUNDLE);
-        SchemaHolder schemaHolder = entityService.getSchema();
-        jarGeneratorService.regenerateMdsDataBundle(schemaHolder);
+        regenerate();
     }
 
     @Override
@@ -50,8 +67,7 @@ public class MdsBundleRegenerationServiceImpl implements MdsBundleRegenerationSe
 
         broadcast(REGENERATE_MDS_DATA_BUNDLE_AFTER_DDE_ENHANCEMENT, params);
 
-        SchemaHolder schemaHolder = entityService.getSchema();
-        jarGeneratorService.regenerateMdsDataBundleAfterDdeEnhancement(schemaHolder, moduleNames);
+        regenerate(moduleNames);
     }
 
     @Override
@@ -70,16 +86,86 @@ public class MdsBundleRegenerationServiceImpl implements MdsBundleRegenerationSe
 
     private void handleMdsDataBundleRegeneration(Event event) {
         if (!isBroadcastFromThisInstance(event)) {
-            SchemaHolder schemaHolder = entityService.getSchema();
-            jarGeneratorService.regenerateMdsDataBundle(schemaHolder);
+            regenerate();
         }
     }
 
     private void handleMdsDataBundleRegenerationAfterDdeEnhancement(Event event) {
         if (!isBroadcastFromThisInstance(event)) {
-            SchemaHolder schemaHolder = entityService.getSchema();
             String[] moduleNames = (String[]) event.getProperty(MODULE_NAMES_EVENT_PARAM);
-            jarGeneratorService.regenerateMdsDataBundleAfterDdeEnhancement(schemaHolder, moduleNames);
+            regenerate(moduleNames);
+        }
+    }
+
+    private void regenerate(String... moduleNames) {
+        long request;
+        long coveredRequests;
+        String[] moduleNamesToRefresh;
+
+        synchronized (regenerationLock) {
+            request = ++requestedRegenerations;
+            if (null != moduleNames) {
+                Collections.addAll(pendingModuleNames, moduleNames);
+            }
+
+            // wait for a running regeneration to finish, it might already cover this request
+            while (regenerationRunning && completedRegenerations < request) {
+                waitForRegeneration();
+            }
+
+            if (completedRegenerations >= request) {
+                LOGGER.debug("Regeneration request {} was coalesced with another regeneration", request);
+                rethrowFailure(request);
+                return;
+            }
+
+            regenerationRunning = true;
+            coveredRequests = requestedRegenerations;
+            moduleNamesToRefresh = pendingModuleNames.toArray(new String[pendingModuleNames.size()]);
+            pendingModuleNames.clear();
+        }
+
+        RuntimeException failure = null;
+        try {
+            // the schema might have been changed by another instance, we don't want to serve stale definitions
+            schemaSnapshotHolder.invalidate();
+            SchemaHolder schemaHolder = entityService.getSchema();
+
+            if (moduleNamesToRefresh.length == 0) {
+                jarGeneratorService.regenerateMdsDataBundle(schemaHolder);
+            } else {
+                jarGeneratorService.regenerateMdsDataBundleAfterDdeEnhancement(schemaHolder, moduleNamesToRefresh);
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            synchronized (regenerationLock) {
+                if (null != failure) {
+                    failedRegenerationsFrom = completedRegenerations + 1;
+                    failedRegenerationsTo = coveredRequests;
+                    lastFailure = failure;
+                }
+                completedRegenerations = coveredRequests;
+                regenerationRunning = false;
+                regenerationLock.notifyAll();
+            }
+        }
+    }
+
+    private void waitForRegeneration() {
+        try {
+            regenerationLock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MdsException("Interrupted while waiting for the MDS Entities Bundle regeneration", e);
+        }
+    }
+
+    private void rethrowFailure(long request) {
+        if (null != lastFailure && request >= failedRegenerationsFrom
+                && request <= failedRegenerationsTo) {
+            throw new MdsException("The MDS Entities Bundle regeneration has failed", lastFailure);
         }
     }
 
@@ -120,4 +206,9 @@ public class MdsBundleRegenerationServiceImpl implements MdsBundleRegenerationSe
     public void setEntityService(EntityService entityService) {
         this.entityService = entityService;
     }
+
+    @Autowired
+    public void setSchemaSnapshotHolder(SchemaSnapshotHolder schemaSnapshotHolder) {
+        this.schemaSnapshotHolder = schemaSnapshotHolder;
+    }
 }
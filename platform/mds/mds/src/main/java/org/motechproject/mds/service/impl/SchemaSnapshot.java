@@ -0,0 +1,221 @@
+package org.motechproject.mds.service.impl;
+
+import org.motechproject.mds.domain.Entity;
+import org.motechproject.mds.domain.Field;
+import org.motechproject.mds.domain.FieldMetadata;
+import org.motechproject.mds.domain.Lookup;
+import org.motechproject.mds.domain.UIDisplayFieldComparator;
+import org.motechproject.mds.dto.EntityDto;
+import org.motechproject.mds.dto.FieldDto;
+import org.motechproject.mds.dto.LookupDto;
+import org.motechproject.mds.util.Constants;
+import org.motechproject.mds.util.LookupName;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The <code>SchemaSnapshot</code> is an immutable, in-memory view of the committed MDS entity definitions.
+ * It holds the entity, field and lookup metadata which is read on every lookup execution and data browser
+ * request, indexed by entity id, entity class name and lookup name. Snapshots are built from the
+ * actual entities only - drafts are never part of a snapshot. The field and lookup data transfer objects held by a
+ * snapshot are shared between all callers and must not be modified. Entities are returned as copies, since their
+ * read only access flag depends on the current user.
+ *
+ * @see SchemaSnapshotHolder
+ */
+public final class SchemaSnapshot {
+
+    private final long version;
+
+    private final Map<Long, EntityDto> entitiesById = new HashMap<>();
+    private final Map<String, EntityDto> entitiesByClassName = new HashMap<>();
+    private final Map<String, Long> entityVersions = new HashMap<>();
+    private final Map<String, List<FieldDto>> fieldsByClassName = new HashMap<>();
+    private final Map<Long, Map<String, LookupDto>> lookups = new HashMap<>();
+    private final Map<Long, Map<String, Map<String, FieldDto>>> lookupFieldsMappings = new HashMap<>();
+
+    /**
+     * Builds a snapshot of the given entities. Must be called within a transaction, since
+     * the fields and lookups of the entities are loaded lazily.
+     *
+     * @param version the version of the snapshot holder at the time the entities were retrieved
+     * @param entities the actual entities which should be part of the snapshot
+     * @return the snapshot of the given entities
+     */
+    public static SchemaSnapshot build(long version, Collection<Entity> entities) {
+        return new SchemaSnapshot(version, entities);
+    }
+
+    private SchemaSnapshot(long version, Collection<Entity> entities) {
+        this.version = version;
+
+        Map<String, Entity> byClassName = new HashMap<>();
+        for (Entity entity : entities) {
+            byClassName.put(entity.getClassName(), entity);
+        }
+
+        for (Entity entity : entities) {
+            EntityDto entityDto = entity.toDto();
+
+            entitiesById.put(entity.getId(), entityDto);
+            entitiesByClassName.put(entity.getClassName(), entityDto);
+            entityVersions.put(entity.getClassName(), entity.getEntityVersion());
+
+            List<Field> fields = new ArrayList<>(entity.getFields());
+            Collections.sort(fields, new UIDisplayFieldComparator());
+
+            List<FieldDto> fieldDtos = new ArrayList<>();
+            for (Field field : fields) {
+                fieldDtos.add(field.toDto());
+            }
+            fieldsByClassName.put(entity.getClassName(), Collections.unmodifiableList(fieldDtos));
+
+            Map<String, LookupDto> entityLookups = new LinkedHashMap<>();
+            Map<String, Map<String, FieldDto>> entityLookupFieldsMappings = new HashMap<>();
+            for (Lookup lookup : entity.getLookups()) {
+                entityLookups.put(lookup.getLookupName(), lookup.toDto());
+
+                Map<String, FieldDto> mapping = lookupFieldsMapping(lookup, byClassName);
+                if (null != mapping) {
+                    entityLookupFieldsMappings.put(lookup.getLookupName(), mapping);
+                }
+            }
+            lookups.put(entity.getId(), entityLookups);
+            lookupFieldsMappings.put(entity.getId(), entityLookupFieldsMappings);
+        }
+    }
+
+    private static Map<String, FieldDto> lookupFieldsMapping(Lookup lookup, Map<String, Entity> entities) {
+        Map<String, FieldDto> fieldMap = new HashMap<>();
+
+        for (String lookupFieldName : lookup.getFieldsOrder()) {
+            Field field = lookup.getLookupFieldByName(LookupName.getFieldName(lookupFieldName));
+
+            if (null != field && lookupFieldName.contains(".")) {
+                FieldMetadata relatedClass = field.getMetadata(Constants.MetadataKeys.RELATED_CLASS);
+                Entity relatedEntity = (null == relatedClass) ? null : entities.get(relatedClass.getValue());
+                field = (null == relatedEntity) ? null : relatedEntity.getField(LookupName.getRelatedFieldName(lookupFieldName));
+            }
+
+            if (null == field) {
+                // leave resolving of broken lookups to the database, so that errors are reported as before
+                return null;
+            }
+
+            fieldMap.put(lookupFieldName, field.toDto());
+        }
+
+        return Collections.unmodifiableMap(fieldMap);
+    }
+
+    private static EntityDto copyForCurrentUser(EntityDto entity) {
+        if (null == entity) {
+            return null;
+        }
+
+        EntityDto copy = new EntityDto(entity.getId(), entity.getClassName(), entity.getName(), entity.getModule(),
+                entity.getNamespace(), entity.getTableName(), entity.isRecordHistory(), entity.getSecurityMode(),
+                entity.getSecurityMembers(), entity.getReadOnlySecurityMode(),
+                copyOf(entity.getReadOnlySecurityMembers()), entity.getSuperClass(), entity.isAbstractClass(),
+                entity.isSecurityOptionsModified(), entity.getBundleSymbolicName());
+
+        copy.setReadOnly(entity.isReadOnly());
+        copy.setModified(entity.isModified());
+        copy.setOutdated(entity.isOutdated());
+        copy.setMaxFetchDepth(entity.getMaxFetchDepth());
+        copy.setNonEditable(entity.isNonEditable());
+        copy.setSchemaVersion(entity.getSchemaVersion());
+        copy.setReadOnlyAccess(copy.checkIfUserHasOnlyReadAccessAuthorization());
+
+        return copy;
+    }
+
+    private static Set<String> copyOf(Set<String> members) {
+        return (null == members) ? null : new HashSet<>(members);
+    }
+
+    /**
+     * @return the version of the snapshot holder at the time this snapshot was built
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns a copy of the entity with the given id, with the read only access flag set for the current user.
+     *
+     * @param entityId the id of the entity
+     * @return the entity or null if the entity is not part of this snapshot
+     */
+    public EntityDto getEntity(Long entityId) {
+        return copyForCurrentUser(entitiesById.get(entityId));
+    }
+
+    /**
+     * Returns a copy of the entity with the given class name, with the read only access flag set for the current
+     * user.
+     *
+     * @param className the class name of the entity
+     * @return the entity or null if the entity is not part of this snapshot
+     */
+    public EntityDto getEntityByClassName(String className) {
+        return copyForCurrentUser(entitiesByClassName.get(className));
+    }
+
+    public Long getEntityVersion(String className) {
+        return entityVersions.get(className);
+    }
+
+    /**
+     * Returns the fields of the entity with the given class name, sorted by their UI display order.
+     *
+     * @param className the class name of the entity
+     * @return the fields of the entity or null if the entity is not part of this snapshot
+     */
+    public List<FieldDto> getFieldsByClassName(String className) {
+        List<FieldDto> fields = fieldsByClassName.get(className);
+        return (null == fields) ? null : new ArrayList<>(fields);
+    }
+
+    /**
+     * Returns the lookups of the given entity.
+     *
+     * @param entityId the id of the entity
+     * @return the lookups of the entity or null if the entity is not part of this snapshot
+     */
+    public List<LookupDto> getLookups(Long entityId) {
+        Map<String, LookupDto> entityLookups = lookups.get(entityId);
+        return (null == entityLookups) ? null : new ArrayList<>(entityLookups.values());
+    }
+
+    public boolean containsEntity(Long entityId) {
+        return entitiesById.containsKey(entityId);
+    }
+
+    public LookupDto getLookupByName(Long entityId, String lookupName) {
+        Map<String, LookupDto> entityLookups = lookups.get(entityId);
+        return (null == entityLookups) ? null : entityLookups.get(lookupName);
+    }
+
+    /**
+     * Returns the mapping of lookup field names to fields for the given lookup. Fields of related entities
+     * are resolved for lookup fields referring to them.
+     *
+     * @param entityId the id of the entity
+     * @param lookupName the name of the lookup
+     * @return the lookup fields mapping or null if the entity or the lookup are not part of this snapshot
+     */
+    public Map<String, FieldDto> getLookupFieldsMapping(Long entityId, String lookupName) {
+        Map<String, Map<String, FieldDto>> mappings = lookupFieldsMappings.get(entityId);
+        Map<String, FieldDto> mapping = (null == mappings) ? null : mappings.get(lookupName);
+        return (null == mapping) ? null : new HashMap<>(mapping);
+    }
+}
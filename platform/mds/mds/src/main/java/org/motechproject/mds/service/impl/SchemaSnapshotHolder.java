@@ -0,0 +1,107 @@
+package org.motechproject.mds.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The <code>SchemaSnapshotHolder</code> holds the current {@link SchemaSnapshot}. The snapshot is
+ * invalidated whenever the entity definitions change and rebuilt lazily on the next read. Each invalidation
+ * increments the version of the holder, a snapshot built from entities retrieved before an invalidation
+ * is never installed. Transactions which changed the schema don't use the snapshot until they complete,
+ * and the snapshot is invalidated again after their completion, so that other threads never see uncommitted
+ * definitions.
+ */
+@Component
+public class SchemaSnapshotHolder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaSnapshotHolder.class);
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<SchemaSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Returns the current snapshot.
+     *
+     * @return the current snapshot or null if it must be rebuilt or can't be used in the current transaction
+     */
+    public SchemaSnapshot getSnapshot() {
+        if (!canUseSnapshot()) {
+            return null;
+        }
+
+        SchemaSnapshot current = snapshot.get();
+        return (null != current && current.getVersion() == version.get()) ? current : null;
+    }
+
+    /**
+     * Checks whether the snapshot can be used in the current thread. Transactions which changed the schema
+     * must read the entity definitions from the database.
+     *
+     * @return true if the snapshot can be used, false otherwise
+     */
+    public boolean canUseSnapshot() {
+        return !TransactionSynchronizationManager.hasResource(this);
+    }
+
+    /**
+     * Returns the version which should be passed to the snapshot built after calling this method.
+     *
+     * @return the current version of the holder
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Installs the given snapshot, unless the holder was invalidated after its entities were retrieved or the
+     * current transaction changed the schema.
+     *
+     * @param newSnapshot the snapshot to install
+     * @return true if the snapshot was installed, false otherwise
+     */
+    public boolean install(SchemaSnapshot newSnapshot) {
+        if (!canUseSnapshot()) {
+            return false;
+        }
+
+        SchemaSnapshot current = snapshot.get();
+        while (newSnapshot.getVersion() == version.get()
+                && (null == current || current.getVersion() < newSnapshot.getVersion())) {
+            if (snapshot.compareAndSet(current, newSnapshot)) {
+                LOGGER.debug("Installed schema snapshot version {}", newSnapshot.getVersion());
+                return true;
+            }
+            current = snapshot.get();
+        }
+
+        return false;
+    }
+
+    /**
+     * Invalidates the current snapshot. If called within a transaction, the snapshot is invalidated
+     * again after the transaction completes.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshot.set(null);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SchemaSnapshotHolder.this);
+                    version.incrementAndGet();
+                    snapshot.set(null);
+                }
+            });
+        }
+    }
+}
@@ -70,6 +70,17 @@ public final class ClassName {
                 Constants.HistoryTrash.TRASH_SUFFIX);
     }
 
+    /**
+     * Retrieves fully qualified name of the generated {@link PropertyAccessor} for the given class. The accessor is
+     * placed in the same package as the class, so that it is loaded by the same class loader.
+     *
+     * @param className class name
+     * @return fully qualified accessor class name
+     */
+    public static String getAccessorClassName(String className) {
+        return className + Constants.Util.ACCESSOR_SUFFIX;
+    }
+
     /**
      * Retrieves fully qualified entity class name, for the End User Defined Entity.
      *
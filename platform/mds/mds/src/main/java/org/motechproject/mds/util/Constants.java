@@ -451,6 +451,7 @@ public final class Constants {
         public static final String SQL_QUERY = "javax.jdo.query.SQL";
         public static final String MDS_DATABASE_KEY = "mds.data.databaseName";
         public static final String SCHEMA_DATABASE_KEY = "mds.schema.databaseName";
+        public static final String ACCESSOR_SUFFIX = "__Accessor";
 
         public static final String[] GENERATED_FIELD_NAMES = new String[]{
                 CREATOR_FIELD_NAME, OWNER_FIELD_NAME, CREATION_DATE_FIELD_NAME,
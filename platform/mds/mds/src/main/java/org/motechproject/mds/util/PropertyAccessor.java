@@ -0,0 +1,79 @@
+package org.motechproject.mds.util;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <code>PropertyAccessor</code> reads and writes the properties of instances of a single class, without
+ * reflection. MDS generates a subclass of it for each entity, history and trash class it builds, see
+ * {@link org.motechproject.mds.builder.EntityBuilder#buildAccessor(String)}, and {@link PropertyUtil} uses it
+ * instead of reflection whenever one is available for the class of a bean.
+ * <p>
+ * Only properties with both a public getter and a public setter are accessible. They are identified by
+ * their index, in the alphabetical order of their names, which is also the order of the bean property descriptors.
+ */
+public abstract class PropertyAccessor {
+
+    private final List<String> propertyNames;
+    private final Map<String, Integer> indexes;
+
+    /**
+     * Creates an accessor of the given properties.
+     *
+     * @param propertyNames the names of the properties, in alphabetical order, separated with commas
+     */
+    protected PropertyAccessor(String propertyNames) {
+        String[] names = StringUtils.split(propertyNames, ',');
+
+        this.propertyNames = Collections.unmodifiableList(Arrays.asList(names));
+        this.indexes = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+    }
+
+    /**
+     * Returns the names of the accessible properties, in the order of their indexes.
+     *
+     * @return the property names
+     */
+    public List<String> getPropertyNames() {
+        return propertyNames;
+    }
+
+    /**
+     * Returns the index of the given property.
+     *
+     * @param propertyName the name of the property
+     * @return the index of the property, or -1 if it is not accessible
+     */
+    public int indexOf(String propertyName) {
+        Integer index = indexes.get(propertyName);
+        return null == index ? -1 : index;
+    }
+
+    /**
+     * Reads a property of the given bean, by calling its getter.
+     *
+     * @param bean the bean, an instance of the class of this accessor
+     * @param index the index of the property
+     * @return the value of the property, primitive values are wrapped
+     */
+    public abstract Object get(Object bean, int index);
+
+    /**
+     * Writes a property of the given bean, by calling its setter.
+     *
+     * @param bean the bean, an instance of the class of this accessor
+     * @param index the index of the property
+     * @param value the new value of the property
+     * @throws IllegalArgumentException if the value is null, but the property is primitive
+     * @throws ClassCastException if the value is not of the type of the property
+     */
+    public abstract void set(Object bean, int index, Object value);
+}
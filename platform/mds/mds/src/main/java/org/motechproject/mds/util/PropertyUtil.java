@@ -23,13 +23,21 @@ import java.util.Set;
 /**
  * The <code>PropertyUtil</code> util class provides the same method like
  * {@link org.apache.commons.beanutils.PropertyUtils} and two additional methods for safe writing
- * and reading property in the given bean.
+ * and reading property in the given bean. Properties of classes generated by MDS are accessed through their
+ * generated {@link PropertyAccessor}, without reflection.
  */
 public final class PropertyUtil extends PropertyUtils {
     private static final Logger LOGGER = LoggerFactory.getLogger(PropertyUtil.class);
 
     private static final NoOpConverter NO_OP_CONVERTER = new NoOpConverter();
 
+    private static final ClassValue<PropertyAccessor> ACCESSORS = new ClassValue<PropertyAccessor>() {
+        @Override
+        protected PropertyAccessor computeValue(Class<?> type) {
+            return loadAccessor(type);
+        }
+    };
+
     private PropertyUtil() {
     }
 
@@ -63,7 +71,12 @@ public final class PropertyUtil extends PropertyUtils {
     public static void safeSetProperty(Object bean, String name, Object value) {
         try {
             if (null != bean) {
-                if (isWriteable(bean, name)) {
+                PropertyAccessor accessor = getAccessor(bean.getClass());
+                int index = indexOf(accessor, name);
+
+                if (index >= 0) {
+                    setValue(accessor, bean, index, name, value);
+                } else if (isWriteable(bean, name)) {
                     setProperty(bean, name, value);
                 } else if (Character.isUpperCase(name.charAt(0))) {
                     safeSetProperty(bean, StringUtils.uncapitalize(name), value);
@@ -81,7 +94,12 @@ public final class PropertyUtil extends PropertyUtils {
 
         try {
             if (null != bean) {
-                if (isReadable(bean, name)) {
+                PropertyAccessor accessor = getAccessor(bean.getClass());
+                int index = indexOf(accessor, name);
+
+                if (index >= 0) {
+                    value = getValue(accessor, bean, index, name);
+                } else if (isReadable(bean, name)) {
                     value = getProperty(bean, name);
                 } else if (Character.isUpperCase(name.charAt(0))) {
                     return safeGetProperty(bean, StringUtils.uncapitalize(name));
@@ -122,6 +140,13 @@ public final class PropertyUtil extends PropertyUtils {
 
         Class objectClass = object.getClass();
 
+        PropertyAccessor objectAccessor = getAccessor(objectClass);
+        PropertyAccessor targetAccessor = getAccessor(target.getClass());
+        if (objectAccessor != null && targetAccessor != null) {
+            copyProperties(target, targetAccessor, object, objectAccessor, converterToUse, fieldsToUpdate);
+            return;
+        }
+
         for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(objectClass)) {
 
             if (shouldSkipField(descriptor, objectClass, fieldsToUpdate)) {
@@ -153,6 +178,12 @@ public final class PropertyUtil extends PropertyUtils {
 
         Class objectClass = newInstance.getClass();
 
+        PropertyAccessor newAccessor = getAccessor(objectClass);
+        PropertyAccessor oldAccessor = getAccessor(oldInstance.getClass());
+        if (newAccessor != null && oldAccessor != null) {
+            return findChangedFields(newInstance, newAccessor, oldInstance, oldAccessor, converterToUse);
+        }
+
         List<String> changedProperties = new ArrayList<>();
 
         for (PropertyDescriptor newValueDescriptor : PropertyUtils.getPropertyDescriptors(objectClass)) {
@@ -185,28 +216,142 @@ public final class PropertyUtil extends PropertyUtils {
         return changedProperties;
     }
 
+    /**
+     * Returns the generated accessor of the given class.
+     *
+     * @param type the class of a bean
+     * @return the accessor, or null if there is no accessor for the class
+     */
+    public static PropertyAccessor getAccessor(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    private static PropertyAccessor loadAccessor(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (null == classLoader) {
+            return null;
+        }
+
+        try {
+            // the accessor is generated next to the class it accesses
+            Class<?> accessorClass = classLoader.loadClass(ClassName.getAccessorClassName(type.getName()));
+
+            return PropertyAccessor.class.isAssignableFrom(accessorClass)
+                    ? (PropertyAccessor) accessorClass.newInstance()
+                    : null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.warn("Unable to load the property accessor of {}, reflection will be used instead", type, e);
+            return null;
+        }
+    }
+
+    private static int indexOf(PropertyAccessor accessor, String name) {
+        return null == accessor ? -1 : accessor.indexOf(name);
+    }
+
+    private static Object getValue(PropertyAccessor accessor, Object bean, int index, String name) {
+        try {
+            return accessor.get(bean, index);
+        } catch (RuntimeException e) {
+            LOGGER.error("There was a problem with get value of property {} in bean: {}", name, bean, e);
+            return null;
+        }
+    }
+
+    private static void setValue(PropertyAccessor accessor, Object bean, int index, String name, Object value) {
+        try {
+            accessor.set(bean, index, value);
+        } catch (RuntimeException e) {
+            LOGGER.error("There was a problem with set value {} for property {} in bean: {}", value, name, bean, e);
+        }
+    }
+
+    private static void copyProperties(Object target, PropertyAccessor targetAccessor, Object object,
+                                       PropertyAccessor objectAccessor, ValueConverter converter,
+                                       Set<String> fieldsToUpdate) {
+        List<String> names = objectAccessor.getPropertyNames();
+
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            // skip if this field is not present in the target
+            int targetIndex = targetAccessor.indexOf(name);
+
+            if (targetIndex < 0 || shouldSkipField(name, fieldsToUpdate)) {
+                continue;
+            }
+
+            try {
+                Object val = convertValue(object, name, objectAccessor.get(object, i), converter);
+                targetAccessor.set(target, targetIndex, val);
+            } catch (InvocationTargetException | IllegalAccessException | NoSuchMethodException | RuntimeException e) {
+                throw new PropertyCopyException("Unable to copy properties for " + object.getClass().getName(), e);
+            }
+        }
+    }
+
+    private static List<String> findChangedFields(Object newInstance, PropertyAccessor newAccessor,
+                                                  Object oldInstance, PropertyAccessor oldAccessor,
+                                                  ValueConverter converter) {
+        List<String> changedProperties = new ArrayList<>();
+        List<String> names = newAccessor.getPropertyNames();
+
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            // check only if the field is available in both
+            int oldIndex = oldAccessor.indexOf(name);
+
+            // skip the id field
+            if (oldIndex < 0 || Constants.Util.ID_FIELD_NAME.equals(name)) {
+                continue;
+            }
+
+            try {
+                Object newValue = convertValue(newInstance, name, newAccessor.get(newInstance, i), converter);
+                Object oldValue = convertValue(oldInstance, name, oldAccessor.get(oldInstance, oldIndex), converter);
+
+                if (!Objects.equals(newValue, oldValue)) {
+                    changedProperties.add(name);
+                }
+            } catch (InvocationTargetException | IllegalAccessException | NoSuchMethodException | RuntimeException e) {
+                throw new PropertyReadException("Unable to compare properties for " + newInstance.getClass().getName(),
+                        e);
+            }
+        }
+
+        return changedProperties;
+    }
+
+    private static Object convertValue(Object bean, String name, Object value, ValueConverter converter)
+            throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
+        // the descriptor is only looked up for converters which need it
+        return converter == NO_OP_CONVERTER
+                ? value
+                : converter.convert(value, PropertyUtils.getPropertyDescriptor(bean, name));
+    }
+
     private static boolean shouldSkipField(PropertyDescriptor descriptor, Class objectClass,
                                            Set<String> fieldsToUpdate) {
-        if (fieldsToUpdate != null && !fieldsToUpdate.contains(descriptor.getName())) {
+        return shouldSkipField(descriptor.getName(), fieldsToUpdate) || !readWriteAccessible(objectClass, descriptor);
+    }
+
+    private static boolean shouldSkipField(String name, Set<String> fieldsToUpdate) {
+        if (fieldsToUpdate != null && !fieldsToUpdate.contains(name)) {
             // if we have a list of fields to update, then skip if this field is not on it
             return true;
         }
 
-        if (fieldsToUpdate == null && ArrayUtils.contains(Constants.Util.GENERATED_FIELD_NAMES,
-                descriptor.getName())) {
+        if (fieldsToUpdate == null && ArrayUtils.contains(Constants.Util.GENERATED_FIELD_NAMES, name)) {
             // we skip generated fields unless we have fields explicitly provided
             return true;
         }
 
-        if (fieldsToUpdate == null && Constants.Util.INSTANCE_VERSION_FIELD_NAME.equals(descriptor.getName())) {
+        if (fieldsToUpdate == null && Constants.Util.INSTANCE_VERSION_FIELD_NAME.equals(name)) {
             // skip the version field
             return true;
         }
 
-        if (!readWriteAccessible(objectClass, descriptor)) {
-            return true;
-        }
-
         return false;
     }
 
@@ -22,6 +22,8 @@ import org.motechproject.mds.testutil.EntBuilderTestClass;
 import org.motechproject.mds.testutil.RelatedClass;
 import org.motechproject.mds.util.Constants;
 import org.motechproject.mds.util.MDSClassLoader;
+import org.motechproject.mds.util.PropertyAccessor;
+import org.motechproject.mds.util.PropertyUtil;
 import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +31,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.jdo.annotations.PersistenceCapable;
 import javax.jdo.annotations.Unique;
+import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -42,6 +45,8 @@ import java.util.Locale;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 import static org.motechproject.mds.testutil.FieldTestHelper.fieldDto;
@@ -210,6 +215,44 @@ public class EntityBuilderTest {
         assertField(clazz, "list", List.class);
     }
 
+    @Test
+    public void shouldBuildPropertyAccessor() throws Exception {
+        fields.addAll(asList(fieldDto("count", Integer.class), fieldDto("str", String.class),
+                fieldDto("dt", DateTime.class)));
+
+        Class<?> clazz = buildClass();
+
+        ClassData accessorData = entityBuilder.buildAccessor(ENTITY_NAME);
+        assertEquals(ENTITY_NAME + Constants.Util.ACCESSOR_SUFFIX, accessorData.getClassName());
+        mdsClassLoader.safeDefineClass(accessorData.getClassName(), accessorData.getBytecode());
+
+        PropertyAccessor accessor = PropertyUtil.getAccessor(clazz);
+        assertNotNull(accessor);
+        // the same properties, in the same order, as the bean introspector
+        List<String> propertyNames = new ArrayList<>();
+        for (PropertyDescriptor descriptor : PropertyUtil.getPropertyDescriptors(clazz)) {
+            if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null) {
+                propertyNames.add(descriptor.getName());
+            }
+        }
+        assertEquals(propertyNames, accessor.getPropertyNames());
+        assertTrue(propertyNames.containsAll(asList("count", "dt", "str")));
+
+        Object instance = clazz.newInstance();
+        DateTime now = DateUtil.now();
+
+        PropertyUtil.safeSetProperty(instance, "count", 5);
+        PropertyUtil.safeSetProperty(instance, "str", "value");
+        PropertyUtil.safeSetProperty(instance, "dt", now);
+        // a value of a wrong type is not set
+        PropertyUtil.safeSetProperty(instance, "count", "five");
+
+        assertEquals(5, PropertyUtil.safeGetProperty(instance, "count"));
+        assertEquals("value", PropertyUtil.safeGetProperty(instance, "str"));
+        assertEquals(now, PropertyUtil.safeGetProperty(instance, "dt"));
+        assertNull(PropertyUtil.safeGetProperty(instance, "modifiedBy"));
+    }
+
     @Test(expected = NoSuchFieldException.class)
     public void shouldNotAddVersionFieldToTheHistoryClass() throws Exception {
         FieldDto versionField = fieldDto("version", Long.class);
@@ -0,0 +1,73 @@
+package org.motechproject.mds.helper;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.motechproject.mds.dto.AdvancedSettingsDto;
+import org.motechproject.mds.dto.EntityDto;
+import org.motechproject.mds.dto.FieldDto;
+import org.motechproject.mds.dto.SchemaHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.motechproject.mds.testutil.FieldTestHelper.fieldDto;
+
+public class SchemaFingerprintsTest {
+
+    private SchemaHolder schemaHolder;
+    private EntityDto parent;
+    private EntityDto child;
+    private EntityDto other;
+
+    @Before
+    public void setUp() {
+        parent = new EntityDto(1L, "org.motechproject.Parent");
+        child = new EntityDto(2L, "org.motechproject.Child");
+        child.setSuperClass(parent.getClassName());
+        other = new EntityDto(3L, "org.motechproject.Other");
+
+        schemaHolder = new SchemaHolder();
+        schemaHolder.addEntity(parent, new AdvancedSettingsDto(), fields(fieldDto("name", String.class)));
+        schemaHolder.addEntity(child, new AdvancedSettingsDto(), fields(fieldDto("age", Integer.class)));
+        schemaHolder.addEntity(other, new AdvancedSettingsDto(), fields(fieldDto("value", String.class)));
+    }
+
+    @Test
+    public void shouldReturnSameFingerprintForSameSchema() {
+        assertEquals(SchemaFingerprints.entityFingerprint(schemaHolder, child),
+                SchemaFingerprints.entityFingerprint(schemaHolder, child));
+    }
+
+    @Test
+    public void shouldChangeFingerprintWhenFieldsChange() {
+        String before = SchemaFingerprints.entityFingerprint(schemaHolder, other);
+        String childBefore = SchemaFingerprints.entityFingerprint(schemaHolder, child);
+
+        schemaHolder.getFields(other).add(fieldDto("another", Long.class));
+
+        assertNotEquals(before, SchemaFingerprints.entityFingerprint(schemaHolder, other));
+        assertEquals(childBefore, SchemaFingerprints.entityFingerprint(schemaHolder, child));
+    }
+
+    @Test
+    public void shouldChangeFingerprintWhenSuperClassChanges() {
+        String before = SchemaFingerprints.entityFingerprint(schemaHolder, child);
+
+        schemaHolder.getFields(parent).add(fieldDto("surname", String.class));
+
+        assertNotEquals(before, SchemaFingerprints.entityFingerprint(schemaHolder, child));
+    }
+
+    @Test
+    public void shouldIncludeExtrasInFingerprint() {
+        assertNotEquals(SchemaFingerprints.entityFingerprint(schemaHolder, other, "1.0.0"),
+                SchemaFingerprints.entityFingerprint(schemaHolder, other, "1.0.1"));
+    }
+
+    private List<FieldDto> fields(FieldDto... fields) {
+        return new ArrayList<>(asList(fields));
+    }
+}
@@ -0,0 +1,106 @@
+package org.motechproject.mds.osgi;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.motechproject.mds.config.MdsConfig;
+import org.motechproject.mds.domain.ClassData;
+import org.motechproject.mds.domain.EntityType;
+import org.motechproject.mds.javassist.MotechClassPool;
+import org.motechproject.mds.util.ClassName;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EntitiesBundleCacheTest {
+
+    private static final String CLASS_NAME = "org.motechproject.mds.entity.CachedSample";
+    private static final String FINGERPRINT = "fingerprint";
+
+    private static final byte[] ENTITY_BYTES = new byte[]{1, 2, 3};
+    private static final byte[] HISTORY_BYTES = new byte[]{4, 5};
+    private static final byte[] TRASH_BYTES = new byte[]{6};
+    private static final byte[] BUNDLE_BYTES = new byte[]{7, 8, 9};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private MdsConfig mdsConfig;
+
+    private EntitiesBundleCache cache;
+
+    private File bundleFile;
+
+    @Before
+    public void setUp() throws IOException {
+        when(mdsConfig.getEntitiesBundleCacheDirectory()).thenReturn(new File(folder.getRoot(), "cache"));
+
+        cache = new EntitiesBundleCache();
+        cache.setMdsConfig(mdsConfig);
+
+        bundleFile = folder.newFile("mds-entities.jar");
+        FileUtils.writeByteArrayToFile(bundleFile, BUNDLE_BYTES);
+
+        MotechClassPool.clearEnhancedData();
+        MotechClassPool.registerEnhancedClassData(new ClassData(CLASS_NAME, "module", "namespace", ENTITY_BYTES));
+        MotechClassPool.registerHistoryClassData(new ClassData(ClassName.getHistoryClassName(CLASS_NAME), null, null,
+                HISTORY_BYTES, EntityType.HISTORY));
+        MotechClassPool.registerTrashClassData(new ClassData(ClassName.getTrashClassName(CLASS_NAME), null, null,
+                TRASH_BYTES, EntityType.TRASH));
+        MotechClassPool.registerEntityFingerprint(CLASS_NAME, "entityFingerprint");
+    }
+
+    @After
+    public void tearDown() {
+        MotechClassPool.clearEnhancedData();
+    }
+
+    @Test
+    public void shouldRestoreClassesForMatchingFingerprint() throws IOException {
+        cache.store(FINGERPRINT, bundleFile, 1000);
+        MotechClassPool.clearEnhancedData();
+
+        assertTrue(cache.restore(FINGERPRINT));
+
+        ClassData entity = MotechClassPool.getEnhancedClassData(CLASS_NAME);
+        assertArrayEquals(ENTITY_BYTES, entity.getBytecode());
+        assertEquals("module", entity.getModule());
+        assertEquals("namespace", entity.getNamespace());
+        assertArrayEquals(HISTORY_BYTES, MotechClassPool.getHistoryClassData(CLASS_NAME).getBytecode());
+        assertEquals(EntityType.HISTORY, MotechClassPool.getHistoryClassData(CLASS_NAME).getType());
+        assertArrayEquals(TRASH_BYTES, MotechClassPool.getTrashClassData(CLASS_NAME).getBytecode());
+        assertEquals("entityFingerprint", MotechClassPool.getEntityFingerprint(CLASS_NAME));
+
+        assertArrayEquals(BUNDLE_BYTES, FileUtils.readFileToByteArray(cache.copyBundle()));
+    }
+
+    @Test
+    public void shouldNotRestoreClassesForDifferentFingerprint() {
+        cache.store(FINGERPRINT, bundleFile, 1000);
+        MotechClassPool.clearEnhancedData();
+
+        assertFalse(cache.restore("otherFingerprint"));
+
+        assertNull(MotechClassPool.getEnhancedClassData(CLASS_NAME));
+    }
+
+    @Test
+    public void shouldNotRestoreClassesWithoutCache() {
+        assertFalse(cache.restore(FINGERPRINT));
+    }
+}
@@ -0,0 +1,54 @@
+package org.motechproject.mds.rest;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.motechproject.commons.api.Range;
+import org.motechproject.mds.util.Order;
+
+import javax.jdo.Query;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InstancesChunkSearchTest {
+
+    @Mock
+    private Query query;
+
+    @Test
+    public void shouldReadChunkAfterTheGivenId() {
+        when(query.executeWithArray(any(Object[].class))).thenReturn(asList("a", "b"));
+
+        InstancesChunkSearch<String> search = new InstancesChunkSearch<>(
+                asList(new Order("id", Order.Direction.ASC)), new Range<>(101L, null), 0, 100);
+        List<String> chunk = search.execute(query, null);
+
+        assertEquals(asList("a", "b"), chunk);
+        verify(query).setFilter("id>=param0lb");
+        verify(query).declareParameters("java.lang.Long param0lb");
+        verify(query).setOrdering("id ascending");
+        verify(query).setRange(0, 100);
+        verify(query).executeWithArray(101L);
+    }
+
+    @Test
+    public void shouldReadChunkByOffset() {
+        when(query.executeWithArray(any(Object[].class))).thenReturn(asList("c"));
+
+        InstancesChunkSearch<String> search = new InstancesChunkSearch<>(
+                asList(new Order("value", Order.Direction.DESC), new Order("id", Order.Direction.ASC)), null, 240, 10);
+        List<String> chunk = search.execute(query, null);
+
+        assertEquals(asList("c"), chunk);
+        verify(query).setOrdering("value descending, id ascending");
+        verify(query).setRange(240, 250);
+        verify(query).executeWithArray();
+    }
+}
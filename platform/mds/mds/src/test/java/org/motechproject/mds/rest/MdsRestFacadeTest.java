@@ -11,6 +11,8 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.motechproject.mds.entityinfo.EntityInfo;
 import org.motechproject.mds.domain.Field;
@@ -25,22 +27,27 @@ import org.motechproject.mds.exception.rest.RestLookupExecutionForbiddenExceptio
 import org.motechproject.mds.exception.rest.RestLookupNotFoundException;
 import org.motechproject.mds.exception.rest.RestNoLookupResultException;
 import org.motechproject.mds.exception.rest.RestOperationNotSupportedException;
+import org.motechproject.mds.query.QueryExecution;
 import org.motechproject.mds.query.QueryParams;
 import org.motechproject.mds.service.MotechDataService;
 import org.motechproject.mds.testutil.FieldTestHelper;
 import org.motechproject.mds.testutil.records.Record;
 import org.motechproject.mds.util.Order;
+import org.springframework.transaction.support.TransactionCallback;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertArrayEquals;
@@ -49,10 +56,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -99,6 +108,10 @@ public class MdsRestFacadeTest {
 
     private byte[] encodedBlobField = Base64.encodeBase64(ArrayUtils.toPrimitive(blobFieldValue));
 
+    private AtomicBoolean inTransaction = new AtomicBoolean();
+
+    private AtomicInteger transactions = new AtomicInteger();
+
     @Before
     public void setUp() {
         when(dataService.getClassType()).thenReturn(Record.class);
@@ -138,10 +151,23 @@ public class MdsRestFacadeTest {
         //set up data service
         when(dataService.retrieveAll(any(QueryParams.class))).thenReturn(asList(recordOne));
         when(dataService.retrieveAll()).thenReturn(asList(recordOne));
+        when(dataService.executeQuery(any(QueryExecution.class))).thenReturn(asList(recordOne));
         when(dataService.findById(1l)).thenReturn(recordOne);
         when(dataService.create(recordOne)).thenReturn(recordOne);
         when(dataService.getDetachedField(recordOne, BLOB_FIELD))
                 .thenReturn(blobFieldValue);
+        when(dataService.doInTransaction(any(TransactionCallback.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                inTransaction.set(true);
+                transactions.incrementAndGet();
+                try {
+                    return ((TransactionCallback<?>) invocation.getArguments()[0]).doInTransaction(null);
+                } finally {
+                    inTransaction.set(false);
+                }
+            }
+        });
 
         // do the initialization, normally called by Spring as @PostConstruct
         mdsRestFacade.init();
@@ -252,6 +278,116 @@ public class MdsRestFacadeTest {
         assertEquals(Long.valueOf(1), longCaptor.getValue());
     }
 
+    @Test
+    public void shouldWriteTheSameJsonAsTheResponse() throws IOException {
+        setUpCrudAccess(false, true, false, false);
+        when(dataService.count()).thenReturn(81l);
+        recordOne.setDate(new Date());
+
+        QueryParams queryParams = new QueryParams(5, 20, new Order("value", Order.Direction.DESC));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mdsRestFacade.get(queryParams, false, RestFormat.JSON, output);
+
+        assertEquals(objectMapper.writeValueAsString(mdsRestFacade.get(queryParams, false)), output.toString("UTF-8"));
+    }
+
+    @Test
+    public void shouldWriteBlobFieldsWithoutSettingThemInInstances() throws IOException {
+        setUpCrudAccess(false, true, false, false);
+        QueryParams queryParams = new QueryParams(5, 20, new Order("value", Order.Direction.DESC));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mdsRestFacade.get(queryParams, true, RestFormat.JSON, output);
+
+        verify(dataService).getDetachedField(recordOne, BLOB_FIELD);
+        assertNull(recordOne.getBlob());
+
+        assertEquals(objectMapper.writeValueAsString(mdsRestFacade.get(queryParams, true)), output.toString("UTF-8"));
+    }
+
+    @Test
+    public void shouldWriteInstancesAfterTheTransactionEnded() throws IOException {
+        setUpCrudAccess(false, true, false, false);
+        when(dataService.getDetachedField(recordOne, BLOB_FIELD)).thenAnswer(new Answer<Byte[]>() {
+            @Override
+            public Byte[] answer(InvocationOnMock invocation) {
+                // loaded in a transaction of its own, after the one reading the chunk
+                assertTrue(inTransaction.get());
+                assertEquals(2, transactions.get());
+                return blobFieldValue;
+            }
+        });
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                assertFalse(inTransaction.get());
+                super.write(bytes, offset, length);
+            }
+        };
+        mdsRestFacade.get(new QueryParams(1, 20), true, RestFormat.NDJSON, output);
+
+        verify(dataService, times(2)).doInTransaction(any(TransactionCallback.class));
+        Map<?, ?> instance = objectMapper.readValue(output.toString("UTF-8"), Map.class);
+        // written the same way as the projection, which holds the encoded bytes
+        assertEquals(new String(Base64.encodeBase64(encodedBlobField), "UTF-8"), instance.get(BLOB_FIELD));
+    }
+
+    @Test
+    public void shouldWriteInstancesAsNdjson() throws IOException {
+        setUpCrudAccess(false, true, false, false);
+        Record recordTwo = testRecord();
+        recordTwo.setValue("secondRecord");
+        when(dataService.executeQuery(any(QueryExecution.class))).thenReturn(asList(recordOne, recordTwo));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mdsRestFacade.get(new QueryParams(1, 20), false, RestFormat.NDJSON, output);
+
+        String[] lines = output.toString("UTF-8").split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(output.toString("UTF-8").endsWith("\n"));
+
+        Map<?, ?> first = objectMapper.readValue(lines[0], Map.class);
+        Map<?, ?> second = objectMapper.readValue(lines[1], Map.class);
+        assertEquals(asList(VALUE_FIELD, DATE_FIELD, BLOB_FIELD), asList(first.keySet().toArray()));
+        assertEquals("restTest", first.get(VALUE_FIELD));
+        assertEquals("secondRecord", second.get(VALUE_FIELD));
+        assertNull(second.get(BLOB_FIELD));
+    }
+
+    @Test
+    public void shouldHoldOneChunkOfInstancesAtATime() throws IOException {
+        setUpCrudAccess(false, true, false, false);
+
+        final List<Record> records = new ArrayList<>();
+        for (long id = 1; id <= 250; id++) {
+            Record record = testRecord();
+            record.setId(id);
+            records.add(record);
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final AtomicInteger read = new AtomicInteger();
+        when(dataService.executeQuery(any(QueryExecution.class))).thenAnswer(new Answer<List<Record>>() {
+            @Override
+            public List<Record> answer(InvocationOnMock invocation) throws IOException {
+                // every instance read before was written before the next chunk is read
+                assertEquals(read.get(), StringUtils.countMatches(output.toString("UTF-8"), "\"" + VALUE_FIELD + "\""));
+
+                int from = read.get();
+                int to = Math.min(from + MdsRestFacadeImpl.CHUNK_SIZE, records.size());
+                read.set(to);
+                return new ArrayList<>(records.subList(from, to));
+            }
+        });
+
+        mdsRestFacade.get(new QueryParams(null, null), false, RestFormat.NDJSON, output);
+
+        verify(dataService, times(3)).executeQuery(any(QueryExecution.class));
+        assertEquals(250, output.toString("UTF-8").split("\n").length);
+    }
+
     @Test
     public void shouldDoCreateOperation() throws IOException {
         setUpCrudAccess(true, false, false, false);
@@ -404,6 +540,19 @@ public class MdsRestFacadeTest {
         mdsRestFacade.get(new QueryParams(1, 10), false);
     }
 
+    @Test
+    public void shouldNotWriteAnythingForUnsupportedRead() throws IOException {
+        setUpCrudAccess(true, false, true, true);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            mdsRestFacade.get(new QueryParams(1, 10), false, RestFormat.JSON, output);
+            fail("Read should not be supported");
+        } catch (RestOperationNotSupportedException e) {
+            assertEquals(0, output.size());
+        }
+    }
+
     @Test(expected = RestOperationNotSupportedException.class)
     public void shouldThrowExceptionForUnsupportedUpdate() {
         setUpCrudAccess(true, true, false, true);
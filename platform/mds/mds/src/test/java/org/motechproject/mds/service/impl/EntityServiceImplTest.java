@@ -79,6 +79,9 @@ public class EntityServiceImplTest {
     @Mock
     private AllTypes allTypes;
 
+    @Spy
+    private SchemaSnapshotHolder schemaSnapshotHolder = new SchemaSnapshotHolder();
+
     @Mock
     private MdsJDOEnhancer enhancer;
 
@@ -7,21 +7,30 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.motechproject.mds.dto.SchemaHolder;
 import org.motechproject.mds.service.EntityService;
 import org.motechproject.mds.service.JarGeneratorService;
 import org.motechproject.server.osgi.event.OsgiEventProxy;
 import org.osgi.service.event.Event;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.motechproject.mds.service.MdsBundleRegenerationService.REGENERATE_MDS_DATA_BUNDLE;
@@ -47,6 +56,9 @@ public class MdsBundleRegenerationServiceImplTest {
     @Mock
     private SchemaHolder schemaHolder;
 
+    @Mock
+    private SchemaSnapshotHolder schemaSnapshotHolder;
+
     @Mock
     private MdsBundleRegenerationServiceImpl mdsBundleRegenerationServiceOnOtherInstance;
 
@@ -106,6 +118,75 @@ public class MdsBundleRegenerationServiceImplTest {
         verify(jarGeneratorService).regenerateMdsDataBundle(schemaHolder);
     }
 
+    @Test
+    public void shouldCoalesceConcurrentRegenerationRequests() throws InterruptedException {
+        final CountDownLatch firstRegenerationStarted = new CountDownLatch(1);
+        final CountDownLatch releaseFirstRegeneration = new CountDownLatch(1);
+
+        doAnswer(new Answer<Void>() {
+            private boolean first = true;
+
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                if (first) {
+                    first = false;
+                    firstRegenerationStarted.countDown();
+                    releaseFirstRegeneration.await();
+                }
+                return null;
+            }
+        }).when(jarGeneratorService).regenerateMdsDataBundle(schemaHolder);
+
+        // every request broadcasts before it regenerates
+        final CountDownLatch requestsMade = new CountDownLatch(6);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                requestsMade.countDown();
+                return null;
+            }
+        }).when(osgiEventProxy).broadcastEvent(anyString(), anyMap(), anyBoolean());
+
+        Thread first = startRegeneration();
+        firstRegenerationStarted.await();
+
+        List<Thread> waiting = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            waiting.add(startRegeneration());
+        }
+
+        requestsMade.await();
+        // the waiting threads queue up behind the running regeneration, the only place where they can wait
+        for (Thread thread : waiting) {
+            awaitWaitingState(thread);
+        }
+        releaseFirstRegeneration.countDown();
+
+        first.join();
+        for (Thread thread : waiting) {
+            thread.join();
+        }
+
+        verify(jarGeneratorService, times(2)).regenerateMdsDataBundle(schemaHolder);
+    }
+
+    private void awaitWaitingState(Thread thread) {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+    }
+
+    private Thread startRegeneration() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mdsBundleRegenerationService.regenerateMdsDataBundle();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
     private class ParamsMatcher extends ArgumentMatcher<Map<String, Object>> {
 
         private final String[] expectedModules;
@@ -0,0 +1,154 @@
+package org.motechproject.mds.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.motechproject.mds.domain.Entity;
+import org.motechproject.mds.domain.Field;
+import org.motechproject.mds.domain.Lookup;
+import org.motechproject.mds.domain.Type;
+import org.motechproject.mds.dto.EntityDto;
+import org.motechproject.mds.dto.FieldDto;
+import org.motechproject.mds.util.SecurityMode;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SchemaSnapshotHolderTest {
+
+    private static final String CLASS_NAME = "org.motechproject.mds.entity.Patient";
+
+    private SchemaSnapshotHolder holder;
+
+    @Before
+    public void setUp() {
+        holder = new SchemaSnapshotHolder();
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void shouldInstallSnapshot() {
+        SchemaSnapshot snapshot = SchemaSnapshot.build(holder.getVersion(), Collections.<Entity>emptyList());
+
+        assertNull(holder.getSnapshot());
+        assertTrue(holder.install(snapshot));
+        assertSame(snapshot, holder.getSnapshot());
+    }
+
+    @Test
+    public void shouldDropSnapshotOnInvalidation() {
+        holder.install(SchemaSnapshot.build(holder.getVersion(), Collections.<Entity>emptyList()));
+
+        holder.invalidate();
+
+        assertNull(holder.getSnapshot());
+    }
+
+    @Test
+    public void shouldNotInstallSnapshotBuiltBeforeInvalidation() {
+        SchemaSnapshot stale = SchemaSnapshot.build(holder.getVersion(), Collections.<Entity>emptyList());
+
+        holder.invalidate();
+
+        assertFalse(holder.install(stale));
+        assertNull(holder.getSnapshot());
+    }
+
+    @Test
+    public void shouldIndexEntitiesAndLookups() {
+        Entity entity = new Entity(CLASS_NAME);
+        entity.setId(7L);
+
+        Field name = new Field(entity, "name", "Name", new Type(String.class));
+        Field age = new Field(entity, "age", "Age", new Type(Integer.class));
+        entity.addField(name);
+        entity.addField(age);
+
+        Lookup lookup = new Lookup("By name and age", false, false, asList(name, age));
+        lookup.setFieldsOrder(asList("name", "age"));
+        entity.addLookup(lookup);
+
+        SchemaSnapshot snapshot = SchemaSnapshot.build(holder.getVersion(), asList(entity));
+
+        assertTrue(snapshot.containsEntity(7L));
+        assertEquals(CLASS_NAME, snapshot.getEntity(7L).getClassName());
+        assertEquals(Long.valueOf(7L), snapshot.getEntityByClassName(CLASS_NAME).getId());
+        assertEquals(2, snapshot.getFieldsByClassName(CLASS_NAME).size());
+        assertEquals(1, snapshot.getLookups(7L).size());
+        assertEquals("By name and age", snapshot.getLookupByName(7L, "By name and age").getLookupName());
+
+        Map<String, FieldDto> mapping = snapshot.getLookupFieldsMapping(7L, "By name and age");
+        assertEquals("name", mapping.get("name").getBasic().getName());
+        assertEquals("age", mapping.get("age").getBasic().getName());
+
+        assertNull(snapshot.getLookupByName(7L, "Unknown"));
+        assertNull(snapshot.getLookupFieldsMapping(8L, "By name and age"));
+    }
+
+    @Test
+    public void shouldSetReadOnlyAccessForTheCurrentUser() {
+        Entity entity = new Entity(CLASS_NAME);
+        entity.setId(7L);
+        entity.setSecurity(SecurityMode.USERS, asList("admin"));
+        entity.setReadOnlySecurity(SecurityMode.PERMISSIONS, asList("viewPatients"));
+
+        // the snapshot is built by a user with read only access
+        logIn("viewer", "viewPatients");
+        SchemaSnapshot snapshot = SchemaSnapshot.build(holder.getVersion(), asList(entity));
+
+        assertTrue(snapshot.getEntity(7L).isReadOnlyAccess());
+        assertTrue(snapshot.getEntityByClassName(CLASS_NAME).isReadOnlyAccess());
+
+        logIn("admin");
+
+        assertFalse(snapshot.getEntity(7L).isReadOnlyAccess());
+        assertFalse(snapshot.getEntityByClassName(CLASS_NAME).isReadOnlyAccess());
+    }
+
+    @Test
+    public void shouldNotShareEntitiesBetweenCallers() {
+        Entity entity = new Entity(CLASS_NAME);
+        entity.setId(7L);
+
+        SchemaSnapshot snapshot = SchemaSnapshot.build(holder.getVersion(), asList(entity));
+
+        EntityDto first = snapshot.getEntity(7L);
+        first.setClassName("org.motechproject.mds.entity.Changed");
+        first.getSecurityMembers().add("intruder");
+
+        EntityDto second = snapshot.getEntity(7L);
+        assertNotSame(first, second);
+        assertEquals(CLASS_NAME, second.getClassName());
+        assertFalse(second.getSecurityMembers().contains("intruder"));
+    }
+
+    private void logIn(String username, String... permissions) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String permission : permissions) {
+            authorities.add(new SimpleGrantedAuthority(permission));
+        }
+
+        User principal = new User(username, username, authorities);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, authorities));
+    }
+}
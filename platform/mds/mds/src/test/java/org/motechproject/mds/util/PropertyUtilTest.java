@@ -12,6 +12,7 @@ import java.util.Set;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class PropertyUtilTest {
@@ -73,6 +74,33 @@ public class PropertyUtilTest {
         assertTrue(instance.getList().containsAll(collection));
     }
 
+    @Test
+    public void shouldUseGeneratedAccessor() {
+        AccessedBean bean = new AccessedBean();
+        AccessedBean__Accessor.calls = 0;
+
+        PropertyUtil.safeSetProperty(bean, "name", "accessed");
+        assertEquals("accessed", PropertyUtil.safeGetProperty(bean, "name"));
+        assertEquals(2, AccessedBean__Accessor.calls);
+
+        AccessedBean target = new AccessedBean();
+        PropertyUtil.copyProperties(target, bean);
+        assertEquals("accessed", target.getName());
+        assertEquals(4, AccessedBean__Accessor.calls);
+
+        target.setName("changed");
+        assertEquals(asList("name"), PropertyUtil.findChangedFields(target, bean));
+    }
+
+    @Test
+    public void shouldFallBackToReflectionWithoutAccessor() {
+        assertNull(PropertyUtil.getAccessor(TestClassWithCollections.class));
+        assertNotNull(PropertyUtil.getAccessor(AccessedBean.class));
+
+        TestClassWithCollections instance = new TestClassWithCollections();
+        PropertyUtil.safeSetProperty(instance, "List", asList("egg"));
+        assertEquals(asList("egg"), PropertyUtil.safeGetProperty(instance, "list"));
+    }
 
     private class TestClass {
 
@@ -136,4 +164,36 @@ public class PropertyUtilTest {
             this.list = list;
         }
     }
+
+    public static class AccessedBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class AccessedBean__Accessor extends PropertyAccessor {
+        private static int calls;
+
+        public AccessedBean__Accessor() {
+            super("name");
+        }
+
+        @Override
+        public Object get(Object bean, int index) {
+            calls++;
+            return ((AccessedBean) bean).getName();
+        }
+
+        @Override
+        public void set(Object bean, int index, Object value) {
+            calls++;
+            ((AccessedBean) bean).setName((String) value);
+        }
+    }
 }
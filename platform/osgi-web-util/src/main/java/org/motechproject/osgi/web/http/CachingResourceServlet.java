@@ -0,0 +1,140 @@
+package org.motechproject.osgi.web.http;
+
+import org.apache.commons.lang.StringUtils;
+import org.motechproject.osgi.web.http.StaticResourceCache.StaticResource;
+import org.osgi.framework.Bundle;
+import org.osgi.service.http.HttpContext;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Serves static resources of a bundle, registered with the {@link org.osgi.service.http.HttpService} in place of
+ * {@link org.osgi.service.http.HttpService#registerResources(String, String, HttpContext)}. Resources are resolved
+ * through the given {@link HttpContext} and kept in the {@link StaticResourceCache}. Responses carry a strong
+ * <code>ETag</code> and a <code>Last-Modified</code> header, conditional requests are answered with
+ * <code>304 Not Modified</code> and text resources are sent gzip compressed to clients accepting it. The compressed
+ * and the identity representations of a resource have different entity tags.
+ * Since resource URLs are not versioned, browsers are told to revalidate resources on every use, unless the
+ * request carries a query string - such URLs are treated as versioned and may be cached for a year.
+ * Resources served by a {@link FileSystemAwareUIHttpContext} are never cached, since they change during development.
+ */
+public class CachingResourceServlet extends HttpServlet {
+
+    private static final long serialVersionUID = -4325431768367402741L;
+
+    public static final String REVALIDATE_CACHE_CONTROL = "public, no-cache";
+    public static final String VERSIONED_CACHE_CONTROL = "public, max-age=31536000";
+
+    private static final String GZIP = "gzip";
+
+    private final String path;
+    private final HttpContext httpContext;
+    private final Bundle bundle;
+    private final StaticResourceCache cache;
+
+    /**
+     * Creates the servlet.
+     *
+     * @param path the internal path of the resources in the bundle, for example {@code /webapp}
+     * @param httpContext the context used for resolving resources
+     * @param bundle the bundle serving the resources
+     */
+    public CachingResourceServlet(String path, HttpContext httpContext, Bundle bundle) {
+        this(path, httpContext, bundle, StaticResourceCache.getInstance());
+    }
+
+    CachingResourceServlet(String path, HttpContext httpContext, Bundle bundle, StaticResourceCache cache) {
+        this.path = "/".equals(path) ? "" : path;
+        this.httpContext = httpContext;
+        this.bundle = bundle;
+        this.cache = cache;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String target = StringUtils.defaultString(req.getPathInfo());
+        if (!target.startsWith("/")) {
+            target = "/" + target;
+        }
+
+        // the http context expects resource names without the leading slash
+        String name = StringUtils.removeStart(path + target, "/");
+
+        URL url = httpContext.getResource(name);
+        if (null == url) {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String mimeType = httpContext.getMimeType(name);
+        if (null == mimeType && null != getServletConfig()) {
+            mimeType = getServletContext().getMimeType(name);
+        }
+
+        StaticResource resource = (httpContext instanceof FileSystemAwareUIHttpContext)
+                ? cache.load(url, mimeType, bundle.getLastModified())
+                : cache.get(bundle.getBundleId(), bundle.getLastModified(), name, url, mimeType);
+
+        boolean compressed = null != resource.getCompressedContent() && acceptsGzip(req);
+        String etag = compressed ? resource.getCompressedEtag() : resource.getEtag();
+
+        if (null != resource.getCompressedContent()) {
+            resp.setHeader("Vary", "Accept-Encoding");
+        }
+        resp.setHeader("ETag", etag);
+        resp.setDateHeader("Last-Modified", resource.getLastModified());
+        resp.setHeader("Cache-Control", null == req.getQueryString() ? REVALIDATE_CACHE_CONTROL : VERSIONED_CACHE_CONTROL);
+
+        if (isNotModified(req, etag, resource.getLastModified())) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (null != resource.getMimeType()) {
+            resp.setContentType(resource.getMimeType());
+        }
+
+        byte[] content = resource.getContent();
+        if (compressed) {
+            resp.setHeader("Content-Encoding", GZIP);
+            content = resource.getCompressedContent();
+        }
+
+        resp.setContentLength(content.length);
+        resp.getOutputStream().write(content);
+    }
+
+    private boolean isNotModified(HttpServletRequest req, String etag, long lastModified) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (null != ifNoneMatch) {
+            for (String tag : StringUtils.split(ifNoneMatch, ',')) {
+                // If-None-Match uses the weak comparison
+                String trimmed = StringUtils.removeStart(tag.trim(), "W/");
+                if ("*".equals(trimmed) || etag.equals(trimmed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        // dates in headers have a precision of one second
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    private boolean acceptsGzip(HttpServletRequest req) {
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        return null != acceptEncoding && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+}
@@ -0,0 +1,218 @@
+package org.motechproject.osgi.web.http;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The <code>StaticResourceCache</code> keeps static UI resources of bundles in memory, so that they don't have to be
+ * read from the bundle jars on every request. Resources are keyed by the id and the last modification time of the
+ * bundle they come from, which means that resources of an updated bundle are never served from the cache.
+ * Text resources are additionally kept in a gzip compressed form. Entries of a bundle are evicted once its
+ * resources are unregistered from the HTTP service.
+ */
+public final class StaticResourceCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StaticResourceCache.class);
+
+    /**
+     * Resources bigger than this are not cached.
+     */
+    public static final int MAX_CACHED_RESOURCE_SIZE = 2 * 1024 * 1024;
+
+    /**
+     * Text resources smaller than this are not compressed, the gain would be negligible.
+     */
+    public static final int MIN_COMPRESSED_RESOURCE_SIZE = 512;
+
+    private static final StaticResourceCache INSTANCE = new StaticResourceCache();
+
+    private final Map<String, StaticResource> resources = new ConcurrentHashMap<>();
+
+    public static StaticResourceCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the resource with the given name, loading it from the given URL if it is not cached yet.
+     *
+     * @param bundleId the id of the bundle the resource comes from
+     * @param bundleLastModified the last modification time of the bundle the resource comes from
+     * @param name the name of the resource
+     * @param url the URL from which the resource can be loaded
+     * @param mimeType the mime type of the resource, can be null
+     * @return the resource
+     * @throws IOException if the resource could not be read
+     */
+    public StaticResource get(long bundleId, long bundleLastModified, String name, URL url, String mimeType)
+            throws IOException {
+        String key = key(bundleId, bundleLastModified, name);
+
+        StaticResource resource = resources.get(key);
+        if (null == resource) {
+            resource = load(url, mimeType, bundleLastModified);
+
+            if (resource.getContent().length <= MAX_CACHED_RESOURCE_SIZE) {
+                resources.put(key, resource);
+            }
+        }
+
+        return resource;
+    }
+
+    /**
+     * Loads the given resource, without caching it.
+     *
+     * @param url the URL from which the resource can be loaded
+     * @param mimeType the mime type of the resource, can be null
+     * @param defaultLastModified the last modification time to use, if it can't be determined from the URL
+     * @return the resource
+     * @throws IOException if the resource could not be read
+     */
+    public StaticResource load(URL url, String mimeType, long defaultLastModified) throws IOException {
+        URLConnection connection = url.openConnection();
+
+        long lastModified = connection.getLastModified();
+        if (lastModified <= 0) {
+            lastModified = defaultLastModified;
+        }
+
+        byte[] content;
+        try (InputStream in = connection.getInputStream()) {
+            content = IOUtils.toByteArray(in);
+        }
+
+        byte[] compressed = null;
+        if (isCompressible(mimeType) && content.length >= MIN_COMPRESSED_RESOURCE_SIZE) {
+            compressed = gzip(content);
+            if (compressed.length >= content.length) {
+                compressed = null;
+            }
+        }
+
+        return new StaticResource(content, compressed, mimeType, etag(content), lastModified);
+    }
+
+    /**
+     * Evicts all cached resources of the given bundle.
+     *
+     * @param bundleId the id of the bundle
+     */
+    public void evict(long bundleId) {
+        String prefix = bundleId + ":";
+        int evicted = 0;
+
+        Iterator<String> it = resources.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().startsWith(prefix)) {
+                it.remove();
+                ++evicted;
+            }
+        }
+
+        LOGGER.debug("Evicted {} cached resources of bundle {}", evicted, bundleId);
+    }
+
+    /**
+     * @return the number of cached resources
+     */
+    public int size() {
+        return resources.size();
+    }
+
+    private static boolean isCompressible(String mimeType) {
+        return null != mimeType && (mimeType.startsWith("text/") || mimeType.contains("javascript")
+                || mimeType.contains("json") || mimeType.contains("xml"));
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content);
+            return '"' + String.format("%032x", new BigInteger(1, digest)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+
+    private static String key(long bundleId, long bundleLastModified, String name) {
+        return bundleId + ":" + bundleLastModified + ":" + name;
+    }
+
+    private StaticResourceCache() {
+    }
+
+    /**
+     * A resource held by the cache.
+     */
+    public static final class StaticResource {
+
+        private final byte[] content;
+        private final byte[] compressedContent;
+        private final String mimeType;
+        private final String etag;
+        private final long lastModified;
+
+        StaticResource(byte[] content, byte[] compressedContent, String mimeType, String etag, long lastModified) {
+            this.content = content;
+            this.compressedContent = compressedContent;
+            this.mimeType = mimeType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * @return the gzip compressed content or null, if the resource is not compressed
+         */
+        public byte[] getCompressedContent() {
+            return compressedContent;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * @return the strong entity tag of the resource, already quoted
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return the strong entity tag of the gzip compressed content, already quoted, or null if the resource is
+         * not compressed
+         */
+        public String getCompressedEtag() {
+            return (null == compressedContent) ? null : etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
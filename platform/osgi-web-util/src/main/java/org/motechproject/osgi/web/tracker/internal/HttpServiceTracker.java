@@ -3,7 +3,9 @@ package org.motechproject.osgi.web.tracker.internal;
 import org.eclipse.gemini.blueprint.util.OsgiStringUtils;
 import org.motechproject.osgi.web.BundleContextWrapper;
 import org.motechproject.osgi.web.MotechOSGiWebApplicationContext;
+import org.motechproject.osgi.web.http.CachingResourceServlet;
 import org.motechproject.osgi.web.http.OSGiDispatcherServlet;
+import org.motechproject.osgi.web.http.StaticResourceCache;
 import org.motechproject.osgi.web.extension.HttpContextFactory;
 import org.motechproject.osgi.web.tracker.impl.BlueprintApplicationContextTracker;
 import org.motechproject.osgi.web.util.WebBundleUtil;
@@ -83,7 +85,8 @@ public class HttpServiceTracker extends ServiceTracker {
                 if (resourceMapping != null) {
                     for (String key : resourceMapping.keySet()) {
                         LOGGER.debug(String.format("Registering %s = %s for bundle %s ", key, resourceMapping.keySet(), bundleContextWrapper.getCurrentBundleSymbolicName()));
-                        httpService.registerResources(key, resourceMapping.get(key), httpContext);
+                        httpService.registerServlet(key, new CachingResourceServlet(resourceMapping.get(key),
+                                httpContext, context.getBundle()), null, httpContext);
                     }
                 }
                 LOGGER.info(String.format("servlet registered with context path %s for bundle %s", contextPath, OsgiStringUtils.nullSafeSymbolicName(context.getBundle())));
@@ -102,6 +105,12 @@ public class HttpServiceTracker extends ServiceTracker {
     private void unregister(HttpService service) {
         if (contextPath != null && service != null) {
             service.unregister(contextPath);
+            if (resourceMapping != null) {
+                for (String key : resourceMapping.keySet()) {
+                    service.unregister(key);
+                }
+            }
+            StaticResourceCache.getInstance().evict(context.getBundle().getBundleId());
             contextPath = null;
             LOGGER.debug("Servlet unregistered");
         }
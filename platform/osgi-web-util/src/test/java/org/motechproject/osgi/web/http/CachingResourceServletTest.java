@@ -0,0 +1,183 @@
+package org.motechproject.osgi.web.http;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.gemini.blueprint.mock.MockBundle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgi.service.http.HttpContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingResourceServletTest {
+
+    private static final String SCRIPT = "webapp/js/app.js";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private HttpContext httpContext;
+
+    private MockBundle bundle = new MockBundle("org.motechproject.test-bundle");
+
+    private CachingResourceServlet servlet;
+
+    private byte[] script;
+
+    @Before
+    public void setUp() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; ++i) {
+            sb.append("var value").append(i).append(" = ").append(i).append(";\n");
+        }
+        script = sb.toString().getBytes("UTF-8");
+
+        File file = folder.newFile("app.js");
+        FileUtils.writeByteArrayToFile(file, script);
+
+        when(httpContext.getResource(SCRIPT)).thenReturn(file.toURI().toURL());
+        when(httpContext.getMimeType(SCRIPT)).thenReturn("application/javascript");
+
+        servlet = new CachingResourceServlet("/webapp", httpContext, bundle);
+    }
+
+    @After
+    public void tearDown() {
+        StaticResourceCache.getInstance().evict(bundle.getBundleId());
+    }
+
+    @Test
+    public void shouldServeResourceWithValidators() throws Exception {
+        MockHttpServletResponse response = get(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals("application/javascript", response.getContentType());
+        assertArrayEquals(script, response.getContentAsByteArray());
+        assertNotNull(response.getHeader("ETag"));
+        assertNotNull(response.getHeader("Last-Modified"));
+        assertEquals(CachingResourceServlet.REVALIDATE_CACHE_CONTROL, response.getHeader("Cache-Control"));
+        assertNull(response.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void shouldServeCompressedResource() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertArrayEquals(script, IOUtils.toByteArray(
+                new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))));
+    }
+
+    @Test
+    public void shouldReturnNotModifiedForMatchingEtag() throws Exception {
+        String etag = get(request()).getHeader("ETag");
+
+        MockHttpServletRequest request = request();
+        request.addHeader("If-None-Match", "\"other\", " + etag);
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void shouldUseDifferentEtagsForCompressedResource() throws Exception {
+        String identityEtag = get(request()).getHeader("ETag");
+
+        MockHttpServletRequest gzipRequest = request();
+        gzipRequest.addHeader("Accept-Encoding", "gzip");
+        String gzipEtag = get(gzipRequest).getHeader("ETag");
+
+        assertNotEquals(identityEtag, gzipEtag);
+
+        // the tag of the other representation does not match
+        MockHttpServletRequest request = request();
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", identityEtag);
+        MockHttpServletResponse response = get(request);
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+
+        request = request();
+        request.addHeader("If-None-Match", gzipEtag);
+        assertEquals(200, get(request).getStatus());
+
+        request = request();
+        request.addHeader("Accept-Encoding", "gzip");
+        request.addHeader("If-None-Match", "W/" + gzipEtag);
+        assertEquals(304, get(request).getStatus());
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfNotModifiedSince() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader("If-Modified-Since", System.currentTimeMillis() + 60000);
+
+        assertEquals(304, get(request).getStatus());
+    }
+
+    @Test
+    public void shouldServeResourceFromCache() throws Exception {
+        get(request());
+
+        FileUtils.forceDelete(new File(folder.getRoot(), "app.js"));
+
+        MockHttpServletResponse response = get(request());
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(script, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldAllowLongCachingOfVersionedUrls() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setQueryString("v=0.30");
+
+        assertEquals(CachingResourceServlet.VERSIONED_CACHE_CONTROL, get(request).getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void shouldReturnNotFoundForMissingResource() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setPathInfo("/js/missing.js");
+
+        assertEquals(404, get(request).getStatus());
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test/resources/js/app.js");
+        request.setPathInfo("/js/app.js");
+        return request;
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.doGet(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package org.motechproject.server.metrics;
+
+import org.motechproject.commons.api.metrics.Counter;
+import org.motechproject.commons.api.metrics.Gauge;
+import org.motechproject.commons.api.metrics.Histogram;
+import org.motechproject.commons.api.metrics.Metric;
+import org.motechproject.commons.api.metrics.MetricRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of the {@link MetricRegistry}, exported as an OSGi service by the server bundle.
+ */
+@Service("metricRegistry")
+public class MetricRegistryImpl implements MetricRegistry {
+
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name, String description) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            Counter counter = new Counter(name, description);
+            metric = metrics.putIfAbsent(name, counter);
+            if (metric == null) {
+                return counter;
+            }
+        }
+        return cast(metric, Counter.class);
+    }
+
+    @Override
+    public Histogram histogram(String name, String description) {
+        Metric metric = metrics.get(name);
+        if (metric == null) {
+            Histogram histogram = new Histogram(name, description);
+            metric = metrics.putIfAbsent(name, histogram);
+            if (metric == null) {
+                return histogram;
+            }
+        }
+        return cast(metric, Histogram.class);
+    }
+
+    @Override
+    public Gauge gauge(String name, String description, Supplier<? extends Number> value) {
+        Gauge gauge = new Gauge(name, description, value);
+
+        while (true) {
+            Metric existing = metrics.putIfAbsent(name, gauge);
+            if (existing == null) {
+                return gauge;
+            }
+
+            cast(existing, Gauge.class);
+            if (metrics.replace(name, existing, gauge)) {
+                return gauge;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(String name) {
+        return metrics.remove(name) != null;
+    }
+
+    @Override
+    public Metric getMetric(String name) {
+        return metrics.get(name);
+    }
+
+    @Override
+    public SortedMap<String, Metric> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    private static <T extends Metric> T cast(Metric metric, Class<T> type) {
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(String.format("The metric %s is a %s, not a %s", metric.getName(),
+                    metric.getType(), type.getSimpleName()));
+        }
+        return type.cast(metric);
+    }
+}
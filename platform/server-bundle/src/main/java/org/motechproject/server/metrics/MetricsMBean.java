@@ -0,0 +1,134 @@
+package org.motechproject.server.metrics;
+
+import org.motechproject.commons.api.metrics.Counter;
+import org.motechproject.commons.api.metrics.Gauge;
+import org.motechproject.commons.api.metrics.Histogram;
+import org.motechproject.commons.api.metrics.Metric;
+import org.motechproject.commons.api.metrics.MetricRegistry;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A dynamic MBean exposing the metrics from the {@link MetricRegistry} as read-only attributes. Counters and gauges
+ * are exposed as a single attribute named like the metric, histograms as an attribute for each of their statistics,
+ * named like the metric with the name of the statistic appended, for example {@code motech_task_duration_p99}.
+ * The attributes follow the registry, so metrics registered later are exposed as well.
+ */
+public class MetricsMBean implements DynamicMBean {
+
+    private static final String[] HISTOGRAM_STATISTICS = {"_count", "_mean", "_max", "_p50", "_p90", "_p99",
+            "_p999"};
+    private static final double[] HISTOGRAM_PERCENTILES = {50, 90, 99, 99.9};
+    private static final int FIRST_PERCENTILE = 3;
+
+    private final MetricRegistry metricRegistry;
+
+    public MetricsMBean(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Metric metric = metricRegistry.getMetric(attribute);
+        if (metric instanceof Counter) {
+            return ((Counter) metric).getCount();
+        } else if (metric instanceof Gauge) {
+            return PrometheusTextWriter.readGauge((Gauge) metric);
+        }
+
+        for (int i = 0; i < HISTOGRAM_STATISTICS.length; i++) {
+            String statistic = HISTOGRAM_STATISTICS[i];
+            if (attribute.endsWith(statistic)) {
+                Metric histogram = metricRegistry.getMetric(
+                        attribute.substring(0, attribute.length() - statistic.length()));
+                if (histogram instanceof Histogram) {
+                    return getStatistic((Histogram) histogram, i);
+                }
+            }
+        }
+
+        throw new AttributeNotFoundException("No such metric: " + attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // left out of the list, as required by the specification
+                continue;
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("The metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "The metrics have no operations");
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+
+        for (Metric metric : metricRegistry.getMetrics().values()) {
+            switch (metric.getType()) {
+                case COUNTER:
+                    attributes.add(attributeInfo(metric.getName(), Long.class, metric.getDescription()));
+                    break;
+                case GAUGE:
+                    attributes.add(attributeInfo(metric.getName(), Double.class, metric.getDescription()));
+                    break;
+                case HISTOGRAM:
+                    for (int i = 0; i < HISTOGRAM_STATISTICS.length; i++) {
+                        attributes.add(attributeInfo(metric.getName() + HISTOGRAM_STATISTICS[i],
+                                i == 1 ? Double.class : Long.class, metric.getDescription()));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new MBeanInfo(getClass().getName(), "MOTECH platform metrics",
+                attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, null, null);
+    }
+
+    // reads the single statistic from the histogram, without taking a snapshot of all its buckets
+    private static Object getStatistic(Histogram histogram, int statistic) {
+        switch (statistic) {
+            case 0:
+                return histogram.getCount();
+            case 1:
+                return histogram.getMean();
+            case 2:
+                return histogram.getMax();
+            default:
+                return histogram.getValueAtPercentile(HISTOGRAM_PERCENTILES[statistic - FIRST_PERCENTILE]);
+        }
+    }
+
+    private static MBeanAttributeInfo attributeInfo(String name, Class<?> type, String description) {
+        return new MBeanAttributeInfo(name, type.getName(), description, true, false, false);
+    }
+}
@@ -0,0 +1,71 @@
+package org.motechproject.server.metrics;
+
+import org.motechproject.commons.api.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers the {@link MetricsMBean} in the platform MBean server, under {@link #OBJECT_NAME}, so that the metrics
+ * can be read with any JMX client.
+ */
+@Component
+public class MetricsMBeanExporter {
+
+    public static final String OBJECT_NAME = "org.motechproject:type=Metrics";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsMBeanExporter.class);
+
+    private final MetricRegistry metricRegistry;
+    private final MBeanServer mBeanServer;
+    private final ObjectName objectName;
+
+    @Autowired
+    public MetricsMBeanExporter(MetricRegistry metricRegistry) throws MalformedObjectNameException {
+        this(metricRegistry, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    MetricsMBeanExporter(MetricRegistry metricRegistry, MBeanServer mBeanServer) throws MalformedObjectNameException {
+        this.metricRegistry = metricRegistry;
+        this.mBeanServer = mBeanServer;
+        this.objectName = new ObjectName(OBJECT_NAME);
+    }
+
+    /**
+     * Registers the MBean, replacing the one left by a previous instance of the bundle.
+     */
+    @PostConstruct
+    public void export() {
+        try {
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new MetricsMBean(metricRegistry), objectName);
+        } catch (JMException e) {
+            LOGGER.error("Unable to register the metrics MBean", e);
+        }
+    }
+
+    /**
+     * Unregisters the MBean.
+     */
+    @PreDestroy
+    public void unexport() {
+        try {
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.error("Unable to unregister the metrics MBean", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.motechproject.server.metrics;
+
+import org.motechproject.commons.api.metrics.Counter;
+import org.motechproject.commons.api.metrics.Gauge;
+import org.motechproject.commons.api.metrics.Histogram;
+import org.motechproject.commons.api.metrics.Metric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * Writes metrics in the Prometheus text exposition format, version 0.0.4, so that they can be scraped without
+ * any agent. Histograms are written as Prometheus histograms, with a cumulative bucket for each power of two up to
+ * the highest recorded value, so that quantiles can be computed and aggregated by Prometheus. Since the buckets of
+ * a {@link Histogram} are split at powers of two and its values are integers, the upper bound of each bucket is one
+ * below a power of two, which keeps the counts exact.
+ */
+public final class PrometheusTextWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrometheusTextWriter.class);
+
+    private PrometheusTextWriter() {
+    }
+
+    /**
+     * Writes the given metrics.
+     *
+     * @param metrics the metrics to write
+     * @param writer the writer to write them to
+     * @throws IOException if writing failed
+     */
+    public static void write(Collection<Metric> metrics, Writer writer) throws IOException {
+        for (Metric metric : metrics) {
+            String name = metric.getName();
+
+            writer.write("# HELP ");
+            writer.write(name);
+            writer.write(' ');
+            writer.write(escapeHelp(metric.getDescription()));
+            writer.write('\n');
+
+            switch (metric.getType()) {
+                case COUNTER:
+                    writeType(writer, name, "counter");
+                    writeSample(writer, name, null, Long.toString(((Counter) metric).getCount()));
+                    break;
+                case GAUGE:
+                    writeType(writer, name, "gauge");
+                    writeSample(writer, name, null, format(readGauge((Gauge) metric)));
+                    break;
+                case HISTOGRAM:
+                    writeType(writer, name, "histogram");
+                    writeHistogram(writer, name, ((Histogram) metric).getSnapshot());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown metric type: " + metric.getType());
+            }
+        }
+    }
+
+    static double readGauge(Gauge gauge) {
+        try {
+            return gauge.getValue();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to read the gauge {}", gauge.getName(), e);
+            return Double.NaN;
+        }
+    }
+
+    private static void writeHistogram(Writer writer, String name, Histogram.Snapshot snapshot) throws IOException {
+        long[] countsBelowPowersOfTwo = snapshot.getCountsBelowPowersOfTwo();
+        for (int exponent = 0; exponent < countsBelowPowersOfTwo.length; exponent++) {
+            long upperBound = (1L << exponent) - 1;
+            writeSample(writer, name + "_bucket", "le=\"" + upperBound + "\"",
+                    Long.toString(countsBelowPowersOfTwo[exponent]));
+        }
+        writeSample(writer, name + "_bucket", "le=\"+Inf\"", Long.toString(snapshot.getCount()));
+        writeSample(writer, name + "_sum", null, Long.toString(snapshot.getSum()));
+        writeSample(writer, name + "_count", null, Long.toString(snapshot.getCount()));
+    }
+
+    private static void writeType(Writer writer, String name, String type) throws IOException {
+        writer.write("# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write('\n');
+    }
+
+    private static void writeSample(Writer writer, String name, String labels, String value) throws IOException {
+        writer.write(name);
+        if (labels != null) {
+            writer.write('{');
+            writer.write(labels);
+            writer.write('}');
+        }
+        writer.write(' ');
+        writer.write(value);
+        writer.write('\n');
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        } else if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+            return Long.toString((long) value);
+        } else {
+            return Double.toString(value);
+        }
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
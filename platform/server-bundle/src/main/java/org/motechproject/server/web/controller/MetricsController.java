@@ -0,0 +1,32 @@
+package org.motechproject.server.web.controller;
+
+import org.motechproject.commons.api.metrics.MetricRegistry;
+import org.motechproject.server.metrics.PrometheusTextWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The <code>MetricsController</code> class exposes the platform metrics in the Prometheus text format, so they can
+ * be scraped by a Prometheus server, or read by anything else, without an agent.
+ */
+@Controller
+public class MetricsController {
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    public void getMetrics(HttpServletResponse response) throws IOException {
+        response.setContentType(PrometheusTextWriter.CONTENT_TYPE);
+
+        Writer writer = response.getWriter();
+        PrometheusTextWriter.write(metricRegistry.getMetrics().values(), writer);
+        writer.flush();
+    }
+}
@@ -0,0 +1,74 @@
+package org.motechproject.server.metrics;
+
+import org.junit.Test;
+import org.motechproject.commons.api.metrics.Counter;
+import org.motechproject.commons.api.metrics.Gauge;
+import org.motechproject.commons.api.metrics.MetricType;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MetricRegistryImplTest {
+
+    private MetricRegistryImpl metricRegistry = new MetricRegistryImpl();
+
+    @Test
+    public void shouldReturnTheRegisteredMetrics() {
+        Counter counter = metricRegistry.counter("motech_test_total", "Test counter");
+        counter.increment(5);
+
+        assertSame(counter, metricRegistry.counter("motech_test_total", "Other description"));
+        assertSame(metricRegistry.histogram("motech_test_duration", "Test histogram"),
+                metricRegistry.histogram("motech_test_duration", "Test histogram"));
+
+        assertEquals(asList("motech_test_duration", "motech_test_total"),
+                new ArrayList<>(metricRegistry.getMetrics().keySet()));
+        assertEquals(MetricType.COUNTER, metricRegistry.getMetrics().get("motech_test_total").getType());
+        assertEquals(5, ((Counter) metricRegistry.getMetrics().get("motech_test_total")).getCount());
+    }
+
+    @Test
+    public void shouldReplaceGauges() {
+        metricRegistry.gauge("motech_test_size", "Test gauge", constant(1));
+        Gauge gauge = metricRegistry.gauge("motech_test_size", "Test gauge", constant(2));
+
+        assertSame(gauge, metricRegistry.getMetrics().get("motech_test_size"));
+        assertEquals(2, gauge.getValue(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRegisterMetricsOfOtherTypesUnderTheSameName() {
+        metricRegistry.counter("motech_test", "Test counter");
+        metricRegistry.histogram("motech_test", "Test histogram");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotReplaceOtherMetricsWithGauges() {
+        metricRegistry.counter("motech_test", "Test counter");
+        metricRegistry.gauge("motech_test", "Test gauge", constant(1));
+    }
+
+    @Test
+    public void shouldRemoveMetrics() {
+        metricRegistry.counter("motech_test_total", "Test counter");
+
+        assertTrue(metricRegistry.remove("motech_test_total"));
+        assertFalse(metricRegistry.remove("motech_test_total"));
+        assertTrue(metricRegistry.getMetrics().isEmpty());
+    }
+
+    private static Supplier<Integer> constant(final int value) {
+        return new Supplier<Integer>() {
+            @Override
+            public Integer get() {
+                return value;
+            }
+        };
+    }
+}
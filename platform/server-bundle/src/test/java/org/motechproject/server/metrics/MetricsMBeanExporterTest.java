@@ -0,0 +1,106 @@
+package org.motechproject.server.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.motechproject.commons.api.metrics.Histogram;
+
+import javax.management.Attribute;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsMBeanExporterTest {
+
+    private MetricRegistryImpl metricRegistry = new MetricRegistryImpl();
+
+    private MBeanServer mBeanServer;
+
+    private ObjectName objectName;
+
+    private MetricsMBeanExporter exporter;
+
+    @Before
+    public void setUp() throws Exception {
+        mBeanServer = MBeanServerFactory.newMBeanServer();
+        objectName = new ObjectName(MetricsMBeanExporter.OBJECT_NAME);
+        exporter = new MetricsMBeanExporter(metricRegistry, mBeanServer);
+    }
+
+    @Test
+    public void shouldExposeMetricsAsAttributes() throws Exception {
+        exporter.export();
+
+        // registered after the export
+        metricRegistry.counter("motech_events_total", "Events").increment(2);
+        metricRegistry.gauge("motech_queue_size", "Queue size", new Supplier<Integer>() {
+            @Override
+            public Integer get() {
+                return 7;
+            }
+        });
+        Histogram histogram = metricRegistry.histogram("motech_event_duration_ms", "Event handling time");
+        histogram.record(10);
+        histogram.record(20);
+
+        assertEquals(2L, mBeanServer.getAttribute(objectName, "motech_events_total"));
+        assertEquals(7.0, mBeanServer.getAttribute(objectName, "motech_queue_size"));
+        assertEquals(2L, mBeanServer.getAttribute(objectName, "motech_event_duration_ms_count"));
+        assertEquals(15.0, mBeanServer.getAttribute(objectName, "motech_event_duration_ms_mean"));
+        assertEquals(20L, mBeanServer.getAttribute(objectName, "motech_event_duration_ms_max"));
+        assertEquals(10L, mBeanServer.getAttribute(objectName, "motech_event_duration_ms_p50"));
+
+        Set<String> names = new HashSet<>();
+        for (MBeanAttributeInfo attribute : mBeanServer.getMBeanInfo(objectName).getAttributes()) {
+            assertTrue(attribute.isReadable());
+            assertFalse(attribute.isWritable());
+            names.add(attribute.getName());
+        }
+        assertEquals(new HashSet<>(asList("motech_events_total", "motech_queue_size",
+                "motech_event_duration_ms_count", "motech_event_duration_ms_mean", "motech_event_duration_ms_max",
+                "motech_event_duration_ms_p50", "motech_event_duration_ms_p90", "motech_event_duration_ms_p99",
+                "motech_event_duration_ms_p999")), names);
+
+        assertEquals(1, mBeanServer.getAttributes(objectName,
+                new String[]{"motech_events_total", "motech_missing"}).size());
+    }
+
+    @Test(expected = AttributeNotFoundException.class)
+    public void shouldNotFindUnknownMetrics() throws Exception {
+        exporter.export();
+        metricRegistry.counter("motech_events_total", "Events");
+
+        mBeanServer.getAttribute(objectName, "motech_events_total_p99");
+    }
+
+    @Test(expected = AttributeNotFoundException.class)
+    public void shouldNotChangeMetrics() throws Exception {
+        exporter.export();
+        metricRegistry.counter("motech_events_total", "Events");
+
+        mBeanServer.setAttribute(objectName, new Attribute("motech_events_total", 1L));
+    }
+
+    @Test
+    public void shouldReplaceAndUnregisterTheMBean() throws Exception {
+        exporter.export();
+        MetricsMBeanExporter restarted = new MetricsMBeanExporter(new MetricRegistryImpl(), mBeanServer);
+        restarted.export();
+        metricRegistry.counter("motech_events_total", "Events");
+
+        // the MBean of the second exporter, with an empty registry
+        assertEquals(0, mBeanServer.getMBeanInfo(objectName).getAttributes().length);
+
+        restarted.unexport();
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+}
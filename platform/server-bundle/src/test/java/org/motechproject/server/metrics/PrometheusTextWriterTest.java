@@ -0,0 +1,98 @@
+package org.motechproject.server.metrics;
+
+import org.junit.Test;
+import org.motechproject.commons.api.metrics.Histogram;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrometheusTextWriterTest {
+
+    private MetricRegistryImpl metricRegistry = new MetricRegistryImpl();
+
+    @Test
+    public void shouldWriteMetricsInTheTextFormat() throws IOException {
+        metricRegistry.counter("motech_events_total", "Events sent\\received").increment(3);
+        metricRegistry.gauge("motech_queue_size", "Queue size\nin messages", new Supplier<Double>() {
+            @Override
+            public Double get() {
+                return 2.5;
+            }
+        });
+        Histogram histogram = metricRegistry.histogram("motech_event_duration_ms", "Event handling time");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals("# HELP motech_event_duration_ms Event handling time\n" +
+                "# TYPE motech_event_duration_ms histogram\n" +
+                "motech_event_duration_ms_bucket{le=\"0\"} 0\n" +
+                "motech_event_duration_ms_bucket{le=\"1\"} 1\n" +
+                "motech_event_duration_ms_bucket{le=\"3\"} 3\n" +
+                "motech_event_duration_ms_bucket{le=\"7\"} 7\n" +
+                "motech_event_duration_ms_bucket{le=\"15\"} 15\n" +
+                "motech_event_duration_ms_bucket{le=\"31\"} 31\n" +
+                "motech_event_duration_ms_bucket{le=\"63\"} 63\n" +
+                "motech_event_duration_ms_bucket{le=\"127\"} 100\n" +
+                "motech_event_duration_ms_bucket{le=\"+Inf\"} 100\n" +
+                "motech_event_duration_ms_sum 5050\n" +
+                "motech_event_duration_ms_count 100\n" +
+                "# HELP motech_events_total Events sent\\\\received\n" +
+                "# TYPE motech_events_total counter\n" +
+                "motech_events_total 3\n" +
+                "# HELP motech_queue_size Queue size\\nin messages\n" +
+                "# TYPE motech_queue_size gauge\n" +
+                "motech_queue_size 2.5\n", write());
+    }
+
+    @Test
+    public void shouldWriteNaNForFailingGauges() throws IOException {
+        metricRegistry.gauge("motech_broken", "Broken gauge", new Supplier<Long>() {
+            @Override
+            public Long get() {
+                throw new IllegalStateException("broken");
+            }
+        });
+        metricRegistry.gauge("motech_empty", "Empty gauge", new Supplier<Long>() {
+            @Override
+            public Long get() {
+                return null;
+            }
+        });
+
+        assertEquals("# HELP motech_broken Broken gauge\n" +
+                "# TYPE motech_broken gauge\n" +
+                "motech_broken NaN\n" +
+                "# HELP motech_empty Empty gauge\n" +
+                "# TYPE motech_empty gauge\n" +
+                "motech_empty NaN\n", write());
+    }
+
+    @Test
+    public void shouldWriteCumulativeBucketsOfLargeValues() throws IOException {
+        Histogram histogram = metricRegistry.histogram("motech_size_bytes", "Size");
+        histogram.record(0);
+        histogram.record(1000);
+        histogram.record(1023);
+        histogram.record(1024);
+
+        String text = write();
+
+        assertTrue(text.contains("motech_size_bytes_bucket{le=\"0\"} 1\n"));
+        assertTrue(text.contains("motech_size_bytes_bucket{le=\"511\"} 1\n"));
+        assertTrue(text.contains("motech_size_bytes_bucket{le=\"1023\"} 3\n"));
+        assertTrue(text.contains("motech_size_bytes_bucket{le=\"2047\"} 4\n"));
+        assertTrue(text.contains("motech_size_bytes_bucket{le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("motech_size_bytes_count 4\n"));
+    }
+
+    private String write() throws IOException {
+        StringWriter writer = new StringWriter();
+        PrometheusTextWriter.write(metricRegistry.getMetrics().values(), writer);
+        return writer.toString();
+    }
+}
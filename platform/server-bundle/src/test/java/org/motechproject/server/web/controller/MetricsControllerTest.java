@@ -0,0 +1,52 @@
+package org.motechproject.server.web.controller;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.motechproject.commons.api.metrics.MetricRegistry;
+import org.motechproject.server.metrics.MetricRegistryImpl;
+import org.motechproject.server.metrics.PrometheusTextWriter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.server.MockMvc;
+import org.springframework.test.web.server.setup.MockMvcBuilders;
+
+import static org.springframework.test.web.server.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.server.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.server.result.MockMvcResultMatchers.status;
+
+public class MetricsControllerTest {
+
+    @Spy
+    private MetricRegistry metricRegistry = new MetricRegistryImpl();
+
+    @InjectMocks
+    private MetricsController metricsController = new MetricsController();
+
+    private MockMvc controller;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        controller = MockMvcBuilders.standaloneSetup(metricsController).build();
+    }
+
+    @Test
+    public void shouldReturnMetricsInThePrometheusFormat() throws Exception {
+        metricRegistry.counter("motech_events_total", "Events").increment(4);
+
+        controller.perform(
+                get("/metrics")
+        ).andExpect(
+                status().is(HttpStatus.OK.value())
+        ).andExpect(
+                content().type(MediaType.parseMediaType(PrometheusTextWriter.CONTENT_TYPE))
+        ).andExpect(
+                content().string("# HELP motech_events_total Events\n" +
+                        "# TYPE motech_events_total counter\n" +
+                        "motech_events_total 4\n")
+        );
+    }
+}
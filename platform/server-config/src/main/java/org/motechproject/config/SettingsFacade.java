@@ -115,7 +115,7 @@ public class SettingsFacade {
      */
     public String getProperty(String key, String filename) {
         String result = null;
-        Properties props = getProperties(filename);
+        Properties props = getPropertiesSnapshot(filename);
         if (props != null) {
             result = props.getProperty(key);
         }
@@ -123,25 +123,23 @@ public class SettingsFacade {
     }
 
     /**
-     * Returns properties from a resource with given filename.
+     * Returns properties from a resource with given filename. If the properties are registered to the
+     * configuration service, a copy of the current properties is returned.
      *
      * @param filename  the resource filename
      * @return properties stored in the file
      */
     public Properties getProperties(String filename) {
+        Properties result = getPropertiesSnapshot(filename);
+
         if (propsRegistered) {
-            try {
-                Properties p = configurationService.getBundleProperties(getBundleSymbolicName(), filename, defaultConfig.get(filename));
-                config.put(filename, p);
-            } catch (IOException e) {
-                throw new MotechException("Can't read settings", e);
+            Properties copy = new Properties();
+            if (result != null) {
+                copy.putAll(result);
             }
+            return copy;
         }
 
-        Properties result = config.get(filename);
-        if (result == null) {
-            result = defaultConfig.get(filename);
-        }
         return (result == null ? new Properties() : result);
     }
 
@@ -386,15 +384,40 @@ public class SettingsFacade {
 
 
     private void setProperty(String filename, String key, String value) {
-        if (!config.containsKey(filename)) {
-            config.put(filename, new Properties());
+        Properties props = new Properties();
+        if (config.containsKey(filename)) {
+            // the stored properties can be a read-only snapshot from the configuration service
+            props.putAll(config.get(filename));
         }
 
-        Properties props = config.get(filename);
         props.put(key, value);
         saveConfigProperties(filename, props);
     }
 
+    /**
+     * Returns the properties from a resource with given filename. If the properties are registered to the
+     * configuration service, the snapshot cached by the service is returned, it must not be modified.
+     */
+    private Properties getPropertiesSnapshot(String filename) {
+        if (propsRegistered) {
+            try {
+                Properties p = configurationService.getBundlePropertiesSnapshot(getBundleSymbolicName(), filename,
+                        defaultConfig.get(filename));
+                if (p != null) {
+                    config.put(filename, p);
+                }
+            } catch (IOException e) {
+                throw new MotechException("Can't read settings", e);
+            }
+        }
+
+        Properties result = config.get(filename);
+        if (result == null) {
+            result = defaultConfig.get(filename);
+        }
+        return result;
+    }
+
     public MotechSettings getPlatformSettings() {
         return configurationService.getPlatformSettings();
     }
@@ -14,8 +14,8 @@ import org.motechproject.config.core.domain.ConfigSource;
 import org.motechproject.config.core.filters.ConfigFileFilter;
 import org.motechproject.config.core.service.CoreConfigurationService;
 import org.motechproject.config.service.ConfigurationService;
-import org.motechproject.osgi.web.util.OSGiServiceUtils;
 import org.motechproject.config.loader.ConfigLoader;
+import org.motechproject.config.util.ConfigEventUtils;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,8 +27,6 @@ import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -177,25 +175,6 @@ public class ConfigFileMonitor implements FileListener {
     }
 
     private void sendEvent(String subject, Map<String, Object> params) {
-        if (bundleContext == null) {
-            return;
-        }
-
-        Object service = OSGiServiceUtils.findService(bundleContext, ConfigurationConstants.EVENT_RELAY_CLASS_NAME);
-
-        if (service != null) {
-            Class<?> serviceClass = service.getClass();
-            Class<?> motechEventClass;
-
-            try {
-                motechEventClass = serviceClass.getClassLoader().loadClass(ConfigurationConstants.MOTECH_EVENT_CLASS_NAME);
-                Method sendEventMessage = serviceClass.getMethod("sendEventMessage", motechEventClass);
-                Object obj = motechEventClass.getDeclaredConstructor(String.class, Map.class).newInstance(subject, params);
-
-                sendEventMessage.invoke(service, obj);
-            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-                LOGGER.error("Can't invoke sendEventMessage method.", e);
-            }
-        }
+        ConfigEventUtils.sendEvent(bundleContext, subject, params);
     }
 }
@@ -153,6 +153,29 @@ public interface ConfigurationService {
      */
     Properties getBundleProperties(String bundle, String filename, Properties defaultProperties) throws IOException;
 
+    /**
+     * <p>
+     * Works like <code>getBundleProperties</code>, but returns the cached, read-only snapshot of the merged
+     * properties instead of a copy. The snapshot is shared between callers and must not be modified, it is
+     * refreshed whenever the properties of the bundle change on this or on another MOTECH instance.
+     * </p>
+     *
+     * @param bundle            The bundle we wish to retrieve properties for
+     * @param filename          Resource filename
+     * @param defaultProperties Default properties of the bundle
+     * @return Read-only merged properties of the certain bundle
+     * @throws IOException if bundle properties cannot be read from file
+     */
+    Properties getBundlePropertiesSnapshot(String bundle, String filename, Properties defaultProperties) throws IOException;
+
+    /**
+     * Removes the cached properties of the given bundle on this MOTECH instance. Called when other instances
+     * notify about changes of the properties of the bundle.
+     *
+     * @param bundle  the symbolic name of the bundle
+     */
+    void evictBundlePropertiesCache(String bundle);
+
     /**
      * <p>
      * Depending on the config source, it will either store properties in the DB or file.
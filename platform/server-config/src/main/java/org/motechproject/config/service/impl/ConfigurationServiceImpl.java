@@ -9,6 +9,7 @@ import org.apache.commons.io.IOUtils;
 import org.joda.time.DateTime;
 import org.motechproject.commons.api.MotechException;
 import org.motechproject.commons.api.MotechMapUtils;
+import org.motechproject.config.core.constants.ConfigurationConstants;
 import org.motechproject.config.core.exception.MotechConfigurationException;
 import org.motechproject.config.core.domain.BootstrapConfig;
 import org.motechproject.config.core.domain.ConfigLocation;
@@ -21,6 +22,8 @@ import org.motechproject.config.service.ConfigurationService;
 import org.motechproject.config.domain.MotechSettings;
 import org.motechproject.config.domain.SettingsRecord;
 import org.motechproject.config.loader.ConfigLoader;
+import org.motechproject.config.util.ConfigEventUtils;
+import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +32,12 @@ import org.springframework.cache.annotation.Caching;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -44,9 +52,13 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -54,10 +66,17 @@ import static org.motechproject.config.core.filters.ConfigFileFilter.isPlatformC
 
 /**
  * Default implementation of {@link org.motechproject.config.service.ConfigurationService}.
+ * <p>
+ * The merged properties of bundles are cached as read-only snapshots, since modules read them on every access to a
+ * setting. Snapshots of a bundle are evicted whenever its properties are stored or removed, including changes of
+ * configuration files picked up by the {@link org.motechproject.config.monitor.ConfigFileMonitor}. After the
+ * change is committed, other MOTECH instances are notified with a broadcast event, so that they evict their
+ * snapshots as well.
  */
 @Service("configurationService")
 public class ConfigurationServiceImpl implements ConfigurationService {
     private static final String STRING_FORMAT = "%s/%s";
+    private static final String CACHE_KEY_SEPARATOR = "/";
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationServiceImpl.class);
 
     private ConfigLoader configLoader;
@@ -67,9 +86,14 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     private BundlePropertiesDataService bundlePropertiesDataService;
     private SettingsDataService settingsDataService;
 
+    private BundleContext bundleContext;
+
     private Properties defaultConfig;
     private Properties configAnnotation;
 
+    private final Map<String, CachedProperties> bundlePropertiesCache = new ConcurrentHashMap<>();
+    private final AtomicLong bundlePropertiesGeneration = new AtomicLong();
+
     @Autowired
     public ConfigurationServiceImpl(CoreConfigurationService coreConfigurationService,
                                     SettingsDataService settingsDataService, BundlePropertiesDataService bundlePropertiesDataService,
@@ -251,17 +275,41 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     @Override
     @Transactional
     public Properties getBundleProperties(String bundle, String filename, Properties defaultProperties) throws IOException {
-        ModulePropertiesRecord record;
-        Properties properties;
+        Properties properties = new Properties();
+        properties.putAll(loadBundleProperties(bundle, filename, defaultProperties));
+        return properties;
+    }
 
-        record = getBundlePropertiesRecord(bundle, filename);
-        if (record != null) {
-            properties = MapUtils.toProperties(record.getProperties());
-        } else {
-            properties = new Properties();
+    @Override
+    public Properties getBundlePropertiesSnapshot(final String bundle, final String filename,
+                                                  final Properties defaultProperties) throws IOException {
+        CachedProperties cached = bundlePropertiesCache.get(getCacheKey(bundle, filename));
+        if (cached != null && cached.isFor(defaultProperties)) {
+            return cached.properties;
+        }
+
+        if (bundlePropertiesDataService == null) {
+            return loadBundleProperties(bundle, filename, defaultProperties);
         }
 
-        return MapUtils.toProperties(MotechMapUtils.mergeMaps(properties, defaultProperties));
+        return bundlePropertiesDataService.doInTransaction(new TransactionCallback<Properties>() {
+            @Override
+            public Properties doInTransaction(TransactionStatus status) {
+                return loadBundleProperties(bundle, filename, defaultProperties);
+            }
+        });
+    }
+
+    @Override
+    public void evictBundlePropertiesCache(String bundle) {
+        bundlePropertiesGeneration.incrementAndGet();
+
+        String prefix = bundle + CACHE_KEY_SEPARATOR;
+        for (String key : bundlePropertiesCache.keySet()) {
+            if (key.startsWith(prefix)) {
+                bundlePropertiesCache.remove(key);
+            }
+        }
     }
 
     @Override
@@ -374,6 +422,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
             } catch (IOException e) {
                 throw new MotechConfigurationException("Could not delete configuration file", e);
             }
+            bundlePropertiesChanged(bundle);
         }
     }
 
@@ -558,6 +607,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         for (ModulePropertiesRecord record : records) {
             bundlePropertiesDataService.delete(record);
         }
+        bundlePropertiesChanged(bundle);
     }
 
     @Override
@@ -567,6 +617,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         for (ModulePropertiesRecord record : records) {
             bundlePropertiesDataService.delete(record);
         }
+        bundlePropertiesChanged(bundle);
     }
 
     @Override
@@ -624,6 +675,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
             rec.setProperties(record.getProperties());
             bundlePropertiesDataService.update(rec);
         }
+        bundlePropertiesChanged(record.getBundle());
     }
 
     @Override
@@ -639,6 +691,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     public void removeBundleRecords(List<ModulePropertiesRecord> records) {
         for (ModulePropertiesRecord rec : records) {
             bundlePropertiesDataService.delete(rec);
+            bundlePropertiesChanged(rec.getBundle());
         }
     }
 
@@ -681,6 +734,81 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         return null;
     }
 
+    /**
+     * Returns the snapshot of the merged properties of the given bundle file, loading it if it is not cached.
+     * The snapshot is cached only if no properties were evicted while it was loaded, since it could have been
+     * read before the evicting change was committed.
+     */
+    private Properties loadBundleProperties(String bundle, String filename, Properties defaultProperties) {
+        String key = getCacheKey(bundle, filename);
+
+        CachedProperties cached = bundlePropertiesCache.get(key);
+        if (cached != null && cached.isFor(defaultProperties)) {
+            return cached.properties;
+        }
+
+        long generation = bundlePropertiesGeneration.get();
+
+        ModulePropertiesRecord record = getBundlePropertiesRecord(bundle, filename);
+        Properties properties = (record == null) ? new Properties() : MapUtils.toProperties(record.getProperties());
+
+        cached = new CachedProperties(defaultProperties,
+                new ReadOnlyProperties(MotechMapUtils.mergeMaps(properties, defaultProperties)));
+
+        bundlePropertiesCache.put(key, cached);
+        if (bundlePropertiesGeneration.get() != generation) {
+            bundlePropertiesCache.remove(key);
+        }
+
+        return cached.properties;
+    }
+
+    /**
+     * Evicts the cached properties of the given bundle. Since the change is usually a part of a transaction, the
+     * properties are evicted again once the transaction completes, and other MOTECH instances are notified only
+     * after it is committed. Every bundle changed in a transaction is notified once.
+     */
+    @SuppressWarnings("unchecked")
+    private void bundlePropertiesChanged(String bundle) {
+        evictBundlePropertiesCache(bundle);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            broadcastBundlePropertiesChanged(bundle);
+            return;
+        }
+
+        Set<String> changedBundles = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (changedBundles == null) {
+            final Set<String> bundles = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, bundles);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ConfigurationServiceImpl.this);
+                    for (String changedBundle : bundles) {
+                        evictBundlePropertiesCache(changedBundle);
+                        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                            broadcastBundlePropertiesChanged(changedBundle);
+                        }
+                    }
+                }
+            });
+            changedBundles = bundles;
+        }
+        changedBundles.add(bundle);
+    }
+
+    private void broadcastBundlePropertiesChanged(String bundle) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(ConfigurationConstants.BUNDLE_SYMBOLIC_NAME, bundle);
+
+        ConfigEventUtils.broadcastEvent(bundleContext, ConfigurationConstants.BUNDLE_PROPERTIES_CHANGED_EVENT_SUBJECT, params);
+    }
+
+    private static String getCacheKey(String bundle, String filename) {
+        return bundle + CACHE_KEY_SEPARATOR + filename;
+    }
+
     private SettingsRecord getSettingsRecord() {
         List<SettingsRecord> records = settingsDataService.retrieveAll();
         return records.isEmpty() ? null : records.get(0);
@@ -756,6 +884,7 @@ public class ConfigurationServiceImpl implements ConfigurationService {
             try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
                 toStore.store(fileOutputStream, null);
             }
+            bundlePropertiesChanged(bundle);
         }
     }
 
@@ -767,6 +896,11 @@ public class ConfigurationServiceImpl implements ConfigurationService {
         file.getParentFile().mkdirs();
     }
 
+    @Autowired(required = false)
+    public void setBundleContext(BundleContext bundleContext) {
+        this.bundleContext = bundleContext;
+    }
+
     void setResourceLoader(ResourceLoader resourceLoader) {
         this.resourceLoader = resourceLoader;
     }
@@ -780,4 +914,24 @@ public class ConfigurationServiceImpl implements ConfigurationService {
     public void setConfigAnnotation(Properties configAnnotation) {
         this.configAnnotation = configAnnotation;
     }
+
+    /**
+     * The read-only snapshot of the merged properties of a bundle file, along with the default properties it was
+     * merged with.
+     */
+    private static final class CachedProperties {
+
+        private final Properties defaultProperties;
+        private final Properties properties;
+
+        private CachedProperties(Properties defaultProperties, Properties properties) {
+            this.defaultProperties = (defaultProperties == null) ? null : new ReadOnlyProperties(defaultProperties);
+            this.properties = properties;
+        }
+
+        private boolean isFor(Properties otherDefaultProperties) {
+            return (defaultProperties == null) ? otherDefaultProperties == null
+                    : defaultProperties.equals(otherDefaultProperties);
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package org.motechproject.config.service.impl;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Properties which can not be modified after they are created. Used for the snapshots of bundle properties
+ * shared between all readers of the properties.
+ */
+class ReadOnlyProperties extends Properties {
+
+    private static final long serialVersionUID = -2386316213497436471L;
+
+    ReadOnlyProperties(Map<?, ?> properties) {
+        for (Map.Entry<?, ?> entry : properties.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                super.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public synchronized Object setProperty(String key, String value) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void load(Reader reader) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void load(InputStream inStream) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void loadFromXML(InputStream in) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void putAll(Map<?, ?> t) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object replace(Object key, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object computeIfPresent(Object key,
+                                                BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public synchronized Object merge(Object key, Object value,
+                                     BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw readOnly();
+    }
+
+    @Override
+    public Set<Object> keySet() {
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public Set<Map.Entry<Object, Object>> entrySet() {
+        return Collections.unmodifiableSet(super.entrySet());
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Bundle properties snapshots can not be modified");
+    }
+}
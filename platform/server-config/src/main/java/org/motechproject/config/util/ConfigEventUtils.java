@@ -0,0 +1,73 @@
+package org.motechproject.config.util;
+
+import org.motechproject.config.core.constants.ConfigurationConstants;
+import org.motechproject.osgi.web.util.OSGiServiceUtils;
+import org.osgi.framework.BundleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * Sends events from the configuration bundle. The configuration bundle does not depend on the event module, so the
+ * event relay is retrieved from the bundle context and invoked using reflection. Events are silently dropped when
+ * the event relay is not available.
+ */
+public final class ConfigEventUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigEventUtils.class);
+
+    private static final String SEND_EVENT_MESSAGE = "sendEventMessage";
+    private static final String BROADCAST_EVENT_MESSAGE = "broadcastEventMessage";
+
+    /**
+     * Sends an event with the given subject and parameters to the listeners of this MOTECH instance.
+     *
+     * @param bundleContext  the context used for retrieving the event relay, can be null
+     * @param subject  the subject of the event
+     * @param params  the parameters of the event
+     */
+    public static void sendEvent(BundleContext bundleContext, String subject, Map<String, Object> params) {
+        invokeEventRelay(bundleContext, SEND_EVENT_MESSAGE, subject, params);
+    }
+
+    /**
+     * Broadcasts an event with the given subject and parameters to the listeners of all MOTECH instances.
+     *
+     * @param bundleContext  the context used for retrieving the event relay, can be null
+     * @param subject  the subject of the event
+     * @param params  the parameters of the event
+     */
+    public static void broadcastEvent(BundleContext bundleContext, String subject, Map<String, Object> params) {
+        invokeEventRelay(bundleContext, BROADCAST_EVENT_MESSAGE, subject, params);
+    }
+
+    private static void invokeEventRelay(BundleContext bundleContext, String methodName, String subject,
+                                         Map<String, Object> params) {
+        if (bundleContext == null) {
+            return;
+        }
+
+        Object service = OSGiServiceUtils.findService(bundleContext, ConfigurationConstants.EVENT_RELAY_CLASS_NAME);
+
+        if (service != null) {
+            Class<?> serviceClass = service.getClass();
+            Class<?> motechEventClass;
+
+            try {
+                motechEventClass = serviceClass.getClassLoader().loadClass(ConfigurationConstants.MOTECH_EVENT_CLASS_NAME);
+                Method method = serviceClass.getMethod(methodName, motechEventClass);
+                Object obj = motechEventClass.getDeclaredConstructor(String.class, Map.class).newInstance(subject, params);
+
+                method.invoke(service, obj);
+            } catch (ClassNotFoundException | InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                LOGGER.error("Can't invoke " + methodName + " method.", e);
+            }
+        }
+    }
+
+    private ConfigEventUtils() {
+    }
+}
@@ -88,6 +88,23 @@ public class SettingsFacadeTest {
     }
 
 
+    @Test
+    public void shouldReadPropertiesFromSnapshotOfConfigurationService() throws IOException {
+        setUpConfig();
+
+        Properties snapshot = new Properties();
+        snapshot.put(LANGUAGE_PROP, "pl");
+        when(configurationService.getBundlePropertiesSnapshot(eq(BUNDLE_NAME), eq(FILENAME), any(Properties.class)))
+                .thenReturn(snapshot);
+
+        assertEquals("pl", settingsFacade.getProperty(LANGUAGE_PROP, FILENAME));
+
+        Properties properties = settingsFacade.getProperties(FILENAME);
+        properties.put(LANGUAGE_PROP, LANGUAGE_VALUE);
+
+        assertEquals("pl", snapshot.getProperty(LANGUAGE_PROP));
+    }
+
     @Test(expected = MotechConfigurationException.class)
     public void shouldThrowExceptionsComingFromService() throws IOException {
         when(configurationService.registersProperties(anyString(), anyString()))
@@ -36,6 +36,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -187,6 +188,56 @@ public class ConfigurationServiceTest {
         assertNotNull(moduleProperties);
     }
 
+    @Test
+    public void shouldCacheBundlePropertiesUntilTheyAreChanged() throws IOException {
+        final String module = "org.motechproject.motech-module";
+        final String filename = "module.properties";
+
+        Properties stored = new Properties();
+        stored.put("key", "value");
+        ModulePropertiesRecord record = new ModulePropertiesRecord(stored, module, "1.0", filename, false);
+        when(bundlePropertiesDataService.findByBundleAndFileName(module, filename)).thenReturn(singletonList(record));
+
+        assertEquals("value", configurationService.getBundleProperties(module, filename, null).getProperty("key"));
+        assertEquals("value", configurationService.getBundleProperties(module, filename, null).getProperty("key"));
+        verify(bundlePropertiesDataService, times(1)).findByBundleAndFileName(module, filename);
+
+        Properties changed = new Properties();
+        changed.put("key", "changed");
+        configurationService.addOrUpdateBundleRecord(new ModulePropertiesRecord(changed, module, "1.0", filename, false));
+
+        assertEquals("changed", configurationService.getBundleProperties(module, filename, null).getProperty("key"));
+    }
+
+    @Test
+    public void shouldReturnCopiesOfCachedBundleProperties() throws IOException {
+        final String module = "org.motechproject.motech-module";
+        final String filename = "module.properties";
+
+        Properties defaults = new Properties();
+        defaults.put("key", "default");
+        when(bundlePropertiesDataService.findByBundleAndFileName(module, filename)).thenReturn(null);
+
+        Properties properties = configurationService.getBundleProperties(module, filename, defaults);
+        properties.put("key", "modified");
+
+        assertEquals("default", configurationService.getBundleProperties(module, filename, defaults).getProperty("key"));
+        verify(bundlePropertiesDataService, times(1)).findByBundleAndFileName(module, filename);
+    }
+
+    @Test
+    public void shouldEvictBundlePropertiesChangedOnOtherInstances() throws IOException {
+        final String module = "org.motechproject.motech-module";
+        final String filename = "module.properties";
+        when(bundlePropertiesDataService.findByBundleAndFileName(module, filename)).thenReturn(null);
+
+        configurationService.getBundleProperties(module, filename, null);
+        configurationService.evictBundlePropertiesCache(module);
+        configurationService.getBundleProperties(module, filename, null);
+
+        verify(bundlePropertiesDataService, times(2)).findByBundleAndFileName(module, filename);
+    }
+
     @Test
     public void shouldUpdateMotechSettings() {
         when(configLoader.loadMotechSettings()).thenReturn(new SettingsRecord());
@@ -128,7 +128,9 @@ public class SecurityRuleBuilder {
 
         LOGGER.info("Built security chain for rule: {} and method: {}", securityRule.getPattern(), method);
 
-        return new MotechSecurityFilterChain(securityRule, matcher, filters);
+        HTTPMethod matchedMethod = (matcher == AnyRequestMatcher.INSTANCE) ? ANY : method;
+
+        return new MotechSecurityFilterChain(securityRule, matchedMethod, matcher, filters);
     }
 
     private void validateRule(MotechURLSecurityRule securityRule) {
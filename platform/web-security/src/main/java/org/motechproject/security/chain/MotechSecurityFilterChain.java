@@ -1,5 +1,6 @@
 package org.motechproject.security.chain;
 
+import org.motechproject.security.constants.HTTPMethod;
 import org.motechproject.security.domain.MotechURLSecurityRule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ public class MotechSecurityFilterChain implements SecurityFilterChain {
     private static final Logger LOGGER = LoggerFactory.getLogger(MotechSecurityFilterChain.class);
 
     private final MotechURLSecurityRule securityRule;
+    private final HTTPMethod method;
     private final RequestMatcher requestMatcher;
     private final List<Filter> filters;
 
@@ -30,9 +32,15 @@ public class MotechSecurityFilterChain implements SecurityFilterChain {
     }
 
     public MotechSecurityFilterChain(MotechURLSecurityRule securityRule, RequestMatcher requestMatcher, List<Filter> filters) {
+        this(securityRule, HTTPMethod.ANY, requestMatcher, filters);
+    }
+
+    public MotechSecurityFilterChain(MotechURLSecurityRule securityRule, HTTPMethod method, RequestMatcher requestMatcher,
+                                     List<Filter> filters) {
         this.requestMatcher = requestMatcher;
         this.filters = new ArrayList<>(filters);
         this.securityRule = securityRule;
+        this.method = method;
     }
 
     /**
@@ -60,6 +68,16 @@ public class MotechSecurityFilterChain implements SecurityFilterChain {
         return requestMatcher;
     }
 
+    /**
+     * Returns the HTTP method matched by this chain, {@link HTTPMethod#ANY} if the chain matches requests
+     * regardless of their method.
+     *
+     * @return the matched HTTP method
+     */
+    public HTTPMethod getMethod() {
+        return method;
+    }
+
     @Override
     public String toString() {
         return "[ " + requestMatcher + ", " + filters + "]";
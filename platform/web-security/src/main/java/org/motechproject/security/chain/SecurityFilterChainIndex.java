@@ -0,0 +1,267 @@
+package org.motechproject.security.chain;
+
+import org.apache.commons.lang.StringUtils;
+import org.motechproject.security.constants.HTTPMethod;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the security filter chain matching a request without evaluating the patterns of all chains. Spring's
+ * {@link org.springframework.security.web.FilterChainProxy} asks every chain, in order, whether it matches the
+ * request, which means Ant pattern matching against every rule. This index keeps the chains in a trie keyed by the
+ * literal path segments their patterns start with, and by HTTP method within each node, so that for a request only
+ * the chains whose literal prefix and method fit are evaluated, in their original order.
+ * <p>
+ * The chains handed to the proxy are returned by {@link #getFilterChains()}. They keep the original order and
+ * filters, but only the first chain matching the request, as found by the index, reports a match. The lookup is
+ * done once per request, its result is kept as a request attribute.
+ * <p>
+ * Paths are split into segments the same way the Ant path matcher does it, segments are trimmed and empty segments
+ * skipped, and are lower cased like in {@link AntPathRequestMatcher}, so a chain matching a request is always among
+ * the evaluated candidates.
+ */
+public class SecurityFilterChainIndex {
+
+    private static final String MATCH_ATTRIBUTE = SecurityFilterChainIndex.class.getName() + ".MATCH";
+    private static final String PATH_SEPARATOR = "/";
+    private static final int NO_MATCH = -1;
+
+    private final List<SecurityFilterChain> chains;
+    private final List<SecurityFilterChain> indexedChains;
+    private final Node root = new Node();
+
+    public SecurityFilterChainIndex(List<SecurityFilterChain> chains) {
+        this.chains = new ArrayList<>(chains);
+
+        List<SecurityFilterChain> indexed = new ArrayList<>(chains.size());
+        for (int position = 0; position < this.chains.size(); position++) {
+            SecurityFilterChain chain = this.chains.get(position);
+            add(chain, position);
+            indexed.add(new IndexedSecurityFilterChain(chain, position));
+        }
+        this.indexedChains = Collections.unmodifiableList(indexed);
+    }
+
+    /**
+     * Returns the chains which should be passed to the filter chain proxy. There is one chain for every indexed
+     * chain, in the same order.
+     *
+     * @return the chains backed by this index
+     */
+    public List<SecurityFilterChain> getFilterChains() {
+        return indexedChains;
+    }
+
+    /**
+     * Returns the first chain matching the given request.
+     *
+     * @param request  the request to match
+     * @return the matching chain, or null if no chain matches the request
+     */
+    public SecurityFilterChain findChain(HttpServletRequest request) {
+        int position = findPosition(request);
+        return position == NO_MATCH ? null : chains.get(position);
+    }
+
+    private int findPosition(HttpServletRequest request) {
+        String path = getRequestPath(request);
+        String method = request.getMethod();
+
+        Object attribute = request.getAttribute(MATCH_ATTRIBUTE);
+        if (attribute instanceof Match && ((Match) attribute).isFor(this, path, method)) {
+            return ((Match) attribute).position;
+        }
+
+        int position = lookup(request, path, method);
+        request.setAttribute(MATCH_ATTRIBUTE, new Match(this, path, method, position));
+        return position;
+    }
+
+    private int lookup(HttpServletRequest request, String path, String method) {
+        boolean anyMethod = StringUtils.isBlank(method);
+        HTTPMethod httpMethod = anyMethod ? null : toHttpMethod(method);
+
+        List<Integer> candidates = new ArrayList<>();
+        Node node = root;
+        node.collect(candidates, anyMethod, httpMethod);
+
+        for (String segment : split(path)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                break;
+            }
+            node.collect(candidates, anyMethod, httpMethod);
+        }
+
+        Collections.sort(candidates);
+        for (Integer candidate : candidates) {
+            if (chains.get(candidate).matches(request)) {
+                return candidate;
+            }
+        }
+
+        return NO_MATCH;
+    }
+
+    private void add(SecurityFilterChain chain, int position) {
+        HTTPMethod method = HTTPMethod.ANY;
+        Node node = root;
+
+        if (chain instanceof MotechSecurityFilterChain) {
+            MotechSecurityFilterChain motechChain = (MotechSecurityFilterChain) chain;
+            method = motechChain.getMethod();
+
+            if (motechChain.getRequestMatcher() instanceof AntPathRequestMatcher) {
+                String pattern = ((AntPathRequestMatcher) motechChain.getRequestMatcher()).getPattern().toLowerCase();
+                for (String segment : split(pattern)) {
+                    if (isWildcard(segment)) {
+                        break;
+                    }
+                    node = node.child(segment);
+                }
+            }
+        }
+
+        node.add(method, position);
+    }
+
+    private static HTTPMethod toHttpMethod(String method) {
+        try {
+            return HTTPMethod.valueOf(method);
+        } catch (IllegalArgumentException e) {
+            // such requests can only be matched by chains accepting any method
+            return null;
+        }
+    }
+
+    private static String getRequestPath(HttpServletRequest request) {
+        String url = StringUtils.defaultString(request.getServletPath());
+
+        if (request.getPathInfo() != null) {
+            url += request.getPathInfo();
+        }
+
+        return url.toLowerCase();
+    }
+
+    // the same tokenization as in the AntPathMatcher: trimmed tokens, empty tokens are skipped
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String token : StringUtils.split(path, PATH_SEPARATOR)) {
+            String segment = token.trim();
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private static boolean isWildcard(String segment) {
+        return StringUtils.containsAny(segment, "*?{}");
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private final Map<HTTPMethod, List<Integer>> positions = new EnumMap<>(HTTPMethod.class);
+
+        private Node child(String segment) {
+            Node child = children.get(segment);
+            if (child == null) {
+                child = new Node();
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        private void add(HTTPMethod method, int position) {
+            List<Integer> list = positions.get(method);
+            if (list == null) {
+                list = new ArrayList<>();
+                positions.put(method, list);
+            }
+            list.add(position);
+        }
+
+        private void collect(List<Integer> candidates, boolean anyMethod, HTTPMethod method) {
+            if (positions.isEmpty()) {
+                return;
+            }
+
+            if (anyMethod) {
+                for (List<Integer> list : positions.values()) {
+                    candidates.addAll(list);
+                }
+            } else {
+                addAll(candidates, positions.get(HTTPMethod.ANY));
+                if (method != null && method != HTTPMethod.ANY) {
+                    addAll(candidates, positions.get(method));
+                }
+            }
+        }
+
+        private static void addAll(List<Integer> candidates, List<Integer> list) {
+            if (list != null) {
+                candidates.addAll(list);
+            }
+        }
+    }
+
+    private static final class Match {
+
+        private final SecurityFilterChainIndex index;
+        private final String path;
+        private final String method;
+        private final int position;
+
+        private Match(SecurityFilterChainIndex index, String path, String method, int position) {
+            this.index = index;
+            this.path = path;
+            this.method = method;
+            this.position = position;
+        }
+
+        private boolean isFor(SecurityFilterChainIndex otherIndex, String otherPath, String otherMethod) {
+            return index == otherIndex && path.equals(otherPath) && StringUtils.equals(method, otherMethod);
+        }
+    }
+
+    /**
+     * A chain handed to the filter chain proxy, matching the request only if the chain it stands for is the first
+     * chain matching the request.
+     */
+    private final class IndexedSecurityFilterChain implements SecurityFilterChain {
+
+        private final SecurityFilterChain chain;
+        private final int position;
+
+        private IndexedSecurityFilterChain(SecurityFilterChain chain, int position) {
+            this.chain = chain;
+            this.position = position;
+        }
+
+        @Override
+        public boolean matches(HttpServletRequest request) {
+            return findPosition(request) == position;
+        }
+
+        @Override
+        public List<Filter> getFilters() {
+            return chain.getFilters();
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(chain);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.motechproject.osgi.web.MotechOSGiWebApplicationContext;
 import org.motechproject.osgi.web.service.UIFrameworkService;
 import org.motechproject.osgi.web.exception.ServletRegistrationException;
 import org.motechproject.osgi.web.extension.HttpContextFactory;
+import org.motechproject.osgi.web.http.CachingResourceServlet;
+import org.motechproject.osgi.web.http.StaticResourceCache;
 import org.motechproject.security.constants.PermissionNames;
 import org.motechproject.security.filter.MotechDelegatingFilterProxy;
 import org.motechproject.security.service.MotechProxyManager;
@@ -135,7 +137,8 @@ public class Activator implements BundleActivator {
             );
 
             service.registerServlet(SERVLET_URL_MAPPING, dispatcherServlet, null, null);
-            service.registerResources(RESOURCE_URL_MAPPING, "/webapp", httpContext);
+            service.registerServlet(RESOURCE_URL_MAPPING, new CachingResourceServlet("/webapp", httpContext,
+                    bundleContext.getBundle()), null, httpContext);
             LOGGER.debug("Servlet registered");
 
             filter = new MotechDelegatingFilterProxy("springSecurityFilterChain", dispatcherServlet.getWebApplicationContext());
@@ -162,6 +165,8 @@ public class Activator implements BundleActivator {
      */
     private void serviceRemoved(ExtHttpService service) {
         service.unregister(SERVLET_URL_MAPPING);
+        service.unregister(RESOURCE_URL_MAPPING);
+        StaticResourceCache.getInstance().evict(bundleContext.getBundle().getBundleId());
         LOGGER.debug("Servlet unregistered");
 
         service.unregisterFilter(filter);
@@ -4,6 +4,7 @@ import org.motechproject.config.domain.LoginMode;
 import org.motechproject.security.domain.MotechUser;
 import org.motechproject.security.exception.EmailExistsException;
 import org.motechproject.security.mds.MotechUsersDataService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,11 +17,12 @@ import static org.apache.commons.lang.StringUtils.isNotBlank;
 
 /**
  * Implementation of DAO interface that utilizes a MDS back-end for storage.
- * Class responsible for handling MotechUsers.
+ * Class responsible for handling MotechUsers. Evicts changed users from the {@link AuthenticationCache}.
  */
 @Repository
 public class MotechUsersDao {
     private MotechUsersDataService dataService;
+    private AuthenticationCache authenticationCache;
 
     /**
      * Gets MotechUser with given name
@@ -79,6 +81,7 @@ public class MotechUsersDao {
             }
 
             dataService.create(user);
+            authenticationCache.evictUser(user.getUserName());
         }
     }
 
@@ -91,6 +94,7 @@ public class MotechUsersDao {
     public void addOpenIdUser(MotechUser user) {
         if (findUserByOpenId(user.getOpenId()) == null) {
             dataService.create(user);
+            authenticationCache.evictUser(user.getUserName());
         }
     }
 
@@ -109,6 +113,7 @@ public class MotechUsersDao {
         }
 
         dataService.update(motechUser);
+        authenticationCache.evictUser(motechUser.getUserName());
     }
 
     /**
@@ -119,6 +124,7 @@ public class MotechUsersDao {
     @Transactional
     public void remove(MotechUser motechUser) {
         dataService.delete(motechUser);
+        authenticationCache.evictUser(motechUser.getUserName());
     }
 
     /**
@@ -169,4 +175,9 @@ public class MotechUsersDao {
     public void setDataService(MotechUsersDataService dataService) {
         this.dataService = dataService;
     }
+
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
 }
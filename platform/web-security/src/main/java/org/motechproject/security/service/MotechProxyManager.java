@@ -3,6 +3,7 @@ package org.motechproject.security.service;
 import org.motechproject.commons.api.MotechException;
 import org.motechproject.commons.api.json.MotechJsonReader;
 import org.motechproject.security.builder.SecurityRuleBuilder;
+import org.motechproject.security.chain.SecurityFilterChainIndex;
 import org.motechproject.security.constants.HTTPMethod;
 import org.motechproject.security.domain.MotechSecurityConfiguration;
 import org.motechproject.security.domain.MotechURLSecurityRule;
@@ -153,7 +154,8 @@ public class MotechProxyManager {
             }
         }
 
-        proxy = new FilterChainProxy(newFilterChains);
+        // the index spares the proxy from evaluating the pattern of every chain for each request
+        proxy = new FilterChainProxy(new SecurityFilterChainIndex(newFilterChains).getFilterChains());
         LOGGER.debug("Updated security chain.");
     }
 
@@ -0,0 +1,222 @@
+package org.motechproject.security.service.authentication;
+
+import org.joda.time.DateTime;
+import org.motechproject.security.domain.MotechUserProfile;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the data needed for authenticating users, so that requests authenticated on every call, like basic
+ * authentication requests, do not read the user and their roles from the database and do not rerun the password hash
+ * each time. Three caches are kept:
+ * <ul>
+ *     <li>the permissions of roles,</li>
+ *     <li>the details of users, kept only for a short time since they also hold the user status,</li>
+ *     <li>successfully verified credentials, kept as a salted digest of the password, never the password itself.</li>
+ * </ul>
+ * Entries are evicted when users, roles or permissions change. Since changes are made in transactions, the evicted
+ * entries are evicted again after the transaction completes, so that values read by concurrent authentications
+ * before the commit do not stay in the cache. All entries also expire, which bounds the time changes made by other
+ * MOTECH instances take to be visible.
+ */
+@Component
+public class AuthenticationCache {
+
+    private static final long USER_TTL = TimeUnit.SECONDS.toMillis(30);
+    private static final long CREDENTIALS_TTL = TimeUnit.MINUTES.toMillis(5);
+    private static final long ROLE_TTL = TimeUnit.MINUTES.toMillis(5);
+    private static final int SALT_LENGTH = 16;
+
+    private final Map<String, CachedUser> users = new ConcurrentHashMap<>();
+    private final Map<String, VerifiedCredentials> credentials = new ConcurrentHashMap<>();
+    private final Map<String, CachedRole> roles = new ConcurrentHashMap<>();
+    private final byte[] salt;
+
+    public AuthenticationCache() {
+        salt = new byte[SALT_LENGTH];
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * Returns the cached permissions of the given role.
+     *
+     * @param roleName  the name of the role
+     * @return the permissions of the role, or null if they are not cached
+     */
+    public List<String> getPermissions(String roleName) {
+        CachedRole role = roles.get(roleName);
+        if (role == null || role.isExpired()) {
+            return null;
+        }
+        return role.permissions;
+    }
+
+    /**
+     * Caches the permissions of the given role.
+     *
+     * @param roleName  the name of the role
+     * @param permissions  the permissions of the role
+     */
+    public void putPermissions(String roleName, List<String> permissions) {
+        roles.put(roleName, new CachedRole(permissions, ROLE_TTL));
+    }
+
+    /**
+     * Evicts the cached data of the user with the given name, including their verified credentials.
+     *
+     * @param userName  the name of the user
+     */
+    public void evictUser(String userName) {
+        if (userName == null) {
+            return;
+        }
+
+        final String key = userName.toLowerCase();
+        runNowAndAfterCompletion(new Runnable() {
+            @Override
+            public void run() {
+                users.remove(key);
+                credentials.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Evicts the permissions of all roles. Cached users are evicted as well, since their authorities are built
+     * from the permissions of their roles.
+     */
+    public void evictRoles() {
+        runNowAndAfterCompletion(new Runnable() {
+            @Override
+            public void run() {
+                roles.clear();
+                users.clear();
+            }
+        });
+    }
+
+    CachedUser getUser(String userName) {
+        CachedUser user = users.get(userName.toLowerCase());
+        return (user == null || user.isExpired()) ? null : user;
+    }
+
+    CachedUser putUser(String userName, UserDetails userDetails, MotechUserProfile profile, DateTime lastPasswordChange) {
+        CachedUser user = new CachedUser(userDetails, profile, lastPasswordChange, USER_TTL);
+        users.put(userName.toLowerCase(), user);
+        return user;
+    }
+
+    boolean isVerified(String userName, String encodedPassword, String password) {
+        VerifiedCredentials verified = credentials.get(userName.toLowerCase());
+        return verified != null && !verified.isExpired() && verified.encodedPassword.equals(encodedPassword) &&
+                MessageDigest.isEqual(verified.digest, digest(password));
+    }
+
+    void putVerified(String userName, String encodedPassword, String password) {
+        credentials.put(userName.toLowerCase(), new VerifiedCredentials(encodedPassword, digest(password), CREDENTIALS_TTL));
+    }
+
+    private byte[] digest(String password) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(salt);
+            return messageDigest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void runNowAndAfterCompletion(final Runnable eviction) {
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Details of a user stored in the cache.
+     */
+    static final class CachedUser extends Expiring {
+
+        private final UserDetails userDetails;
+        private final MotechUserProfile profile;
+        private final DateTime lastPasswordChange;
+
+        private CachedUser(UserDetails userDetails, MotechUserProfile profile, DateTime lastPasswordChange, long ttl) {
+            super(ttl);
+            this.userDetails = userDetails;
+            this.profile = profile;
+            this.lastPasswordChange = lastPasswordChange;
+        }
+
+        // a copy is returned, since the credentials of the returned details are erased after the authentication
+        UserDetails getUserDetails() {
+            return new User(userDetails.getUsername(), userDetails.getPassword(), userDetails.isEnabled(),
+                    userDetails.isAccountNonExpired(), userDetails.isCredentialsNonExpired(),
+                    userDetails.isAccountNonLocked(), userDetails.getAuthorities());
+        }
+
+        MotechUserProfile getProfile() {
+            return profile;
+        }
+
+        DateTime getLastPasswordChange() {
+            return lastPasswordChange;
+        }
+    }
+
+    private static final class VerifiedCredentials extends Expiring {
+
+        private final String encodedPassword;
+        private final byte[] digest;
+
+        private VerifiedCredentials(String encodedPassword, byte[] digest, long ttl) {
+            super(ttl);
+            this.encodedPassword = encodedPassword;
+            this.digest = digest;
+        }
+    }
+
+    private static final class CachedRole extends Expiring {
+
+        private final List<String> permissions;
+
+        private CachedRole(List<String> permissions, long ttl) {
+            super(ttl);
+            this.permissions = Collections.unmodifiableList(new ArrayList<>(permissions));
+        }
+    }
+
+    private abstract static class Expiring {
+
+        private final long expiresAt;
+
+        protected Expiring(long ttl) {
+            this.expiresAt = System.currentTimeMillis() + ttl;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
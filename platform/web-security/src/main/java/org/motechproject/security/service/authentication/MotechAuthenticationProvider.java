@@ -1,6 +1,7 @@
 package org.motechproject.security.service.authentication;
 
 import org.apache.commons.lang.StringUtils;
+import org.joda.time.DateTime;
 import org.joda.time.Days;
 import org.motechproject.commons.date.util.DateUtil;
 import org.motechproject.security.authentication.MotechPasswordEncoder;
@@ -22,7 +23,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Extends Spring's @AbstractUserDetailsAuthenticationProvider to provide implementation for the API retrieve user
- * and additional checks on password.
+ * and additional checks on password. Retrieved users and successfully verified credentials are kept in the
+ * {@link AuthenticationCache}, so that repeated authentications of the same user, like basic authentication
+ * requests, neither read the user from the database nor rerun the password hash each time.
  */
 @Component
 public class MotechAuthenticationProvider extends AbstractUserDetailsAuthenticationProvider {
@@ -35,14 +38,17 @@ public class MotechAuthenticationProvider extends AbstractUserDetailsAuthenticat
     private MotechPasswordEncoder passwordEncoder;
     private AuthoritiesService authoritiesService;
     private SettingService settingService;
+    private AuthenticationCache authenticationCache;
 
     @Autowired
     public MotechAuthenticationProvider(MotechUsersDao motechUsersDao, MotechPasswordEncoder motechPasswordEncoder,
-                                        AuthoritiesService authoritiesService, SettingService settingService) {
+                                        AuthoritiesService authoritiesService, SettingService settingService,
+                                        AuthenticationCache authenticationCache) {
         this.motechUsersDao = motechUsersDao;
         this.passwordEncoder = motechPasswordEncoder;
         this.authoritiesService = authoritiesService;
         this.settingService = settingService;
+        this.authenticationCache = authenticationCache;
     }
 
     /**
@@ -57,9 +63,13 @@ public class MotechAuthenticationProvider extends AbstractUserDetailsAuthenticat
         if (StringUtils.isEmpty(password)) {
             throw new BadCredentialsException(PLEASE_ENTER_PASSWORD);
         }
+        if (authenticationCache.isVerified(authentication.getName(), userDetails.getPassword(), password)) {
+            return;
+        }
         if (!passwordEncoder.isPasswordValid(userDetails.getPassword(), password)) {
             throw new BadCredentialsException(USER_NOT_FOUND);
         }
+        authenticationCache.putVerified(authentication.getName(), userDetails.getPassword(), password);
     }
 
     /**
@@ -73,21 +83,40 @@ public class MotechAuthenticationProvider extends AbstractUserDetailsAuthenticat
     @Override
     @Transactional
     protected UserDetails retrieveUser(String username, UsernamePasswordAuthenticationToken authentication) {
+        AuthenticationCache.CachedUser cachedUser = authenticationCache.getUser(username);
+        if (cachedUser == null || passwordExpiredSinceCached(cachedUser)) {
+            cachedUser = loadUser(username);
+        }
+
+        authentication.setDetails(cachedUser.getProfile());
+        return cachedUser.getUserDetails();
+    }
+
+    private AuthenticationCache.CachedUser loadUser(String username) {
         MotechUser user = motechUsersDao.findByUserName(username);
         if (user == null) {
             throw new BadCredentialsException(USER_NOT_FOUND);
         } else if (!user.isActive()) {
             throw new LockedException(USER_BLOCKED);
         } else {
-            if (settingService.getNumberOfDaysToChangePassword() > 0 &&
-                    Days.daysBetween(user.getSafeLastPasswordChange(), DateUtil.now()).getDays() >= settingService.getNumberOfDaysToChangePassword()) {
+            if (isPasswordExpired(user.getSafeLastPasswordChange())) {
                 user.setUserStatus(UserStatus.MUST_CHANGE_PASSWORD);
                 motechUsersDao.update(user);
             }
-            authentication.setDetails(new MotechUserProfile(user));
-            return new User(user.getUserName(), user.getPassword(), user.isActive(), true, !UserStatus.MUST_CHANGE_PASSWORD.equals(user.getUserStatus()),
+            UserDetails userDetails = new User(user.getUserName(), user.getPassword(), user.isActive(), true, !UserStatus.MUST_CHANGE_PASSWORD.equals(user.getUserStatus()),
                     !UserStatus.BLOCKED.equals(user.getUserStatus()), authoritiesService.authoritiesFor(user));
+            return authenticationCache.putUser(username, userDetails, new MotechUserProfile(user), user.getSafeLastPasswordChange());
         }
     }
 
+    // a cached user whose password expired in the meantime has to be loaded again, so that their status gets updated
+    private boolean passwordExpiredSinceCached(AuthenticationCache.CachedUser cachedUser) {
+        return cachedUser.getUserDetails().isCredentialsNonExpired() && isPasswordExpired(cachedUser.getLastPasswordChange());
+    }
+
+    private boolean isPasswordExpired(DateTime lastPasswordChange) {
+        return settingService.getNumberOfDaysToChangePassword() > 0 &&
+                Days.daysBetween(lastPasswordChange, DateUtil.now()).getDays() >= settingService.getNumberOfDaysToChangePassword();
+    }
+
 }
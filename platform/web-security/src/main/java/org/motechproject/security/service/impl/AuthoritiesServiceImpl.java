@@ -4,6 +4,7 @@ import org.motechproject.security.domain.MotechUser;
 import org.motechproject.security.model.RoleDto;
 import org.motechproject.security.service.AuthoritiesService;
 import org.motechproject.security.service.MotechRoleService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -11,36 +12,54 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 /**
  * Implementation for {@link AuthoritiesService}. Given a MotechUser, retrieves the roles granted to that user
- * and for each role collects permissions associated with the role.
+ * and for each role collects permissions associated with the role. The permissions of roles are kept in the
+ * {@link AuthenticationCache}.
  */
 @Service
 public class AuthoritiesServiceImpl implements AuthoritiesService {
 
     private MotechRoleService motechRoleService;
+    private AuthenticationCache authenticationCache;
 
     @Override
     @Transactional
     public List<GrantedAuthority> authoritiesFor(MotechUser user) {
         List<GrantedAuthority> authorities = new ArrayList<>();
         for (String role : user.getRoles()) {
-            RoleDto motechRole = motechRoleService.getRole(role);
-            if (motechRole != null) {
-                for (String permission : motechRole.getPermissionNames()) {
-                    authorities.add(new SimpleGrantedAuthority(permission));
-                }
+            for (String permission : permissionsOf(role)) {
+                authorities.add(new SimpleGrantedAuthority(permission));
             }
         }
         return authorities;
     }
 
+    private List<String> permissionsOf(String role) {
+        List<String> permissions = authenticationCache.getPermissions(role);
+        if (permissions == null) {
+            RoleDto motechRole = motechRoleService.getRole(role);
+            if (motechRole == null) {
+                return Collections.emptyList();
+            }
+            permissions = motechRole.getPermissionNames();
+            authenticationCache.putPermissions(role, permissions);
+        }
+        return permissions;
+    }
+
     @Autowired
     public void setMotechRoleService(MotechRoleService motechRoleService) {
         this.motechRoleService = motechRoleService;
     }
 
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
+
 }
@@ -7,6 +7,7 @@ import org.motechproject.security.mds.MotechPermissionsDataService;
 import org.motechproject.security.service.MotechPermissionService;
 import org.motechproject.security.service.MotechRoleService;
 import org.motechproject.security.service.UserContextService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +31,7 @@ public class MotechPermissionServiceImpl implements MotechPermissionService {
     private MotechPermissionsDataService permissionsDataService;
     private UserContextService userContextsService;
     private MotechRoleService motechRoleService;
+    private AuthenticationCache authenticationCache;
 
     @Override
     @Transactional
@@ -61,6 +63,7 @@ public class MotechPermissionServiceImpl implements MotechPermissionService {
         add(new MotechPermission(permission.getPermissionName(), permission.getBundleName()));
 
         // the admin role was potentially updated
+        authenticationCache.evictRoles();
         userContextsService.refreshAllUsersContextIfActive();
 
         LOGGER.info("Added permission: {} from bundle: {}", permission.getPermissionName(), permission.getBundleName());
@@ -74,6 +77,7 @@ public class MotechPermissionServiceImpl implements MotechPermissionService {
         if (permission != null) {
             permissionsDataService.delete(permission);
             removePermissionFromRoles(permissionName);
+            authenticationCache.evictRoles();
             userContextsService.refreshAllUsersContextIfActive();
         }
         LOGGER.info("Deleted permission: {}", permissionName);
@@ -121,4 +125,9 @@ public class MotechPermissionServiceImpl implements MotechPermissionService {
     public void setMotechRoleService(MotechRoleService motechRoleService) {
         this.motechRoleService = motechRoleService;
     }
+
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
 }
@@ -9,6 +9,7 @@ import org.motechproject.security.repository.MotechUsersDao;
 import org.motechproject.security.mds.MotechRolesDataService;
 import org.motechproject.security.service.MotechRoleService;
 import org.motechproject.security.service.UserContextService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +32,7 @@ public class MotechRoleServiceImpl implements MotechRoleService {
     private MotechRolesDataService motechRolesDataService;
     private MotechUsersDao motechUsersDao;
     private UserContextService userContextsService;
+    private AuthenticationCache authenticationCache;
 
     @Override
     @Transactional
@@ -69,6 +71,7 @@ public class MotechRoleServiceImpl implements MotechRoleService {
         }
 
         motechRolesDataService.update(motechRole);
+        authenticationCache.evictRoles();
         userContextsService.refreshAllUsersContextIfActive();
 
         LOGGER.info("Updated role: {}", role.getRoleName());
@@ -85,6 +88,7 @@ public class MotechRoleServiceImpl implements MotechRoleService {
                 throw new RoleHasUserException("Role cannot be deleted because a user has the role.");
             }
             motechRolesDataService.delete(motechRole);
+            authenticationCache.evictRoles();
             userContextsService.refreshAllUsersContextIfActive();
             LOGGER.info("Deleted role: {}", role);
         } else {
@@ -100,6 +104,7 @@ public class MotechRoleServiceImpl implements MotechRoleService {
             LOGGER.info("Creating role: {}", role.getRoleName());
             MotechRole motechRole = new MotechRole(role.getRoleName(), role.getPermissionNames(), role.isDeletable());
             motechRolesDataService.create(motechRole);
+            authenticationCache.evictRoles();
             userContextsService.refreshAllUsersContextIfActive();
             LOGGER.info("Created role: {}", role.getRoleName());
         } else {
@@ -125,4 +130,9 @@ public class MotechRoleServiceImpl implements MotechRoleService {
     public void setUserContextsService(UserContextService userContextsService) {
         this.userContextsService = userContextsService;
     }
+
+    @Autowired
+    public void setAuthenticationCache(AuthenticationCache authenticationCache) {
+        this.authenticationCache = authenticationCache;
+    }
 }
@@ -0,0 +1,57 @@
+package org.motechproject.security.chain;
+
+import org.junit.Test;
+import org.motechproject.commons.api.NanoStopWatch;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.SecurityFilterChain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the time it takes to find the security filter chain matching a request, for 500 and more security rules,
+ * by asking every chain in order, as the filter chain proxy does, and by using the {@link SecurityFilterChainIndex}.
+ */
+public class SecurityFilterChainIndexAssessment {
+
+    private static final int REQUESTS = 20000;
+
+    @Test
+    public void shouldFindChainsOfManyRules() {
+        assess(500);
+        assess(1000);
+        assess(2000);
+    }
+
+    private void assess(int rules) {
+        Random random = new Random(rules);
+        List<SecurityFilterChain> chains = SecurityFilterChainIndexTest.randomChains(random, rules);
+        List<MockHttpServletRequest> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(SecurityFilterChainIndexTest.randomRequest(random));
+        }
+
+        NanoStopWatch linear = new NanoStopWatch().start();
+        for (MockHttpServletRequest request : requests) {
+            for (SecurityFilterChain chain : chains) {
+                if (chain.matches(request)) {
+                    break;
+                }
+            }
+        }
+        long linearTime = linear.duration() / REQUESTS;
+
+        NanoStopWatch indexed = new NanoStopWatch().start();
+        SecurityFilterChainIndex index = new SecurityFilterChainIndex(chains);
+        for (MockHttpServletRequest request : requests) {
+            index.findChain(request);
+        }
+        long indexedTime = indexed.duration() / REQUESTS;
+
+        System.out.println(format("%d rules, %d requests: linear %dns, indexed %dns per request", rules, REQUESTS,
+                linearTime, indexedTime));
+    }
+}
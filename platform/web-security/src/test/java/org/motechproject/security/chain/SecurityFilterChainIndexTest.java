@@ -0,0 +1,145 @@
+package org.motechproject.security.chain;
+
+import org.junit.Test;
+import org.motechproject.security.constants.HTTPMethod;
+import org.motechproject.security.domain.MotechURLSecurityRule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+
+import javax.servlet.Filter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SecurityFilterChainIndexTest {
+
+    private static final String[] SEGMENTS = {"module", "api", "web-api", "tasks", "scheduler", "Email", "*", "**",
+            "*.json", "{id}", "rest?"};
+    private static final String[] PATH_SEGMENTS = {"module", "api", "web-api", "tasks", "scheduler", "email", "EMAIL",
+            "data.json", "12", "rest1", "", " api"};
+    private static final HTTPMethod[] METHODS = {HTTPMethod.ANY, HTTPMethod.GET, HTTPMethod.POST, HTTPMethod.DELETE};
+    private static final String[] REQUEST_METHODS = {"GET", "POST", "PUT", "DELETE", "get", "PATCH", null};
+
+    @Test
+    public void shouldFindTheSameChainAsTheLinearWalk() {
+        Random random = new Random(42);
+        List<SecurityFilterChain> chains = randomChains(random, 300);
+        SecurityFilterChainIndex index = new SecurityFilterChainIndex(chains);
+
+        for (int i = 0; i < 5000; i++) {
+            MockHttpServletRequest request = randomRequest(random);
+
+            assertSame(request.getPathInfo(), firstMatching(chains, request), index.findChain(request));
+        }
+    }
+
+    @Test
+    public void shouldLetOnlyTheFirstMatchingChainMatch() {
+        Random random = new Random(7);
+        List<SecurityFilterChain> chains = randomChains(random, 100);
+        List<SecurityFilterChain> indexedChains = new SecurityFilterChainIndex(chains).getFilterChains();
+
+        assertEquals(chains.size(), indexedChains.size());
+
+        for (int i = 0; i < 1000; i++) {
+            MockHttpServletRequest request = randomRequest(random);
+            int expected = chains.indexOf(firstMatching(chains, request));
+
+            for (int position = 0; position < indexedChains.size(); position++) {
+                assertEquals(position == expected, indexedChains.get(position).matches(request));
+            }
+        }
+    }
+
+    @Test
+    public void shouldKeepTheOrderOfChains() {
+        SecurityFilterChain catchAll = chain("/**", HTTPMethod.ANY);
+        SecurityFilterChain api = chain("/api/**", HTTPMethod.GET);
+        SecurityFilterChainIndex index = new SecurityFilterChainIndex(asList(catchAll, api));
+
+        assertSame(catchAll, index.findChain(request("GET", "/api/users")));
+
+        index = new SecurityFilterChainIndex(asList(api, catchAll));
+
+        assertSame(api, index.findChain(request("GET", "/api/users")));
+        assertSame(catchAll, index.findChain(request("POST", "/api/users")));
+    }
+
+    @Test
+    public void shouldMatchAgainWhenThePathOfTheRequestChanges() {
+        SecurityFilterChain api = chain("/api/**", HTTPMethod.ANY);
+        SecurityFilterChainIndex index = new SecurityFilterChainIndex(asList(api));
+
+        MockHttpServletRequest request = request("GET", "/api/users");
+        assertTrue(index.getFilterChains().get(0).matches(request));
+
+        request.setPathInfo("/web-api/users");
+        assertFalse(index.getFilterChains().get(0).matches(request));
+        assertNull(index.findChain(request));
+    }
+
+    private SecurityFilterChain firstMatching(List<SecurityFilterChain> chains, MockHttpServletRequest request) {
+        for (SecurityFilterChain chain : chains) {
+            if (chain.matches(request)) {
+                return chain;
+            }
+        }
+        return null;
+    }
+
+    static List<SecurityFilterChain> randomChains(Random random, int count) {
+        List<SecurityFilterChain> chains = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (random.nextInt(100) == 0) {
+                chains.add(new MotechSecurityFilterChain(new MotechURLSecurityRule(), AnyRequestMatcher.INSTANCE,
+                        Collections.<Filter>emptyList()));
+                continue;
+            }
+
+            StringBuilder pattern = new StringBuilder();
+            int segments = 1 + random.nextInt(4);
+            for (int j = 0; j < segments; j++) {
+                pattern.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+            chains.add(chain(pattern.toString(), METHODS[random.nextInt(METHODS.length)]));
+        }
+        return chains;
+    }
+
+    static MockHttpServletRequest randomRequest(Random random) {
+        StringBuilder path = new StringBuilder();
+        int segments = random.nextInt(5);
+        for (int j = 0; j < segments; j++) {
+            path.append('/').append(PATH_SEGMENTS[random.nextInt(PATH_SEGMENTS.length)]);
+        }
+        return request(REQUEST_METHODS[random.nextInt(REQUEST_METHODS.length)], path.toString());
+    }
+
+    private static SecurityFilterChain chain(String pattern, HTTPMethod method) {
+        AntPathRequestMatcher matcher = (method == HTTPMethod.ANY) ? new AntPathRequestMatcher(pattern) :
+                new AntPathRequestMatcher(pattern, method.name());
+        return new MotechSecurityFilterChain(new MotechURLSecurityRule(), method, matcher,
+                Collections.<Filter>emptyList());
+    }
+
+    private static MockHttpServletRequest request(String method, String pathInfo) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/motech-platform-server" + pathInfo);
+        request.setPathInfo(pathInfo);
+        return request;
+    }
+
+    private static List<SecurityFilterChain> asList(SecurityFilterChain... chains) {
+        List<SecurityFilterChain> list = new ArrayList<>();
+        Collections.addAll(list, chains);
+        return list;
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.MockitoAnnotations;
 import org.motechproject.security.domain.MotechUser;
 import org.motechproject.security.exception.EmailExistsException;
 import org.motechproject.security.mds.MotechUsersDataService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 
 import java.util.Locale;
 
@@ -22,6 +23,9 @@ public class MotechUsersDaoTest {
     @Mock
     private MotechUsersDataService usersDataService;
 
+    @Mock
+    private AuthenticationCache authenticationCache;
+
     @InjectMocks
     private MotechUsersDao motechUsersDao = new MotechUsersDao();
 
@@ -41,6 +45,7 @@ public class MotechUsersDaoTest {
         verify(usersDataService).findByUserName("testuser");
         verify(usersDataService).findByEmail("test@test.com");
         verify(usersDataService).create(motechUser);
+        verify(authenticationCache).evictUser("testuser");
     }
 
     @Test
@@ -26,6 +26,7 @@ import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -44,6 +45,8 @@ public class MotechAuthenticationProviderTest {
     @Mock
     SettingService settingService;
 
+    private AuthenticationCache authenticationCache = new AuthenticationCache();
+
     private MotechAuthenticationProvider authenticationProvider;
 
     ArgumentCaptor<MotechUser> userCaptor = ArgumentCaptor.forClass(MotechUser.class);
@@ -51,7 +54,8 @@ public class MotechAuthenticationProviderTest {
     @Before
     public void setup() {
         initMocks(this);
-        authenticationProvider = new MotechAuthenticationProvider(motechUsersDao, passwordEncoder, authoritiesService, settingService);
+        authenticationProvider = new MotechAuthenticationProvider(motechUsersDao, passwordEncoder, authoritiesService,
+                settingService, authenticationCache);
     }
 
     @Test
@@ -138,4 +142,45 @@ public class MotechAuthenticationProviderTest {
         Assert.assertEquals((Integer) 0, capturedUser.getFailureLoginCounter());
         Assert.assertEquals(UserStatus.MUST_CHANGE_PASSWORD, capturedUser.getUserStatus());
     }
+
+    @Test
+    public void shouldRetrieveCachedUserUntilItChanges() {
+        MotechUser motechUser = new MotechUser("bob", "encodedPassword", "entity_1", "", asList("some_role"), "", Locale.ENGLISH);
+        when(motechUsersDao.findByUserName("bob")).thenReturn(motechUser);
+
+        authenticationProvider.retrieveUser("bob", new UsernamePasswordAuthenticationToken("bob", "password"));
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken("bob", "password");
+        UserDetails userDetails = authenticationProvider.retrieveUser("bob", authentication);
+
+        verify(motechUsersDao, times(1)).findByUserName("bob");
+        assertEquals("encodedPassword", userDetails.getPassword());
+        assertEquals("bob", ((MotechUserProfile) authentication.getDetails()).getUserName());
+
+        authenticationCache.evictUser("bob");
+        authenticationProvider.retrieveUser("bob", new UsernamePasswordAuthenticationToken("bob", "password"));
+
+        verify(motechUsersDao, times(2)).findByUserName("bob");
+    }
+
+    @Test
+    public void shouldNotVerifyCachedCredentialsAgain() {
+        when(passwordEncoder.isPasswordValid("encodedPassword", "password")).thenReturn(true);
+        UserDetails user = mock(UserDetails.class);
+        when(user.getPassword()).thenReturn("encodedPassword");
+
+        authenticationProvider.additionalAuthenticationChecks(user, new UsernamePasswordAuthenticationToken("bob", "password"));
+        authenticationProvider.additionalAuthenticationChecks(user, new UsernamePasswordAuthenticationToken("bob", "password"));
+
+        verify(passwordEncoder, times(1)).isPasswordValid("encodedPassword", "password");
+    }
+
+    @Test(expected = AuthenticationException.class)
+    public void shouldNotAuthenticateWrongPasswordAfterCachingCredentials() {
+        when(passwordEncoder.isPasswordValid("encodedPassword", "password")).thenReturn(true);
+        UserDetails user = mock(UserDetails.class);
+        when(user.getPassword()).thenReturn("encodedPassword");
+
+        authenticationProvider.additionalAuthenticationChecks(user, new UsernamePasswordAuthenticationToken("bob", "password"));
+        authenticationProvider.additionalAuthenticationChecks(user, new UsernamePasswordAuthenticationToken("bob", "wrongPassword"));
+    }
 }
@@ -6,10 +6,12 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.motechproject.security.domain.MotechUser;
 import org.motechproject.security.model.RoleDto;
 import org.motechproject.security.service.AuthoritiesService;
 import org.motechproject.security.service.MotechRoleService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.util.Arrays;
@@ -17,6 +19,8 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AuthoritiesServiceImplTest {
@@ -24,6 +28,9 @@ public class AuthoritiesServiceImplTest {
     @Mock
     private MotechRoleService motechRoleService;
 
+    @Spy
+    private AuthenticationCache authenticationCache = new AuthenticationCache();
+
     @InjectMocks
     private AuthoritiesService authoritiesService = new AuthoritiesServiceImpl();
 
@@ -51,4 +58,25 @@ public class AuthoritiesServiceImplTest {
 
     }
 
+    @Test
+    public void shouldCachePermissionsOfRolesUntilRolesChange() {
+        MotechUser user = mock(MotechUser.class);
+        RoleDto role = mock(RoleDto.class);
+        when(user.getRoles()).thenReturn(Arrays.asList("role1"));
+        when(motechRoleService.getRole("role1")).thenReturn(role);
+        when(role.getPermissionNames()).thenReturn(Arrays.asList("permission1"));
+
+        authoritiesService.authoritiesFor(user);
+        authoritiesService.authoritiesFor(user);
+        verify(motechRoleService, times(1)).getRole("role1");
+
+        when(role.getPermissionNames()).thenReturn(Arrays.asList("permission2"));
+        authenticationCache.evictRoles();
+
+        List<GrantedAuthority> authorities = authoritiesService.authoritiesFor(user);
+
+        verify(motechRoleService, times(2)).getRole("role1");
+        assertThat(authorities.get(0).getAuthority(), Is.is("permission2"));
+    }
+
 }
@@ -12,6 +12,7 @@ import org.motechproject.security.mds.MotechPermissionsDataService;
 import org.motechproject.security.service.MotechPermissionService;
 import org.motechproject.security.service.MotechRoleService;
 import org.motechproject.security.service.UserContextService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 
 import java.util.List;
 
@@ -38,6 +39,9 @@ public class MotechPermissionServiceTest {
     @Mock
     private UserContextService userContextsService;
 
+    @Mock
+    private AuthenticationCache authenticationCache;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -64,6 +68,7 @@ public class MotechPermissionServiceTest {
         permissionService.deletePermission("permName");
 
         verify(motechPermissionsDataService).delete(permission);
+        verify(authenticationCache).evictRoles();
     }
 
     @Test
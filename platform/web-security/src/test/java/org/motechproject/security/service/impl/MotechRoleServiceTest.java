@@ -11,6 +11,7 @@ import org.motechproject.security.repository.MotechUsersDao;
 import org.motechproject.security.mds.MotechRolesDataService;
 import org.motechproject.security.service.MotechRoleService;
 import org.motechproject.security.service.UserContextService;
+import org.motechproject.security.service.authentication.AuthenticationCache;
 
 import static java.util.Arrays.asList;
 import static org.mockito.Mockito.mock;
@@ -32,6 +33,9 @@ public class MotechRoleServiceTest {
     @Mock
     private UserContextService userContextsService;
 
+    @Mock
+    private AuthenticationCache authenticationCache;
+
     @Before
     public void before() {
         motechRoleService = new MotechRoleServiceImpl();
@@ -56,6 +60,7 @@ public class MotechRoleServiceTest {
 
         motechRoleService.updateRole(role);
 
+        verify(authenticationCache).evictRoles();
         verify(userContextsService).refreshAllUsersContextIfActive();
     }
 